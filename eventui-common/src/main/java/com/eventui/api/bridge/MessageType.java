@@ -6,6 +6,8 @@ package com.eventui.api.bridge;
  * - Define el protocolo de comunicación
  * - MOD → PLUGIN: solicitudes de datos, notificaciones de acciones UI
  * - PLUGIN → MOD: actualizaciones de progreso, datos de eventos
+ * - El ordinal viaja como byte (PluginNetworkHandler / NetworkHandler): los tipos nuevos van
+ *   SIEMPRE al final, nunca en medio, o un cliente y un servidor de versiones distintas se malinterpretan
  */
 public enum MessageType {
     // ========== MOD → PLUGIN ==========
@@ -85,5 +87,25 @@ public enum MessageType {
      * Error en el procesamiento de un mensaje
      * Payload: {"error_code": "...", "message": "..."}
      */
-    ERROR
+    ERROR,
+
+    // ========== Añadidos (ordinal estable: solo al final) ==========
+
+    /**
+     * PLUGIN → MOD: totales de las metas comunitarias (push periódico, solo si cambiaron)
+     * Payload: {"goals": "[{\"id\": \"...\", \"name\": \"...\", \"total\": 0, \"target\": 0, \"contribution\": 0}]"}
+     */
+    COMMUNITY_GOAL_UPDATE,
+
+    /**
+     * MOD → PLUGIN: solicitar la clasificación de un evento
+     * Payload: {"event_id": "...", "board": "FASTEST|CONTRIBUTIONS"}
+     */
+    REQUEST_LEADERBOARD,
+
+    /**
+     * PLUGIN → MOD: clasificación de un evento (mejores primero)
+     * Payload: {"event_id": "...", "board": "FASTEST", "entries": "[{\"rank\": 1, \"player_uuid\": \"...\", \"player_name\": \"...\", \"score\": 0}]"}
+     */
+    LEADERBOARD_RESPONSE
 }
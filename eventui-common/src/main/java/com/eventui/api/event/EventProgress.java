@@ -47,7 +47,7 @@ public interface EventProgress {
     long getStartedAt();
 
     /**
-     * @return Timestamp de cuando se completó (epoch millis), 0 si no completado
+     * @return Timestamp de cuando terminó, completado o fallido (epoch millis), 0 si no terminó
      */
     long getCompletedAt();
 
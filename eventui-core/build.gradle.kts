@@ -13,11 +13,70 @@ repositories {
     }
 }
 
+// Pruebas de concurrencia (jcstress) en src/jcstress/java: ./gradlew :eventui-core:jcstress
+val jcstress: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[jcstress.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+configurations[jcstress.runtimeOnlyConfigurationName].extendsFrom(configurations.runtimeOnly.get())
+
+// Microbenchmarks (JMH) en src/jmh/java: ./gradlew :eventui-core:jmh
+val jmh: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[jmh.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+configurations[jmh.runtimeOnlyConfigurationName].extendsFrom(configurations.runtimeOnly.get())
+
+val jcstressVersion = "0.16"
+val jmhVersion = "1.37"
+val paperApi = "io.papermc.paper:paper-api:1.21.1-R0.1-SNAPSHOT"
+
 dependencies {
     implementation(project(":eventui-common"))
-    compileOnly("io.papermc.paper:paper-api:1.21.1-R0.1-SNAPSHOT")
+    compileOnly(paperApi)
     implementation("org.yaml:snakeyaml:2.2")
     implementation("com.google.code.gson:gson:2.10.1")
+
+    "jcstressImplementation"("org.openjdk.jcstress:jcstress-core:$jcstressVersion")
+    "jcstressAnnotationProcessor"("org.openjdk.jcstress:jcstress-core:$jcstressVersion")
+
+    // RewardPlan / LootTable usan ItemStack: en pruebas y benchmarks la API va también en runtime
+    "jmhImplementation"(paperApi)
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:$jmhVersion")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:$jmhVersion")
+
+    testImplementation(paperApi)
+    testImplementation(platform("org.junit:junit-bom:5.10.2"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+}
+
+tasks.test {
+    useJUnitPlatform()
+}
+
+tasks.register<JavaExec>("jcstress") {
+    group = "verification"
+    description = "Runs the jcstress concurrency tests (needs at least 2 CPUs)"
+    classpath = jcstress.runtimeClasspath
+    mainClass.set("org.openjdk.jcstress.Main")
+    val reports = layout.buildDirectory.dir("reports/jcstress")
+    args("-m", "quick", "-r", reports.get().asFile.path)
+    doFirst { reports.get().asFile.mkdirs() }
+}
+
+tasks.register<JavaExec>("jmh") {
+    group = "verification"
+    description = "Runs the JMH microbenchmarks (results in build/reports/jmh)"
+    classpath = jmh.runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    val reports = layout.buildDirectory.dir("reports/jmh")
+    args("-rf", "json", "-rff", reports.get().file("results.json").asFile.path)
+    doFirst { reports.get().asFile.mkdirs() }
 }
 
 java {
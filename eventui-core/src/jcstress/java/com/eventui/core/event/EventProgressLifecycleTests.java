@@ -0,0 +1,287 @@
+package com.eventui.core.event;
+
+import com.eventui.api.event.EventState;
+import com.eventui.api.objective.ObjectiveType;
+import com.eventui.core.objective.ObjectiveDefinitionImpl;
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Arbiter;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.IIII_Result;
+import org.openjdk.jcstress.infra.results.III_Result;
+import org.openjdk.jcstress.infra.results.II_Result;
+import org.openjdk.jcstress.infra.results.I_Result;
+import org.openjdk.jcstress.infra.results.ZZ_Result;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.openjdk.jcstress.annotations.Expect.ACCEPTABLE;
+import static org.openjdk.jcstress.annotations.Expect.FORBIDDEN;
+
+/**
+ * Pruebas jcstress de las transiciones de EventProgressImpl (./gradlew :eventui-core:jcstress).*
+ * - Publicación: quien lee el estado nuevo lee también su timestamp (nunca IN_PROGRESS / COMPLETED / FAILED con 0)
+ * - Un solo ganador: complete() devuelve true para un único llamador (recompensas una vez)
+ * - Incrementos: ninguno se pierde y solo uno completa el objetivo (incrementObjective devuelve true una vez)
+ * - Rachas: un golpe concurrente no deja un objetivo completado con una cantidad menor que el objetivo
+ */
+public final class EventProgressLifecycleTests {
+
+    private static final EventDefinitionImpl DEFINITION = new EventDefinitionImpl(
+            "jcstress", "jcstress", "", List.of(), Map.of(), Map.of(), List.of());
+
+    private EventProgressLifecycleTests() {
+    }
+
+    private static final int TARGET = 10;
+
+    private static final EventDefinitionImpl COUNTED = new EventDefinitionImpl(
+            "jcstress_counted", "jcstress", "", List.of(new ObjectiveDefinitionImpl(
+                    "blocks", ObjectiveType.MINE_BLOCK, "", TARGET, Map.of(), Map.of(), false)),
+            Map.of(), Map.of(), List.of());
+
+    private static final EventDefinitionImpl STREAK = new EventDefinitionImpl(
+            "jcstress_streak", "jcstress", "", List.of(new ObjectiveDefinitionImpl(
+                    "kills", ObjectiveType.KILL_ENTITY, "", 2, Map.of("within_seconds", "60"), Map.of(), false)),
+            Map.of(), Map.of(), List.of());
+
+    private static EventProgressImpl newProgress() {
+        return new EventProgressImpl(UUID.randomUUID(), DEFINITION);
+    }
+
+    /**
+     * Progreso con un objetivo de TARGET ya en amount.
+     */
+    private static EventProgressImpl counted(int amount) {
+        EventProgressImpl progress = new EventProgressImpl(UUID.randomUUID(), COUNTED);
+        progress.start();
+        progress.restoreObjective(0, amount);
+        return progress;
+    }
+
+    /**
+     * r1 = 1 si el lector ve IN_PROGRESS, r2 = 1 si ve startedAt.
+     */
+    @JCStressTest
+    @Outcome(id = "0, 0", expect = ACCEPTABLE, desc = "Reader ran before start()")
+    @Outcome(id = "0, 1", expect = ACCEPTABLE, desc = "Reader saw the timestamp of a later lifecycle")
+    @Outcome(id = "1, 1", expect = ACCEPTABLE, desc = "State and timestamp published together")
+    @Outcome(id = "1, 0", expect = FORBIDDEN, desc = "IN_PROGRESS visible with startedAt = 0")
+    @State
+    public static class StartPublication {
+        private final EventProgressImpl progress = newProgress();
+
+        @Actor
+        public void starter() {
+            progress.start();
+        }
+
+        @Actor
+        public void reader(II_Result r) {
+            r.r1 = progress.getState() == EventState.IN_PROGRESS ? 1 : 0;
+            r.r2 = progress.getStartedAt() != 0 ? 1 : 0;
+        }
+    }
+
+    /**
+     * r1 = 1 si el lector ve COMPLETED, r2 = 1 si ve completedAt.
+     */
+    @JCStressTest
+    @Outcome(id = "0, 0", expect = ACCEPTABLE, desc = "Reader ran before complete()")
+    @Outcome(id = "0, 1", expect = ACCEPTABLE, desc = "Reader saw the timestamp of a later lifecycle")
+    @Outcome(id = "1, 1", expect = ACCEPTABLE, desc = "State and timestamp published together")
+    @Outcome(id = "1, 0", expect = FORBIDDEN, desc = "COMPLETED visible with completedAt = 0")
+    @State
+    public static class CompletePublication {
+        private final EventProgressImpl progress = newProgress();
+
+        public CompletePublication() {
+            progress.start();
+        }
+
+        @Actor
+        public void completer() {
+            progress.complete();
+        }
+
+        @Actor
+        public void reader(II_Result r) {
+            r.r1 = progress.getState() == EventState.COMPLETED ? 1 : 0;
+            r.r2 = progress.getCompletedAt() != 0 ? 1 : 0;
+        }
+    }
+
+    /**
+     * r1 = 1 si el lector ve FAILED, r2 = 1 si ve completedAt (fin del registro).
+     */
+    @JCStressTest
+    @Outcome(id = "0, 0", expect = ACCEPTABLE, desc = "Reader ran before fail()")
+    @Outcome(id = "0, 1", expect = ACCEPTABLE, desc = "Reader saw the timestamp of a later lifecycle")
+    @Outcome(id = "1, 1", expect = ACCEPTABLE, desc = "State and timestamp published together")
+    @Outcome(id = "1, 0", expect = FORBIDDEN, desc = "FAILED visible with completedAt = 0")
+    @State
+    public static class FailPublication {
+        private final EventProgressImpl progress = newProgress();
+
+        public FailPublication() {
+            progress.start();
+        }
+
+        @Actor
+        public void failer() {
+            progress.fail();
+        }
+
+        @Actor
+        public void reader(II_Result r) {
+            r.r1 = progress.getState() == EventState.FAILED ? 1 : 0;
+            r.r2 = progress.getCompletedAt() != 0 ? 1 : 0;
+        }
+    }
+
+    /**
+     * Dos hilos suman 1 lejos del objetivo: r1 = cantidad final (exacta: ningún incremento perdido).
+     */
+    @JCStressTest
+    @Outcome(id = "2", expect = ACCEPTABLE, desc = "Both increments applied")
+    @Outcome(expect = FORBIDDEN, desc = "Lost increment")
+    @State
+    public static class NoLostIncrements {
+        private final EventProgressImpl progress = counted(0);
+
+        @Actor
+        public void first() {
+            progress.incrementObjective(0, 1);
+        }
+
+        @Actor
+        public void second() {
+            progress.incrementObjective(0, 1);
+        }
+
+        @Arbiter
+        public void amount(I_Result r) {
+            r.r1 = progress.getCurrentAmount(0);
+        }
+    }
+
+    /**
+     * Tres hilos suman 1 desde TARGET - 3: r1..r3 = 1 si ese incremento completó, r4 = cantidad final.
+     */
+    @JCStressTest
+    @Outcome(id = {"1, 0, 0, 10", "0, 1, 0, 10", "0, 0, 1, 10"}, expect = ACCEPTABLE,
+            desc = "Exact total, exactly one completer")
+    @Outcome(expect = FORBIDDEN, desc = "Lost increment, double completion or none")
+    @State
+    public static class SingleObjectiveCompletion {
+        private final EventProgressImpl progress = counted(TARGET - 3);
+
+        @Actor
+        public void first(IIII_Result r) {
+            r.r1 = progress.incrementObjective(0, 1) ? 1 : 0;
+        }
+
+        @Actor
+        public void second(IIII_Result r) {
+            r.r2 = progress.incrementObjective(0, 1) ? 1 : 0;
+        }
+
+        @Actor
+        public void third(IIII_Result r) {
+            r.r3 = progress.incrementObjective(0, 1) ? 1 : 0;
+        }
+
+        @Arbiter
+        public void amount(IIII_Result r) {
+            r.r4 = progress.getCurrentAmount(0);
+        }
+    }
+
+    /**
+     * Dos hilos suman 3 desde TARGET - 4: ambos cruzan el objetivo, la cantidad queda en TARGET y solo uno completa.
+     */
+    @JCStressTest
+    @Outcome(id = {"1, 0, 10", "0, 1, 10"}, expect = ACCEPTABLE, desc = "Clamped total, exactly one completer")
+    @Outcome(expect = FORBIDDEN, desc = "Overshoot, lost increment, double completion or none")
+    @State
+    public static class ClampedCompletion {
+        private final EventProgressImpl progress = counted(TARGET - 4);
+
+        @Actor
+        public void first(III_Result r) {
+            r.r1 = progress.incrementObjective(0, 3) ? 1 : 0;
+        }
+
+        @Actor
+        public void second(III_Result r) {
+            r.r2 = progress.incrementObjective(0, 3) ? 1 : 0;
+        }
+
+        @Arbiter
+        public void amount(III_Result r) {
+            r.r3 = progress.getCurrentAmount(0);
+        }
+    }
+
+    /**
+     * Racha de 2 golpes: dos hilos golpean a la vez. r1, r2 = 1 si ese golpe completó,
+     * r3 = cantidad final, r4 = 1 si el objetivo quedó completado.
+     */
+    @JCStressTest
+    @Outcome(id = {"1, 0, 2, 1", "0, 1, 2, 1"}, expect = ACCEPTABLE, desc = "One completer, full count published")
+    @Outcome(expect = FORBIDDEN, desc = "Stale count over a completed objective, double completion or none")
+    @State
+    public static class StreakCompletion {
+        private final EventProgressImpl progress = newStreak();
+
+        private static EventProgressImpl newStreak() {
+            EventProgressImpl progress = new EventProgressImpl(UUID.randomUUID(), STREAK);
+            progress.start();
+            return progress;
+        }
+
+        @Actor
+        public void first(IIII_Result r) {
+            r.r1 = progress.incrementObjective(0, 1) ? 1 : 0;
+        }
+
+        @Actor
+        public void second(IIII_Result r) {
+            r.r2 = progress.incrementObjective(0, 1) ? 1 : 0;
+        }
+
+        @Arbiter
+        public void amount(IIII_Result r) {
+            r.r3 = progress.getCurrentAmount(0);
+            r.r4 = progress.isObjectiveCompleted(0) ? 1 : 0;
+        }
+    }
+
+    /**
+     * Dos hilos completan a la vez: exactamente uno gana.
+     */
+    @JCStressTest
+    @Outcome(id = {"true, false", "false, true"}, expect = ACCEPTABLE, desc = "Exactly one winner")
+    @Outcome(id = {"true, true", "false, false"}, expect = FORBIDDEN, desc = "Rewards given twice or never")
+    @State
+    public static class SingleCompletion {
+        private final EventProgressImpl progress = newProgress();
+
+        public SingleCompletion() {
+            progress.start();
+        }
+
+        @Actor
+        public void first(ZZ_Result r) {
+            r.r1 = progress.complete();
+        }
+
+        @Actor
+        public void second(ZZ_Result r) {
+            r.r2 = progress.complete();
+        }
+    }
+}
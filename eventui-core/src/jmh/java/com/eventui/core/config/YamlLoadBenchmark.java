@@ -0,0 +1,102 @@
+package com.eventui.core.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Carga de un directorio de eventos: secuencial (workers = 1) frente a paralela (./gradlew :eventui-core:jmh).*
+ * - Sin YamlDocumentCache: mide SnakeYAML + parseEvent, que es lo que se reparte entre hilos
+ * - workers se limita además a los núcleos disponibles: con 1 CPU los dos modos son el mismo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class YamlLoadBenchmark {
+
+    @Param({"1", "8"})
+    public int workers;
+
+    @Param({"200"})
+    public int files;
+
+    private Path dataFolder;
+    private List<Path> eventFiles;
+    private EventConfigLoader loader;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataFolder = Files.createTempDirectory("eventui-jmh");
+        loader = new EventConfigLoader(dataFolder.toFile());
+
+        Path events = dataFolder.resolve("events");
+        for (int i = 0; i < files; i++) {
+            Files.writeString(events.resolve("event_" + i + ".yml"), eventYaml(i));
+        }
+        eventFiles = YamlBatchLoader.findYamlFiles(events, Integer.MAX_VALUE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(dataFolder)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<YamlBatchLoader.FileResult<Object>> load() {
+        List<YamlBatchLoader.FileResult<Object>> results = YamlBatchLoader.loadAll(eventFiles, null,
+                data -> loader.parseEvent(data, null, null), workers);
+        if (!results.get(0).isSuccess()) {
+            throw new IllegalStateException(results.get(0).error());
+        }
+        return results;
+    }
+
+    private static String eventYaml(int n) {
+        StringBuilder yaml = new StringBuilder()
+                .append("id: bench-").append(n).append('\n')
+                .append("displayName: \"Benchmark ").append(n).append("\"\n")
+                .append("description: \"Evento generado para el benchmark de carga\"\n")
+                .append("category: \"benchmark\"\n")
+                .append("repeatable: ").append(n % 2 == 0).append('\n')
+                .append("objectives:\n");
+        for (int o = 0; o < 5; o++) {
+            yaml.append("  - id: objective_").append(o).append('\n')
+                    .append("    type: MINE_BLOCK\n")
+                    .append("    description: \"Mina ").append(10 + o).append(" bloques\"\n")
+                    .append("    target:\n")
+                    .append("      block: \"minecraft:stone\"\n")
+                    .append("      count: ").append(10 + o).append('\n');
+        }
+        yaml.append("rewards:\n")
+                .append("  xp: 100\n")
+                .append("  items:\n")
+                .append("    - \"minecraft:iron_pickaxe 1\"\n")
+                .append("    - \"minecraft:cooked_beef 5\"\n");
+        return yaml.toString();
+    }
+}
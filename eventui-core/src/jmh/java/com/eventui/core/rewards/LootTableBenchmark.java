@@ -0,0 +1,62 @@
+package com.eventui.core.rewards;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Una tirada de LootTable con 4 y con 1000 entradas (./gradlew :eventui-core:jmh).*
+ * La tabla alias hace cada tirada O(1): el tiempo por tirada debe ser prácticamente el mismo
+ * con las dos tallas (una búsqueda lineal o binaria sobre sumas acumuladas crecería con n).
+ * Los pesos son desiguales (1..n) para que alias[] se use de verdad.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LootTableBenchmark {
+
+    @Param({"4", "1000"})
+    public int entries;
+
+    private LootTable table;
+    private SplittableRandom random;
+
+    @Setup
+    public void setUp() {
+        JsonArray list = new JsonArray();
+        for (int i = 1; i <= entries; i++) {
+            JsonObject entry = new JsonObject();
+            entry.addProperty("weight", i);
+            entry.addProperty("xp", i);
+            list.add(entry);
+        }
+
+        JsonObject loot = new JsonObject();
+        loot.add("entries", list);
+        table = LootTable.compile(loot, problem -> {
+            throw new IllegalStateException(problem);
+        });
+        random = new SplittableRandom(42);
+    }
+
+    @Benchmark
+    public int sample() {
+        return table.sample(random);
+    }
+}
@@ -1,20 +1,40 @@
 package com.eventui.core;
 
+import com.eventui.api.bridge.MessageType;
 import com.eventui.api.event.EventDefinition;
 import com.eventui.api.objective.ObjectiveType;
 import com.eventui.api.ui.UIConfig;
+import com.eventui.core.bridge.PluginBridgeMessage;
 import com.eventui.core.bridge.PluginEventBridge;
 import com.eventui.core.commands.EventCommand;
+import com.eventui.core.community.CommunityGoalManager;
+import com.eventui.core.config.DefinitionWatcher;
 import com.eventui.core.commands.EventCommandTabCompleter;
 import com.eventui.core.config.EventConfigLoader;
 import com.eventui.core.config.UIConfigLoader;
+import com.eventui.core.leaderboard.LeaderboardManager;
 import com.eventui.core.rewards.RewardManager;
+import com.eventui.core.session.PlayerSessionListener;
+import com.eventui.core.session.SessionRegistry;
 import com.eventui.core.storage.EventStorage;
+import com.eventui.core.storage.ProgressLog;
+import com.eventui.core.storage.ProgressMigration;
+import com.eventui.core.storage.RetentionSweeper;
+import com.eventui.core.sync.FileSyncBus;
+import com.eventui.core.sync.LoopbackSyncBus;
+import com.eventui.core.sync.ProgressSync;
+import com.eventui.core.sync.ProgressSyncBus;
+import com.eventui.core.timing.EventTimers;
 import com.eventui.core.tracking.ObjectiveTracker;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
 
+import java.io.IOException;
+import java.util.Collection;
 import java.util.Map;
-import java.util.Set;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Logger;
 
 public class EventUIPlugin extends JavaPlugin {
@@ -22,6 +42,14 @@ public class EventUIPlugin extends JavaPlugin {
     private static EventUIPlugin instance;
     private static final Logger LOGGER = Logger.getLogger(EventUIPlugin.class.getName());
 
+    private static final String PROGRESS_FILE = "progress.bin";
+    private static final String LEADERBOARDS_FILE = "leaderboards.bin";
+    private static final String MAILBOX_FILE = "mailbox.bin";
+    private static final String TOMBSTONES_FILE = "tombstones.bin";
+    private static final String SYNC_CURSORS_FILE = "sync-cursors.bin";
+    private static final long AUTOSAVE_INTERVAL_TICKS = 20L * 60 * 5; // 5 minutos
+    private static final int MIGRATION_PLAYERS_PER_TICK = 200;
+
     private EventConfigLoader configLoader;
     private EventStorage storage;
     private PluginEventBridge eventBridge;
@@ -29,6 +57,14 @@ public class EventUIPlugin extends JavaPlugin {
     private Map<String, UIConfig> uiConfigs;
     private RewardManager rewardManager;
     private ObjectiveTracker objectiveTracker;
+    private SessionRegistry sessionRegistry;
+    private PlayerSessionListener sessionListener;
+    private EventTimers eventTimers;
+    private CommunityGoalManager communityGoals;
+    private LeaderboardManager leaderboards;
+    private ProgressSync progressSync;
+    private DefinitionWatcher definitionWatcher;
+    private volatile boolean definitionsTrusted; // Última carga de eventos sin errores y con eventos
 
     @Override
     public void onEnable() {
@@ -38,6 +74,8 @@ public class EventUIPlugin extends JavaPlugin {
         LOGGER.info("  EventUI Plugin initialization...");
         LOGGER.info("========================================");
 
+        saveDefaultConfig();
+
         // Paso 1: Inicializar loader de configuración
         this.configLoader = new EventConfigLoader(getDataFolder());
         LOGGER.info("Initialized configuration loader");
@@ -47,29 +85,54 @@ public class EventUIPlugin extends JavaPlugin {
         this.uiConfigs = uiConfigLoader.loadAllUIConfigs();
         LOGGER.info("✓ Loaded " + uiConfigs.size() + " UI config(s)");
 
-        // Paso 2: Inicializar storage
+        // Paso 2: Inicializar sesiones (slots densos) y storage
+        this.sessionRegistry = new SessionRegistry();
         this.storage = new EventStorage(this);
-        LOGGER.info("Initialized event storage (in-memory)");
+        LOGGER.info("Initialized event storage");
 
         this.rewardManager = new RewardManager(this);
+        rewardManager.loadMailbox(getDataFolder().toPath().resolve(MAILBOX_FILE));
         LOGGER.info("RewardManager initialized");
 
-        // Paso 3: Cargar eventos desde JSON
+        // Paso 3: Cargar eventos desde JSON (las lápidas antes: registrar un evento quita la suya)
+        storage.getTombstones().load(getDataFolder().toPath().resolve(TOMBSTONES_FILE));
         loadEvents();
 
+        // Paso 3.5: Mapear el snapshot de progreso (los jugadores se decodifican al entrar)
+        storage.openSnapshot(getProgressFile());
+        openProgressLog();
+
+        this.leaderboards = new LeaderboardManager(getConfig().getInt("leaderboards.size", 10),
+                getConfig().getInt("leaderboards.max-contributors", 5000));
+        leaderboards.load(getDataFolder().toPath().resolve(LEADERBOARDS_FILE));
+
         // Paso 4: Inicializar EventBridge
         initializeBridge();
 
+        // Paso 4.5: Sincronización entre servidores (antes de abrir sesiones: los claims salen al entrar)
+        openProgressSync();
+
         // Paso 5: Registrar tracker de objetivos
         registerTrackers();
 
+        // Paso 5.5: Temporizadores de eventos con ventana / límite de tiempo (antes de abrir sesiones)
+        this.eventTimers = new EventTimers(this);
+        eventTimers.scheduleWindows();
+
+        // Paso 5.6: Metas comunitarias (antes de abrir sesiones: los aportes guardados van a los slots)
+        this.communityGoals = new CommunityGoalManager(this);
+        communityGoals.load();
+
         // ✅ NUEVO: Inicializar índices de optimización
-        objectiveTracker.buildObjectiveTypeIndex();
+        registerSessions();
         objectiveTracker.initializeActiveEventsIndex();
         LOGGER.info("✓ Initialized optimization indexes");
 
         // Paso 6: Registrar comandos
         registerCommands();
+
+        // Paso 6.5: Hot reload de events/ (solo los archivos que cambian)
+        startDefinitionWatcher();
 // ✅ Task OPTIMIZADO para COLLECT_ITEM (con índices)
         getServer().getScheduler().runTaskTimer(this, () ->
                 getServer().getOnlinePlayers().forEach(player ->
@@ -78,15 +141,31 @@ public class EventUIPlugin extends JavaPlugin {
         // ✅ Task OPTIMIZADO para REACH_LOCATION (pre-filtrado + intervalo mayor)
         getServer().getScheduler().runTaskTimer(this, () -> {
             getServer().getOnlinePlayers().forEach(player -> {
-                Set<String> relevantEvents = objectiveTracker.getRelevantActiveEvents(
-                        player.getUniqueId(), ObjectiveType.REACH_LOCATION);
+                int slot = sessionRegistry.slotOf(player.getUniqueId());
 
-                if (!relevantEvents.isEmpty()) {
+                if (objectiveTracker.hasRelevantActiveEvents(slot, ObjectiveType.REACH_LOCATION)) {
                     objectiveTracker.checkReachLocationObjectives(player);
                 }
             });
         }, 40L, 40L);
 
+        // Rueda de temporizadores: O(1) por tick sin importar cuántos plazos haya pendientes
+        getServer().getScheduler().runTaskTimer(this, eventTimers::tick, 1L, 1L);
+
+        // Cola de recompensas: entrega con presupuesto por tick (comandos repartidos en ticks)
+        getServer().getScheduler().runTaskTimer(this, rewardManager::tick, 1L, 1L);
+
+        // Metas comunitarias: hitos cada segundo, totales al cliente cada N segundos (solo si cambiaron)
+        if (!communityGoals.isEmpty()) {
+            long broadcastTicks = 20L * Math.max(1, getConfig().getInt("community-goals.broadcast-interval-seconds", 5));
+            getServer().getScheduler().runTaskTimer(this, communityGoals::checkMilestones, 20L, 20L);
+            getServer().getScheduler().runTaskTimer(this, communityGoals::broadcastTotals, broadcastTicks, broadcastTicks);
+        }
+
+        // ✅ Autosave async: solo recodifica jugadores con cambios
+        getServer().getScheduler().runTaskTimerAsynchronously(this, this::saveProgress,
+                AUTOSAVE_INTERVAL_TICKS, AUTOSAVE_INTERVAL_TICKS);
+        startRetentionSweeper();
 
         LOGGER.info("EventUI enabled successfully!");
         LOGGER.info("Loaded " + storage.getAllEventDefinitions().size() + " events");
@@ -103,29 +182,53 @@ public class EventUIPlugin extends JavaPlugin {
             eventBridge.getNetworkHandler().unregister();
         }
 
+        // Guardado final síncrono (las tareas async ya no deben tocar el archivo)
+        getServer().getScheduler().cancelTasks(this);
+        if (definitionWatcher != null) {
+            definitionWatcher.close();
+        }
+        if (progressSync != null) {
+            getServer().getOnlinePlayers().forEach(player -> progressSync.onQuit(player.getUniqueId()));
+            progressSync.close(); // Publica los últimos cambios y los handoffs
+        }
+        if (rewardManager != null) {
+            rewardManager.shutdown(); // Lo no entregado queda en el buzón (lo guarda saveProgress)
+        }
+        if (storage != null) {
+            saveProgress();
+            storage.getProgressLog().ifPresent(ProgressLog::close);
+        }
+
         LOGGER.info("EventUI disabled");
         instance = null;
     }
 
-    private void loadEvents() {
+    /**
+     * @return Migración de progreso pendiente si algún evento cambió sus objetivos
+     */
+    private Optional<ProgressMigration> loadEvents() {
         try {
             Map<String, EventDefinition> events = configLoader.loadAllEvents();
+            definitionsTrusted = !events.isEmpty() && configLoader.getLastLoadFailures() == 0;
 
             if (events.isEmpty()) {
                 LOGGER.warning("No events loaded! Check your events/ directory");
-                return;
+                return Optional.empty();
             }
 
-            storage.registerEvents(events);
+            Optional<ProgressMigration> migration = storage.registerEvents(events);
 
             LOGGER.info("Successfully loaded events:");
             events.values().forEach(event ->
                     LOGGER.info("  - " + event.getId() + ": " + event.getDisplayName())
             );
+            return migration;
 
         } catch (Exception e) {
+            definitionsTrusted = false;
             LOGGER.severe("Failed to load events: " + e.getMessage());
             e.printStackTrace();
+            return Optional.empty();
         }
     }
 
@@ -144,6 +247,17 @@ public class EventUIPlugin extends JavaPlugin {
         LOGGER.info("Registered objective trackers");
     }
 
+    /**
+     * Registra el listener de sesiones y abre sesión para los jugadores ya conectados
+     * (reload del plugin con jugadores online).
+     */
+    private void registerSessions() {
+        this.sessionListener = new PlayerSessionListener(this);
+        getServer().getPluginManager().registerEvents(sessionListener, this);
+
+        getServer().getOnlinePlayers().forEach(player -> sessionListener.openSession(player.getUniqueId()));
+        LOGGER.info("Registered player sessions (" + sessionRegistry.size() + " online)");
+    }
 
     private void registerCommands() {
         var command = getCommand("eventui");
@@ -159,10 +273,239 @@ public class EventUIPlugin extends JavaPlugin {
 
 
 
-    public void reloadEvents() {
+    /**
+     * Guarda el snapshot de progreso. Seguro desde un hilo async.
+     */
+    public void saveProgress() {
+        // Cursores capturados antes del snapshot: lo aplicado hasta ellos queda dentro
+        Map<String, Long> syncCursors = progressSync != null ? progressSync.captureCursors() : null;
+        try {
+            long start = System.nanoTime();
+            int players = storage.saveSnapshot(getProgressFile());
+            if (players >= 0) {
+                LOGGER.info("Saved progress snapshot: " + players + " players in "
+                        + (System.nanoTime() - start) / 1_000_000 + " ms");
+            }
+        } catch (Exception e) {
+            syncCursors = null; // Sin snapshot, esos lotes deben volver a aplicarse
+            LOGGER.severe("Failed to save progress snapshot: " + e.getMessage());
+        }
+
+        if (syncCursors != null) {
+            try {
+                progressSync.saveCursors(getDataFolder().toPath().resolve(SYNC_CURSORS_FILE), syncCursors);
+            } catch (Exception e) {
+                LOGGER.severe("Failed to save sync cursors: " + e.getMessage());
+            }
+        }
+
+        try {
+            leaderboards.save(getDataFolder().toPath().resolve(LEADERBOARDS_FILE));
+        } catch (Exception e) {
+            LOGGER.severe("Failed to save leaderboards: " + e.getMessage());
+        }
+
+        try {
+            storage.getTombstones().save(getDataFolder().toPath().resolve(TOMBSTONES_FILE));
+        } catch (Exception e) {
+            LOGGER.severe("Failed to save event tombstones: " + e.getMessage());
+        }
+
+        try {
+            rewardManager.saveMailbox(getDataFolder().toPath().resolve(MAILBOX_FILE));
+        } catch (Exception e) {
+            LOGGER.severe("Failed to save reward mailbox: " + e.getMessage());
+        }
+
+        try {
+            communityGoals.save();
+        } catch (Exception e) {
+            LOGGER.severe("Failed to save community goals: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Activa el log de cambios si está habilitado en config.yml
+     * (reproduce los segmentos pendientes encima del snapshot).
+     */
+    private void openProgressLog() {
+        if (!getConfig().getBoolean("progress-log.enabled", false)) {
+            return;
+        }
+
+        try {
+            ProgressLog log = new ProgressLog(
+                    new java.io.File(getDataFolder(), "progress-log").toPath(),
+                    getConfig().getLong("progress-log.segment-size-kb", 4096) * 1024L,
+                    getConfig().getBoolean("progress-log.archive-compacted", true));
+            storage.attachLog(log);
+
+            getServer().getScheduler().runTaskTimerAsynchronously(this, log::flush, 20L, 20L);
+            LOGGER.info("Progress log enabled");
+        } catch (Exception e) {
+            LOGGER.severe("Failed to open progress log: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Activa la sincronización entre servidores si está habilitada en config.yml.
+     * transport: file (directorio compartido) o loopback (en memoria, un solo servidor / pruebas).
+     */
+    private void openProgressSync() {
+        if (!getConfig().getBoolean("sync.enabled", false)) {
+            return;
+        }
+
+        String serverId = getConfig().getString("sync.server-id", "");
+        if (serverId == null || serverId.isBlank()) {
+            serverId = java.util.UUID.randomUUID().toString().substring(0, 8);
+            LOGGER.warning("sync.server-id is not set, using random id " + serverId);
+        }
+        serverId = serverId.replaceAll("[^A-Za-z0-9_-]", "_");
+
+        long retentionMillis = Math.max(10, getConfig().getLong("sync.retention-seconds", 300)) * 1000L;
+        long flushTicks = Math.max(1, getConfig().getLong("sync.flush-interval-ticks", 10));
+        long handoffTimeoutMillis = Math.max(1, getConfig().getLong("sync.handoff-timeout-seconds", 10)) * 1000L;
+
+        try {
+            String transport = getConfig().getString("sync.transport", "file");
+            ProgressSyncBus bus = "loopback".equalsIgnoreCase(transport)
+                    ? new LoopbackSyncBus()
+                    : new FileSyncBus(getDataFolder().toPath().resolve(getConfig().getString("sync.directory", "../eventui-sync"))
+                            .normalize(), serverId, retentionMillis);
+
+            this.progressSync = new ProgressSync(this, serverId, bus, retentionMillis, handoffTimeoutMillis,
+                    getDataFolder().toPath().resolve(SYNC_CURSORS_FILE));
+            getServer().getScheduler().runTaskTimerAsynchronously(this, progressSync::flush, flushTicks, flushTicks);
+            getServer().getScheduler().runTaskTimer(this, progressSync::applyInbound, flushTicks, flushTicks);
+            LOGGER.info("Progress sync enabled (" + transport + ", server id " + serverId + ")");
+        } catch (Exception e) {
+            LOGGER.severe("Failed to open progress sync: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Programa el barrido de retención (async, una porción de jugadores por pasada).
+     */
+    private void startRetentionSweeper() {
+        if (!getConfig().getBoolean("retention.enabled", true)) {
+            return;
+        }
+
+        RetentionSweeper sweeper = new RetentionSweeper(storage,
+                getConfig().getInt("retention.history-days", 0),
+                getConfig().getBoolean("retention.purge-deleted-events", false),
+                getConfig().getInt("retention.deleted-events-grace-days", 7),
+                () -> definitionsTrusted,
+                getConfig().getBoolean("retention.purge-abandoned-available", true));
+        if (!sweeper.isEnabled()) {
+            return;
+        }
+
+        int playersPerRun = Math.max(1, getConfig().getInt("retention.players-per-run", 500));
+        long intervalTicks = Math.max(1, getConfig().getLong("retention.interval-seconds", 60)) * 20L;
+
+        getServer().getScheduler().runTaskTimerAsynchronously(this, () -> {
+            RetentionSweeper.Report report = sweeper.sweep(playersPerRun);
+            if (report.cycleCompleted()) {
+                long now = System.currentTimeMillis();
+                leaderboards.prune(eventId -> sweeper.isPurgeableDeleted(eventId, now));
+            }
+            if (report.recordsPurged() > 0) {
+                LOGGER.fine("Retention: scanned " + report.playersScanned() + " players, purged "
+                        + report.recordsPurged() + " records (" + report.bytesReclaimed() + " bytes)");
+            }
+        }, intervalTicks, intervalTicks);
+        LOGGER.info("Retention sweeper enabled (" + playersPerRun + " players every " + intervalTicks / 20 + "s)");
+    }
+
+    private java.nio.file.Path getProgressFile() {
+        getDataFolder().mkdirs();
+        return new java.io.File(getDataFolder(), PROGRESS_FILE).toPath();
+    }
+
+    /**
+     * Recarga los eventos desde YAML.
+     *
+     * @param onProgressReady Se ejecuta cuando el progreso ya está migrado a las definiciones nuevas
+     *                        (en el acto si ningún evento cambió sus objetivos)
+     */
+    public void reloadEvents(Runnable onProgressReady) {
         LOGGER.info("Reloading events...");
-        loadEvents();
+        Optional<ProgressMigration> migration = loadEvents();
+        eventTimers.reschedule();
+        migration.ifPresentOrElse(
+                pending -> runProgressMigration(pending, onProgressReady),
+                onProgressReady);
+    }
+
+    /**
+     * Ejecuta una migración de progreso repartida en ticks (MIGRATION_PLAYERS_PER_TICK jugadores por tick).
+     * Tras cada porción completa los eventos que quedaron cumplidos; al terminar guarda el snapshot
+     * (el log de cambios anterior usa el orden de objetivos viejo y queda compactado en él).
+     */
+    public void runProgressMigration(ProgressMigration migration, Runnable onFinished) {
+        long start = System.currentTimeMillis();
+        AtomicReference<BukkitTask> task = new AtomicReference<>();
+
+        task.set(getServer().getScheduler().runTaskTimer(this, () -> {
+            boolean done = migration.step(MIGRATION_PLAYERS_PER_TICK);
+            migration.drainCompletionChecks().forEach(objectiveTracker::recheckCompletions);
+
+            if (done) {
+                task.get().cancel();
+                LOGGER.info("Migrated " + migration.getRemappedCount() + " progress records of "
+                        + migration.getAffectedPlayers().size() + "/" + migration.getPlayerCount() + " players "
+                        + migration.getChangedEventIds() + " in " + (System.currentTimeMillis() - start) + " ms");
+                onFinished.run();
+                getServer().getScheduler().runTaskAsynchronously(this, this::saveProgress);
+            }
+        }, 1L, 1L));
     }
+
+    /**
+     * Envía UNA notificación de recarga a cada jugador online de la lista (el cliente vuelve a pedir sus datos).
+     * @return Número de jugadores notificados
+     */
+    public int notifyClientsReload(Collection<UUID> playerIds, String reason) {
+        int notified = 0;
+
+        for (UUID playerId : playerIds) {
+            if (getServer().getPlayer(playerId) == null) {
+                continue; // Offline: recibirá datos frescos al entrar
+            }
+
+            Map<String, String> payload = Map.of(
+                    "reason", reason,
+                    "timestamp", String.valueOf(System.currentTimeMillis())
+            );
+
+            eventBridge.sendMessage(new PluginBridgeMessage(MessageType.EVENT_RELOAD_NOTIFICATION, payload, playerId));
+            notified++;
+        }
+
+        LOGGER.info("✓ Sent reload notification to " + notified + " player(s)");
+
+        return notified;
+    }
+
+    /**
+     * Arranca el watcher de events/ si hot-reload.enabled está activo.
+     */
+    private void startDefinitionWatcher() {
+        if (!getConfig().getBoolean("hot-reload.enabled", false)) {
+            return;
+        }
+
+        try {
+            this.definitionWatcher = new DefinitionWatcher(this, configLoader);
+            definitionWatcher.start();
+        } catch (IOException e) {
+            LOGGER.warning("Hot reload disabled: " + e.getMessage());
+            this.definitionWatcher = null;
+        }
+    }
+
     // ✅ NUEVO: Getter para UI configs
     public Map<String, UIConfig> getUIConfigs() {
         return uiConfigs;
@@ -192,4 +535,27 @@ public class EventUIPlugin extends JavaPlugin {
         return objectiveTracker;
     }
 
+    public SessionRegistry getSessionRegistry() {
+        return sessionRegistry;
+    }
+
+    public EventTimers getEventTimers() {
+        return eventTimers;
+    }
+
+    public CommunityGoalManager getCommunityGoals() {
+        return communityGoals;
+    }
+
+    public LeaderboardManager getLeaderboards() {
+        return leaderboards;
+    }
+
+    /**
+     * @return Sincronización entre servidores, o null si está desactivada
+     */
+    public ProgressSync getProgressSync() {
+        return progressSync;
+    }
+
 }
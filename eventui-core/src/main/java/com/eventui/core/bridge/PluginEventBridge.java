@@ -10,6 +10,12 @@ import com.eventui.api.objective.ObjectiveDefinition;
 import com.eventui.api.objective.ObjectiveProgress;
 import com.eventui.api.ui.UIConfig;
 import com.eventui.core.EventUIPlugin;
+import com.eventui.core.event.EventWindow;
+import com.eventui.core.event.ProgressEvent;
+import com.eventui.core.event.ResetSchedule;
+import com.eventui.core.leaderboard.LeaderboardManager;
+import com.eventui.core.leaderboard.TopK;
+import com.eventui.core.sync.ProgressSync;
 import org.bukkit.entity.Player;
 
 import java.util.*;
@@ -165,6 +171,53 @@ public class PluginEventBridge implements EventBridge {
 
             handleRequestUIConfig(player, message);
         });
+
+        registerMessageHandler(MessageType.REQUEST_LEADERBOARD, message -> {
+            Player player = plugin.getServer().getPlayer(message.getPlayerId());
+            if (player == null) {
+                LOGGER.warning("Player not found for REQUEST_LEADERBOARD: " + message.getPlayerId());
+                return;
+            }
+
+            handleRequestLeaderboard(player, message);
+        });
+    }
+
+    /**
+     * Envía las K mejores entradas de una clasificación (lectura O(K), sin recorrer el progreso).
+     */
+    private void handleRequestLeaderboard(Player player, BridgeMessage message) {
+        String eventId = message.getPayload().get("event_id");
+        String boardName = message.getPayload().getOrDefault("board", LeaderboardManager.Board.FASTEST.name());
+
+        Optional<LeaderboardManager.Board> board = LeaderboardManager.Board.parse(boardName);
+        if (eventId == null || board.isEmpty() || plugin.getStorage().getEventDefinition(eventId).isEmpty()) {
+            sendErrorResponse(message, "Unknown leaderboard: " + eventId + "/" + boardName, player);
+            return;
+        }
+
+        List<Map<String, Object>> entries = new ArrayList<>();
+        int rank = 1;
+        for (TopK.Entry entry : plugin.getLeaderboards().top(eventId, board.get())) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("rank", rank++);
+            row.put("player_uuid", entry.playerId().toString());
+            String name = plugin.getServer().getOfflinePlayer(entry.playerId()).getName();
+            row.put("player_name", name != null ? name : entry.playerId().toString().substring(0, 8));
+            row.put("score", entry.score());
+            entries.add(row);
+        }
+
+        sendMessage(new PluginBridgeMessage(
+                MessageType.LEADERBOARD_RESPONSE,
+                Map.of(
+                        "event_id", eventId,
+                        "board", board.get().name(),
+                        "entries", new com.google.gson.Gson().toJson(entries)
+                ),
+                player.getUniqueId(),
+                message.getMessageId()
+        ));
     }
 
     /**
@@ -208,6 +261,13 @@ public class PluginEventBridge implements EventBridge {
             boolean repeatable = Boolean.parseBoolean(repeatableStr);
             eventData.put("repeatable", repeatable); // ← AGREGAR AL JSON
 
+            // ✅ NUEVO: Próximo reinicio (daily / weekly); el progreso viejo caduca solo al accederlo
+            int index = plugin.getStorage().getEventIndex().indexOf(eventDef.getId());
+            ResetSchedule reset = plugin.getStorage().getRegistry().resetSchedule(index);
+            if (reset != null) {
+                eventData.put("next_reset", reset.nextResetAt());
+            }
+
             // ✅ NUEVO: Enviar dependencies (ANTES de calcular isLocked)
             List<String> dependencies = new ArrayList<>();
             String depsJson = eventDef.getMetadata().get("dependencies");
@@ -228,10 +288,9 @@ public class PluginEventBridge implements EventBridge {
 // ✅ NUEVO: Calcular isLocked AHORA (con las dependencies ya cargadas)
             boolean isLocked = false;
             if (!dependencies.isEmpty()) {
-                // Verificar si todas las dependencies están completadas
+                // Verificar si todas las dependencies están completadas (bitset del historial)
                 for (String depId : dependencies) {
-                    var depProgress = plugin.getStorage().getProgress(playerId, depId);
-                    if (depProgress.isEmpty() || depProgress.get().getState() != EventState.COMPLETED) {
+                    if (!plugin.getStorage().isCompleted(playerId, depId)) {
                         isLocked = true;
                         break;
                     }
@@ -239,6 +298,21 @@ public class PluginEventBridge implements EventBridge {
             }
 
 
+            // ✅ NUEVO: Ventana temporal: fuera de ella el evento se muestra bloqueado
+            EventWindow window = plugin.getStorage().getRegistry().window(index);
+            if (window != null) {
+                if (window.getAvailableFrom() != Long.MIN_VALUE) {
+                    eventData.put("available_from", window.getAvailableFrom());
+                }
+                if (window.getAvailableUntil() != Long.MAX_VALUE) {
+                    eventData.put("available_until", window.getAvailableUntil());
+                }
+                if (window.getTimeLimitMillis() > 0) {
+                    eventData.put("time_limit", window.getTimeLimitMillis() / 1000L);
+                }
+                isLocked |= !window.isOpen(System.currentTimeMillis());
+            }
+
             eventData.put("isLocked", isLocked);
 
             LOGGER.info("Event '" + eventDef.getId() + "' - locked: " + isLocked + ", deps: " + dependencies.size());
@@ -491,11 +565,24 @@ public class PluginEventBridge implements EventBridge {
 
         return data;
     }
+    /**
+     * @return true si el progreso del jugador todavía viene de otro servidor (ProgressSync)
+     */
+    private boolean isAwaitingHandoff(Player player) {
+        ProgressSync sync = plugin.getProgressSync();
+        return sync != null && sync.isAwaitingHandoff(player.getUniqueId());
+    }
+
     /**
      * Ejecuta la acción de un botón clickeado.
      */
     private void handleButtonAction(Player player, String action, String eventId, String buttonId) {
         try {
+            if (("start_event".equals(action) || "abandon_event".equals(action)) && isAwaitingHandoff(player)) {
+                player.sendMessage("§eYour progress is still loading from another server, try again in a moment.");
+                return;
+            }
+
             switch (action) {
                 case "start_event" -> {
                     if (eventId == null || eventId.isEmpty()) {
@@ -512,6 +599,13 @@ public class PluginEventBridge implements EventBridge {
 
                     var eventDef = eventOpt.get();
 
+                    // ✅ NUEVO: Ventana temporal (available_from / available_until)
+                    EventWindow window = plugin.getStorage().getWindow(eventId);
+                    if (window != null && !window.isOpen(System.currentTimeMillis())) {
+                        player.sendMessage("§cThis event is not available right now.");
+                        return;
+                    }
+
                     // ✅ NUEVO: Verificar dependencies ANTES de iniciar
                     String depsJson = eventDef.getMetadata().get("dependencies");
                     if (depsJson != null && !depsJson.isEmpty()) {
@@ -524,8 +618,7 @@ public class PluginEventBridge implements EventBridge {
                             // Verificar si todas están completadas
                             List<String> missingDeps = new ArrayList<>();
                             for (String depId : dependencies) {
-                                var depProgress = plugin.getStorage().getProgress(player.getUniqueId(), depId);
-                                if (depProgress.isEmpty() || depProgress.get().getState() != EventState.COMPLETED) {
+                                if (!plugin.getStorage().isCompleted(player.getUniqueId(), depId)) {
                                     // Obtener nombre del evento faltante
                                     plugin.getStorage().getEventDefinition(depId).ifPresent(dep -> {
                                         missingDeps.add(dep.getDisplayName());
@@ -556,9 +649,11 @@ public class PluginEventBridge implements EventBridge {
                     if (progressOpt.isPresent()) {
                         var progress = progressOpt.get();
 
-                        if (progress.getState() == EventState.COMPLETED) {
+                        if (progress.getState() == EventState.COMPLETED || progress.getState() == EventState.FAILED) {
                             if (!repeatable) {
-                                player.sendMessage("§cYou have already completed this event!");
+                                player.sendMessage(progress.getState() == EventState.COMPLETED
+                                        ? "§cYou have already completed this event!"
+                                        : "§cThis event has failed and cannot be restarted.");
                                 return;
                             }
 
@@ -635,6 +730,9 @@ public class PluginEventBridge implements EventBridge {
                     String repeatableStr = eventDef.getMetadata().getOrDefault("repeatable", "false");
                     boolean repeatable = Boolean.parseBoolean(repeatableStr);
 
+                    // Auditoría: el abandono queda anotado antes del REMOVE / FAIL que genera
+                    plugin.getStorage().logAnnotation(ProgressEvent.Type.ABANDON, player.getUniqueId(), eventId, null, 0);
+
                     if (repeatable) {
                         // Repeatable: resetear a AVAILABLE
                         plugin.getStorage().removeProgress(player.getUniqueId(), eventId);
@@ -651,6 +749,7 @@ public class PluginEventBridge implements EventBridge {
                         progress.fail(); // Asumiendo que existe este método
 // ✅ NUEVO: Desregistrar evento activo
                         plugin.getObjectiveTracker().unregisterActiveEvent(player.getUniqueId(), eventId);
+                        plugin.getStorage().compactProgress(player.getUniqueId(), eventId);
                         player.sendMessage("§cEvent failed. It cannot be restarted.");
 
                         notifyStateChange(player.getUniqueId(), eventId, EventState.FAILED);
@@ -677,6 +776,13 @@ public class PluginEventBridge implements EventBridge {
                     player.sendMessage("§eProgress: §f" + String.format("%.1f%%", progress.getOverallProgress() * 100));
                 }
 
+                case "claim_rewards" -> {
+                    // Buzón de recompensas: vuelve a la cola de entrega
+                    if (plugin.getRewardManager().claim(player) == 0) {
+                        player.sendMessage("§7Your reward mailbox is empty.");
+                    }
+                }
+
                 default -> {
                     LOGGER.warning("Unknown button action: " + action);
                     player.sendMessage("§cUnknown action: " + action);
@@ -4,15 +4,36 @@ import com.eventui.api.event.EventDefinition;
 import com.eventui.api.event.EventProgress;
 import com.eventui.core.bridge.PluginBridgeMessage;
 import com.eventui.core.EventUIPlugin;
+import com.eventui.core.community.CommunityGoal;
 import com.eventui.core.event.EventProgressImpl;
+import com.eventui.core.event.EventWindow;
+import com.eventui.core.event.ProgressEvent;
+import com.eventui.core.leaderboard.LeaderboardManager;
+import com.eventui.core.leaderboard.TopK;
+import com.eventui.core.storage.ProgressNdjson;
+import com.eventui.core.sync.ProgressSync;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
-
-
+import org.bukkit.scheduler.BukkitTask;
+
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Logger;
 import java.util.Collection;
 
@@ -24,11 +45,25 @@ import java.util.Collection;
  * - /eventui progress <id> - Muestra tu progreso en un evento
  * - /eventui start <id> - Inicia un evento
  * - /eventui reload - Recarga eventos desde YAML
+ * - /eventui history <player> [id] - Historial de cambios de progreso (requiere progress-log)
+ * - /eventui export <file> - Exporta todo el progreso a NDJSON (exports/)
+ * - /eventui import <file> - Importa progreso desde NDJSON (reemplaza a los jugadores del archivo)
  */
 public class EventCommand implements CommandExecutor {
 
     private static final Logger LOGGER = Logger.getLogger(EventCommand.class.getName());
 
+    // Registros máximos mostrados por /ev history (los más recientes)
+    private static final int HISTORY_LIMIT = 100;
+
+    // Export/import: jugadores aplicados por tick y cada cuántos se informa el avance
+    private static final int IMPORT_PLAYERS_PER_TICK = 200;
+    private static final int TRANSFER_REPORT_INTERVAL = 1000;
+
+    // Marca de fin de archivo en la cola de import
+    private static final ProgressNdjson.ImportedPlayer END_OF_IMPORT =
+            new ProgressNdjson.ImportedPlayer(new UUID(0L, 0L), List.of(), List.of());
+
     private final EventUIPlugin plugin;
 
     public EventCommand(EventUIPlugin plugin) {
@@ -44,12 +79,18 @@ public class EventCommand implements CommandExecutor {
             sender.sendMessage("§e/ev progress <id> §7- Show your progress");
             sender.sendMessage("§e/ev start <id> §7- Start an event");
             sender.sendMessage("§e/ev reload §7- Reload all events");
+            sender.sendMessage("§e/ev community §7- Show community goals");
+            sender.sendMessage("§e/ev top <id> [fastest|contributions] §7- Show leaderboard");
+            sender.sendMessage("§e/ev claim §7- Collect rewards from your mailbox");
             sender.sendMessage("§6§lTesting Commands:");
             sender.sendMessage("§e/ev reset <id|all> §7- Reset progress");
             sender.sendMessage("§e/ev complete <id> §7- Instant complete");
             sender.sendMessage("§e/ev debug <id> §7- Show debug info");
             sender.sendMessage("§e/ev setprogress <event> <obj> <amount> §7- Set progress");
             sender.sendMessage("§e/ev reloadevent <id> §7- Reload specific event");
+            sender.sendMessage("§e/ev history <player> [event] §7- Show progress history");
+            sender.sendMessage("§e/ev export <file> §7- Export all progress (NDJSON)");
+            sender.sendMessage("§e/ev import <file> §7- Import progress (NDJSON)");
             return true;
         }
 
@@ -65,6 +106,12 @@ public class EventCommand implements CommandExecutor {
             case "debug" -> handleDebug(sender, args);
             case "setprogress" -> handleSetProgress(sender, args);
             case "reloadevent" -> handleReloadEvent(sender, args);
+            case "history" -> handleHistory(sender, args);
+            case "export" -> handleExport(sender, args);
+            case "import" -> handleImport(sender, args);
+            case "community" -> handleCommunity(sender);
+            case "top" -> handleTop(sender, args);
+            case "claim" -> handleClaim(sender);
             default -> sender.sendMessage("§cUnknown command. Use /ev for help");
         }
 
@@ -85,6 +132,93 @@ public class EventCommand implements CommandExecutor {
         );
     }
 
+    private void handleCommunity(CommandSender sender) {
+        var goals = plugin.getCommunityGoals().getGoals();
+
+        if (goals.isEmpty()) {
+            sender.sendMessage("§cNo community goals configured!");
+            return;
+        }
+
+        UUID playerId = sender instanceof Player player ? player.getUniqueId() : null;
+        int slot = playerId != null ? plugin.getSessionRegistry().slotOf(playerId) : -1;
+
+        sender.sendMessage("§6=== Community Goals ===");
+        for (CommunityGoal goal : goals) {
+            long total = goal.getTotal();
+            String status = goal.isCompleted() ? " §a✔" : "";
+            sender.sendMessage("§e" + goal.getDisplayName() + " §7- §f" + Math.min(total, goal.getTarget())
+                    + "§7/" + goal.getTarget() + " §7(" + total * 100 / goal.getTarget() + "%)" + status);
+
+            if (playerId != null) {
+                sender.sendMessage("  §7Your contribution: §f" + goal.contributionOf(slot, playerId));
+            }
+        }
+    }
+
+    /**
+     * Reclama las recompensas del buzón (inventario lleno / offline al entregarlas).
+     */
+    private void handleClaim(CommandSender sender) {
+        if (!(sender instanceof Player player)) {
+            sender.sendMessage("§cOnly players can use this command!");
+            return;
+        }
+
+        if (plugin.getRewardManager().claim(player) == 0) {
+            sender.sendMessage("§7Your reward mailbox is empty.");
+        }
+    }
+
+    private void handleTop(CommandSender sender, String[] args) {
+        if (args.length < 2) {
+            sender.sendMessage("§cUsage: /ev top <event_id> [fastest|contributions]");
+            return;
+        }
+
+        String eventId = args[1];
+        Optional<EventDefinition> eventOpt = plugin.getStorage().getEventDefinition(eventId);
+        if (eventOpt.isEmpty()) {
+            sender.sendMessage("§cEvent not found: " + eventId);
+            return;
+        }
+
+        Optional<LeaderboardManager.Board> board = args.length >= 3
+                ? LeaderboardManager.Board.parse(args[2])
+                : Optional.of(LeaderboardManager.Board.FASTEST);
+        if (board.isEmpty()) {
+            sender.sendMessage("§cUnknown leaderboard: " + args[2] + " §7(fastest, contributions)");
+            return;
+        }
+
+        List<TopK.Entry> entries = plugin.getLeaderboards().top(eventId, board.get());
+        boolean fastest = board.get() == LeaderboardManager.Board.FASTEST;
+
+        sender.sendMessage("§6=== " + eventOpt.get().getDisplayName() + " §7- "
+                + (fastest ? "Fastest completions" : "Top contributors") + " §6===");
+        if (entries.isEmpty()) {
+            sender.sendMessage("§7Nobody has completed this event yet.");
+            return;
+        }
+
+        int rank = 1;
+        for (TopK.Entry entry : entries) {
+            String name = plugin.getServer().getOfflinePlayer(entry.playerId()).getName();
+            String score = fastest ? formatDuration(entry.score()) : String.valueOf(entry.score());
+            sender.sendMessage("§e#" + rank++ + " §f" + (name != null ? name : entry.playerId()) + " §7- §a" + score);
+        }
+    }
+
+    private static String formatDuration(long millis) {
+        long seconds = millis / 1000;
+        if (seconds < 60) {
+            return String.format("%.1fs", millis / 1000.0);
+        }
+        return seconds >= 3600
+                ? String.format("%dh %02dm %02ds", seconds / 3600, seconds / 60 % 60, seconds % 60)
+                : String.format("%dm %02ds", seconds / 60, seconds % 60);
+    }
+
     private void handleInfo(CommandSender sender, String[] args) {
         if (args.length < 2) {
             sender.sendMessage("§cUsage: /eventui info <event_id>");
@@ -153,6 +287,10 @@ public class EventCommand implements CommandExecutor {
             return;
         }
 
+        if (isAwaitingHandoff(sender, player)) {
+            return;
+        }
+
         String eventId = args[1];
 
         try {
@@ -165,6 +303,13 @@ public class EventCommand implements CommandExecutor {
 
             var eventDef = eventDefOpt.get();
 
+            // Ventana temporal (available_from / available_until)
+            EventWindow window = plugin.getStorage().getWindow(eventId);
+            if (window != null && !window.isOpen(System.currentTimeMillis())) {
+                sender.sendMessage("§cThis event is not available right now.");
+                return;
+            }
+
             // ← NUEVO: Leer flag repeatable desde metadata
             String repeatableStr = eventDef.getMetadata().getOrDefault("repeatable", "false");
             boolean repeatable = Boolean.parseBoolean(repeatableStr);
@@ -175,10 +320,13 @@ public class EventCommand implements CommandExecutor {
             if (progressOpt.isPresent()) {
                 var progress = progressOpt.get();
 
-                if (progress.getState() == com.eventui.api.event.EventState.COMPLETED) {
+                if (progress.getState() == com.eventui.api.event.EventState.COMPLETED
+                        || progress.getState() == com.eventui.api.event.EventState.FAILED) {
                     // ← NUEVO: Validar si es repeatable
                     if (!repeatable) {
-                        sender.sendMessage("§cYou have already completed this event!");
+                        sender.sendMessage(progress.getState() == com.eventui.api.event.EventState.COMPLETED
+                                ? "§cYou have already completed this event!"
+                                : "§cThis event has failed.");
                         sender.sendMessage("§7This event cannot be repeated.");
                         return;
                     }
@@ -200,6 +348,7 @@ public class EventCommand implements CommandExecutor {
             // Crear progreso nuevo
             EventProgressImpl progress = plugin.getStorage().getOrCreateProgress(player.getUniqueId(), eventId);
             progress.start();
+            plugin.getObjectiveTracker().registerActiveEvent(player.getUniqueId(), eventId);
 
             sender.sendMessage("§aStarted event: " + eventDef.getDisplayName());
 
@@ -225,6 +374,20 @@ public class EventCommand implements CommandExecutor {
         }
     }
 
+    /**
+     * Su progreso todavía viene de otro servidor (ProgressSync): cambiarlo ahora se mezclaría con el handoff.
+     *
+     * @return true si hay que esperar (ya avisado al sender)
+     */
+    private boolean isAwaitingHandoff(CommandSender sender, Player player) {
+        ProgressSync sync = plugin.getProgressSync();
+        if (sync == null || !sync.isAwaitingHandoff(player.getUniqueId())) {
+            return false;
+        }
+        sender.sendMessage("§eProgress of " + player.getName() + " is still loading from another server, try again in a moment.");
+        return true;
+    }
+
     /**
      * Notifica cambio de estado al cliente.
      */
@@ -254,21 +417,20 @@ public class EventCommand implements CommandExecutor {
         sender.sendMessage("§eReloading events...");
 
         try {
-            // Recargar eventos
-            plugin.reloadEvents();
+            // Recargar eventos; los clientes se notifican cuando el progreso ya está migrado
+            plugin.reloadEvents(() -> {
+                int notifiedPlayers = notifyAllClientsReload();
+
+                if (notifiedPlayers > 0) {
+                    sender.sendMessage("§7Notified " + notifiedPlayers + " online player(s) to refresh their UI");
+                }
+            });
 
             int eventCount = plugin.getStorage().getAllEventDefinitions().size();
 
             sender.sendMessage("§a✓ Events reloaded successfully!");
             sender.sendMessage("§7Loaded " + eventCount + " event(s)");
 
-            // Notificar a todos los clientes conectados
-            int notifiedPlayers = notifyAllClientsReload();
-
-            if (notifiedPlayers > 0) {
-                sender.sendMessage("§7Notified " + notifiedPlayers + " online player(s) to refresh their UI");
-            }
-
         } catch (Exception e) {
             sender.sendMessage("§cFailed to reload: " + e.getMessage());
             LOGGER.severe("Failed to reload events: " + e.getMessage());
@@ -291,6 +453,10 @@ public class EventCommand implements CommandExecutor {
             return;
         }
 
+        if (isAwaitingHandoff(sender, player)) {
+            return;
+        }
+
         String target = args[1];
 
         try {
@@ -375,6 +541,10 @@ public class EventCommand implements CommandExecutor {
             return;
         }
 
+        if (isAwaitingHandoff(sender, player)) {
+            return;
+        }
+
         String eventId = args[1];
 
         try {
@@ -389,6 +559,16 @@ public class EventCommand implements CommandExecutor {
             // Crear/obtener progreso
             var progress = plugin.getStorage().getOrCreateProgress(player.getUniqueId(), eventId);
 
+            // Terminado (también el rehidratado del historial): completar otra vez pagaría de nuevo
+            if (progress.getState() == com.eventui.api.event.EventState.COMPLETED
+                    || progress.getState() == com.eventui.api.event.EventState.FAILED) {
+                sender.sendMessage("§eEvent already " + progress.getState().name().toLowerCase() + ": " + eventId);
+                return;
+            }
+
+            // Auditoría: cambio forzado por un admin
+            plugin.getStorage().logAnnotation(ProgressEvent.Type.ADMIN_OVERRIDE, player.getUniqueId(), eventId, null, 0);
+
             // Si no está iniciado, iniciarlo primero
             if (progress.getState() == com.eventui.api.event.EventState.AVAILABLE) {
                 progress.start();
@@ -402,15 +582,18 @@ public class EventCommand implements CommandExecutor {
                 }
             }
 
-            // Marcar como completado
-            progress.complete();
+            // Marcar como completado: solo quien gana la transición entrega recompensas
+            if (!progress.complete()) {
+                sender.sendMessage("§eEvent was already completed or failed: " + eventId);
+                return;
+            }
+            plugin.getObjectiveTracker().unregisterActiveEvent(player.getUniqueId(), eventId);
+            plugin.getStorage().compactProgress(player.getUniqueId(), eventId);
 
             sender.sendMessage("§a✓ Event completed: " + eventDef.getDisplayName());
 
             // ← NUEVO: Otorgar rewards
-            if (sender instanceof Player) {
-                plugin.getRewardManager().giveRewards((Player) sender, eventDef);
-            }
+            plugin.getRewardManager().giveRewards(player, eventDef, progress.getCompletedAt());
 
             // Notificar al cliente el cambio de estado
             notifyStateChange(player.getUniqueId(), eventId, com.eventui.api.event.EventState.COMPLETED);
@@ -511,6 +694,10 @@ public class EventCommand implements CommandExecutor {
             return;
         }
 
+        if (isAwaitingHandoff(sender, player)) {
+            return;
+        }
+
         String eventId = args[1];
         String objectiveId = args[2];
         int amount;
@@ -550,12 +737,16 @@ public class EventCommand implements CommandExecutor {
             // Si no está iniciado, iniciarlo
             if (progress.getState() == com.eventui.api.event.EventState.AVAILABLE) {
                 progress.start();
+                plugin.getObjectiveTracker().registerActiveEvent(player.getUniqueId(), eventId);
                 notifyStateChange(player.getUniqueId(), eventId, com.eventui.api.event.EventState.IN_PROGRESS);
             }
 
             // Establecer progreso del objetivo
             var objProgress = progress.getObjectiveProgress(objectiveId);
             if (objProgress != null) {
+                // Auditoría: cambio forzado por un admin (el SET real se registra a continuación)
+                plugin.getStorage().logAnnotation(ProgressEvent.Type.ADMIN_OVERRIDE, player.getUniqueId(),
+                        eventId, objectiveId, amount);
                 objProgress.setProgress(amount);
 
                 sender.sendMessage("§a✓ Progress updated!");
@@ -575,13 +766,17 @@ public class EventCommand implements CommandExecutor {
                 );
 
                 // Verificar si se completó el evento
-                if (progress.areAllObjectivesCompleted()) {
-                    progress.complete();
+                if (progress.areAllObjectivesCompleted() && progress.complete()) {
+                    plugin.getObjectiveTracker().unregisterActiveEvent(player.getUniqueId(), eventId);
+                    plugin.getStorage().compactProgress(player.getUniqueId(), eventId);
                     sender.sendMessage("§6§l✓ EVENT COMPLETED!");
                     notifyStateChange(player.getUniqueId(), eventId, com.eventui.api.event.EventState.COMPLETED);
                 }
             }
 
+            // Si el evento ya estaba terminado se rehidrató: vuelve al historial compacto
+            plugin.getStorage().compactProgress(player.getUniqueId(), eventId);
+
         } catch (Exception e) {
             sender.sendMessage("§cFailed to set progress: " + e.getMessage());
             e.printStackTrace();
@@ -608,27 +803,42 @@ public class EventCommand implements CommandExecutor {
                 return;
             }
 
-            // Buscar el archivo YAML del evento
-            java.io.File eventsDir = new java.io.File(plugin.getDataFolder(), "events");
-            java.io.File[] files = eventsDir.listFiles((dir, name) -> {
-                return (name.endsWith(".yml") || name.endsWith(".yaml")) && name.contains(eventId);
-            });
-
-            if (files == null || files.length == 0) {
+            // Buscar el archivo YAML que define el evento (por ID exacto, en cualquier subdirectorio)
+            Optional<Path> eventFile = plugin.getConfigLoader().findEventFile(eventId);
+            if (eventFile.isEmpty()) {
                 sender.sendMessage("§cCouldn't find YAML file for event: " + eventId);
                 return;
             }
 
-            // Cargar el archivo específico
-            var newEventDef = plugin.getConfigLoader().loadEventFromFile(files[0]);
+            // Cargar el archivo específico (en una plantilla, la instancia con ese ID)
+            var newEventDef = plugin.getConfigLoader().loadEvents(eventFile.get()).stream()
+                    .filter(definition -> definition.getId().equals(eventId))
+                    .findFirst()
+                    .orElse(null);
+            if (newEventDef == null) {
+                sender.sendMessage("§cFile " + eventFile.get().getFileName() + " no longer defines "
+                        + eventId + "; use /ev reload");
+                return;
+            }
 
             // Actualizar en storage
-            plugin.getStorage().registerEvent(newEventDef);
+            var migration = plugin.getStorage().registerEvent(newEventDef);
+            plugin.getEventTimers().reschedule();
 
             sender.sendMessage("§a✓ Event reloaded: " + newEventDef.getDisplayName());
-            sender.sendMessage("§7File: " + files[0].getName());
+            sender.sendMessage("§7File: " + plugin.getConfigLoader().getEventsDirectory().relativize(eventFile.get()));
             sender.sendMessage("§7Objectives: " + newEventDef.getObjectives().size());
 
+            // Objetivos cambiados: migrar el progreso y avisar una vez a cada cliente afectado
+            migration.ifPresent(pending -> {
+                sender.sendMessage("§7Remapping progress of " + pending.getPlayerCount() + " player(s)...");
+                plugin.runProgressMigration(pending, () -> {
+                    int notified = plugin.notifyClientsReload(pending.getAffectedPlayers(), "progress_migrated");
+                    sender.sendMessage("§a✓ Progress remapped: " + pending.getRemappedCount() + " record(s), "
+                            + notified + " online player(s) notified");
+                });
+            });
+
         } catch (Exception e) {
             sender.sendMessage("§cFailed to reload event: " + e.getMessage());
             sender.sendMessage("§7Check console for details.");
@@ -647,25 +857,250 @@ public class EventCommand implements CommandExecutor {
             return 0;
         }
 
-        for (Player player : onlinePlayers) {
-            java.util.Map<String, String> payload = java.util.Map.of(
-                    "reason", "server_reload",
-                    "timestamp", String.valueOf(System.currentTimeMillis())
-            );
+        return plugin.notifyClientsReload(onlinePlayers.stream().map(Player::getUniqueId).toList(), "server_reload");
+    }
+
+    /**
+     * Reproduce el historial de un jugador en orden cronológico (auditoría de disputas).
+     * La lectura del log se hace en un hilo async; los mensajes se envían en el main thread.
+     */
+    private void handleHistory(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("eventui.admin")) {
+            sender.sendMessage("§cYou don't have permission to use this command!");
+            return;
+        }
+
+        if (args.length < 2) {
+            sender.sendMessage("§cUsage: /ev history <player> [event_id]");
+            return;
+        }
+
+        var logOpt = plugin.getStorage().getProgressLog();
+        if (logOpt.isEmpty()) {
+            sender.sendMessage("§cProgress log is disabled (progress-log.enabled in config.yml)");
+            return;
+        }
+
+        String eventId = args.length >= 3 ? args[2] : null;
+
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                // Async: resolver un nombre offline puede consultar a Mojang
+                @SuppressWarnings("deprecation")
+                UUID playerId = plugin.getServer().getOfflinePlayer(args[1]).getUniqueId();
+                var history = logOpt.get().readPlayerHistory(playerId, eventId, HISTORY_LIMIT);
+
+                plugin.getServer().getScheduler().runTask(plugin, () -> {
+                    sender.sendMessage("§6History of " + args[1] + (eventId != null ? " §7(" + eventId + ")" : "")
+                            + " §7- " + history.size() + " record(s)");
+                    var format = new java.text.SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+
+                    for (ProgressEvent record : history) {
+                        StringBuilder line = new StringBuilder("§8")
+                                .append(format.format(new java.util.Date(record.timestamp())))
+                                .append(" §e").append(record.type())
+                                .append(" §f").append(record.eventId());
+                        if (record.objectiveId() != null) {
+                            line.append(" §7").append(record.objectiveId())
+                                    .append(" §f").append(record.amount())
+                                    .append(" §7(").append(record.delta() >= 0 ? "+" : "").append(record.delta()).append(")");
+                        }
+                        sender.sendMessage(line.toString());
+                    }
+                });
+            } catch (Exception e) {
+                LOGGER.warning("Failed to read progress history: " + e.getMessage());
+                plugin.getServer().getScheduler().runTask(plugin, () ->
+                        sender.sendMessage("§cFailed to read progress history: " + e.getMessage()));
+            }
+        });
+    }
+
+    /**
+     * Exporta el progreso de todos los jugadores (online y offline) a exports/<file>, un jugador por línea.
+     * Se escribe en streaming desde un hilo async: la memoria no depende del número de jugadores.
+     */
+    private void handleExport(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("eventui.admin")) {
+            sender.sendMessage("§cYou don't have permission to use this command!");
+            return;
+        }
+
+        if (args.length < 2) {
+            sender.sendMessage("§cUsage: /ev export <file>");
+            return;
+        }
+
+        Path target = resolveExportFile(args[1]);
+        if (target == null) {
+            sender.sendMessage("§cInvalid file name: " + args[1]);
+            return;
+        }
+
+        sender.sendMessage("§eExporting progress to §f" + target.getFileName() + "§e...");
+
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            long start = System.currentTimeMillis();
+            Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+            var storage = plugin.getStorage();
+
+            try {
+                Files.createDirectories(target.getParent());
+                int[] written = {0};
+
+                try (Writer out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                    storage.forEachStoredPlayer(data -> {
+                        try {
+                            ProgressNdjson.writePlayer(out, data, storage.getEventIndex());
+                        } catch (IOException e) {
+                            throw new java.io.UncheckedIOException(e);
+                        }
+
+                        if (++written[0] % TRANSFER_REPORT_INTERVAL == 0) {
+                            int count = written[0];
+                            plugin.getServer().getScheduler().runTask(plugin, () ->
+                                    sender.sendMessage("§7Exported " + count + " players..."));
+                        }
+                    });
+                }
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+
+                long elapsed = System.currentTimeMillis() - start;
+                LOGGER.info("Exported progress of " + written[0] + " players to " + target + " in " + elapsed + " ms");
+                plugin.getServer().getScheduler().runTask(plugin, () ->
+                        sender.sendMessage("§aExported " + written[0] + " players to §f" + target.getFileName()
+                                + " §7(" + elapsed + " ms)"));
+
+            } catch (IOException | java.io.UncheckedIOException e) {
+                LOGGER.warning("Failed to export progress: " + e.getMessage());
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // Se sobrescribe en el próximo export
+                }
+                plugin.getServer().getScheduler().runTask(plugin, () ->
+                        sender.sendMessage("§cFailed to export progress: " + e.getMessage()));
+            }
+        });
+    }
+
+    /**
+     * Importa progreso desde exports/<file>. Cada jugador del archivo reemplaza su progreso actual.*
+     * FLUJO:
+     * 1. Hilo async: lee el archivo en streaming y encola jugadores (cola acotada = memoria plana)
+     * 2. Main thread: cada tick aplica como mucho IMPORT_PLAYERS_PER_TICK jugadores
+     * 3. Al terminar: guardado async del snapshot
+     */
+    private void handleImport(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("eventui.admin")) {
+            sender.sendMessage("§cYou don't have permission to use this command!");
+            return;
+        }
+
+        if (args.length < 2) {
+            sender.sendMessage("§cUsage: /ev import <file>");
+            return;
+        }
+
+        Path source = resolveExportFile(args[1]);
+        if (source == null || !Files.isRegularFile(source)) {
+            sender.sendMessage("§cFile not found in exports/: " + args[1]);
+            return;
+        }
+
+        BlockingQueue<ProgressNdjson.ImportedPlayer> queue = new ArrayBlockingQueue<>(IMPORT_PLAYERS_PER_TICK * 4);
+        AtomicReference<String> readFailure = new AtomicReference<>();
 
-            com.eventui.api.bridge.BridgeMessage message =
-                    new PluginBridgeMessage(
-                            com.eventui.api.bridge.MessageType.EVENT_RELOAD_NOTIFICATION,
-                            payload,
-                            player.getUniqueId()
-                    );
+        sender.sendMessage("§eImporting progress from §f" + source.getFileName() + "§e...");
+
+        // ========== Lector (async) ==========
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            try (BufferedReader in = Files.newBufferedReader(source, StandardCharsets.UTF_8)) {
+                var json = ProgressNdjson.newReader(in);
+                ProgressNdjson.ImportedPlayer imported;
+                while ((imported = ProgressNdjson.readPlayer(json)) != null) {
+                    if (!enqueue(queue, imported)) {
+                        return; // Plugin deshabilitado: abandonar
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                readFailure.set(e.getMessage());
+            }
+            enqueue(queue, END_OF_IMPORT);
+        });
+
+        // ========== Aplicación (main thread, por tandas) ==========
+        long start = System.currentTimeMillis();
+        int[] imported = {0};
+        int[] skipped = {0};
+        AtomicReference<BukkitTask> task = new AtomicReference<>();
+
+        task.set(plugin.getServer().getScheduler().runTaskTimer(plugin, () -> {
+            for (int i = 0; i < IMPORT_PLAYERS_PER_TICK; i++) {
+                ProgressNdjson.ImportedPlayer next = queue.poll();
+                if (next == null) {
+                    return; // El lector todavía no produjo más
+                }
 
-            plugin.getEventBridge().sendMessage(message);
+                if (next == END_OF_IMPORT) {
+                    task.get().cancel();
+                    finishImport(sender, source, imported[0], skipped[0], readFailure.get(), start);
+                    return;
+                }
+
+                skipped[0] += plugin.getStorage().importPlayer(next);
+                if (++imported[0] % TRANSFER_REPORT_INTERVAL == 0) {
+                    sender.sendMessage("§7Imported " + imported[0] + " players...");
+                }
+            }
+        }, 1L, 1L));
+    }
+
+    private void finishImport(CommandSender sender, Path source, int imported, int skipped,
+                              String failure, long start) {
+        long elapsed = System.currentTimeMillis() - start;
+        LOGGER.info("Imported progress of " + imported + " players from " + source + " in " + elapsed + " ms"
+                + (skipped > 0 ? " (" + skipped + " unknown entries skipped)" : ""));
+
+        if (failure != null) {
+            LOGGER.warning("Progress import stopped early: " + failure);
+            sender.sendMessage("§cImport stopped after " + imported + " players: " + failure);
+        } else {
+            sender.sendMessage("§aImported " + imported + " players from §f" + source.getFileName()
+                    + " §7(" + elapsed + " ms" + (skipped > 0 ? ", " + skipped + " unknown entries skipped" : "") + ")");
         }
 
-        LOGGER.info("✓ Sent reload notification to " + onlinePlayers.size() + " player(s)");
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, plugin::saveProgress);
+    }
 
-        return onlinePlayers.size();
+    /**
+     * Encola esperando mientras el plugin siga activo (la cola acotada frena al lector).
+     *
+     * @return false si el plugin se deshabilitó
+     */
+    private boolean enqueue(BlockingQueue<ProgressNdjson.ImportedPlayer> queue,
+                            ProgressNdjson.ImportedPlayer imported) {
+        try {
+            while (!queue.offer(imported, 1, TimeUnit.SECONDS)) {
+                if (!plugin.isEnabled()) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
     }
 
+    /**
+     * Resuelve un nombre de archivo dentro de exports/ (sin salir de la carpeta).
+     *
+     * @return Ruta, o null si el nombre intenta escapar de exports/
+     */
+    private Path resolveExportFile(String name) {
+        Path exports = new File(plugin.getDataFolder(), "exports").toPath().toAbsolutePath().normalize();
+        Path file = exports.resolve(name).normalize();
+        return file.startsWith(exports) && !file.equals(exports) ? file : null;
+    }
 }
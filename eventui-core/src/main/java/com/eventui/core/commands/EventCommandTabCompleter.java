@@ -10,6 +10,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Tab completer para comandos de EventUI.
@@ -31,7 +32,8 @@ public class EventCommandTabCompleter implements TabCompleter {
             // Primer argumento: subcomandos
             List<String> subcommands = Arrays.asList(
                     "list", "info", "progress", "start", "reload",
-                    "reset", "complete", "debug", "setprogress", "reloadevent"
+                    "reset", "complete", "debug", "setprogress", "reloadevent", "history",
+                    "export", "import", "community", "top", "claim"
             );
 
             String partial = args[0].toLowerCase();
@@ -44,7 +46,7 @@ public class EventCommandTabCompleter implements TabCompleter {
             String subcommand = args[0].toLowerCase();
 
             switch (subcommand) {
-                case "info", "start", "complete", "debug", "reloadevent" -> {
+                case "info", "start", "complete", "debug", "reloadevent", "top" -> {
                     // Eventos disponibles
                     completions = getAvailableEventIds(args[1]);
                 }
@@ -62,6 +64,14 @@ public class EventCommandTabCompleter implements TabCompleter {
                         completions.addAll(getPlayerEventIds(player, args[1]));
                     }
                 }
+                case "history" -> {
+                    // Jugadores online
+                    String partial = args[1].toLowerCase();
+                    completions = plugin.getServer().getOnlinePlayers().stream()
+                            .map(Player::getName)
+                            .filter(name -> name.toLowerCase().startsWith(partial))
+                            .collect(Collectors.toList());
+                }
                 case "setprogress" -> {
                     // Eventos en progreso
                     if (sender instanceof Player player) {
@@ -78,6 +88,13 @@ public class EventCommandTabCompleter implements TabCompleter {
                 // IDs de objetivos del evento seleccionado
                 String eventId = args[1];
                 completions = getObjectiveIds(eventId, args[2]);
+            } else if ("history".equals(subcommand)) {
+                completions = getAvailableEventIds(args[2]);
+            } else if ("top".equals(subcommand)) {
+                String partial = args[2].toLowerCase();
+                completions = Stream.of("fastest", "contributions")
+                        .filter(board -> board.startsWith(partial))
+                        .collect(Collectors.toList());
             }
 
         } else if (args.length == 4) {
@@ -0,0 +1,237 @@
+package com.eventui.core.community;
+
+import com.eventui.api.objective.ObjectiveType;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.IntFunction;
+import java.util.function.LongConsumer;
+
+/**
+ * Meta comunitaria: un contador global alimentado por las acciones de todos los jugadores.*
+ * ARQUITECTURA:
+ * - Total en un LongAdder (celdas repartidas por hilo): sumar nunca compite por una sola línea de caché
+ * - Aporte de cada jugador ONLINE en un long[] indexado por slot de sesión (SessionRegistry)
+ * - Al salir, el aporte del slot se mueve a un mapa por UUID; al entrar vuelve al array
+ * - Los hitos (milestones) NO se comprueban al sumar: los revisa una tarea de baja frecuencia
+ * - Ventana opcional [from, until): fuera de ella la meta no suma. Se evalúa en refreshActive()
+ *   (tarea de baja frecuencia), no en cada aporte*
+ * El array por slot solo crece y se escribe desde el hilo principal (eventos de Bukkit);
+ * el guardado async lo lee bajo el mismo lock que entrar/salir (un aporte nunca se cuenta dos veces).
+ */
+public final class CommunityGoal {
+
+    private static final VarHandle CONTRIBUTIONS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final String id;
+    private final String displayName;
+    private final ObjectiveType type;
+    private final String match;
+    private final long target;
+    private final long[] milestones;
+    private final long activeFrom;
+    private final long activeUntil;
+    private volatile boolean active;
+
+    private final LongAdder total = new LongAdder();
+    private volatile long[] bySlot = new long[0];
+    private final Map<UUID, Long> offline = new ConcurrentHashMap<>();
+
+    // Estado de la tarea periódica (hilo principal)
+    private int reachedMilestones;
+    private long lastBroadcastTotal = -1;
+
+    /**
+     * @param match      Valor que debe coincidir (bloque, entidad, ítem, custom_id); null = cualquiera
+     * @param milestones Umbrales anunciados (se ordenan; el target se añade como último hito)
+     * @param from       Inicio (epoch millis), Long.MIN_VALUE = siempre abierta desde el principio
+     * @param until      Fin exclusivo (epoch millis), Long.MAX_VALUE = sin fin
+     */
+    public CommunityGoal(String id, String displayName, ObjectiveType type, String match,
+                         long target, long[] milestones, long from, long until) {
+        if (target <= 0) {
+            throw new IllegalArgumentException("Community goal target must be positive");
+        }
+        if (from >= until) {
+            throw new IllegalArgumentException("available_from must be before available_until");
+        }
+
+        this.id = id;
+        this.displayName = displayName;
+        this.type = type;
+        this.match = match;
+        this.target = target;
+
+        long[] sorted = Arrays.stream(milestones).filter(m -> m > 0 && m < target).sorted().distinct().toArray();
+        this.milestones = Arrays.copyOf(sorted, sorted.length + 1);
+        this.milestones[sorted.length] = target;
+        this.activeFrom = from;
+        this.activeUntil = until;
+    }
+
+    /**
+     * Recalcula si la meta acepta aportes en ese momento.
+     *
+     * @return true si cambió
+     */
+    boolean refreshActive(long now) {
+        boolean open = now >= activeFrom && now < activeUntil;
+        if (open == active) {
+            return false;
+        }
+        active = open;
+        return true;
+    }
+
+    /**
+     * @return true si la meta está dentro de su ventana (según el último refreshActive)
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Suma un aporte.
+     *
+     * @param slot Slot de sesión del jugador, o -1 si no tiene
+     */
+    void add(int slot, UUID playerId, long amount) {
+        total.add(amount);
+
+        long[] contributions = bySlot;
+        if (slot >= 0 && slot < contributions.length) {
+            CONTRIBUTIONS.getAndAdd(contributions, slot, amount);
+        } else {
+            offline.merge(playerId, amount, Long::sum);
+        }
+    }
+
+    /**
+     * Mueve el aporte guardado del jugador a su slot. Llamar al entrar.
+     */
+    synchronized void attach(int slot, UUID playerId) {
+        long[] contributions = bySlot;
+        if (slot >= contributions.length) {
+            contributions = Arrays.copyOf(contributions, Math.max(slot + 1, contributions.length * 2));
+            bySlot = contributions;
+        }
+
+        Long stored = offline.remove(playerId);
+        CONTRIBUTIONS.setVolatile(contributions, slot, stored != null ? stored : 0L);
+    }
+
+    /**
+     * Devuelve el aporte del slot al mapa por UUID. Llamar al salir (antes de liberar el slot).
+     */
+    synchronized void detach(int slot, UUID playerId) {
+        long[] contributions = bySlot;
+        if (slot < 0 || slot >= contributions.length) {
+            return;
+        }
+
+        long amount = (long) CONTRIBUTIONS.getAndSet(contributions, slot, 0L);
+        if (amount > 0) {
+            offline.merge(playerId, amount, Long::sum);
+        }
+    }
+
+    /**
+     * @param slot Slot de sesión del jugador, o -1 si está offline
+     */
+    public long contributionOf(int slot, UUID playerId) {
+        long[] contributions = bySlot;
+        if (slot >= 0 && slot < contributions.length) {
+            return (long) CONTRIBUTIONS.getVolatile(contributions, slot);
+        }
+        return offline.getOrDefault(playerId, 0L);
+    }
+
+    /**
+     * Recorre los aportes: primero los guardados por UUID, luego los de los slots online.
+     *
+     * @param playerAt Traducción slot → jugador (null si el slot está libre)
+     */
+    synchronized void forEachContribution(IntFunction<UUID> playerAt, BiConsumer<UUID, Long> action) {
+        offline.forEach(action);
+
+        long[] contributions = bySlot;
+        for (int slot = 0; slot < contributions.length; slot++) {
+            long amount = (long) CONTRIBUTIONS.getVolatile(contributions, slot);
+            UUID playerId = amount > 0 ? playerAt.apply(slot) : null;
+            if (playerId != null) {
+                action.accept(playerId, amount);
+            }
+        }
+    }
+
+    /**
+     * Restaura el estado guardado. Llamar antes de abrir sesiones.
+     */
+    void restore(long savedTotal, Map<UUID, Long> contributions) {
+        total.add(savedTotal);
+        offline.putAll(contributions);
+
+        long current = total.sum();
+        while (reachedMilestones < milestones.length && current >= milestones[reachedMilestones]) {
+            reachedMilestones++; // Ya anunciados antes del reinicio
+        }
+    }
+
+    /**
+     * Avanza los hitos alcanzados desde la última revisión.
+     *
+     * @param onReached Recibe cada umbral recién alcanzado, en orden
+     */
+    void checkMilestones(LongConsumer onReached) {
+        long current = total.sum();
+        while (reachedMilestones < milestones.length && current >= milestones[reachedMilestones]) {
+            onReached.accept(milestones[reachedMilestones++]);
+        }
+    }
+
+    /**
+     * @return true si el total cambió desde el último broadcast (y lo marca como enviado)
+     */
+    boolean takeBroadcast() {
+        long current = total.sum();
+        if (current == lastBroadcastTotal) {
+            return false;
+        }
+        lastBroadcastTotal = current;
+        return true;
+    }
+
+    boolean matches(String value) {
+        return match == null || match.equals(value);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public ObjectiveType getType() {
+        return type;
+    }
+
+    public long getTarget() {
+        return target;
+    }
+
+    public long getTotal() {
+        return total.sum();
+    }
+
+    public boolean isCompleted() {
+        return total.sum() >= target;
+    }
+}
@@ -0,0 +1,296 @@
+package com.eventui.core.community;
+
+import com.eventui.api.bridge.MessageType;
+import com.eventui.api.objective.ObjectiveType;
+import com.eventui.core.EventUIPlugin;
+import com.eventui.core.bridge.PluginBridgeMessage;
+import com.eventui.core.event.EventWindow;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.bukkit.entity.Player;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Metas comunitarias (community-goals.yml) y su estado persistido (community-goals.json).*
+ * FLUJO:
+ * 1. El tracker consulta tracks(tipo) (una máscara de bits de los tipos con metas abiertas) y solo
+ *    entonces llama a contribute(jugador, tipo, valor, cantidad): lookup por tipo (EnumMap)
+ *    → LongAdder + array por slot. Sin locks, sin paquetes
+ * 2. checkMilestones() (cada segundo) abre / cierra las metas con ventana y anuncia los hitos cruzados
+ * 3. broadcastTotals() (cada N segundos) envía UN mensaje por jugador con los totales que cambiaron
+ * 4. save() (con el autosave, async) escribe totales y aportes por jugador*
+ * Formato de community-goals.yml:
+ * goals:
+ *   weekend-stone:
+ *     name: "Mine 1,000,000 stone"
+ *     type: MINE_BLOCK          # MINE_BLOCK, PLACE_BLOCK, KILL_ENTITY, CRAFT_ITEM o CUSTOM
+ *     match: "minecraft:stone"  # bloque / entidad / ítem / custom_id (opcional: cualquiera)
+ *     target: 1000000
+ *     milestones: [250000, 500000]
+ *     available_from: "2026-12-05T18:00"    # opcional, mismo formato que los eventos
+ *     available_until: "2026-12-08T00:00"   # opcional (exclusivo)
+ */
+public class CommunityGoalManager {
+
+    private static final Logger LOGGER = Logger.getLogger(CommunityGoalManager.class.getName());
+
+    private static final String GOALS_FILE = "community-goals.yml";
+    private static final String STATE_FILE = "community-goals.json";
+
+    private final EventUIPlugin plugin;
+    private final Map<String, CommunityGoal> goals = new LinkedHashMap<>();
+    private final Map<ObjectiveType, CommunityGoal[]> goalsByType = new EnumMap<>(ObjectiveType.class);
+    private volatile long activeTypes; // Bit por ObjectiveType.ordinal() con alguna meta abierta
+    private final Gson gson = new Gson();
+
+    public CommunityGoalManager(EventUIPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Carga las metas y su estado guardado. Llamar una vez, antes de abrir sesiones.
+     */
+    @SuppressWarnings("unchecked")
+    public void load() {
+        Path file = plugin.getDataFolder().toPath().resolve(GOALS_FILE);
+        if (!Files.exists(file)) {
+            return;
+        }
+
+        try (InputStream input = Files.newInputStream(file)) {
+            Map<String, Object> root = new Yaml().load(input);
+            Map<String, Object> section = root != null ? (Map<String, Object>) root.get("goals") : null;
+            if (section != null) {
+                section.forEach((id, value) -> parseGoal(id, (Map<String, Object>) value));
+            }
+        } catch (Exception e) {
+            LOGGER.severe("Failed to load " + GOALS_FILE + ": " + e.getMessage());
+            return;
+        }
+
+        Map<ObjectiveType, List<CommunityGoal>> byType = new EnumMap<>(ObjectiveType.class);
+        goals.values().forEach(goal -> byType.computeIfAbsent(goal.getType(), k -> new ArrayList<>()).add(goal));
+        byType.forEach((type, list) -> goalsByType.put(type, list.toArray(new CommunityGoal[0])));
+
+        loadState();
+        refreshWindows(System.currentTimeMillis());
+        LOGGER.info("Loaded " + goals.size() + " community goal(s)");
+    }
+
+    private void parseGoal(String id, Map<String, Object> data) {
+        try {
+            ObjectiveType type = ObjectiveType.valueOf(String.valueOf(data.get("type")).toUpperCase(Locale.ROOT));
+            Object match = data.get("match");
+            long target = ((Number) data.get("target")).longValue();
+
+            long[] milestones = new long[0];
+            if (data.get("milestones") instanceof List<?> list) {
+                milestones = list.stream().mapToLong(value -> ((Number) value).longValue()).toArray();
+            }
+
+            Object from = data.get("available_from");
+            Object until = data.get("available_until");
+
+            goals.put(id, new CommunityGoal(id, String.valueOf(data.getOrDefault("name", id)), type,
+                    match != null ? match.toString() : null, target, milestones,
+                    from != null ? EventWindow.parseTime(from.toString()) : Long.MIN_VALUE,
+                    until != null ? EventWindow.parseTime(until.toString()) : Long.MAX_VALUE));
+        } catch (RuntimeException e) {
+            LOGGER.warning("Skipping invalid community goal " + id + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return true si no hay metas configuradas (las tareas periódicas no hacen falta)
+     */
+    public boolean isEmpty() {
+        return goals.isEmpty();
+    }
+
+    /**
+     * Filtro previo del tracker: sin metas abiertas del tipo, ni siquiera se llama a contribute
+     * (una lectura volátil y un AND).
+     */
+    public boolean tracks(ObjectiveType type) {
+        return (activeTypes & (1L << type.ordinal())) != 0;
+    }
+
+    /**
+     * Suma una acción a las metas abiertas del tipo que coincidan. Camino caliente del tracker
+     * (llamar solo si tracks(type)).
+     *
+     * @param value Bloque / entidad / ítem / custom_id de la acción
+     */
+    public void contribute(UUID playerId, ObjectiveType type, String value, long amount) {
+        CommunityGoal[] candidates = goalsByType.get(type);
+        if (candidates == null || amount <= 0) {
+            return;
+        }
+
+        int slot = -2; // Se resuelve solo si alguna meta coincide
+        for (CommunityGoal goal : candidates) {
+            if (goal.isActive() && goal.matches(value)) {
+                if (slot == -2) {
+                    slot = plugin.getSessionRegistry().slotOf(playerId);
+                }
+                goal.add(slot, playerId, amount);
+            }
+        }
+    }
+
+    public void openSession(int slot, UUID playerId) {
+        goals.values().forEach(goal -> goal.attach(slot, playerId));
+    }
+
+    public void closeSession(int slot, UUID playerId) {
+        goals.values().forEach(goal -> goal.detach(slot, playerId));
+    }
+
+    /**
+     * Abre / cierra las metas según su ventana y rehace la máscara de tipos.
+     */
+    private void refreshWindows(long now) {
+        long types = 0L;
+        for (CommunityGoal goal : goals.values()) {
+            if (goal.refreshActive(now)) {
+                LOGGER.info("Community goal " + goal.getId() + (goal.isActive() ? " opened" : " closed"));
+            }
+            if (goal.isActive()) {
+                types |= 1L << goal.getType().ordinal();
+            }
+        }
+        activeTypes = types;
+    }
+
+    /**
+     * Abre / cierra las metas con ventana y anuncia los hitos cruzados desde la última llamada.
+     * Tarea de baja frecuencia (hilo principal).
+     */
+    public void checkMilestones() {
+        refreshWindows(System.currentTimeMillis());
+        for (CommunityGoal goal : goals.values()) {
+            goal.checkMilestones(threshold -> {
+                String message = threshold >= goal.getTarget()
+                        ? "§6§l✔ COMMUNITY GOAL COMPLETE: §e" + goal.getDisplayName()
+                        : "§6Community goal §e" + goal.getDisplayName() + "§6 reached §f"
+                          + threshold + "§7/" + goal.getTarget();
+                plugin.getServer().getOnlinePlayers().forEach(player -> player.sendMessage(message));
+                LOGGER.info("Community goal " + goal.getId() + " reached " + threshold + "/" + goal.getTarget());
+            });
+        }
+    }
+
+    /**
+     * Envía a cada jugador online los totales (y su aporte) si algún total cambió
+     * desde el último envío. Un mensaje por jugador por intervalo, nunca por incremento.
+     */
+    public void broadcastTotals() {
+        boolean changed = false;
+        for (CommunityGoal goal : goals.values()) {
+            changed |= goal.takeBroadcast();
+        }
+        if (!changed) {
+            return;
+        }
+
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            UUID playerId = player.getUniqueId();
+            int slot = plugin.getSessionRegistry().slotOf(playerId);
+
+            List<Map<String, Object>> entries = new ArrayList<>(goals.size());
+            for (CommunityGoal goal : goals.values()) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("id", goal.getId());
+                entry.put("name", goal.getDisplayName());
+                entry.put("total", goal.getTotal());
+                entry.put("target", goal.getTarget());
+                entry.put("contribution", goal.contributionOf(slot, playerId));
+                entries.add(entry);
+            }
+
+            plugin.getEventBridge().sendMessage(new PluginBridgeMessage(
+                    MessageType.COMMUNITY_GOAL_UPDATE, Map.of("goals", gson.toJson(entries)), playerId));
+        }
+    }
+
+    public Collection<CommunityGoal> getGoals() {
+        return Collections.unmodifiableCollection(goals.values());
+    }
+
+    // ========== Persistencia ==========
+
+    /**
+     * Guarda totales y aportes (escritura a temporal + move). Seguro desde un hilo async.
+     */
+    public synchronized void save() throws IOException {
+        if (goals.isEmpty()) {
+            return;
+        }
+
+        JsonObject root = new JsonObject();
+        for (CommunityGoal goal : goals.values()) {
+            JsonObject contributions = new JsonObject();
+            goal.forEachContribution(plugin.getSessionRegistry()::playerAt,
+                    (playerId, amount) -> contributions.addProperty(playerId.toString(), amount));
+
+            JsonObject state = new JsonObject();
+            state.addProperty("total", goal.getTotal());
+            state.add("contributions", contributions);
+            root.add(goal.getId(), state);
+        }
+
+        Path target = plugin.getDataFolder().toPath().resolve(STATE_FILE);
+        Path temp = target.resolveSibling(STATE_FILE + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            gson.toJson(root, writer);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void loadState() {
+        Path file = plugin.getDataFolder().toPath().resolve(STATE_FILE);
+        if (!Files.exists(file)) {
+            return;
+        }
+
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            JsonObject root = JsonParser.parseReader(reader).getAsJsonObject();
+            for (Map.Entry<String, JsonElement> entry : root.entrySet()) {
+                CommunityGoal goal = goals.get(entry.getKey());
+                if (goal == null) {
+                    continue; // Meta quitada de la config
+                }
+
+                JsonObject state = entry.getValue().getAsJsonObject();
+                Map<UUID, Long> contributions = new HashMap<>();
+                state.getAsJsonObject("contributions").entrySet().forEach(contribution ->
+                        contributions.put(UUID.fromString(contribution.getKey()), contribution.getValue().getAsLong()));
+                goal.restore(state.get("total").getAsLong(), contributions);
+            }
+        } catch (Exception e) {
+            LOGGER.severe("Failed to load " + STATE_FILE + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.eventui.core.config;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * Mapa String → String inmutable respaldado por un solo array (parámetros, ui_resources, metadata).*
+ * ARQUITECTURA:
+ * - [k0, v0, k1, v1, ...] con las claves ordenadas: búsqueda binaria, sin nodos ni tabla hash
+ * - Los mapas de las definiciones tienen pocas entradas: ~32 + 8·n bytes frente a los cientos
+ *   de un HashMap envuelto en unmodifiableMap
+ * - equals / hashCode compatibles con cualquier Map (hash cacheado: se usa como clave en DefinitionPool)
+ * - Cualquier intento de modificarlo lanza UnsupportedOperationException
+ */
+public final class CompactStringMap extends AbstractMap<String, String> {
+
+    private static final CompactStringMap EMPTY = new CompactStringMap(new String[0]);
+
+    private final String[] table;
+    private int hash; // 0 = sin calcular
+
+    private CompactStringMap(String[] table) {
+        this.table = table;
+    }
+
+    /**
+     * @return El mismo mapa si ya es compacto; si no, una copia compacta (null → vacío)
+     */
+    public static CompactStringMap copyOf(Map<String, String> map) {
+        if (map instanceof CompactStringMap compact) {
+            return compact;
+        }
+        if (map == null || map.isEmpty()) {
+            return EMPTY;
+        }
+
+        String[] keys = map.keySet().toArray(new String[0]);
+        Arrays.sort(keys);
+
+        String[] table = new String[keys.length * 2];
+        for (int i = 0; i < keys.length; i++) {
+            String value = map.get(keys[i]);
+            if (value == null) {
+                throw new NullPointerException("Null value for key " + keys[i]);
+            }
+            table[2 * i] = keys[i];
+            table[2 * i + 1] = value;
+        }
+        return new CompactStringMap(table);
+    }
+
+    /**
+     * Copia con las claves y valores dados por el pool (mismo orden, sin reordenar).
+     */
+    CompactStringMap withStrings(UnaryOperator<String> canonical) {
+        String[] copy = new String[table.length];
+        for (int i = 0; i < table.length; i++) {
+            copy[i] = canonical.apply(table[i]);
+        }
+        return new CompactStringMap(copy);
+    }
+
+    /**
+     * @return Bytes aproximados del mapa (sin contar las cadenas), para el informe de DefinitionPool
+     */
+    long shallowSize() {
+        return 32L + 4L * table.length;
+    }
+
+    @Override
+    public int size() {
+        return table.length >>> 1;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return table.length == 0;
+    }
+
+    @Override
+    public String get(Object key) {
+        int index = indexOf(key);
+        return index >= 0 ? table[2 * index + 1] : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new Iterator<>() {
+                    private int next;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < table.length;
+                    }
+
+                    @Override
+                    public Entry<String, String> next() {
+                        if (next >= table.length) {
+                            throw new NoSuchElementException();
+                        }
+                        Entry<String, String> entry = new SimpleImmutableEntry<>(table[next], table[next + 1]);
+                        next += 2;
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return CompactStringMap.this.size();
+            }
+        };
+    }
+
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0 && table.length > 0) {
+            for (int i = 0; i < table.length; i += 2) {
+                h += table[i].hashCode() ^ table[i + 1].hashCode(); // Mismo contrato que Map.hashCode
+            }
+            hash = h;
+        }
+        return h;
+    }
+
+    private int indexOf(Object key) {
+        if (!(key instanceof String target)) {
+            return -1;
+        }
+
+        int low = 0;
+        int high = (table.length >>> 1) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = table[2 * mid].compareTo(target);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,193 @@
+package com.eventui.core.config;
+
+import com.eventui.api.event.EventDefinition;
+import com.eventui.api.objective.ObjectiveDefinition;
+import com.eventui.api.ui.UIConfig;
+import com.eventui.api.ui.UIElement;
+import com.eventui.core.event.EventDefinitionImpl;
+import com.eventui.core.objective.ObjectiveDefinitionImpl;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pool de estructuras inmutables compartidas entre definiciones (flyweight / interning).*
+ * - string(): una sola instancia por texto ("block", "minecraft:stone", "#FFFFFF"...)
+ * - map(): un solo CompactStringMap por contenido, con claves y valores del pool
+ *   (los records lo guardan sin copiar: CompactStringMap.copyOf devuelve el mismo objeto)
+ * - list(): una sola lista inmutable por contenido
+ * - objective() / element(): objetivos y elementos de UI idénticos son el mismo objeto*
+ * USOS:
+ * - EventTemplate: un pool por archivo mientras se expande la plantilla (un solo hilo)
+ * - Pasada de interning tras cada carga completa (event() / uiConfig()): un pool por loader,
+ *   que también reciben las recargas de un archivo suelto (hot reload, /ev reloadevent).
+ *   Esos dos puntos de entrada están sincronizados: el watcher carga desde su propio hilo*
+ * report() resume el efecto: instancias que entraron frente a únicas que quedaron, con un tamaño
+ * aproximado (JVM de 64 bits con compressed oops). Solo contadores: el pool no retiene las entradas
+ * reemplazadas (vive de recarga en recarga hasta la siguiente carga completa).
+ * Una entrada que ya es la instancia del pool no cuenta (p. ej. una definición recargada sin cambios).
+ */
+final class DefinitionPool {
+
+    private static final long OBJECTIVE_SIZE = 40;
+    private static final long ELEMENT_SIZE = 48;
+
+    private final Map<String, String> strings = new HashMap<>();
+    private final Map<Map<String, String>, CompactStringMap> maps = new HashMap<>();
+    private final Map<List<String>, List<String>> lists = new HashMap<>();
+    private final Map<ObjectiveDefinition, ObjectiveDefinition> objectives = new HashMap<>();
+    private final Map<UIElement, UIElement> elements = new HashMap<>();
+
+    // Informe: instancias que entraron (salvo las que ya eran del pool) y su tamaño estimado
+    private long bytesBefore;
+    private long bytesAfter;
+    private int stringsBefore;
+    private int mapsBefore;
+    private int objectsBefore;
+
+    // ========== Pasada de interning ==========
+
+    /**
+     * @return La definición reconstruida con estructuras del pool
+     */
+    synchronized EventDefinition event(EventDefinition event) {
+        if (!(event instanceof EventDefinitionImpl impl)) {
+            return event;
+        }
+
+        List<ObjectiveDefinition> pooled = impl.objectives().stream().map(this::objective).toList();
+        return new EventDefinitionImpl(string(impl.id()), string(impl.displayName()), string(impl.description()),
+                pooled, map(impl.uiResources()), map(impl.metadata()), list(impl.dependencies()));
+    }
+
+    /**
+     * @return La UI reconstruida con estructuras del pool
+     */
+    synchronized UIConfig uiConfig(UIConfig config) {
+        if (!(config instanceof UIConfigImpl impl)) {
+            return config;
+        }
+
+        List<UIElement> pooled = impl.rootElements().stream().map(this::element).toList();
+        return new UIConfigImpl(string(impl.id()), string(impl.title()), impl.screenWidth(), impl.screenHeight(),
+                pooled, string(impl.associatedEventId()), map(impl.screenProperties()));
+    }
+
+    // ========== Estructuras ==========
+
+    String string(String value) {
+        if (value == null) {
+            return null;
+        }
+        String canonical = strings.putIfAbsent(value, value);
+        if (canonical == value) {
+            return canonical;
+        }
+
+        stringsBefore++;
+        bytesBefore += sizeOf(value);
+        if (canonical == null) {
+            bytesAfter += sizeOf(value);
+            return value;
+        }
+        return canonical;
+    }
+
+    /**
+     * @return Copia compacta compartida con claves y valores del pool
+     */
+    Map<String, String> map(Map<String, String> map) {
+        if (map == null || map.isEmpty()) {
+            return CompactStringMap.copyOf(null);
+        }
+        CompactStringMap canonical = maps.get(map);
+        if (canonical == map) {
+            return canonical;
+        }
+
+        mapsBefore++;
+        bytesBefore += 32L + 8L * map.size();
+        if (canonical == null) {
+            canonical = CompactStringMap.copyOf(map).withStrings(this::string);
+            maps.put(canonical, canonical);
+            bytesAfter += canonical.shallowSize();
+        }
+        return canonical;
+    }
+
+    List<String> list(List<String> list) {
+        if (list == null || list.isEmpty()) {
+            return List.of();
+        }
+
+        List<String> canonical = lists.get(list);
+        if (canonical == null) {
+            canonical = List.copyOf(list.stream().map(this::string).toList());
+            lists.put(canonical, canonical);
+        }
+        return canonical;
+    }
+
+    ObjectiveDefinition objective(ObjectiveDefinition objective) {
+        ObjectiveDefinition canonical = objectives.get(objective);
+        if (canonical == objective) {
+            return canonical;
+        }
+
+        objectsBefore++;
+        bytesBefore += OBJECTIVE_SIZE;
+        if (canonical != null) {
+            return canonical;
+        }
+
+        if (objective instanceof ObjectiveDefinitionImpl impl) {
+            objective = new ObjectiveDefinitionImpl(string(impl.id()), impl.type(), string(impl.description()),
+                    impl.targetAmount(), map(impl.parameters()), map(impl.uiResources()), impl.optional(),
+                    impl.windowTicks());
+        }
+        objectives.put(objective, objective);
+        bytesAfter += OBJECTIVE_SIZE;
+        return objective;
+    }
+
+    UIElement element(UIElement element) {
+        if (!(element instanceof UIElementImpl impl)) {
+            return element;
+        }
+        UIElement canonical = elements.get(element);
+        if (canonical == element) {
+            return canonical;
+        }
+
+        objectsBefore++;
+        bytesBefore += ELEMENT_SIZE;
+        if (canonical != null) {
+            return canonical;
+        }
+
+        List<UIElement> children = impl.children().stream().map(this::element).toList();
+        UIElement pooled = new UIElementImpl(string(impl.id()), impl.type(), impl.x(), impl.y(), impl.width(),
+                impl.height(), map(impl.properties()), children, impl.visible(), impl.zIndex());
+        elements.put(pooled, pooled);
+        bytesAfter += ELEMENT_SIZE;
+        return pooled;
+    }
+
+    // ========== Informe ==========
+
+    /**
+     * @return Resumen de una línea (para el log de carga)
+     */
+    synchronized String report() {
+        return String.format("strings %d → %d, maps %d → %d, objectives/elements %d → %d (~%d KB → ~%d KB)",
+                stringsBefore, strings.size(), mapsBefore, maps.size(),
+                objectsBefore, objectives.size() + elements.size(),
+                bytesBefore / 1024, bytesAfter / 1024);
+    }
+
+    private static long sizeOf(String value) {
+        // Objeto String (24) + cabecera del byte[] (16) + contenido (Latin-1; UTF-16 ocupa el doble)
+        return 40L + value.length();
+    }
+}
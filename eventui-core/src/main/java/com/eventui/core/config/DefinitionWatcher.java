@@ -0,0 +1,277 @@
+package com.eventui.core.config;
+
+import com.eventui.api.event.EventDefinition;
+import com.eventui.core.EventUIPlugin;
+import com.eventui.core.storage.EventStorage;
+import com.eventui.core.storage.ProgressMigration;
+import org.bukkit.entity.Player;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Hot reload incremental: vigila events/ y recarga SOLO los archivos que cambian.*
+ * FLUJO:
+ * 1. Hilo propio bloqueado en un WatchService (todos los subdirectorios; los nuevos se añaden al vuelo)
+ * 2. Los cambios se acumulan hasta DEBOUNCE_MS sin novedades: un guardado que el editor hace como
+ *    borrar + crear (o varias escrituras) se procesa una sola vez, ya con el archivo final
+ * 3. Se parsean solo esos archivos, en este mismo hilo (nunca en el hilo principal)
+ * 4. Diff contra el origen conocido de cada archivo (EventConfigLoader): eventos nuevos, modificados
+ *    y quitados (archivo borrado, o que ya no define ese ID, si ningún otro archivo lo define)
+ * 5. Hilo principal: registerEvents / unregisterEvents (el DefinitionRegistry rehace sus índices
+ *    por tipo en el mismo swap), reprogramación de temporizadores y migración de progreso si hace falta
+ * 6. Notificación solo a quien la necesita:
+ *    - Evento nuevo o quitado: todos los online (cambia la lista de eventos que ven)
+ *    - Evento modificado: los online con progreso en ese evento (el resto pide la lista al abrir la UI)*
+ * Un archivo con errores de YAML se ignora y se avisa en consola: el evento sigue con su definición
+ * anterior hasta el siguiente guardado válido.
+ */
+public class DefinitionWatcher {
+
+    private static final Logger LOGGER = Logger.getLogger(DefinitionWatcher.class.getName());
+
+    private static final long DEBOUNCE_MS = 500;
+
+    private final EventUIPlugin plugin;
+    private final EventConfigLoader loader;
+    private final Path root;
+    private final Map<WatchKey, Path> directories = new HashMap<>();
+
+    private WatchService watchService;
+    private Thread thread;
+
+    public DefinitionWatcher(EventUIPlugin plugin, EventConfigLoader loader) {
+        this.plugin = plugin;
+        this.loader = loader;
+        this.root = loader.getEventsDirectory();
+    }
+
+    /**
+     * Empieza a vigilar events/. Llamar después de la carga inicial de eventos.
+     */
+    public void start() throws IOException {
+        watchService = FileSystems.getDefault().newWatchService();
+        registerTree(root, null);
+
+        thread = new Thread(this::run, "EventUI-DefinitionWatcher");
+        thread.setDaemon(true);
+        thread.start();
+        LOGGER.info("Watching " + directories.size() + " event directory/directories for changes");
+    }
+
+    /**
+     * Deja de vigilar. Los cambios pendientes de aplicar se descartan.
+     */
+    public void close() {
+        if (watchService == null) {
+            return;
+        }
+        try {
+            watchService.close(); // Despierta al hilo con ClosedWatchServiceException
+        } catch (IOException e) {
+            LOGGER.warning("Failed to close definition watcher: " + e.getMessage());
+        }
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    // ========== Hilo del watcher ==========
+
+    private void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Set<Path> changed = new TreeSet<>();
+                collect(watchService.take(), changed);
+
+                // Debounce: seguir acumulando mientras lleguen cambios
+                WatchKey next;
+                while ((next = watchService.poll(DEBOUNCE_MS, TimeUnit.MILLISECONDS)) != null) {
+                    collect(next, changed);
+                }
+
+                if (!changed.isEmpty()) {
+                    processBatch(changed);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // close()
+        }
+    }
+
+    private void collect(WatchKey key, Set<Path> changed) {
+        Path directory = directories.get(key);
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || directory == null) {
+                LOGGER.warning("Definition watcher lost events; use /ev reload to resync");
+                continue;
+            }
+
+            Path path = directory.resolve((Path) event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                registerTree(path, changed); // Subcarpeta nueva (o movida) con sus archivos
+            } else if (isYaml(path)) {
+                changed.add(path);
+            }
+        }
+
+        if (!key.reset()) {
+            directories.remove(key); // Directorio borrado: sus archivos llegan como ENTRY_DELETE
+        }
+    }
+
+    /**
+     * Registra un directorio y sus subdirectorios.
+     *
+     * @param found Si no es null, recibe los YAML que ya contenían (carpeta creada tras arrancar)
+     */
+    private void registerTree(Path start, Set<Path> found) {
+        try (Stream<Path> paths = Files.walk(start)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                if (Files.isDirectory(path)) {
+                    WatchKey key = path.register(watchService,
+                            StandardWatchEventKinds.ENTRY_CREATE,
+                            StandardWatchEventKinds.ENTRY_MODIFY,
+                            StandardWatchEventKinds.ENTRY_DELETE);
+                    directories.put(key, path);
+                } else if (found != null && isYaml(path)) {
+                    found.add(path);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warning("Failed to watch " + start + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Parsea los archivos cambiados (este hilo) y aplica el resultado en el hilo principal.
+     */
+    private void processBatch(Set<Path> files) {
+        Map<Path, List<EventDefinition>> parsed = new LinkedHashMap<>();
+        Set<Path> deleted = new LinkedHashSet<>();
+
+        for (Path file : files) {
+            if (!Files.exists(file)) {
+                deleted.add(file);
+                continue;
+            }
+            try {
+                parsed.put(file, loader.loadEvents(file));
+            } catch (Exception e) {
+                LOGGER.severe("Hot reload skipped " + root.relativize(file) + ": " + e.getMessage());
+            }
+        }
+
+        if ((parsed.isEmpty() && deleted.isEmpty()) || !plugin.isEnabled()) {
+            return;
+        }
+        plugin.getServer().getScheduler().runTask(plugin, () -> apply(parsed, deleted));
+    }
+
+    // ========== Hilo principal ==========
+
+    private void apply(Map<Path, List<EventDefinition>> parsed, Set<Path> deleted) {
+        EventStorage storage = plugin.getStorage();
+
+        Map<String, EventDefinition> upserts = new LinkedHashMap<>();
+        Set<String> orphaned = new LinkedHashSet<>();
+
+        parsed.forEach((file, definitions) -> {
+            List<String> ids = definitions.stream().map(EventDefinition::getId).toList();
+            orphaned.addAll(loader.updateSource(file, ids)); // Los que el archivo ya no define
+            orphaned.removeAll(ids);
+            definitions.forEach(definition -> upserts.put(definition.getId(), definition));
+        });
+        for (Path file : deleted) {
+            orphaned.addAll(loader.updateSource(file, List.of()));
+        }
+
+        // Un ID solo desaparece si ningún otro archivo lo sigue definiendo
+        List<String> removed = new ArrayList<>();
+        for (String eventId : orphaned) {
+            if (!loader.hasSource(eventId)) {
+                removed.add(eventId);
+            }
+        }
+
+        Set<String> added = new HashSet<>();
+        Set<String> modified = new HashSet<>();
+        upserts.keySet().forEach(eventId ->
+                (storage.getEventDefinition(eventId).isPresent() ? modified : added).add(eventId));
+
+        Optional<ProgressMigration> migration = upserts.isEmpty()
+                ? Optional.empty()
+                : storage.registerEvents(upserts);
+        boolean unregistered = storage.unregisterEvents(removed);
+        if (upserts.isEmpty() && !unregistered) {
+            return;
+        }
+        plugin.getEventTimers().reschedule();
+
+        LOGGER.info("Hot reload: " + added.size() + " added, " + modified.size() + " modified, "
+                + (unregistered ? removed.size() : 0) + " removed");
+
+        Runnable notify = () -> notifyAffected(!added.isEmpty() || unregistered, modified);
+        migration.ifPresentOrElse(pending -> plugin.runProgressMigration(pending, notify), notify);
+    }
+
+    private void notifyAffected(boolean listChanged, Set<String> modified) {
+        List<UUID> affected = new ArrayList<>();
+
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            UUID playerId = player.getUniqueId();
+            if (listChanged || hasProgressIn(playerId, modified)) {
+                affected.add(playerId);
+            }
+        }
+
+        if (!affected.isEmpty()) {
+            plugin.notifyClientsReload(affected, "definitions_changed");
+        }
+    }
+
+    private boolean hasProgressIn(UUID playerId, Set<String> eventIds) {
+        int slot = plugin.getSessionRegistry().slotOf(playerId);
+        if (slot < 0) {
+            return false;
+        }
+
+        EventStorage storage = plugin.getStorage();
+        for (String eventId : eventIds) {
+            int eventIndex = storage.getEventIndex().indexOf(eventId);
+            if (eventIndex >= 0 && storage.getProgress(slot, eventIndex) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isYaml(Path path) {
+        String name = path.getFileName().toString();
+        return name.endsWith(".yml") || name.endsWith(".yaml");
+    }
+}
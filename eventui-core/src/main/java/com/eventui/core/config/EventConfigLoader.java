@@ -5,12 +5,13 @@ import com.eventui.api.objective.ObjectiveDefinition;
 import com.eventui.api.objective.ObjectiveType;
 import com.eventui.core.event.EventDefinitionImpl;
 import com.eventui.core.objective.ObjectiveDefinitionImpl;
-import org.yaml.snakeyaml.Yaml;
+import com.eventui.core.objective.StreakWindow;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 /**
@@ -21,12 +22,15 @@ public class EventConfigLoader {
 
     private static final Logger LOGGER = Logger.getLogger(EventConfigLoader.class.getName());
 
-    private final Yaml yaml;
     private final File eventsDirectory;
+    private final Path cacheFile;
+    private final Map<Path, List<String>> sourceFiles = new ConcurrentHashMap<>(); // archivo → IDs que define
+    private volatile DefinitionPool pool = new DefinitionPool(); // Estructuras compartidas de la última carga
+    private volatile int lastLoadFailures; // Archivos con error en el último loadAllEvents
 
     public EventConfigLoader(File pluginDataFolder) {
-        this.yaml = new Yaml();
         this.eventsDirectory = new File(pluginDataFolder, "events");
+        this.cacheFile = pluginDataFolder.toPath().resolve("cache").resolve("events.bin");
 
         if (!eventsDirectory.exists()) {
             eventsDirectory.mkdirs();
@@ -36,12 +40,24 @@ public class EventConfigLoader {
 
     /**
      * Carga todos los eventos del directorio (incluyendo subdirectorios).
+     * Un solo recorrido del árbol; el parseo se reparte entre varios hilos (ver YamlBatchLoader).
+     * Los archivos que no cambiaron desde la última carga salen de cache/events.bin (ver YamlDocumentCache).
+     * Con IDs repetidos gana el último archivo en orden de ruta.
+     * Un archivo de plantilla aporta todos los eventos que genera (ver EventTemplate).
      */
     public Map<String, EventDefinition> loadAllEvents() {
-        Map<String, EventDefinition> events = new HashMap<>();
+        Map<String, EventDefinition> events = new LinkedHashMap<>();
+        Path root = eventsDirectory.toPath();
+        sourceFiles.clear();
+        lastLoadFailures = 0;
 
-        // ✅ NUEVO: Buscar archivos recursivamente
-        List<File> files = findYamlFiles(eventsDirectory);
+        List<Path> files;
+        try {
+            files = YamlBatchLoader.findYamlFiles(root, Integer.MAX_VALUE);
+        } catch (IOException e) {
+            LOGGER.severe("Failed to scan events directory: " + e.getMessage());
+            return events;
+        }
 
         if (files.isEmpty()) {
             LOGGER.warning("No event files found in: " + eventsDirectory.getAbsolutePath());
@@ -49,103 +65,156 @@ public class EventConfigLoader {
             return events;
         }
 
-        for (File file : files) {
-            try {
-                EventDefinition event = loadEventFromFile(file);
-                events.put(event.getId(), event);
-
-                // ✅ Mostrar ruta relativa para mejor organización
-                String relativePath = eventsDirectory.toPath()
-                        .relativize(file.toPath())
-                        .toString();
-                LOGGER.info("✓ Loaded event: " + event.getId() + " from " + relativePath);
-
-            } catch (Exception e) {
-                LOGGER.severe("═══════════════════════════════");
-                LOGGER.severe("YAML ERROR in file: " + file.getName());
-                LOGGER.severe("Problem: " + e.getMessage());
-                LOGGER.severe("Common fixes:");
-                LOGGER.severe("  - Check indentation (use spaces, not tabs)");
-                LOGGER.severe("  - Verify all strings are properly quoted");
-                LOGGER.severe("  - Use YAML validator: https://www.yamllint.com");
-                LOGGER.severe("File location: " + file.getAbsolutePath());
-                LOGGER.severe("═══════════════════════════════");
+        long start = System.nanoTime();
+        YamlDocumentCache cache = YamlDocumentCache.open(cacheFile);
+        List<YamlBatchLoader.FileResult<List<EventDefinition>>> results =
+                YamlBatchLoader.loadAll(files, cache, this::parseDocument);
+        long parseMillis = (System.nanoTime() - start) / 1_000_000;
+        cache.save();
+
+        List<YamlBatchLoader.FileResult<List<EventDefinition>>> failures = new ArrayList<>();
+        Set<Path> directories = new HashSet<>();
+
+        for (YamlBatchLoader.FileResult<List<EventDefinition>> result : results) {
+            if (!result.isSuccess()) {
+                failures.add(result);
+                continue;
+            }
+
+            // ✅ Mostrar ruta relativa para mejor organización
+            String relativePath = root.relativize(result.file()).toString();
+            List<String> ids = new ArrayList<>(result.value().size());
+            for (EventDefinition event : result.value()) {
+                if (events.put(event.getId(), event) != null) {
+                    LOGGER.warning("Duplicate event id " + event.getId() + ": " + relativePath + " overrides an earlier file");
+                }
+                ids.add(event.getId());
+            }
+            sourceFiles.put(result.file().toAbsolutePath().normalize(), List.copyOf(ids));
+            directories.add(result.file().getParent());
+
+            if (ids.size() == 1) {
+                LOGGER.info("✓ Loaded event: " + ids.get(0) + " from " + relativePath);
+            } else {
+                LOGGER.info("✓ Loaded " + ids.size() + " events from template " + relativePath);
+            }
+        }
+
+        lastLoadFailures = failures.size();
+        if (!failures.isEmpty()) {
+            LOGGER.severe("═══════════════════════════════");
+            LOGGER.severe("YAML ERRORS in " + failures.size() + " file(s):");
+            for (YamlBatchLoader.FileResult<List<EventDefinition>> failure : failures) {
+                LOGGER.severe("  - " + root.relativize(failure.file()) + ": " + failure.error().getMessage());
             }
+            LOGGER.severe("Common fixes:");
+            LOGGER.severe("  - Check indentation (use spaces, not tabs)");
+            LOGGER.severe("  - Verify all strings are properly quoted");
+            LOGGER.severe("  - Use YAML validator: https://www.yamllint.com");
+            LOGGER.severe("═══════════════════════════════");
         }
 
+        // Interning: textos y mapas idénticos entre todos los eventos pasan a ser una sola instancia
+        DefinitionPool loadPool = new DefinitionPool();
+        events.replaceAll((id, event) -> loadPool.event(event));
+        pool = loadPool;
+
         if (events.isEmpty()) {
             LOGGER.warning("No events were loaded successfully. Check the errors above.");
         } else {
+            LOGGER.info("Interned event definitions: " + loadPool.report());
             LOGGER.info("Successfully loaded " + events.size() + " event(s) from " +
-                    countDirectories(eventsDirectory) + " directory/directories");
+                    directories.size() + " directory/directories (" + files.size() + " files parsed in "
+                    + parseMillis + " ms)");
         }
 
         return events;
     }
 
     /**
-     * Cuenta el número de directorios (incluyendo subdirectorios) que contienen archivos YAML.
-     *
-     * @param directory Directorio raíz
-     * @return Número de directorios con archivos
+     * @return Archivos que no se pudieron cargar en el último loadAllEvents
      */
-    private int countDirectories(File directory) {
-        Set<File> directories = new HashSet<>();
-        List<File> files = findYamlFiles(directory);
-
-        for (File file : files) {
-            directories.add(file.getParentFile());
-        }
-
-        return directories.size();
+    public int getLastLoadFailures() {
+        return lastLoadFailures;
     }
 
     /**
-     * Busca recursivamente todos los archivos .yml y .yaml en un directorio.
+     * Parsea un solo archivo. Seguro desde cualquier hilo.
      *
-     * @param directory Directorio raíz donde buscar
-     * @return Lista de archivos YAML encontrados
+     * @return El evento del archivo, o todos los de la plantilla
+     * @throws Exception Si el archivo no se puede leer o no es un evento válido
      */
-    private List<File> findYamlFiles(File directory) {
-        List<File> yamlFiles = new ArrayList<>();
-
-        if (!directory.exists() || !directory.isDirectory()) {
-            return yamlFiles;
+    public List<EventDefinition> loadEvents(Path file) throws Exception {
+        YamlBatchLoader.FileResult<List<EventDefinition>> result =
+                YamlBatchLoader.loadAll(List.of(file), this::parseDocument).get(0);
+        if (!result.isSuccess()) {
+            throw result.error();
         }
+        DefinitionPool current = pool;
+        return result.value().stream().map(current::event).toList();
+    }
 
-        File[] files = directory.listFiles();
-        if (files == null) {
-            return yamlFiles;
-        }
+    // ========== Archivo de origen de cada evento (reloadevent / hot reload) ==========
 
-        for (File file : files) {
-            if (file.isDirectory()) {
-                // ✅ Recursión: buscar en subdirectorios
-                yamlFiles.addAll(findYamlFiles(file));
-            } else if (file.getName().endsWith(".yml") || file.getName().endsWith(".yaml")) {
-                yamlFiles.add(file);
-            }
-        }
+    public Path getEventsDirectory() {
+        return eventsDirectory.toPath().toAbsolutePath().normalize();
+    }
+
+    /**
+     * @return Los IDs definidos por el archivo en la última carga (vacío si ninguno)
+     */
+    public List<String> eventIdsAt(Path file) {
+        return sourceFiles.getOrDefault(file.toAbsolutePath().normalize(), List.of());
+    }
+
+    /**
+     * @return El archivo que define el evento (búsqueda exacta por ID, en cualquier subdirectorio)
+     */
+    public Optional<Path> findEventFile(String eventId) {
+        return sourceFiles.entrySet().stream()
+                .filter(entry -> entry.getValue().contains(eventId))
+                .map(Map.Entry::getKey)
+                .sorted()
+                .reduce((first, last) -> last); // Con IDs repetidos gana el último en orden de ruta
+    }
 
-        return yamlFiles;
+    /**
+     * Actualiza el origen de un archivo recargado por separado.
+     *
+     * @param eventIds Vacío si el archivo se borró
+     * @return Los IDs que definía antes (vacío si ninguno)
+     */
+    public List<String> updateSource(Path file, List<String> eventIds) {
+        Path key = file.toAbsolutePath().normalize();
+        List<String> previous = eventIds.isEmpty() ? sourceFiles.remove(key) : sourceFiles.put(key, List.copyOf(eventIds));
+        return previous != null ? previous : List.of();
     }
 
+    /**
+     * @return true si algún archivo conocido define el evento
+     */
+    public boolean hasSource(String eventId) {
+        return sourceFiles.values().stream().anyMatch(ids -> ids.contains(eventId));
+    }
 
     /**
-     * Carga un evento desde un archivo específico.
+     * Parsea un documento: un evento, o todos los de una plantilla (ver EventTemplate).
      */
-    public EventDefinition loadEventFromFile(File file) throws IOException {
-        try (FileInputStream fis = new FileInputStream(file)) {
-            Map<String, Object> data = yaml.load(fis);
-            return parseEvent(data);
+    private List<EventDefinition> parseDocument(Map<String, Object> data) {
+        if (EventTemplate.isTemplate(data)) {
+            return EventTemplate.expand(this, data);
         }
+        return List.of(parseEvent(data, null, null));
     }
 
     /**
      * Parsea un mapa YAML a EventDefinition.
+     *
+     * @param objectives Objetivos ya construidos (plantillas), o null para parsear los del mapa
+     * @param pool       Estructuras compartidas entre los eventos del archivo, o null
      */
     @SuppressWarnings("unchecked")
-    private EventDefinition parseEvent(Map<String, Object> data) {
+    EventDefinition parseEvent(Map<String, Object> data, List<ObjectiveDefinition> objectives, DefinitionPool pool) {
         String id = (String) data.get("id");
 
         // ✅ SOPORTAR AMBOS FORMATOS
@@ -157,12 +226,14 @@ public class EventConfigLoader {
         String description = (String) data.get("description");
 
         // Parsear objetivos
-        List<ObjectiveDefinition> objectives = new ArrayList<>();
-        List<Map<String, Object>> objectivesList = (List<Map<String, Object>>) data.get("objectives");
+        if (objectives == null) {
+            objectives = new ArrayList<>();
+            List<Map<String, Object>> objectivesList = (List<Map<String, Object>>) data.get("objectives");
 
-        if (objectivesList != null) {
-            for (Map<String, Object> objData : objectivesList) {
-                objectives.add(parseObjective(objData));
+            if (objectivesList != null) {
+                for (Map<String, Object> objData : objectivesList) {
+                    objectives.add(parseObjective(objData, pool));
+                }
             }
         }
 
@@ -222,20 +293,32 @@ public class EventConfigLoader {
                     rewards.put("commands", commandsObj);
                 }
             }
+
+            // Botín: una tabla o una lista de tablas (se compila a tablas alias en RewardPlan)
+            Object lootObj = rewardsData.get("loot");
+            if (lootObj instanceof Map || lootObj instanceof List) {
+                rewards.put("loot", lootObj);
+            }
         }
 
         if (!rewards.isEmpty()) {
             metadata.put("rewards_data", new com.google.gson.Gson().toJson(rewards));
         }
 
+        if (pool != null) {
+            return new EventDefinitionImpl(pool.string(id), pool.string(displayName), pool.string(description),
+                    objectives, pool.map(uiResources), pool.map(metadata), pool.list(dependencies));
+        }
         return new EventDefinitionImpl(id, displayName, description, objectives, uiResources, metadata, dependencies);
     }
 
     /**
      * Parsea un objetivo desde YAML.
+     *
+     * @param pool Si no es null, el objetivo (y sus mapas) se comparten con los idénticos ya parseados
      */
     @SuppressWarnings("unchecked")
-    private ObjectiveDefinition parseObjective(Map<String, Object> data) {
+    ObjectiveDefinition parseObjective(Map<String, Object> data, DefinitionPool pool) {
         String id = (String) data.get("id");
         ObjectiveType type = ObjectiveType.valueOf(((String) data.get("type")).toUpperCase());
         String description = (String) data.get("description");
@@ -281,7 +364,20 @@ public class EventConfigLoader {
 
         boolean optional = data.containsKey("optional") && (Boolean) data.get("optional");
 
-        return new ObjectiveDefinitionImpl(id, type, description, targetAmount, parameters, uiResources, optional);
+        // Modificador de racha: también se acepta a nivel del objetivo (no solo dentro de target)
+        if (data.containsKey(StreakWindow.PARAMETER)) {
+            parameters.put(StreakWindow.PARAMETER, data.get(StreakWindow.PARAMETER).toString());
+        }
+
+        ObjectiveDefinitionImpl objective = pool != null
+                ? new ObjectiveDefinitionImpl(pool.string(id), type, pool.string(description), targetAmount,
+                        pool.map(parameters), pool.map(uiResources), optional)
+                : new ObjectiveDefinitionImpl(id, type, description, targetAmount, parameters, uiResources, optional);
+        if (parameters.containsKey(StreakWindow.PARAMETER) && objective.windowTicks() == 0) {
+            LOGGER.warning("Ignoring invalid " + StreakWindow.PARAMETER + " on objective " + id + ": "
+                    + parameters.get(StreakWindow.PARAMETER));
+        }
+        return pool != null ? pool.objective(objective) : objective;
     }
 
 
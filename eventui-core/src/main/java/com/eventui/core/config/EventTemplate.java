@@ -0,0 +1,188 @@
+package com.eventui.core.config;
+
+import com.eventui.api.event.EventDefinition;
+import com.eventui.api.objective.ObjectiveDefinition;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Plantillas de eventos: un archivo genera N eventos casi idénticos.*
+ * Formato:
+ * <pre>
+ * template:                       # un evento normal con marcadores ${nombre}
+ *   id: "mine-${ore}"
+ *   displayName: "Mine ${count} ${name}"
+ *   objectives:
+ *     - id: mine
+ *       type: MINE_BLOCK
+ *       description: "Mine ${count} ${name}"
+ *       target:
+ *         block: "minecraft:${ore}"
+ *         count: "${count}"       # marcador solo → conserva el tipo del valor (número)
+ * defaults:                       # opcional: valores comunes a todas las instancias
+ *   count: 64
+ * instances:
+ *   - { ore: diamond_ore, name: Diamond }
+ *   - { ore: iron_ore, name: Iron, count: 128 }
+ * </pre>*
+ * ARQUITECTURA (flyweight):
+ * - Los objetivos de la plantilla SIN marcadores se parsean una vez y el mismo objeto inmutable
+ *   va a todas las instancias
+ * - El resto comparte lo que coincida a través de un DefinitionPool por archivo: textos, mapas
+ *   de parámetros / ui_resources / metadata y objetivos idénticos son una sola instancia
+ * - La expansión trabaja sobre el árbol YAML ya cargado: un solo parseo de SnakeYAML por archivo*
+ * Un marcador sin valor, un ID repetido o una instancia inválida invalidan el archivo entero
+ * (se informa junto al resto de errores de YAML).
+ */
+final class EventTemplate {
+
+    private static final String TEMPLATE = "template";
+    private static final String DEFAULTS = "defaults";
+    private static final String INSTANCES = "instances";
+
+    private EventTemplate() {
+    }
+
+    static boolean isTemplate(Map<String, Object> document) {
+        return document.containsKey(TEMPLATE);
+    }
+
+    /**
+     * @return Un evento por instancia, en el orden de instances
+     */
+    @SuppressWarnings("unchecked")
+    static List<EventDefinition> expand(EventConfigLoader loader, Map<String, Object> document) {
+        if (!(document.get(TEMPLATE) instanceof Map<?, ?> templateData)
+                || !(document.get(INSTANCES) instanceof List<?> instances)) {
+            throw new IllegalArgumentException("Template files need a 'template' map and an 'instances' list");
+        }
+        Map<String, Object> template = (Map<String, Object>) templateData;
+        Map<String, Object> defaults = document.get(DEFAULTS) instanceof Map<?, ?> map
+                ? (Map<String, Object>) map
+                : Map.of();
+
+        DefinitionPool pool = new DefinitionPool();
+
+        // Objetivos fijos: un solo objeto para todas las instancias
+        List<Object> objectiveTemplates = template.get("objectives") instanceof List<?> list
+                ? (List<Object>) list
+                : List.of();
+        ObjectiveDefinition[] shared = new ObjectiveDefinition[objectiveTemplates.size()];
+        for (int i = 0; i < shared.length; i++) {
+            Object objective = objectiveTemplates.get(i);
+            if (!containsPlaceholder(objective)) {
+                shared[i] = loader.parseObjective((Map<String, Object>) objective, pool);
+            }
+        }
+
+        List<EventDefinition> events = new ArrayList<>(instances.size());
+        Set<String> ids = new HashSet<>();
+
+        for (int n = 0; n < instances.size(); n++) {
+            if (!(instances.get(n) instanceof Map<?, ?> instance)) {
+                throw new IllegalArgumentException("Template instance #" + (n + 1) + " is not a map");
+            }
+
+            Map<String, Object> parameters = new HashMap<>(defaults);
+            ((Map<String, Object>) instance).forEach(parameters::put);
+
+            try {
+                List<ObjectiveDefinition> objectives = new ArrayList<>(shared.length);
+                for (int i = 0; i < shared.length; i++) {
+                    objectives.add(shared[i] != null
+                            ? shared[i]
+                            : loader.parseObjective((Map<String, Object>) substitute(objectiveTemplates.get(i), parameters), pool));
+                }
+
+                Map<String, Object> data = new LinkedHashMap<>();
+                template.forEach((key, value) -> {
+                    if (!"objectives".equals(key)) {
+                        data.put(key, substitute(value, parameters));
+                    }
+                });
+
+                EventDefinition event = loader.parseEvent(data, objectives, pool);
+                if (!ids.add(event.getId())) {
+                    throw new IllegalArgumentException("duplicate event id " + event.getId());
+                }
+                events.add(event);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Template instance #" + (n + 1) + ": " + e.getMessage(), e);
+            }
+        }
+
+        return events;
+    }
+
+    /**
+     * Copia del árbol con los marcadores reemplazados (los valores sin marcadores se reutilizan tal cual).
+     */
+    private static Object substitute(Object value, Map<String, Object> parameters) {
+        if (value instanceof String text) {
+            return substituteText(text, parameters);
+        }
+        if (value instanceof List<?> list) {
+            List<Object> copy = new ArrayList<>(list.size());
+            list.forEach(element -> copy.add(substitute(element, parameters)));
+            return copy;
+        }
+        if (value instanceof Map<?, ?> map) {
+            Map<Object, Object> copy = new LinkedHashMap<>();
+            map.forEach((key, element) -> copy.put(key, substitute(element, parameters)));
+            return copy;
+        }
+        return value;
+    }
+
+    private static Object substituteText(String text, Map<String, Object> parameters) {
+        int start = text.indexOf("${");
+        if (start < 0) {
+            return text;
+        }
+
+        // "${x}" solo: el valor tal cual (un count numérico sigue siendo número)
+        if (start == 0 && text.indexOf('}') == text.length() - 1) {
+            return lookup(text.substring(2, text.length() - 1), parameters);
+        }
+
+        StringBuilder result = new StringBuilder(text.length() + 16);
+        int from = 0;
+        while (start >= 0) {
+            int end = text.indexOf('}', start);
+            if (end < 0) {
+                break; // "${" sin cerrar: texto literal
+            }
+            result.append(text, from, start).append(lookup(text.substring(start + 2, end), parameters));
+            from = end + 1;
+            start = text.indexOf("${", from);
+        }
+        return result.append(text, from, text.length()).toString();
+    }
+
+    private static Object lookup(String name, Map<String, Object> parameters) {
+        Object value = parameters.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("no value for ${" + name + "}");
+        }
+        return value;
+    }
+
+    private static boolean containsPlaceholder(Object value) {
+        if (value instanceof String text) {
+            return text.contains("${");
+        }
+        if (value instanceof List<?> list) {
+            return list.stream().anyMatch(EventTemplate::containsPlaceholder);
+        }
+        if (value instanceof Map<?, ?> map) {
+            return map.values().stream().anyMatch(EventTemplate::containsPlaceholder);
+        }
+        return false;
+    }
+}
@@ -23,7 +23,7 @@ public record UIConfigImpl(
 
     public UIConfigImpl {
         rootElements = rootElements != null ? Collections.unmodifiableList(List.copyOf(rootElements)) : List.of();
-        screenProperties = screenProperties != null ? Collections.unmodifiableMap(Map.copyOf(screenProperties)) : Map.of();
+        screenProperties = CompactStringMap.copyOf(screenProperties);
     }
 
     @Override
@@ -7,6 +7,7 @@ import org.yaml.snakeyaml.Yaml;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.logging.Logger;
 
@@ -20,10 +21,12 @@ public class UIConfigLoader {
 
     private final Yaml yaml;
     private final File uisDirectory;
+    private final Path cacheFile;
 
     public UIConfigLoader(File pluginDataFolder) {
         this.yaml = new Yaml();
         this.uisDirectory = new File(pluginDataFolder, "uis");
+        this.cacheFile = pluginDataFolder.toPath().resolve("cache").resolve("uis.bin");
 
         if (!uisDirectory.exists()) {
             uisDirectory.mkdirs();
@@ -33,31 +36,45 @@ public class UIConfigLoader {
     }
 
     /**
-     * Carga todas las configuraciones de UI.
+     * Carga todas las configuraciones de UI (parseo en paralelo, ver YamlBatchLoader).
+     * Los archivos sin cambios salen de cache/uis.bin (ver YamlDocumentCache).
      */
     public Map<String, UIConfig> loadAllUIConfigs() {
-        Map<String, UIConfig> configs = new HashMap<>();
+        Map<String, UIConfig> configs = new LinkedHashMap<>();
 
-        File[] files = uisDirectory.listFiles((dir, name) ->
-                name.endsWith(".yml") || name.endsWith(".yaml"));
+        List<Path> files;
+        try {
+            files = YamlBatchLoader.findYamlFiles(uisDirectory.toPath(), 1);
+        } catch (IOException e) {
+            LOGGER.severe("Failed to scan UIs directory: " + e.getMessage());
+            return configs;
+        }
 
-        if (files == null || files.length == 0) {
+        if (files.isEmpty()) {
             LOGGER.warning("No UI config files found, using default UI");
             return configs;
         }
 
-        for (File file : files) {
-            try {
-                UIConfig config = loadUIConfigFromFile(file);
-                configs.put(config.getId(), config);
-                LOGGER.info("✓ Loaded UI config: " + config.getId() + " from " + file.getName());
+        DefinitionPool pool = new DefinitionPool(); // Interning: elementos y propiedades repetidos, una instancia
+        YamlDocumentCache cache = YamlDocumentCache.open(cacheFile);
+        List<YamlBatchLoader.FileResult<UIConfig>> results = YamlBatchLoader.loadAll(files, cache, this::parseUIConfig);
+        cache.save();
 
-            } catch (Exception e) {
-                LOGGER.severe("Failed to load UI config from " + file.getName() + ": " + e.getMessage());
-                e.printStackTrace();
+        for (YamlBatchLoader.FileResult<UIConfig> result : results) {
+            String fileName = result.file().getFileName().toString();
+            if (!result.isSuccess()) {
+                LOGGER.severe("Failed to load UI config from " + fileName + ": " + result.error().getMessage());
+                continue;
             }
+
+            UIConfig config = pool.uiConfig(result.value());
+            configs.put(config.getId(), config);
+            LOGGER.info("✓ Loaded UI config: " + config.getId() + " from " + fileName);
         }
 
+        if (!configs.isEmpty()) {
+            LOGGER.info("Interned UI configs: " + pool.report());
+        }
         return configs;
     }
 
@@ -25,7 +25,7 @@ public record UIElementImpl(
 ) implements UIElement {
 
     public UIElementImpl {
-        properties = properties != null ? Collections.unmodifiableMap(Map.copyOf(properties)) : Map.of();
+        properties = CompactStringMap.copyOf(properties);
         children = children != null ? Collections.unmodifiableList(List.copyOf(children)) : List.of();
     }
 
@@ -0,0 +1,161 @@
+package com.eventui.core.config;
+
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Descubrimiento y parseo en paralelo de directorios de YAML (eventos, UIs).*
+ * ARQUITECTURA:
+ * - Un solo Files.walk por directorio; la lista se ordena por ruta → resultado determinista
+ * - Parseo repartido en un pool acotado (como mucho MAX_WORKERS hilos, nunca más que archivos)
+ * - SnakeYAML no es thread-safe: un Yaml por hilo del pool (ThreadLocal), nunca compartido
+ * - Cada archivo produce un FileResult con su valor O su error: un archivo roto no tumba al resto
+ *   y los errores se informan todos juntos, en el orden de los archivos
+ * - Con pocos archivos se parsea en el hilo llamante (crear el pool costaría más que parsear)
+ * - Con YamlDocumentCache, los archivos sin cambios no pasan por SnakeYAML
+ */
+final class YamlBatchLoader {
+
+    private static final int MAX_WORKERS = 8;
+    private static final int PARALLEL_THRESHOLD = 16;
+
+    /**
+     * Parser de un documento ya leído. Se ejecuta en hilos del pool: no debe tocar estado compartido.
+     */
+    @FunctionalInterface
+    interface DocumentParser<T> {
+        T parse(Map<String, Object> data) throws Exception;
+    }
+
+    /**
+     * Resultado de un archivo: value si se cargó, error si no.
+     */
+    record FileResult<T>(Path file, T value, Exception error) {
+
+        boolean isSuccess() {
+            return error == null;
+        }
+    }
+
+    private YamlBatchLoader() {
+    }
+
+    /**
+     * Archivos .yml / .yaml bajo root, ordenados por ruta.
+     *
+     * @param maxDepth 1 = solo el directorio; Integer.MAX_VALUE = recursivo
+     */
+    static List<Path> findYamlFiles(Path root, int maxDepth) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return List.of();
+        }
+
+        try (Stream<Path> paths = Files.walk(root, maxDepth)) {
+            return paths.filter(Files::isRegularFile)
+                    .filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.endsWith(".yml") || name.endsWith(".yaml");
+                    })
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Parsea todos los archivos (en paralelo si son bastantes).
+     *
+     * @return Un resultado por archivo, en el mismo orden que files
+     */
+    static <T> List<FileResult<T>> loadAll(List<Path> files, DocumentParser<T> parser) {
+        return loadAll(files, null, parser);
+    }
+
+    /**
+     * Igual que loadAll(files, parser), pero tomando de la caché los documentos de archivos sin cambios.
+     * Guardar la caché (save) queda a cargo del llamante.
+     *
+     * @param cache null = sin caché
+     */
+    static <T> List<FileResult<T>> loadAll(List<Path> files, YamlDocumentCache cache, DocumentParser<T> parser) {
+        return loadAll(files, cache, parser, MAX_WORKERS);
+    }
+
+    /**
+     * Igual que loadAll(files, cache, parser) con un tope de hilos: 1 = siempre en el hilo llamante
+     * (el benchmark compara así carga secuencial y paralela).
+     */
+    static <T> List<FileResult<T>> loadAll(List<Path> files, YamlDocumentCache cache, DocumentParser<T> parser,
+                                           int maxWorkers) {
+        int workers = Math.min(Math.min(maxWorkers, Runtime.getRuntime().availableProcessors()), files.size());
+        if (files.size() < PARALLEL_THRESHOLD || workers <= 1) {
+            Yaml yaml = new Yaml();
+            return files.stream().map(file -> load(yaml, cache, file, parser)).collect(Collectors.toList());
+        }
+
+        AtomicInteger threadIds = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "EventUI-YamlLoader-" + threadIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        ThreadLocal<Yaml> yamlPerWorker = ThreadLocal.withInitial(Yaml::new);
+
+        try {
+            List<Future<FileResult<T>>> futures = new ArrayList<>(files.size());
+            for (Path file : files) {
+                futures.add(pool.submit(() -> load(yamlPerWorker.get(), cache, file, parser)));
+            }
+
+            List<FileResult<T>> results = new ArrayList<>(files.size());
+            for (int i = 0; i < files.size(); i++) {
+                results.add(await(futures.get(i), files.get(i)));
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static <T> FileResult<T> load(Yaml yaml, YamlDocumentCache cache, Path file, DocumentParser<T> parser) {
+        try {
+            Map<String, Object> data = cache != null ? cache.load(file, yaml) : read(yaml, file);
+            if (data == null) {
+                throw new IllegalArgumentException("File is empty");
+            }
+            return new FileResult<>(file, parser.parse(data), null);
+        } catch (Exception e) {
+            return new FileResult<>(file, null, e);
+        }
+    }
+
+    private static Map<String, Object> read(Yaml yaml, Path file) throws IOException {
+        try (InputStream input = Files.newInputStream(file)) {
+            return yaml.load(input);
+        }
+    }
+
+    private static <T> FileResult<T> await(Future<FileResult<T>> future, Path file) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new FileResult<>(file, null, e);
+        } catch (ExecutionException e) {
+            return new FileResult<>(file, null, e.getCause() instanceof Exception cause ? cause : e);
+        }
+    }
+}
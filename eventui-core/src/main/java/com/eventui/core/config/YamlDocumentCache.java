@@ -0,0 +1,316 @@
+package com.eventui.core.config;
+
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Caché binaria de documentos YAML ya parseados (un archivo por directorio de definiciones).*
+ * ARQUITECTURA:
+ * - Se cachea el árbol del documento (mapas, listas, escalares), no los modelos: convertir el
+ *   árbol en EventDefinition / UIConfig es barato, lo caro es el escaneo de SnakeYAML; y así
+ *   un campo nuevo en un modelo no obliga a tocar el formato de la caché
+ * - Clave por archivo: ruta + tamaño + mtime + SHA-256 del contenido
+ *   · tamaño y mtime iguales → acierto sin leer el archivo
+ *   · si no, se lee y se calcula el hash: igual → acierto (touch, checkout sin cambios), distinto → parseo
+ * - Thread-safe: los hilos de YamlBatchLoader consultan y rellenan a la vez
+ * - save() escribe solo las entradas vistas en esta carga (las de archivos borrados se podan)
+ * - Caché ausente, corrupta o de otra versión → se ignora entera y se parsea todo (nunca falla la carga)*
+ * FORMATO (big-endian):
+ * <pre>
+ *   int magic ("EUIC"), int version, int entryCount
+ *   entryCount × (UTF path, long size, long modified, 32 bytes sha256, int length, length bytes documento)
+ *   documento = valor etiquetado: NULL | STRING | INT | LONG | DOUBLE | BOOLEAN | LIST | MAP (recursivo)
+ * </pre>
+ */
+final class YamlDocumentCache {
+
+    private static final Logger LOGGER = Logger.getLogger(YamlDocumentCache.class.getName());
+
+    private static final int MAGIC = 0x45554943; // "EUIC"
+    private static final int VERSION = 1;
+    private static final int HASH_LENGTH = 32;
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INT = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte BOOLEAN = 5;
+    private static final byte LIST = 6;
+    private static final byte MAP = 7;
+
+    private record Entry(long size, long modified, byte[] hash, byte[] document) {
+    }
+
+    private final Path file;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Set<String> seen = ConcurrentHashMap.newKeySet();
+    private volatile boolean dirty;
+
+    private YamlDocumentCache(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Abre la caché guardada (o una vacía si no existe o no se puede leer).
+     */
+    static YamlDocumentCache open(Path file) {
+        YamlDocumentCache cache = new YamlDocumentCache(file);
+        if (!Files.exists(file)) {
+            return cache;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                LOGGER.warning("Ignoring definition cache with unknown format: " + file.getFileName());
+                return cache;
+            }
+
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String path = in.readUTF();
+                long size = in.readLong();
+                long modified = in.readLong();
+                byte[] hash = in.readNBytes(HASH_LENGTH);
+                byte[] document = in.readNBytes(in.readInt());
+                if (hash.length != HASH_LENGTH) {
+                    throw new IOException("truncated entry");
+                }
+                cache.entries.put(path, new Entry(size, modified, hash, document));
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warning("Definition cache " + file.getFileName() + " is unreadable, parsing all files: " + e);
+            cache.entries.clear();
+        }
+        return cache;
+    }
+
+    /**
+     * Documento de un archivo: de la caché si el archivo no cambió, si no parseado con yaml (y cacheado).
+     *
+     * @return El documento, o null si el archivo está vacío
+     */
+    Map<String, Object> load(Path path, Yaml yaml) throws IOException {
+        String key = path.toAbsolutePath().normalize().toString();
+        seen.add(key);
+
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        long size = attributes.size();
+        long modified = attributes.lastModifiedTime().toMillis();
+
+        Entry cached = entries.get(key);
+        if (cached != null && cached.size() == size && cached.modified() == modified) {
+            Map<String, Object> document = decode(cached.document());
+            if (document != null) {
+                return document;
+            }
+        }
+
+        byte[] content = Files.readAllBytes(path);
+        byte[] hash = sha256(content);
+        if (cached != null && Arrays.equals(cached.hash(), hash)) {
+            Map<String, Object> document = decode(cached.document());
+            if (document != null) {
+                entries.put(key, new Entry(size, modified, hash, cached.document()));
+                dirty = true;
+                return document;
+            }
+        }
+
+        Map<String, Object> document = yaml.load(new ByteArrayInputStream(content));
+        if (document != null) {
+            byte[] encoded = encode(document);
+            if (encoded != null) {
+                entries.put(key, new Entry(size, modified, hash, encoded));
+                dirty = true;
+            }
+        }
+        return document;
+    }
+
+    /**
+     * Guarda las entradas vistas desde open() (escritura a temporal + move); descarta el resto.
+     */
+    synchronized void save() {
+        if (entries.keySet().retainAll(seen)) {
+            dirty = true;
+        }
+        if (!dirty) {
+            return;
+        }
+
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                Map<String, Entry> current = Map.copyOf(entries);
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(current.size());
+
+                for (Map.Entry<String, Entry> entry : current.entrySet()) {
+                    Entry value = entry.getValue();
+                    out.writeUTF(entry.getKey());
+                    out.writeLong(value.size());
+                    out.writeLong(value.modified());
+                    out.write(value.hash());
+                    out.writeInt(value.document().length);
+                    out.write(value.document());
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            dirty = false;
+        } catch (IOException e) {
+            LOGGER.warning("Failed to write definition cache " + file.getFileName() + ": " + e.getMessage());
+        }
+    }
+
+    // ========== Codificación del documento ==========
+
+    /**
+     * @return Los bytes, o null si el documento tiene tipos no soportados (fechas, binarios...):
+     * ese archivo simplemente no se cachea
+     */
+    private static byte[] encode(Map<String, Object> document) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeValue(out, document);
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @return El documento, o null si los bytes están dañados (se vuelve a parsear el YAML)
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> decode(byte[] document) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(document))) {
+            return readValue(in) instanceof Map<?, ?> map ? (Map<String, Object>) map : null;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String string) {
+            out.writeByte(STRING);
+            writeString(out, string);
+        } else if (value instanceof Integer number) {
+            out.writeByte(INT);
+            out.writeInt(number);
+        } else if (value instanceof Long number) {
+            out.writeByte(LONG);
+            out.writeLong(number);
+        } else if (value instanceof Double number) {
+            out.writeByte(DOUBLE);
+            out.writeDouble(number);
+        } else if (value instanceof Boolean bool) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean(bool);
+        } else if (value instanceof List<?> list) {
+            out.writeByte(LIST);
+            out.writeInt(list.size());
+            for (Object element : list) {
+                writeValue(out, element);
+            }
+        } else if (value instanceof Map<?, ?> map) {
+            out.writeByte(MAP);
+            out.writeInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (!(entry.getKey() instanceof String key)) {
+                    throw new IllegalArgumentException("Unsupported key: " + entry.getKey());
+                }
+                writeString(out, key);
+                writeValue(out, entry.getValue());
+            }
+        } else {
+            throw new IllegalArgumentException("Unsupported value: " + value.getClass().getName());
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case STRING:
+                return readString(in);
+            case INT:
+                return in.readInt();
+            case LONG:
+                return in.readLong();
+            case DOUBLE:
+                return in.readDouble();
+            case BOOLEAN:
+                return in.readBoolean();
+            case LIST: {
+                int size = in.readInt();
+                List<Object> list = new ArrayList<>(Math.min(size, 1024));
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in));
+                }
+                return list;
+            }
+            case MAP: {
+                int size = in.readInt();
+                Map<String, Object> map = new LinkedHashMap<>(); // Mismo orden que SnakeYAML
+                for (int i = 0; i < size; i++) {
+                    map.put(readString(in), readValue(in));
+                }
+                return map;
+            }
+            default:
+                throw new IOException("Unknown tag " + tag);
+        }
+    }
+
+    // writeUTF limita a 64 KB: las cadenas largas (descripciones, lore) van con longitud int
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        byte[] utf8 = in.readNBytes(length);
+        if (utf8.length != length) {
+            throw new IOException("truncated string");
+        }
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] sha256(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
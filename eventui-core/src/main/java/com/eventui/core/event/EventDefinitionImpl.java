@@ -2,6 +2,7 @@ package com.eventui.core.event;
 
 import com.eventui.api.event.EventDefinition;
 import com.eventui.api.objective.ObjectiveDefinition;
+import com.eventui.core.config.CompactStringMap;
 
 import java.util.Collections;
 import java.util.List;
@@ -37,12 +38,12 @@ public record EventDefinitionImpl(
         objectives = objectives != null
                 ? Collections.unmodifiableList(List.copyOf(objectives))
                 : List.of();
-        uiResources = uiResources != null
-                ? Collections.unmodifiableMap(Map.copyOf(uiResources))
-                : Map.of();
-        metadata = metadata != null
-                ? Collections.unmodifiableMap(Map.copyOf(metadata))
-                : Map.of();
+        if (objectives.size() > EventProgressImpl.MAX_OBJECTIVES) {
+            throw new IllegalArgumentException("Event cannot have more than "
+                    + EventProgressImpl.MAX_OBJECTIVES + " objectives");
+        }
+        uiResources = CompactStringMap.copyOf(uiResources);
+        metadata = CompactStringMap.copyOf(metadata);
     }
 
     @Override
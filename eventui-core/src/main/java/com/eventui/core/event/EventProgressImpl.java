@@ -1,41 +1,117 @@
 package com.eventui.core.event;
 
+import com.eventui.api.event.EventDefinition;
 import com.eventui.api.event.EventProgress;
 import com.eventui.api.event.EventState;
+import com.eventui.api.objective.ObjectiveDefinition;
 import com.eventui.api.objective.ObjectiveProgress;
+import com.eventui.core.objective.ObjectiveDefinitionImpl;
 import com.eventui.core.objective.ObjectiveProgressImpl;
+import com.eventui.core.objective.StreakWindow;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Implementación mutable de EventProgress.*
  * ARQUITECTURA:
  * - Gestiona el progreso de un evento para UN jugador
- * - Thread-safe para servidores multijugador
+ * - Thread-safe para servidores multijugador (sin locks, salvo el monitor de cada racha)
  * - El PLUGIN mantiene una instancia por jugador por evento
+
+ * REPRESENTACIÓN COMPACTA:
+ * - Cada objetivo es UN long en un array indexado por su ordinal en la EventDefinition:
+ *   bits 0-31 = cantidad actual, bit 32 = completado
+ * - Cantidad y completado cambian juntos en un solo CAS: nunca se leen desgarrados
+ * - Las cantidades objetivo NO se copian: se leen de la definición compartida
+ * - ObjectiveProgressImpl es solo una vista ligera sobre (este progreso, ordinal)
+
+ * CONCURRENCIA:
+ * - Objetivos y estado se actualizan con bucles CAS (VarHandle)
+ * - Estado y timestamps viajan juntos en un Lifecycle inmutable que se cambia con un solo CAS:
+ *   quien ve IN_PROGRESS / COMPLETED / FAILED ve también su startedAt / completedAt (nunca 0 a medias)
+ * - Solo el CAS que enciende el bit de completado devuelve true → completado detectado UNA vez
+ * - complete() solo tiene éxito para UN llamador → recompensas entregadas UNA vez
+
+ * RACHAS (within_seconds):
+ * - Los objetivos con ventana no suman: registran el golpe en un StreakWindow y la cantidad
+ *   pasa a ser el tamaño de la racha vigente
+ * - Los anillos se crean la primera vez que el objetivo recibe un golpe y se sueltan al completarlo,
+ *   al resetear el objetivo o al reemplazar el progreso (migración de definiciones)
+ * - Golpe y publicación van bajo el monitor del anillo (un tamaño viejo no pisa uno nuevo) y la
+ *   publicación es un CAS que no toca un objetivo ya completado
+ * - Cada golpe se publica como STREAK (cantidad absoluta = tamaño de la racha): en la sync gana el
+ *   último escritor, así una racha cortada también baja en los demás servidores, sin actuar de barrera como un SET
+
+ * CAMBIOS:
+ * - Cada mutación efectiva avisa al ProgressChangeListener (EventStorage marca el registro sucio)
+ * - Escrituras que no cambian nada (p. ej. COLLECT_ITEM con la misma cantidad) no avisan
  */
 public class EventProgressImpl implements EventProgress {
 
+    /**
+     * Máximo de objetivos por evento (limitado por la máscara de completados).
+     */
+    public static final int MAX_OBJECTIVES = Long.SIZE;
+
+    private static final long AMOUNT_MASK = 0xFFFF_FFFFL;
+    private static final long COMPLETED_BIT = 1L << 32;
+
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle LIFECYCLE;
+
+    /**
+     * Estado + timestamps publicados juntos.
+     */
+    private record Lifecycle(EventState state, long startedAt, long completedAt) {
+    }
+
+    private static final Lifecycle AVAILABLE = new Lifecycle(EventState.AVAILABLE, 0L, 0L);
+
+    static {
+        try {
+            LIFECYCLE = MethodHandles.lookup().findVarHandle(EventProgressImpl.class, "lifecycle", Lifecycle.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private final UUID playerId;
-    private final String eventId;
-    private final Map<String, ObjectiveProgressImpl> objectivesProgress;
+    private final EventDefinition definition;
+    private final int eventIndex;
+    private final ProgressChangeListener changeListener;
 
-    private volatile EventState state;
-    private volatile long startedAt;
-    private volatile long completedAt;
+    // Estado empaquetado por ordinal de objetivo (cantidad + bit de completado)
+    private final long[] slots;
 
-    public EventProgressImpl(UUID playerId, String eventId, List<String> objectiveIds) {
-        this.playerId = playerId;
-        this.eventId = eventId;
-        this.state = EventState.AVAILABLE;
-        this.startedAt = 0;
-        this.completedAt = 0;
+    private volatile Lifecycle lifecycle;
+
+    // Anillos de racha por ordinal (null hasta el primer golpe de un objetivo con within_seconds)
+    private StreakWindow[] streaks;
+
+    public EventProgressImpl(UUID playerId, EventDefinition definition) {
+        this(playerId, definition, -1, ProgressChangeListener.NONE);
+    }
+
+    /**
+     * @param eventIndex     Índice denso del evento (se pasa al listener)
+     * @param changeListener Avisado tras cada mutación efectiva
+     */
+    public EventProgressImpl(UUID playerId, EventDefinition definition, int eventIndex,
+                             ProgressChangeListener changeListener) {
+        int objectiveCount = definition.getObjectives().size();
+        if (objectiveCount > MAX_OBJECTIVES) {
+            throw new IllegalArgumentException("Event " + definition.getId() + " has more than "
+                    + MAX_OBJECTIVES + " objectives");
+        }
 
-        // Inicializar progreso de objetivos
-        // Inicializar progreso de objetivos (SIN targetAmount, se registra después)
-        this.objectivesProgress = new ConcurrentHashMap<>();
-        // NO crear ObjectiveProgressImpl aquí, esperar a que se registren con registerObjective()
+        this.playerId = playerId;
+        this.definition = definition;
+        this.eventIndex = eventIndex;
+        this.changeListener = changeListener;
+        this.slots = new long[objectiveCount];
+        this.lifecycle = AVAILABLE;
     }
 
     @Override
@@ -45,95 +121,346 @@ public class EventProgressImpl implements EventProgress {
 
     @Override
     public String getEventId() {
-        return eventId;
+        return definition.getId();
     }
 
     @Override
     public EventState getState() {
-        return state;
+        return lifecycle.state();
     }
 
+    /**
+     * Devuelve vistas ligeras sobre el progreso de cada objetivo (en orden de definición).
+     */
     @Override
     public List<ObjectiveProgress> getObjectivesProgress() {
-        return List.copyOf(objectivesProgress.values());
+        List<ObjectiveProgress> views = new ArrayList<>(slots.length);
+        for (int i = 0; i < slots.length; i++) {
+            views.add(new ObjectiveProgressImpl(this, i));
+        }
+        return Collections.unmodifiableList(views);
     }
 
     @Override
     public float getOverallProgress() {
-        if (objectivesProgress.isEmpty()) {
+        if (slots.length == 0) {
             return 0.0f;
         }
 
         float total = 0.0f;
-        for (ObjectiveProgress progress : objectivesProgress.values()) {
-            total += progress.getProgressPercentage();
+        for (int i = 0; i < slots.length; i++) {
+            int target = getTargetAmount(i);
+            if (target > 0) {
+                total += Math.min(1.0f, (float) getCurrentAmount(i) / target);
+            }
         }
 
-        return total / objectivesProgress.size();
+        return total / slots.length;
     }
 
     @Override
     public long getStartedAt() {
-        return startedAt;
+        return lifecycle.startedAt();
     }
 
     @Override
     public long getCompletedAt() {
-        return completedAt;
+        return lifecycle.completedAt();
+    }
+
+    /**
+     * @return Definición compartida de la que se leen IDs y cantidades objetivo
+     */
+    public EventDefinition getDefinition() {
+        return definition;
     }
 
     // ========== Métodos mutables (solo para PLUGIN) ==========
 
     /**
      * Inicia el evento (AVAILABLE → IN_PROGRESS).
+     *
+     * @return true si este llamador hizo la transición
      */
-    public synchronized void start() {
-        if (state == EventState.AVAILABLE) {
-            state = EventState.IN_PROGRESS;
-            startedAt = System.currentTimeMillis();
+    public boolean start() {
+        if (transition(EventState.AVAILABLE, EventState.IN_PROGRESS)) {
+            changed(ProgressEvent.Type.START, -1, 0, 0);
+            return true;
         }
+        return false;
     }
 
     /**
      * Completa el evento (IN_PROGRESS → COMPLETED).
+     *
+     * @return true si este llamador hizo la transición (solo uno gana: entregar recompensas solo entonces)
      */
-    public synchronized void complete() {
-        if (state == EventState.IN_PROGRESS) {
-            state = EventState.COMPLETED;
-            completedAt = System.currentTimeMillis();
+    public boolean complete() {
+        if (transition(EventState.IN_PROGRESS, EventState.COMPLETED)) {
+            changed(ProgressEvent.Type.COMPLETE, -1, 0, 0);
+            return true;
         }
+        return false;
     }
 
     /**
      * Falla el evento (IN_PROGRESS → FAILED).
      */
-    public synchronized void fail() {
-        if (state == EventState.IN_PROGRESS) {
-            state = EventState.FAILED;
+    public void fail() {
+        if (transition(EventState.IN_PROGRESS, EventState.FAILED)) {
+            changed(ProgressEvent.Type.FAIL, -1, 0, 0);
+        }
+    }
+
+    /**
+     * Restaura estado y timestamps sin validar transiciones.
+     * Solo para el storage (rehidratar desde el historial compacto).
+     */
+    public void restoreState(EventState state, long startedAt, long completedAt) {
+        this.lifecycle = new Lifecycle(state, startedAt, completedAt);
+    }
+
+    /**
+     * Transición de estado con su timestamp en un solo CAS (solo un llamador gana).
+     * IN_PROGRESS fija startedAt; COMPLETED y FAILED fijan completedAt (fin de la época del registro:
+     * historial, reinicios y retención) y conservan startedAt.
+     */
+    private boolean transition(EventState from, EventState to) {
+        while (true) {
+            Lifecycle current = lifecycle;
+            if (current.state() != from) {
+                return false;
+            }
+
+            long now = System.currentTimeMillis();
+            Lifecycle next = to == EventState.IN_PROGRESS
+                    ? new Lifecycle(to, now, 0L)
+                    : new Lifecycle(to, current.startedAt(), now);
+            if (LIFECYCLE.compareAndSet(this, current, next)) {
+                return true;
+            }
         }
     }
 
     /**
-     * Obtiene el progreso de un objetivo específico.
+     * Obtiene una vista del progreso de un objetivo específico.
+     *
+     * @return Vista del objetivo, o null si la definición no lo contiene
      */
     public ObjectiveProgressImpl getObjectiveProgress(String objectiveId) {
-        return objectivesProgress.get(objectiveId);
+        int index = indexOfObjective(objectiveId);
+        return index >= 0 ? new ObjectiveProgressImpl(this, index) : null;
     }
 
     /**
-     * Registra un objetivo con su cantidad objetivo.
+     * Busca el ordinal de un objetivo dentro de la definición.
+     * Búsqueda lineal: los eventos tienen pocos objetivos y así no se necesita un mapa por progreso.
+     *
+     * @return Ordinal del objetivo, o -1 si no existe
      */
-    public void registerObjective(String objectiveId, int targetAmount) {
-        objectivesProgress.putIfAbsent(objectiveId, new ObjectiveProgressImpl(objectiveId, targetAmount));
+    public int indexOfObjective(String objectiveId) {
+        List<ObjectiveDefinition> objectives = definition.getObjectives();
+        for (int i = 0; i < objectives.size(); i++) {
+            if (objectives.get(i).getId().equals(objectiveId)) {
+                return i;
+            }
+        }
+        return -1;
     }
 
     /**
      * Verifica si todos los objetivos están completados.
      */
     public boolean areAllObjectivesCompleted() {
-        return objectivesProgress.values().stream()
-                .allMatch(ObjectiveProgress::isCompleted);
+        for (int i = 0; i < slots.length; i++) {
+            if (!isObjectiveCompleted(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ========== Acceso por ordinal (usado por ObjectiveProgressImpl) ==========
+
+    public String getObjectiveId(int index) {
+        return definition.getObjectives().get(index).getId();
+    }
+
+    public int getTargetAmount(int index) {
+        return definition.getObjectives().get(index).getTargetAmount();
     }
 
+    public int getCurrentAmount(int index) {
+        return (int) ((long) SLOTS.getVolatile(slots, index) & AMOUNT_MASK);
+    }
+
+    public boolean isObjectiveCompleted(int index) {
+        return ((long) SLOTS.getVolatile(slots, index) & COMPLETED_BIT) != 0;
+    }
+
+    /**
+     * Incrementa el progreso de un objetivo (bucle CAS, sin incrementos perdidos).
+     *
+     * @return true si el objetivo se completó con este incremento (exactamente un llamador)
+     */
+    public boolean incrementObjective(int index, int amount) {
+        int windowTicks = windowTicksOf(index);
+        if (windowTicks > 0 && amount > 0) {
+            return recordStreak(index, amount, windowTicks);
+        }
 
-}
\ No newline at end of file
+        int target = getTargetAmount(index);
+
+        while (true) {
+            long current = (long) SLOTS.getVolatile(slots, index);
+            if ((current & COMPLETED_BIT) != 0) {
+                return false; // Ya completado
+            }
+
+            // Clamp al máximo (aritmética long: sin overflow)
+            long next = Math.max(0L, Math.min((current & AMOUNT_MASK) + amount, target));
+            boolean completed = next >= target;
+
+            if (SLOTS.compareAndSet(slots, index, current, pack(next, completed))) {
+                changed(ProgressEvent.Type.STREAK, index, (int) (next - (current & AMOUNT_MASK)), (int) next);
+                return completed;
+            }
+        }
+    }
+
+    /**
+     * Establece el progreso de un objetivo a una cantidad específica (clamp a [0, target]).
+     *
+     * @return true si el objetivo pasó a completado con esta llamada
+     */
+    public boolean setObjectiveProgress(int index, int amount) {
+        int target = getTargetAmount(index);
+        long next = Math.max(0, Math.min(amount, target));
+        boolean completed = next >= target;
+        long packed = pack(next, completed);
+
+        while (true) {
+            long current = (long) SLOTS.getVolatile(slots, index);
+            if (current == packed) {
+                return false;
+            }
+            if (SLOTS.compareAndSet(slots, index, current, packed)) {
+                changed(ProgressEvent.Type.SET, index, (int) (next - (current & AMOUNT_MASK)), (int) next);
+                return completed && (current & COMPLETED_BIT) == 0;
+            }
+        }
+    }
+
+    /**
+     * Resetea el progreso de un objetivo a 0 (la racha, si tiene, empieza de cero).
+     */
+    public void resetObjective(int index) {
+        releaseStreak(index);
+        long previous = (long) SLOTS.getAndSet(slots, index, 0L);
+        if (previous != 0L) {
+            changed(ProgressEvent.Type.RESET, index, (int) -(previous & AMOUNT_MASK), 0);
+        }
+    }
+
+    /**
+     * Restaura la cantidad de un objetivo sin avisar al listener (clamp a [0, target]).
+     * Solo para el storage (cargar desde snapshot/historial: no es un cambio nuevo).
+     */
+    public void restoreObjective(int index, int amount) {
+        int target = getTargetAmount(index);
+        long restored = Math.max(0, Math.min(amount, target));
+        SLOTS.setVolatile(slots, index, pack(restored, restored >= target));
+    }
+
+    /**
+     * Registra golpes en la racha del objetivo y publica su tamaño como cantidad actual.
+     *
+     * @return true si la racha completó el objetivo con este golpe
+     */
+    private boolean recordStreak(int index, int amount, int windowTicks) {
+        if (isObjectiveCompleted(index)) {
+            return false;
+        }
+
+        StreakWindow streak = streakFor(index);
+        boolean completed;
+        synchronized (streak) {
+            int count = streak.record(StreakWindow.nowTicks(), amount, windowTicks);
+            // Anillo lleno dentro de la ventana: count == target, esta publicación enciende el bit de completado
+            completed = publishStreak(index, count) && streak.isComplete(windowTicks);
+        }
+
+        if (completed) {
+            releaseStreak(index);
+        }
+        return completed;
+    }
+
+    /**
+     * Publica el tamaño de la racha como cantidad (bucle CAS). Un objetivo ya completado no se toca:
+     * un golpe concurrente no puede dejar un evento COMPLETED con una racha a medias.
+     *
+     * @return true si esta publicación completó el objetivo
+     */
+    private boolean publishStreak(int index, int count) {
+        int target = getTargetAmount(index);
+        long next = Math.max(0, Math.min(count, target));
+        boolean completed = next >= target;
+        long packed = pack(next, completed);
+
+        while (true) {
+            long current = (long) SLOTS.getVolatile(slots, index);
+            if ((current & COMPLETED_BIT) != 0 || current == packed) {
+                return false;
+            }
+            if (SLOTS.compareAndSet(slots, index, current, packed)) {
+                changed(ProgressEvent.Type.DELTA, index, (int) (next - (current & AMOUNT_MASK)), (int) next);
+                return completed;
+            }
+        }
+    }
+
+    private synchronized StreakWindow streakFor(int index) {
+        if (streaks == null) {
+            streaks = new StreakWindow[slots.length];
+        }
+        if (streaks[index] == null) {
+            streaks[index] = new StreakWindow(getTargetAmount(index));
+        }
+        return streaks[index];
+    }
+
+    private synchronized void releaseStreak(int index) {
+        if (streaks != null) {
+            streaks[index] = null;
+        }
+    }
+
+    /**
+     * Suelta todas las rachas (el progreso se reemplaza por otro: sus anillos ya no sirven).
+     */
+    public synchronized void releaseStreaks() {
+        streaks = null;
+    }
+
+    private int windowTicksOf(int index) {
+        return definition.getObjectives().get(index) instanceof ObjectiveDefinitionImpl objective
+                ? objective.windowTicks()
+                : 0;
+    }
+
+    /**
+     * @return Índice denso del evento, o -1 si el progreso no está asociado a un storage
+     */
+    public int getEventIndex() {
+        return eventIndex;
+    }
+
+    private void changed(ProgressEvent.Type type, int objective, int delta, int amount) {
+        changeListener.onProgressChanged(this, type, objective, delta, amount);
+    }
+
+    private static long pack(long amount, boolean completed) {
+        return (amount & AMOUNT_MASK) | (completed ? COMPLETED_BIT : 0L);
+    }
+}
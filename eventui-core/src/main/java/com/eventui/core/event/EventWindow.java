@@ -0,0 +1,142 @@
+package com.eventui.core.event;
+
+import com.eventui.api.event.EventDefinition;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Ventana temporal de un evento: disponibilidad global y límite de tiempo por jugador.*
+ * CONFIGURACIÓN (metadata del evento):
+ * - available_from / available_until: "2026-12-01T00:00" (hora del servidor), "2026-12-01"
+ *   o un instante ISO ("2026-12-01T00:00:00Z")
+ * - time_limit: "30m", "90s", "2h", "1d" o segundos a secas; cuenta desde que el jugador lo inicia*
+ * Las fechas límite de cada jugador NO se guardan aparte: son startedAt (ya persistido) + time_limit,
+ * así sobreviven a reinicios sin cambiar el formato del snapshot.
+ */
+public final class EventWindow {
+
+    private static final Logger LOGGER = Logger.getLogger(EventWindow.class.getName());
+
+    private final long availableFrom;
+    private final long availableUntil;
+    private final long timeLimitMillis;
+
+    private EventWindow(long availableFrom, long availableUntil, long timeLimitMillis) {
+        this.availableFrom = availableFrom;
+        this.availableUntil = availableUntil;
+        this.timeLimitMillis = timeLimitMillis;
+    }
+
+    /**
+     * Lee la ventana de la metadata del evento.
+     *
+     * @return Ventana, o null si el evento no tiene fechas ni límite de tiempo (o la config es inválida)
+     */
+    public static EventWindow of(EventDefinition definition) {
+        Map<String, String> metadata = definition.getMetadata();
+        String from = metadata.get("available_from");
+        String until = metadata.get("available_until");
+        String limit = metadata.get("time_limit");
+        if (from == null && until == null && limit == null) {
+            return null;
+        }
+
+        try {
+            long availableFrom = from != null ? parseTime(from) : Long.MIN_VALUE;
+            long availableUntil = until != null ? parseTime(until) : Long.MAX_VALUE;
+            long timeLimitMillis = limit != null ? parseDuration(limit) : 0L;
+
+            if (availableFrom >= availableUntil) {
+                throw new IllegalArgumentException("available_from must be before available_until");
+            }
+            return new EventWindow(availableFrom, availableUntil, timeLimitMillis);
+        } catch (IllegalArgumentException | DateTimeException e) {
+            LOGGER.warning("Invalid time window for event " + definition.getId() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return true si el evento puede iniciarse en ese momento
+     */
+    public boolean isOpen(long now) {
+        return now >= availableFrom && now < availableUntil;
+    }
+
+    /**
+     * @return Apertura (epoch millis), Long.MIN_VALUE si no tiene
+     */
+    public long getAvailableFrom() {
+        return availableFrom;
+    }
+
+    /**
+     * @return Cierre (epoch millis), Long.MAX_VALUE si no tiene
+     */
+    public long getAvailableUntil() {
+        return availableUntil;
+    }
+
+    public long getTimeLimitMillis() {
+        return timeLimitMillis;
+    }
+
+    /**
+     * Momento en que un progreso iniciado en startedAt debe fallar:
+     * lo primero entre el fin del límite de tiempo y el cierre de la ventana.
+     *
+     * @return Epoch millis, Long.MAX_VALUE si nunca caduca
+     */
+    public long deadlineFor(long startedAt) {
+        long limitDeadline = timeLimitMillis > 0 && startedAt > 0 ? startedAt + timeLimitMillis : Long.MAX_VALUE;
+        return Math.min(limitDeadline, availableUntil);
+    }
+
+    /**
+     * Fecha con el formato de available_from / available_until (también la usan las metas comunitarias).
+     *
+     * @return Epoch millis
+     * @throws DateTimeException si el texto no es una fecha válida
+     */
+    public static long parseTime(String value) {
+        String text = value.trim();
+        ZoneId zone = ZoneId.systemDefault();
+
+        if (text.endsWith("Z") || text.matches(".*[+-]\\d{2}:\\d{2}$")) {
+            return OffsetDateTime.parse(text).toInstant().toEpochMilli();
+        }
+        if (text.contains("T")) {
+            return LocalDateTime.parse(text).atZone(zone).toInstant().toEpochMilli();
+        }
+        return LocalDate.parse(text).atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+
+    private static long parseDuration(String value) {
+        String text = value.trim().toLowerCase(Locale.ROOT);
+        if (text.isEmpty()) {
+            throw new IllegalArgumentException("empty time_limit");
+        }
+
+        long unit = switch (text.charAt(text.length() - 1)) {
+            case 's' -> 1000L;
+            case 'm' -> 60_000L;
+            case 'h' -> 3_600_000L;
+            case 'd' -> 86_400_000L;
+            default -> 0L;
+        };
+        String number = unit == 0L ? text : text.substring(0, text.length() - 1);
+
+        long amount = Long.parseLong(number.trim());
+        if (amount <= 0) {
+            throw new IllegalArgumentException("time_limit must be positive");
+        }
+        return amount * (unit == 0L ? 1000L : unit);
+    }
+}
@@ -0,0 +1,22 @@
+package com.eventui.core.event;
+
+/**
+ * Callback que EventProgressImpl invoca tras cada mutación efectiva
+ * (incremento, seteo, reset, start/complete/fail).*
+ * EventStorage lo usa para marcar el registro como sucio (ver DirtySet)
+ * y, si está activo, para escribir el cambio en el ProgressLog.
+ */
+@FunctionalInterface
+public interface ProgressChangeListener {
+
+    ProgressChangeListener NONE = (progress, type, objective, delta, amount) -> { };
+
+    /**
+     * @param progress  Progreso modificado (jugador, evento e índice denso)
+     * @param type      Tipo de cambio
+     * @param objective Ordinal del objetivo, o -1 para cambios de estado
+     * @param delta     Cambio aplicado a la cantidad (0 para cambios de estado)
+     * @param amount    Cantidad resultante del objetivo (0 para cambios de estado)
+     */
+    void onProgressChanged(EventProgressImpl progress, ProgressEvent.Type type, int objective, int delta, int amount);
+}
@@ -0,0 +1,108 @@
+package com.eventui.core.event;
+
+import com.eventui.api.event.EventDefinition;
+import com.eventui.api.objective.ObjectiveDefinition;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Un cambio de progreso registrado en el ProgressLog (event sourcing).*
+ * ARQUITECTURA:
+ * - Registro inmutable y compacto (~50 bytes en disco)
+ * - amount es SIEMPRE la cantidad resultante: reaplicar un registro es idempotente,
+ *   así el log se puede reproducir encima de un snapshot más nuevo sin duplicar incrementos
+ * - delta conserva el cambio original (auditoría y analíticas)
+ * - El objetivo va por ID, no por ordinal: el registro sigue valiendo si la definición se reordena
+ *   (reload entre escritura y replay, otro servidor con otra versión de la config)
+ * - ABANDON y ADMIN_OVERRIDE son anotaciones: el cambio real viene en los registros siguientes
+ * - STREAK es el tamaño de una racha (within_seconds): puede bajar, así que no se fusiona por máximo
+ * - El tipo viaja como su ordinal: los tipos nuevos van siempre al final*
+ * FORMATO BINARIO:
+ * byte type, long timestamp, long msb, long lsb, UTF eventId, UTF objectiveId ("" = ninguno), int delta, int amount
+ *
+ * @param objectiveId ID del objetivo, o null si el registro es del evento completo
+ */
+public record ProgressEvent(
+        Type type,
+        long timestamp,
+        UUID playerId,
+        String eventId,
+        String objectiveId,
+        int delta,
+        int amount
+) {
+
+    public enum Type {
+        START,
+        DELTA,
+        SET,
+        RESET,
+        COMPLETE,
+        FAIL,
+        ABANDON,
+        ADMIN_OVERRIDE,
+        REMOVE,
+        CLEAR,
+        STREAK;
+
+        private static final Type[] VALUES = values();
+
+        /**
+         * @return true si el registro solo documenta (no cambia estado al reproducirlo)
+         */
+        public boolean isAnnotation() {
+            return this == ABANDON || this == ADMIN_OVERRIDE;
+        }
+    }
+
+    /**
+     * @return Ordinal del objetivo en la definición dada, o -1 si no es de un objetivo o ya no existe
+     */
+    public int objectiveIn(EventDefinition definition) {
+        if (objectiveId == null) {
+            return -1;
+        }
+        List<ObjectiveDefinition> objectives = definition.getObjectives();
+        for (int ordinal = 0; ordinal < objectives.size(); ordinal++) {
+            if (objectives.get(ordinal).getId().equals(objectiveId)) {
+                return ordinal;
+            }
+        }
+        return -1;
+    }
+
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeByte(type.ordinal());
+        out.writeLong(timestamp);
+        out.writeLong(playerId.getMostSignificantBits());
+        out.writeLong(playerId.getLeastSignificantBits());
+        out.writeUTF(eventId);
+        out.writeUTF(objectiveId == null ? "" : objectiveId);
+        out.writeInt(delta);
+        out.writeInt(amount);
+    }
+
+    public static ProgressEvent readFrom(DataInput in) throws IOException {
+        int typeOrdinal = in.readUnsignedByte();
+        if (typeOrdinal >= Type.VALUES.length) {
+            throw new IOException("Unknown progress event type: " + typeOrdinal);
+        }
+        return new ProgressEvent(
+                Type.VALUES[typeOrdinal],
+                in.readLong(),
+                new UUID(in.readLong(), in.readLong()),
+                in.readUTF(),
+                emptyToNull(in.readUTF()),
+                in.readInt(),
+                in.readInt()
+        );
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+}
@@ -0,0 +1,142 @@
+package com.eventui.core.event;
+
+import com.eventui.api.event.EventDefinition;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Reinicio periódico (diario / semanal) de un evento, modelado como épocas.*
+ * ARQUITECTURA:
+ * - El tiempo se divide en épocas: [reinicio N, reinicio N+1)
+ * - La época de un registro se deriva de su marca de tiempo (inicio si está en curso,
+ *   finalización si terminó): no hace falta ningún campo extra en memoria ni en disco
+ * - Un registro de una época anterior se trata como fresco al accederlo (EventStorage):
+ *   no hay barrido a medianoche, el reinicio en sí no cuesta nada
+ * - La ventana de la época vigente se cachea: comprobar un registro es una comparación*
+ * CONFIGURACIÓN (metadata del evento):
+ * - reset: daily | weekly
+ * - reset_time: "HH:mm" (por defecto 00:00, hora del servidor)
+ * - reset_day: día de la semana para weekly (por defecto MONDAY)
+ * - reset_timezone: zona horaria (por defecto la del servidor)
+ */
+public final class ResetSchedule {
+
+    private static final Logger LOGGER = Logger.getLogger(ResetSchedule.class.getName());
+
+    /**
+     * Época vigente: [start, end) en epoch millis.
+     */
+    private record Window(long start, long end) {
+    }
+
+    private final boolean weekly;
+    private final LocalTime resetTime;
+    private final DayOfWeek resetDay;
+    private final ZoneId zone;
+
+    private volatile Window current = new Window(0L, 0L);
+
+    private ResetSchedule(boolean weekly, LocalTime resetTime, DayOfWeek resetDay, ZoneId zone) {
+        this.weekly = weekly;
+        this.resetTime = resetTime;
+        this.resetDay = resetDay;
+        this.zone = zone;
+    }
+
+    /**
+     * Lee la política de reinicio de la metadata del evento.
+     *
+     * @return Programación, o null si el evento no se reinicia (o la config es inválida)
+     */
+    public static ResetSchedule of(EventDefinition definition) {
+        Map<String, String> metadata = definition.getMetadata();
+        String policy = metadata.get("reset");
+        if (policy == null || policy.isBlank() || policy.equalsIgnoreCase("none")) {
+            return null;
+        }
+
+        try {
+            boolean weekly = switch (policy.trim().toLowerCase(Locale.ROOT)) {
+                case "daily" -> false;
+                case "weekly" -> true;
+                default -> throw new IllegalArgumentException("unknown reset policy '" + policy + "'");
+            };
+
+            LocalTime resetTime = LocalTime.parse(metadata.getOrDefault("reset_time", "00:00").trim());
+            DayOfWeek resetDay = DayOfWeek.valueOf(
+                    metadata.getOrDefault("reset_day", "MONDAY").trim().toUpperCase(Locale.ROOT));
+            String zoneId = metadata.get("reset_timezone");
+            ZoneId zone = zoneId != null ? ZoneId.of(zoneId.trim()) : ZoneId.systemDefault();
+
+            return new ResetSchedule(weekly, resetTime, resetDay, zone);
+        } catch (IllegalArgumentException | DateTimeException e) {
+            LOGGER.warning("Invalid reset schedule for event " + definition.getId() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return Inicio de la época vigente (epoch millis)
+     */
+    public long currentEpochStart() {
+        return window(System.currentTimeMillis()).start();
+    }
+
+    /**
+     * @return Próximo reinicio (epoch millis)
+     */
+    public long nextResetAt() {
+        return window(System.currentTimeMillis()).end();
+    }
+
+    /**
+     * Un registro es de una época anterior si su marca de tiempo es previa al último reinicio.
+     *
+     * @param timestamp Marca de tiempo del registro (epoch millis); 0 o negativa = desconocida, nunca caduca
+     */
+    public boolean isStale(long timestamp) {
+        return timestamp > 0 && timestamp < currentEpochStart();
+    }
+
+    public boolean isWeekly() {
+        return weekly;
+    }
+
+    private Window window(long now) {
+        Window cached = current;
+        if (now >= cached.start() && now < cached.end()) {
+            return cached;
+        }
+
+        // Cruzamos un reinicio (o primer acceso): recalcular; carreras benignas, todos calculan lo mismo
+        Window computed = compute(now);
+        current = computed;
+        return computed;
+    }
+
+    private Window compute(long now) {
+        ZonedDateTime local = Instant.ofEpochMilli(now).atZone(zone);
+        LocalDate date = local.toLocalDate();
+        if (weekly) {
+            date = date.with(TemporalAdjusters.previousOrSame(resetDay));
+        }
+
+        ZonedDateTime start = date.atTime(resetTime).atZone(zone);
+        if (start.isAfter(local)) {
+            start = weekly ? start.minusWeeks(1) : start.minusDays(1);
+        }
+        ZonedDateTime end = weekly ? start.plusWeeks(1) : start.plusDays(1);
+
+        return new Window(start.toInstant().toEpochMilli(), end.toInstant().toEpochMilli());
+    }
+}
@@ -0,0 +1,284 @@
+package com.eventui.core.leaderboard;
+
+import com.eventui.core.event.EventProgressImpl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+
+/**
+ * Clasificaciones por evento, actualizadas al completar (ver TopK).*
+ * FLUJO:
+ * 1. ObjectiveTracker.checkEventCompletion → onCompleted(progreso) antes de compactar
+ * 2. FASTEST: completedAt - startedAt (mejor marca por jugador)
+ * 3. CONTRIBUTIONS: unidades de objetivo entregadas en cada intento completado. Solo eventos
+ *    REPETIBLES: en uno de una sola vez todos aportan lo mismo (la suma de los targets) y el mapa
+ *    solo crecería con cada jugador que lo completa. El acumulado por jugador vive en un mapa (O(1))
+ *    acotado a maxContributors: al guardar se descartan los más bajos (como Space-Saving)
+ *    APROXIMACIÓN: quien vuelve tras ser descartado parte del suelo (el mayor total descartado, cota
+ *    superior de lo que tenía), no de 0. Su puntuación nunca queda por debajo de la real y la supera
+ *    como mucho en el suelo; el top K es exacto mientras sus totales estén por encima del suelo
+ * 4. top() para el comando y el bridge: O(K), sin recorrer el progreso de todos los jugadores
+ * 5. save() junto al snapshot de progreso (leaderboards.bin), load() al arrancar
+ * 6. prune() tras cada ciclo de retención: quita las clasificaciones de eventos eliminados*
+ * Las completaciones forzadas por comandos de testing (/ev complete, /ev setprogress) no cuentan.*
+ * FORMATO (big-endian):
+ * <pre>
+ *   int magic ("EUIL"), int version, int eventCount
+ *   eventCount × (UTF eventId,
+ *                 BOARD_COUNT × (int entryCount, entryCount × (long msb, long lsb, long score, long achievedAt)),
+ *                 int totalCount, totalCount × (long msb, long lsb, long contributions), long trimmedFloor)
+ * </pre>
+ */
+public class LeaderboardManager {
+
+    private static final Logger LOGGER = Logger.getLogger(LeaderboardManager.class.getName());
+
+    private static final int MAGIC = 0x4555494C; // "EUIL"
+    private static final int VERSION = 2;
+
+    /**
+     * Tipos de clasificación de un evento.
+     */
+    public enum Board {
+        FASTEST,
+        CONTRIBUTIONS;
+
+        /**
+         * @return El tipo con ese nombre (sin distinguir mayúsculas), o vacío
+         */
+        public static Optional<Board> parse(String name) {
+            try {
+                return Optional.of(valueOf(name.toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                return Optional.empty();
+            }
+        }
+    }
+
+    /**
+     * Clasificaciones de un evento + acumulado de aportes de todos los que lo completaron.
+     */
+    private static final class EventBoards {
+        final TopK[] boards = new TopK[Board.values().length];
+        final Map<UUID, Long> contributions = new HashMap<>();
+        long trimmedFloor; // Mayor acumulado descartado por trimContributions
+
+        EventBoards(int size) {
+            boards[Board.FASTEST.ordinal()] = new TopK(size, true);
+            boards[Board.CONTRIBUTIONS.ordinal()] = new TopK(size, false);
+        }
+    }
+
+    private final int size;
+    private final int maxContributors;
+    private final Map<String, EventBoards> boards = new ConcurrentHashMap<>();
+    private volatile boolean dirty;
+
+    /**
+     * @param size            Entradas visibles por clasificación (K)
+     * @param maxContributors Acumulados de aportes que se conservan por evento (nunca menos que K)
+     */
+    public LeaderboardManager(int size, int maxContributors) {
+        this.size = Math.max(1, size);
+        this.maxContributors = Math.max(this.size, maxContributors);
+    }
+
+    /**
+     * Registra un evento recién completado. Llamar antes de compactar el progreso
+     * (la compactación descarta las cantidades de los objetivos).
+     */
+    public void onCompleted(EventProgressImpl progress) {
+        EventBoards event = boardsOf(progress.getEventId());
+        UUID playerId = progress.getPlayerId();
+        long startedAt = progress.getStartedAt();
+        long completedAt = progress.getCompletedAt();
+
+        if (startedAt > 0 && completedAt >= startedAt) {
+            event.boards[Board.FASTEST.ordinal()].offerBest(playerId, completedAt - startedAt, completedAt);
+        }
+
+        long units = 0;
+        if (Boolean.parseBoolean(progress.getDefinition().getMetadata().getOrDefault("repeatable", "false"))) {
+            int objectives = progress.getDefinition().getObjectives().size();
+            for (int i = 0; i < objectives; i++) {
+                units += progress.getCurrentAmount(i);
+            }
+        }
+        if (units > 0) {
+            synchronized (event) {
+                Long previous = event.contributions.get(playerId);
+                long total = (previous != null ? previous : event.trimmedFloor) + units;
+                event.contributions.put(playerId, total);
+                event.boards[Board.CONTRIBUTIONS.ordinal()].offerBest(playerId, total, completedAt);
+            }
+        }
+
+        dirty = true;
+    }
+
+    /**
+     * @return Las mejores K entradas del evento (vacío si nadie lo completó)
+     */
+    public List<TopK.Entry> top(String eventId, Board board) {
+        EventBoards event = boards.get(eventId);
+        return event != null ? event.boards[board.ordinal()].top(size) : List.of();
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Quita las clasificaciones de eventos eliminados. Seguro desde un hilo async.
+     *
+     * @param deleted true para los eventos cuyos datos se pueden purgar
+     * @return Eventos quitados
+     */
+    public int prune(Predicate<String> deleted) {
+        int pruned = 0;
+        for (String eventId : boards.keySet()) {
+            if (deleted.test(eventId) && boards.remove(eventId) != null) {
+                pruned++;
+            }
+        }
+        if (pruned > 0) {
+            dirty = true;
+            LOGGER.info("Pruned leaderboards of " + pruned + " deleted event(s)");
+        }
+        return pruned;
+    }
+
+    /**
+     * Descarta los acumulados más bajos por encima de maxContributors (llamar con el lock del evento)
+     * y sube el suelo del que parten los descartados si vuelven. Los del top K tienen los totales
+     * más altos: nunca se descartan.
+     */
+    private void trimContributions(EventBoards event) {
+        int excess = event.contributions.size() - maxContributors;
+        if (excess <= 0) {
+            return;
+        }
+
+        long[] totals = event.contributions.values().stream().mapToLong(Long::longValue).sorted().toArray();
+        long threshold = totals[excess - 1];
+        int[] tiesToRemove = {excess};
+        for (long total : totals) {
+            if (total >= threshold) {
+                break;
+            }
+            tiesToRemove[0]--;
+        }
+        event.contributions.values().removeIf(total -> total < threshold
+                || (total == threshold && tiesToRemove[0]-- > 0));
+        event.trimmedFloor = Math.max(event.trimmedFloor, threshold);
+    }
+
+    /**
+     * Guarda las clasificaciones si cambiaron (escritura a temporal + move). Seguro desde un hilo async.
+     *
+     * @return true si se escribió el archivo
+     */
+    public synchronized boolean save(Path file) throws IOException {
+        if (!dirty) {
+            return false;
+        }
+        dirty = false;
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            Map<String, EventBoards> current = Map.copyOf(boards);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(current.size());
+
+            for (Map.Entry<String, EventBoards> event : current.entrySet()) {
+                out.writeUTF(event.getKey());
+                EventBoards eventBoards = event.getValue();
+
+                synchronized (eventBoards) {
+                    trimContributions(eventBoards);
+                    for (TopK board : eventBoards.boards) {
+                        List<TopK.Entry> entries = board.top(Integer.MAX_VALUE);
+                        out.writeInt(entries.size());
+                        for (TopK.Entry entry : entries) {
+                            out.writeLong(entry.playerId().getMostSignificantBits());
+                            out.writeLong(entry.playerId().getLeastSignificantBits());
+                            out.writeLong(entry.score());
+                            out.writeLong(entry.achievedAt());
+                        }
+                    }
+
+                    out.writeInt(eventBoards.contributions.size());
+                    for (Map.Entry<UUID, Long> total : eventBoards.contributions.entrySet()) {
+                        out.writeLong(total.getKey().getMostSignificantBits());
+                        out.writeLong(total.getKey().getLeastSignificantBits());
+                        out.writeLong(total.getValue());
+                    }
+                    out.writeLong(eventBoards.trimmedFloor);
+                }
+            }
+        } catch (IOException e) {
+            dirty = true; // Reintentar en el siguiente guardado
+            throw e;
+        }
+
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        return true;
+    }
+
+    /**
+     * Carga las clasificaciones guardadas. Llamar al arrancar, antes de registrar el tracker.
+     */
+    public void load(Path file) {
+        if (!Files.exists(file)) {
+            return;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                LOGGER.warning("Ignoring leaderboards file with unknown format: " + file);
+                return;
+            }
+
+            int events = in.readInt();
+            for (int e = 0; e < events; e++) {
+                EventBoards eventBoards = boardsOf(in.readUTF());
+                for (TopK board : eventBoards.boards) {
+                    int entries = in.readInt();
+                    for (int i = 0; i < entries; i++) {
+                        UUID playerId = new UUID(in.readLong(), in.readLong());
+                        board.restore(new TopK.Entry(playerId, in.readLong(), in.readLong()));
+                    }
+                }
+
+                int totals = in.readInt();
+                for (int i = 0; i < totals; i++) {
+                    eventBoards.contributions.put(new UUID(in.readLong(), in.readLong()), in.readLong());
+                }
+                eventBoards.trimmedFloor = in.readLong();
+            }
+            LOGGER.info("Loaded leaderboards for " + events + " event(s)");
+        } catch (IOException e) {
+            LOGGER.severe("Failed to load leaderboards: " + e.getMessage());
+        }
+    }
+
+    private EventBoards boardsOf(String eventId) {
+        return boards.computeIfAbsent(eventId, id -> new EventBoards(size));
+    }
+}
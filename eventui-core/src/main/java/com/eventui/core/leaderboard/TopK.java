@@ -0,0 +1,124 @@
+package com.eventui.core.leaderboard;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Clasificación acotada a los K mejores jugadores, mantenida de forma incremental.*
+ * ARQUITECTURA:
+ * - Árbol ordenado (TreeSet, rojo-negro) con como mucho K entradas + mapa jugador → entrada:
+ *   una actualización es O(log K), sin importar cuántos jugadores existan
+ * - Una entrada por jugador: mejorar la marca propia reemplaza la anterior
+ * - Lectura O(K): lista inmutable cacheada, se rehace solo tras un cambio
+ * - Exacta mientras la marca de cada jugador solo mejore (mejor tiempo, acumulado creciente):
+ *   quien sale del top K no puede volver con su marca vieja, porque el K-ésimo solo mejora*
+ * Empates: gana quien logró la marca antes (achievedAt).
+ */
+public final class TopK {
+
+    /**
+     * Entrada de la clasificación.
+     *
+     * @param score      Marca (tiempo en ms, cantidad acumulada...)
+     * @param achievedAt Momento de la última mejora (epoch millis)
+     */
+    public record Entry(UUID playerId, long score, long achievedAt) {
+    }
+
+    private final int capacity;
+    private final boolean lowestFirst;
+    private final TreeSet<Entry> ranked;
+    private final Map<UUID, Entry> byPlayer = new HashMap<>();
+
+    private List<Entry> view = List.of(); // null = hay que rehacerla
+
+    /**
+     * @param capacity    Entradas retenidas (K)
+     * @param lowestFirst true si una marca menor es mejor (tiempos)
+     */
+    public TopK(int capacity, boolean lowestFirst) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Leaderboard capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.lowestFirst = lowestFirst;
+
+        Comparator<Entry> byScore = Comparator.comparingLong(Entry::score);
+        this.ranked = new TreeSet<>((lowestFirst ? byScore : byScore.reversed())
+                .thenComparingLong(Entry::achievedAt)
+                .thenComparing(Entry::playerId));
+    }
+
+    /**
+     * Propone una marca; se queda solo si mejora la del jugador y entra en el top.
+     *
+     * @return true si la clasificación cambió
+     */
+    public synchronized boolean offerBest(UUID playerId, long score, long achievedAt) {
+        Entry current = byPlayer.get(playerId);
+        if (current != null) {
+            if (!isBetter(score, current.score())) {
+                return false;
+            }
+            ranked.remove(current);
+        } else if (byPlayer.size() >= capacity && !isBetter(score, ranked.last().score())) {
+            return false;
+        }
+
+        put(new Entry(playerId, score, achievedAt));
+        trim();
+        return true;
+    }
+
+    /**
+     * Reinserta una entrada guardada (al cargar). Si sobran, se descartan las peores.
+     */
+    public synchronized void restore(Entry entry) {
+        Entry current = byPlayer.get(entry.playerId());
+        if (current != null) {
+            ranked.remove(current);
+        }
+        put(entry);
+        trim();
+    }
+
+    /**
+     * @param limit Máximo de entradas a devolver
+     * @return Las mejores entradas, de la primera a la última (O(K))
+     */
+    public synchronized List<Entry> top(int limit) {
+        if (view == null) {
+            view = List.copyOf(new ArrayList<>(ranked));
+        }
+        return view.size() <= limit ? view : view.subList(0, limit);
+    }
+
+    public synchronized int size() {
+        return byPlayer.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    private boolean isBetter(long score, long than) {
+        return lowestFirst ? score < than : score > than;
+    }
+
+    private void put(Entry entry) {
+        ranked.add(entry);
+        byPlayer.put(entry.playerId(), entry);
+        view = null;
+    }
+
+    private void trim() {
+        while (byPlayer.size() > capacity) {
+            byPlayer.remove(ranked.pollLast().playerId());
+        }
+    }
+}
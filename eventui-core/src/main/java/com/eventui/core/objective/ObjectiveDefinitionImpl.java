@@ -2,12 +2,13 @@ package com.eventui.core.objective;
 
 import com.eventui.api.objective.ObjectiveDefinition;
 import com.eventui.api.objective.ObjectiveType;
+import com.eventui.core.config.CompactStringMap;
 
-import java.util.Collections;
 import java.util.Map;
 
 /**
  * Implementación inmutable de ObjectiveDefinition.
+ * windowTicks se deriva de within_seconds al construirla: el camino caliente no parsea parámetros.
  */
 public record ObjectiveDefinitionImpl(
         String id,
@@ -16,9 +17,17 @@ public record ObjectiveDefinitionImpl(
         int targetAmount,
         Map<String, String> parameters,
         Map<String, String> uiResources,
-        boolean optional
+        boolean optional,
+        int windowTicks
 ) implements ObjectiveDefinition {
 
+    public ObjectiveDefinitionImpl(String id, ObjectiveType type, String description, int targetAmount,
+                                   Map<String, String> parameters, Map<String, String> uiResources,
+                                   boolean optional) {
+        this(id, type, description, targetAmount, parameters, uiResources, optional,
+                StreakWindow.parseWindowTicks(parameters));
+    }
+
     public ObjectiveDefinitionImpl {
         if (id == null || id.isBlank()) {
             throw new IllegalArgumentException("Objective ID cannot be null or blank");
@@ -29,13 +38,12 @@ public record ObjectiveDefinitionImpl(
         if (targetAmount <= 0) {
             throw new IllegalArgumentException("Target amount must be positive");
         }
+        if (windowTicks < 0) {
+            throw new IllegalArgumentException("Window ticks cannot be negative");
+        }
 
-        parameters = parameters != null
-                ? Collections.unmodifiableMap(Map.copyOf(parameters))
-                : Map.of();
-        uiResources = uiResources != null
-                ? Collections.unmodifiableMap(Map.copyOf(uiResources))
-                : Map.of();
+        parameters = CompactStringMap.copyOf(parameters);
+        uiResources = CompactStringMap.copyOf(uiResources);
     }
 
     @Override
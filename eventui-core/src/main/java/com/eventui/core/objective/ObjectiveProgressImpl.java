@@ -1,54 +1,52 @@
 package com.eventui.core.objective;
 
 import com.eventui.api.objective.ObjectiveProgress;
+import com.eventui.core.event.EventProgressImpl;
 
 /**
  * Implementación mutable de ObjectiveProgress.
  *
  * ARQUITECTURA:
- * - Esta clase SÍ es mutable (el progreso cambia)
- * - El PLUGIN gestiona instancias de esta clase
- * - Thread-safe para actualizaciones concurrentes
+ * - Vista ligera sobre un slot del EventProgressImpl (progreso + ordinal)
+ * - NO guarda estado propio: cantidades y completado viven en los arrays del evento
+ * - Se puede crear y descartar libremente (son solo dos referencias)
+ * - Thread-safe para actualizaciones concurrentes (CAS en EventProgressImpl)
  */
 public class ObjectiveProgressImpl implements ObjectiveProgress {
 
-    private final String objectiveId;
-    private final int targetAmount;
-    private volatile int currentAmount;
-    private volatile boolean completed;
+    private final EventProgressImpl owner;
+    private final int index;
 
-    public ObjectiveProgressImpl(String objectiveId, int targetAmount) {
-        this.objectiveId = objectiveId;
-        this.targetAmount = targetAmount;
-        this.currentAmount = 0;
-        this.completed = false;
-    }
-
-    public ObjectiveProgressImpl(String objectiveId, int targetAmount, int currentAmount) {
-        this.objectiveId = objectiveId;
-        this.targetAmount = targetAmount;
-        this.currentAmount = currentAmount;
-        this.completed = currentAmount >= targetAmount;
+    public ObjectiveProgressImpl(EventProgressImpl owner, int index) {
+        this.owner = owner;
+        this.index = index;
     }
 
     @Override
     public String getObjectiveId() {
-        return objectiveId;
+        return owner.getObjectiveId(index);
     }
 
     @Override
     public int getCurrentAmount() {
-        return currentAmount;
+        return owner.getCurrentAmount(index);
     }
 
     @Override
     public int getTargetAmount() {
-        return targetAmount;
+        return owner.getTargetAmount(index);
     }
 
     @Override
     public boolean isCompleted() {
-        return completed;
+        return owner.isObjectiveCompleted(index);
+    }
+
+    /**
+     * @return Ordinal del objetivo dentro de su definición
+     */
+    public int getIndex() {
+        return index;
     }
 
     /**
@@ -57,20 +55,8 @@ public class ObjectiveProgressImpl implements ObjectiveProgress {
      * @param amount Cantidad a incrementar
      * @return true si el objetivo se completó con este incremento
      */
-    public synchronized boolean increment(int amount) {
-        if (completed) {
-            return false; // Ya completado
-        }
-
-        currentAmount += amount;
-
-        if (currentAmount >= targetAmount) {
-            currentAmount = targetAmount; // Clamp al máximo
-            completed = true;
-            return true;
-        }
-
-        return false;
+    public boolean increment(int amount) {
+        return owner.incrementObjective(index, amount);
     }
 
     /**
@@ -79,16 +65,14 @@ public class ObjectiveProgressImpl implements ObjectiveProgress {
      *
      * @param amount Nueva cantidad
      */
-    public synchronized void setProgress(int amount) {
-        this.currentAmount = Math.max(0, Math.min(amount, targetAmount));
-        this.completed = this.currentAmount >= targetAmount;
+    public void setProgress(int amount) {
+        owner.setObjectiveProgress(index, amount);
     }
 
     /**
      * Resetea el progreso a 0.
      */
-    public synchronized void reset() {
-        this.currentAmount = 0;
-        this.completed = false;
+    public void reset() {
+        owner.resetObjective(index);
     }
 }
@@ -0,0 +1,92 @@
+package com.eventui.core.objective;
+
+import java.util.Map;
+
+/**
+ * Ventana deslizante de un objetivo con modificador within_seconds
+ * ("mata 10 zombies en 30 segundos").*
+ * ARQUITECTURA:
+ * - Anillo primitivo de marcas de tiempo en ticks (50 ms), con capacidad = cantidad objetivo:
+ *   la memoria por racha está acotada por el target, sin asignaciones por evento
+ * - Al registrar un golpe se descartan por el extremo viejo las marcas fuera de la ventana
+ *   (cada marca sale una sola vez → O(1) amortizado)
+ * - Completado en O(1): anillo lleno y (más nueva - más vieja) dentro de la ventana
+ * - La racha es efímera: no se persiste, tras un reinicio empieza de cero*
+ * El progreso visible del objetivo es el tamaño de la racha vigente (puede bajar si se corta).
+ */
+public final class StreakWindow {
+
+    /**
+     * Parámetro del objetivo (en target: o a nivel del objetivo) que activa la ventana.
+     */
+    public static final String PARAMETER = "within_seconds";
+
+    private static final long TICK_NANOS = 50_000_000L;
+
+    private final int[] ticks;
+    private int oldest;
+    private int size;
+
+    public StreakWindow(int capacity) {
+        this.ticks = new int[Math.max(1, capacity)];
+    }
+
+    /**
+     * Registra golpes en el tick actual.
+     *
+     * @param now         Tick actual (ver nowTicks)
+     * @param hits        Golpes a registrar (se acotan a la capacidad)
+     * @param windowTicks Ancho de la ventana en ticks
+     * @return Golpes dentro de la ventana tras registrar
+     */
+    public synchronized int record(int now, int hits, int windowTicks) {
+        int capacity = ticks.length;
+
+        while (size > 0 && now - ticks[oldest] > windowTicks) {
+            oldest = (oldest + 1) % capacity;
+            size--;
+        }
+
+        for (int i = Math.min(hits, capacity); i > 0; i--) {
+            if (size == capacity) {
+                oldest = (oldest + 1) % capacity; // Anillo lleno: pisar la más vieja
+                size--;
+            }
+            ticks[(oldest + size) % capacity] = now;
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * @return true si el anillo está lleno y todas sus marcas caben en la ventana
+     */
+    public synchronized boolean isComplete(int windowTicks) {
+        int newest = ticks[(oldest + size - 1 + ticks.length) % ticks.length];
+        return size == ticks.length && newest - ticks[oldest] <= windowTicks;
+    }
+
+    /**
+     * Tick monotónico de 50 ms (independiente del lag del servidor; la resta tolera el desborde).
+     */
+    public static int nowTicks() {
+        return (int) (System.nanoTime() / TICK_NANOS);
+    }
+
+    /**
+     * @return Ancho de la ventana en ticks, o 0 si el objetivo no tiene within_seconds (o es inválido)
+     */
+    public static int parseWindowTicks(Map<String, String> parameters) {
+        String value = parameters != null ? parameters.get(PARAMETER) : null;
+        if (value == null) {
+            return 0;
+        }
+
+        try {
+            double seconds = Double.parseDouble(value.trim());
+            return seconds > 0 ? (int) Math.min(Integer.MAX_VALUE / 2, Math.ceil(seconds * 20)) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
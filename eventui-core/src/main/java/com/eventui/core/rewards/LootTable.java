@@ -0,0 +1,258 @@
+package com.eventui.core.rewards;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.random.RandomGenerator;
+
+/**
+ * Tabla de botín con pesos, compilada a una tabla alias de Vose (parte de un RewardPlan).*
+ * Formato (dentro de rewards):
+ * <pre>
+ * loot:                                 # una tabla o una lista de tablas
+ *   rolls: 2                            # tiradas (por defecto 1)
+ *   guaranteed:                         # siempre se entregan, sin tirar
+ *     - { item: "minecraft:bread 8" }
+ *   entries:
+ *     - { weight: 30, item: "minecraft:diamond 1" }
+ *     - { weight: 5, item: "minecraft:elytra 1" }
+ *     - { weight: 20, command: "eco give {player} 100" }
+ *     - { weight: 35, xp: 50 }
+ *     - { weight: 10 }                  # nada
+ * </pre>*
+ * ARQUITECTURA:
+ * - Los pesos se convierten UNA vez (al compilar el plan) en dos arrays: probability[] y alias[]
+ * - Cada tirada: una columna uniforme + un double → O(1) sin importar cuántas entradas tenga la tabla
+ *   (sin sumas acumuladas ni búsqueda binaria)
+ * - Los premios son Outcome inmutables: ítem plantilla (se clona al concretar) y comando troceado por {player}
+ * - El RandomGenerator lo decide quien concreta el paquete: con la misma semilla, el mismo botín
+ */
+final class LootTable {
+
+    /**
+     * Un premio: XP, un ítem y/o un comando (todo vacío = nada).
+     */
+    record Outcome(int xp, ItemStack item, String[] command) {
+    }
+
+    private final int rolls;
+    private final Outcome[] guaranteed;
+    private final Outcome[] outcomes;
+    private final double[] probability;
+    private final int[] alias;
+
+    private LootTable(int rolls, Outcome[] guaranteed, Outcome[] outcomes, double[] probability, int[] alias) {
+        this.rolls = rolls;
+        this.guaranteed = guaranteed;
+        this.outcomes = outcomes;
+        this.probability = probability;
+        this.alias = alias;
+    }
+
+    /**
+     * Compila una tabla. Las entradas inválidas se informan y se omiten.
+     *
+     * @return La tabla, o null si no queda nada que entregar
+     */
+    static LootTable compile(JsonObject loot, Consumer<String> problems) {
+        int rolls = 1;
+        if (loot.has("rolls")) {
+            try {
+                rolls = loot.get("rolls").getAsInt();
+            } catch (RuntimeException e) {
+                problems.accept("invalid loot rolls " + loot.get("rolls"));
+            }
+            if (rolls < 0) {
+                problems.accept("negative loot rolls " + rolls);
+                rolls = 0;
+            }
+        }
+
+        List<Outcome> guaranteed = new ArrayList<>();
+        for (JsonObject entry : entryList(loot, "guaranteed", problems)) {
+            Outcome outcome = parseOutcome(entry, problems);
+            if (outcome != null && !isNothing(outcome)) {
+                guaranteed.add(outcome);
+            }
+        }
+
+        List<Outcome> outcomes = new ArrayList<>();
+        List<Double> weights = new ArrayList<>();
+        for (JsonObject entry : entryList(loot, "entries", problems)) {
+            double weight;
+            try {
+                weight = entry.has("weight") ? entry.get("weight").getAsDouble() : 1.0;
+            } catch (RuntimeException e) {
+                problems.accept("invalid loot weight " + entry.get("weight"));
+                continue;
+            }
+            if (!(weight > 0) || Double.isInfinite(weight)) {
+                problems.accept("loot weight must be positive: " + entry);
+                continue;
+            }
+
+            Outcome outcome = parseOutcome(entry, problems);
+            if (outcome != null) {
+                outcomes.add(outcome);
+                weights.add(weight);
+            }
+        }
+
+        if (outcomes.isEmpty()) {
+            rolls = 0;
+        }
+        if (rolls == 0 && guaranteed.isEmpty()) {
+            return null;
+        }
+
+        double[] probability = new double[outcomes.size()];
+        int[] alias = new int[outcomes.size()];
+        buildAlias(weights.stream().mapToDouble(Double::doubleValue).toArray(), probability, alias);
+
+        return new LootTable(rolls, guaranteed.toArray(new Outcome[0]), outcomes.toArray(new Outcome[0]),
+                probability, alias);
+    }
+
+    /**
+     * Añade a out los premios garantizados y los de cada tirada (los "nada" no se añaden).
+     */
+    void roll(RandomGenerator random, List<Outcome> out) {
+        for (Outcome outcome : guaranteed) {
+            out.add(outcome);
+        }
+        for (int r = 0; r < rolls; r++) {
+            Outcome outcome = outcomes[sample(random)];
+            if (!isNothing(outcome)) {
+                out.add(outcome);
+            }
+        }
+    }
+
+    /**
+     * Una tirada: O(1).
+     *
+     * @return Índice de la entrada elegida
+     */
+    int sample(RandomGenerator random) {
+        int column = random.nextInt(probability.length);
+        return random.nextDouble() < probability[column] ? column : alias[column];
+    }
+
+    /**
+     * Método de Vose: reparte los pesos (normalizados a media 1) en n columnas de altura 1;
+     * cada columna tiene su entrada con probabilidad probability[i] y, si no, la de alias[i].
+     */
+    private static void buildAlias(double[] weights, double[] probability, int[] alias) {
+        int n = weights.length;
+        double total = 0;
+        for (double weight : weights) {
+            total += weight;
+        }
+
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / total;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+
+            probability[less] = scaled[less];
+            alias[less] = more;
+
+            scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+
+        // Lo que queda está a ~1 (errores de redondeo): columna llena
+        while (largeCount > 0) {
+            int i = large[--largeCount];
+            probability[i] = 1.0;
+            alias[i] = i;
+        }
+        while (smallCount > 0) {
+            int i = small[--smallCount];
+            probability[i] = 1.0;
+            alias[i] = i;
+        }
+    }
+
+    private static Outcome parseOutcome(JsonObject entry, Consumer<String> problems) {
+        int xp = 0;
+        if (entry.has("xp")) {
+            try {
+                xp = entry.get("xp").getAsInt();
+            } catch (RuntimeException e) {
+                problems.accept("invalid loot xp " + entry.get("xp"));
+                return null;
+            }
+            if (xp < 0) {
+                problems.accept("negative loot xp " + xp);
+                return null;
+            }
+        }
+
+        ItemStack item = null;
+        if (entry.has("item")) {
+            item = RewardPlan.parseItemString(entry.get("item").getAsString(), problems);
+            if (item == null) {
+                return null;
+            }
+        }
+
+        String[] command = null;
+        if (entry.has("command")) {
+            command = RewardPlan.splitCommand(entry.get("command").getAsString());
+            if (command == null) {
+                problems.accept("empty loot command");
+                return null;
+            }
+        }
+
+        return new Outcome(xp, item, command);
+    }
+
+    private static boolean isNothing(Outcome outcome) {
+        return outcome.xp() == 0 && outcome.item() == null && outcome.command() == null;
+    }
+
+    private static List<JsonObject> entryList(JsonObject loot, String key, Consumer<String> problems) {
+        JsonElement element = loot.get(key);
+        if (element == null) {
+            return List.of();
+        }
+        if (!element.isJsonArray()) {
+            problems.accept("loot '" + key + "' must be a list");
+            return List.of();
+        }
+
+        List<JsonObject> entries = new ArrayList<>();
+        for (JsonElement value : element.getAsJsonArray()) {
+            if (value.isJsonObject()) {
+                entries.add(value.getAsJsonObject());
+            } else {
+                problems.accept("invalid loot " + key + " entry " + value);
+            }
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,212 @@
+package com.eventui.core.rewards;
+
+import org.bukkit.Server;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Logger;
+
+/**
+ * Cola de entrega de recompensas con presupuesto por tick.*
+ * ARQUITECTURA:
+ * - Completar un evento solo encola un RewardParcel (O(1), desde cualquier hilo): nada se entrega
+ *   dentro de checkEventCompletion
+ * - tick() (hilo principal, cada tick) avanza la cola paso a paso: XP, cada ítem, cada comando;
+ *   para al agotar el presupuesto de tiempo y nunca ejecuta más de commandsPerTick comandos
+ *   (los de permisos / economía son lentos): una oleada de completaciones se reparte en ticks
+ * - Orden FIFO: un paquete a medias sigue en el siguiente tick donde se quedó
+ * - Jugador desconectado al llegarle el turno → lo que faltaba va al buzón
+ * - Ítems que no caben en el inventario → buzón (un solo paquete al terminar la entrega)
+ * - Siempre se da al menos un paso por tick: la cola avanza aunque el presupuesto sea mínimo
+ * - Cada paquete encolado queda retenido en el buzón (RewardMailbox.Held) con lo que le falta hasta
+ *   terminar: la cola vive en memoria, pero un cierre abrupto no pierde recompensas
+ */
+public class RewardDelivery {
+
+    private static final Logger LOGGER = Logger.getLogger(RewardDelivery.class.getName());
+
+    /**
+     * Un paquete en curso. Pasos: 0 = XP, 1..items = ítems, después los comandos.
+     */
+    private static final class Pending {
+        final UUID playerId;
+        final RewardParcel parcel;
+        final RewardMailbox.Held held;
+        final List<ItemStack> overflow = new ArrayList<>(0);
+        int step;
+
+        Pending(RewardMailbox.Held held, RewardParcel parcel) {
+            this.playerId = held.playerId;
+            this.parcel = parcel;
+            this.held = held;
+        }
+
+        int stepCount() {
+            return 1 + parcel.items().size() + parcel.commands().size();
+        }
+
+        boolean isCommandStep() {
+            return step > parcel.items().size();
+        }
+
+        /**
+         * @return Lo que queda por entregar (más lo que no cupo), para el buzón
+         */
+        RewardParcel remainder() {
+            int items = parcel.items().size();
+            List<ItemStack> pendingItems = new ArrayList<>(overflow);
+            pendingItems.addAll(parcel.items().subList(Math.min(Math.max(step - 1, 0), items), items));
+            List<String> pendingCommands = parcel.commands().subList(Math.max(step - 1 - items, 0), parcel.commands().size());
+            return new RewardParcel(parcel.eventId(), step == 0 ? parcel.xp() : 0, pendingItems, pendingCommands);
+        }
+    }
+
+    private final Server server;
+    private final RewardMailbox mailbox;
+    private final long budgetNanos;
+    private final int commandsPerTick;
+
+    private final Queue<Pending> incoming = new ConcurrentLinkedQueue<>();
+    private final ArrayDeque<Pending> queue = new ArrayDeque<>(); // Solo el hilo principal
+
+    /**
+     * @param budgetMicros    Tiempo máximo por tick dedicado a entregar
+     * @param commandsPerTick Comandos de recompensa ejecutados como mucho por tick
+     */
+    public RewardDelivery(Server server, RewardMailbox mailbox, long budgetMicros, int commandsPerTick) {
+        this.server = server;
+        this.mailbox = mailbox;
+        this.budgetNanos = Math.max(1, budgetMicros) * 1000L;
+        this.commandsPerTick = Math.max(1, commandsPerTick);
+    }
+
+    /**
+     * Encola un paquete para el jugador. Seguro desde cualquier hilo.
+     */
+    public void enqueue(UUID playerId, RewardParcel parcel) {
+        if (!parcel.isEmpty()) {
+            incoming.add(new Pending(mailbox.hold(playerId, parcel), parcel));
+        }
+    }
+
+    /**
+     * Encola todo el buzón del jugador (sus paquetes siguen guardados hasta entregarse).
+     *
+     * @return Recompensas encoladas
+     */
+    public int claim(UUID playerId) {
+        int claimed = 0;
+        for (RewardMailbox.Held held : mailbox.takeHeld(playerId)) {
+            incoming.add(new Pending(held, held.remainder));
+            claimed += held.remainder.size();
+        }
+        return claimed;
+    }
+
+    /**
+     * Avanza la cola dentro del presupuesto. Llamar cada tick desde el hilo principal.
+     */
+    public void tick() {
+        for (Pending pending; (pending = incoming.poll()) != null; ) {
+            queue.add(pending);
+        }
+        if (queue.isEmpty()) {
+            return;
+        }
+
+        long deadline = System.nanoTime() + budgetNanos;
+        int commands = 0;
+
+        while (!queue.isEmpty()) {
+            Pending pending = queue.peek();
+            Player player = server.getPlayer(pending.playerId);
+
+            if (player == null || !player.isOnline()) {
+                queue.poll();
+                mailbox.settle(pending.held, pending.remainder());
+                continue;
+            }
+
+            if (pending.isCommandStep()) {
+                if (commands >= commandsPerTick) {
+                    break;
+                }
+                commands++;
+            }
+
+            deliverStep(player, pending);
+
+            if (++pending.step >= pending.stepCount()) {
+                queue.poll();
+                finish(player, pending);
+            } else {
+                mailbox.update(pending.held, pending.remainder());
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * @return Paquetes pendientes de entrega (incluidos los recién encolados)
+     */
+    public int getQueuedCount() {
+        return queue.size() + incoming.size();
+    }
+
+    /**
+     * Devuelve todo lo pendiente al buzón como paquetes normales (al apagar). Llamar desde el hilo principal.
+     */
+    public void drainToMailbox() {
+        for (Pending pending; (pending = incoming.poll()) != null; ) {
+            queue.add(pending);
+        }
+        for (Pending pending; (pending = queue.poll()) != null; ) {
+            mailbox.settle(pending.held, pending.remainder());
+        }
+    }
+
+    private void deliverStep(Player player, Pending pending) {
+        RewardParcel parcel = pending.parcel;
+        int items = parcel.items().size();
+
+        if (pending.step == 0) {
+            if (parcel.xp() > 0) {
+                player.giveExp(parcel.xp());
+                player.sendMessage("§a+ " + parcel.xp() + " XP");
+            }
+
+        } else if (pending.step <= items) {
+            ItemStack item = parcel.items().get(pending.step - 1);
+            // addItem puede modificar la pila que recibe: se entrega una copia y el paquete queda intacto
+            pending.overflow.addAll(player.getInventory().addItem(item.clone()).values());
+            player.sendMessage(RewardPlan.describe(item));
+
+        } else {
+            String command = parcel.commands().get(pending.step - 1 - items);
+            try {
+                server.dispatchCommand(server.getConsoleSender(), command);
+            } catch (Exception e) {
+                LOGGER.warning("Reward command failed for event " + parcel.eventId() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void finish(Player player, Pending pending) {
+        mailbox.settle(pending.held, new RewardParcel(pending.parcel.eventId(), 0, pending.overflow, List.of()));
+        if (!pending.overflow.isEmpty()) {
+            player.sendMessage("§e⚠ Your inventory is full! Items kept in your reward mailbox (§f/ev claim§e).");
+        }
+
+        player.sendMessage("§6✓ Received " + pending.parcel.size() + " reward(s)!");
+        LOGGER.fine("Gave " + pending.parcel.size() + " reward(s) to " + player.getName() +
+                " for completing event: " + pending.parcel.eventId());
+    }
+}
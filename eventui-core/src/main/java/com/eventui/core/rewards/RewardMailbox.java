@@ -0,0 +1,246 @@
+package com.eventui.core.rewards;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Buzón persistente de recompensas que no se pudieron entregar.*
+ * ENTRA:
+ * - Lo que quedaba de una entrega cuando el jugador se desconectó (XP, ítems, comandos sin ejecutar)
+ * - Ítems que no cupieron en el inventario (antes se tiraban al suelo)
+ * - La cola pendiente al apagar el servidor*
+ * SALE:
+ * - Al entrar el jugador (RewardManager.openSession) o al reclamar (/ev claim, botón claim_rewards):
+ *   los paquetes vuelven a la cola de entrega, con el mismo presupuesto por tick que el resto*
+ * EN ENTREGA (Held):
+ * - Todo paquete de la cola de entrega (completaciones nuevas y reclamados) se retiene aquí con lo que
+ *   le falta por entregar hasta terminar: se guarda con el buzón, así que un cierre abrupto no lo pierde
+ *   (al cargar vuelve como paquete normal; como mucho se repite el paso que se estaba dando)
+ * - No cuenta para count() ni se puede volver a reclamar mientras tanto
+ * Thread-safe (el guardado corre en el autosave async). Los ítems se guardan como material + cantidad:
+ * son copias de las plantillas de RewardPlan, sin meta.*
+ * FORMATO (big-endian):
+ * <pre>
+ *   int magic ("EUIM"), int version, int playerCount
+ *   playerCount × (long msb, long lsb, int parcelCount,
+ *                  parcelCount × (UTF eventId, int xp,
+ *                                 int itemCount, itemCount × (UTF material, int amount),
+ *                                 int commandCount, commandCount × UTF command))
+ * </pre>
+ */
+public class RewardMailbox {
+
+    private static final Logger LOGGER = Logger.getLogger(RewardMailbox.class.getName());
+
+    private static final int MAGIC = 0x4555494D; // "EUIM"
+    private static final int VERSION = 1;
+
+    /**
+     * Un paquete en la cola de entrega: remainder es lo que le falta (lo que se guardaría ahora).
+     */
+    static final class Held {
+        final UUID playerId;
+        RewardParcel remainder;
+
+        private Held(UUID playerId, RewardParcel remainder) {
+            this.playerId = playerId;
+            this.remainder = remainder;
+        }
+    }
+
+    private final Map<UUID, List<RewardParcel>> parcels = new HashMap<>();
+    private final Set<Held> held = new LinkedHashSet<>();
+    private boolean dirty;
+
+    /**
+     * Guarda un paquete para el jugador (los vacíos se ignoran).
+     */
+    public synchronized void add(UUID playerId, RewardParcel parcel) {
+        if (parcel.isEmpty()) {
+            return;
+        }
+        parcels.computeIfAbsent(playerId, id -> new ArrayList<>()).add(parcel);
+        dirty = true;
+    }
+
+    /**
+     * Saca todos los paquetes del jugador (en el orden en que entraron).
+     */
+    public synchronized List<RewardParcel> take(UUID playerId) {
+        List<RewardParcel> taken = parcels.remove(playerId);
+        if (taken == null) {
+            return List.of();
+        }
+        dirty = true;
+        return taken;
+    }
+
+    /**
+     * Retiene un paquete que entra en la cola de entrega.
+     */
+    synchronized Held hold(UUID playerId, RewardParcel parcel) {
+        Held entry = new Held(playerId, parcel);
+        held.add(entry);
+        dirty = true;
+        return entry;
+    }
+
+    /**
+     * Pasa todos los paquetes del jugador a la cola de entrega sin que dejen de guardarse.
+     */
+    synchronized List<Held> takeHeld(UUID playerId) {
+        List<Held> taken = new ArrayList<>();
+        for (RewardParcel parcel : take(playerId)) {
+            taken.add(hold(playerId, parcel));
+        }
+        return taken;
+    }
+
+    /**
+     * Actualiza lo que le falta a un paquete en entrega (tras cada paso).
+     */
+    synchronized void update(Held entry, RewardParcel remainder) {
+        entry.remainder = remainder;
+        dirty = true;
+    }
+
+    /**
+     * Termina un paquete en entrega; lo que no se entregó (kept) queda en el buzón. Atómico para el guardado.
+     */
+    synchronized void settle(Held entry, RewardParcel kept) {
+        held.remove(entry);
+        dirty = true;
+        add(entry.playerId, kept);
+    }
+
+    /**
+     * @return Recompensas pendientes del jugador (XP cuenta como una)
+     */
+    public synchronized int count(UUID playerId) {
+        List<RewardParcel> pending = parcels.get(playerId);
+        return pending == null ? 0 : pending.stream().mapToInt(RewardParcel::size).sum();
+    }
+
+    /**
+     * Guarda el buzón si cambió (escritura a temporal + move). Seguro desde un hilo async.
+     *
+     * @return true si se escribió el archivo
+     */
+    public synchronized boolean save(Path file) throws IOException {
+        if (!dirty) {
+            return false;
+        }
+
+        // Buzón + paquetes en entrega (se cargarán como paquetes normales)
+        Map<UUID, List<RewardParcel>> saved = new HashMap<>(parcels);
+        for (Held entry : held) {
+            if (!entry.remainder.isEmpty()) {
+                saved.computeIfAbsent(entry.playerId, id -> new ArrayList<>()).add(entry.remainder);
+            }
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(saved.size());
+
+            for (Map.Entry<UUID, List<RewardParcel>> player : saved.entrySet()) {
+                out.writeLong(player.getKey().getMostSignificantBits());
+                out.writeLong(player.getKey().getLeastSignificantBits());
+                out.writeInt(player.getValue().size());
+
+                for (RewardParcel parcel : player.getValue()) {
+                    out.writeUTF(parcel.eventId());
+                    out.writeInt(parcel.xp());
+                    out.writeInt(parcel.items().size());
+                    for (ItemStack item : parcel.items()) {
+                        out.writeUTF(item.getType().getKey().toString());
+                        out.writeInt(item.getAmount());
+                    }
+                    out.writeInt(parcel.commands().size());
+                    for (String command : parcel.commands()) {
+                        out.writeUTF(command);
+                    }
+                }
+            }
+        }
+
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        dirty = false; // Solo tras el move: cualquier fallo antes se reintenta en el siguiente guardado
+        return true;
+    }
+
+    /**
+     * Carga el buzón guardado. Llamar al arrancar, antes de abrir sesiones.
+     */
+    public synchronized void load(Path file) {
+        if (!Files.exists(file)) {
+            return;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                LOGGER.warning("Ignoring reward mailbox with unknown format: " + file);
+                return;
+            }
+
+            int players = in.readInt();
+            int loaded = 0;
+            for (int p = 0; p < players; p++) {
+                UUID playerId = new UUID(in.readLong(), in.readLong());
+                int count = in.readInt();
+
+                for (int i = 0; i < count; i++) {
+                    String eventId = in.readUTF();
+                    int xp = in.readInt();
+
+                    int itemCount = in.readInt();
+                    List<ItemStack> items = new ArrayList<>(itemCount);
+                    for (int n = 0; n < itemCount; n++) {
+                        String materialKey = in.readUTF();
+                        int amount = in.readInt();
+                        Material material = Material.matchMaterial(materialKey);
+                        if (material != null) {
+                            items.add(new ItemStack(material, amount));
+                        } else {
+                            LOGGER.warning("Dropping unknown material " + materialKey + " from reward mailbox");
+                        }
+                    }
+
+                    int commandCount = in.readInt();
+                    List<String> commands = new ArrayList<>(commandCount);
+                    for (int n = 0; n < commandCount; n++) {
+                        commands.add(in.readUTF());
+                    }
+
+                    RewardParcel parcel = new RewardParcel(eventId, xp, items, commands);
+                    if (!parcel.isEmpty()) {
+                        parcels.computeIfAbsent(playerId, id -> new ArrayList<>()).add(parcel);
+                        loaded++;
+                    }
+                }
+            }
+            LOGGER.info("Loaded reward mailbox: " + loaded + " parcel(s) for " + parcels.size() + " player(s)");
+        } catch (IOException e) {
+            LOGGER.severe("Failed to load reward mailbox: " + e.getMessage());
+        }
+    }
+}
@@ -2,130 +2,125 @@ package com.eventui.core.rewards;
 
 import com.eventui.api.event.EventDefinition;
 import com.eventui.core.EventUIPlugin;
-import org.bukkit.Material;
+import com.eventui.core.storage.DefinitionRegistry;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.ItemStack;
 
-import java.util.List;
-import java.util.Map;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
 import java.util.logging.Logger;
 
 /**
- * Gestiona el otorgamiento de recompensas a los jugadores.
+ * Gestiona el otorgamiento de recompensas a los jugadores.*
+ * FLUJO:
+ * 1. giveRewards: RewardPlan compilado del registry → RewardParcel del jugador → cola de entrega
+ * 2. tick() cada tick: RewardDelivery entrega dentro del presupuesto (ver config rewards.*)
+ * 3. Jugador offline o inventario lleno → RewardMailbox (mailbox.bin, junto al snapshot de progreso)
+ * 4. Al entrar (openSession) o con /ev claim / botón claim_rewards: el buzón vuelve a la cola
+ * Lo que está en la cola se guarda con el buzón hasta entregarse (ver RewardMailbox, EN ENTREGA).
  */
 public class RewardManager {
 
     private static final Logger LOGGER = Logger.getLogger(RewardManager.class.getName());
 
     private final EventUIPlugin plugin;
+    private final RewardMailbox mailbox = new RewardMailbox();
+    private final RewardDelivery delivery;
 
     public RewardManager(EventUIPlugin plugin) {
         this.plugin = plugin;
+        this.delivery = new RewardDelivery(plugin.getServer(), mailbox,
+                plugin.getConfig().getLong("rewards.tick-budget-micros", 1000),
+                plugin.getConfig().getInt("rewards.commands-per-tick", 2));
     }
 
     /**
-     * Otorga las recompensas de un evento al jugador.
+     * Encola las recompensas de un evento para el jugador (se entregan en los próximos ticks).
+     * Usa el RewardPlan ya compilado del registry: sin JSON ni búsqueda de materiales al completar.
+     *
+     * @param completedAt Momento de completado: junto al jugador y el evento fija la semilla del botín
      */
-    public void giveRewards(Player player, EventDefinition eventDef) {
-        try {
-            // Parsear rewards desde metadata
-            String rewardsJson = eventDef.getMetadata().getOrDefault("rewards_data", "{}");
-
-            if (rewardsJson.equals("{}")) {
-                LOGGER.info("No rewards configured for event: " + eventDef.getId());
-                return;
-            }
-
-            com.google.gson.Gson gson = new com.google.gson.Gson();
-            Map<String, Object> rewards = gson.fromJson(rewardsJson,
-                    new com.google.gson.reflect.TypeToken<Map<String, Object>>(){}.getType());
-
-            int rewardCount = 0;
-
-            // Otorgar XP
-            if (rewards.containsKey("xp")) {
-                int xp = ((Number) rewards.get("xp")).intValue();
-                player.giveExp(xp);
-                player.sendMessage("§a+ " + xp + " XP");
-                rewardCount++;
-            }
-
-            // Otorgar items
-            if (rewards.containsKey("items")) {
-                List<String> items = (List<String>) rewards.get("items");
-
-                for (String itemString : items) {
-                    try {
-                        ItemStack item = parseItemString(itemString);
-
-                        if (item != null) {
-                            // Intentar agregar al inventario
-                            var leftover = player.getInventory().addItem(item);
-
-                            if (!leftover.isEmpty()) {
-                                // Si el inventario está lleno, tirar al suelo
-                                player.getWorld().dropItemNaturally(player.getLocation(), item);
-                                player.sendMessage("§e⚠ Your inventory is full! Item dropped on the ground.");
-                            }
-
-                            player.sendMessage("§a+ " + item.getAmount() + "x " +
-                                    item.getType().name().toLowerCase().replace("_", " "));
-                            rewardCount++;
-                        }
-
-                    } catch (Exception e) {
-                        LOGGER.warning("Failed to parse item: " + itemString);
-                    }
-                }
-            }
-
-            // Ejecutar comandos
-            if (rewards.containsKey("commands")) {
-                List<String> commands = (List<String>) rewards.get("commands");
-
-                for (String command : commands) {
-                    String processedCommand = command.replace("{player}", player.getName());
-                    plugin.getServer().dispatchCommand(plugin.getServer().getConsoleSender(), processedCommand);
-                    rewardCount++;
-                }
-            }
-
-            if (rewardCount > 0) {
-                player.sendMessage("§6✓ Received " + rewardCount + " reward(s)!");
-                LOGGER.info("Gave " + rewardCount + " reward(s) to " + player.getName() +
-                        " for completing event: " + eventDef.getId());
-            }
-
-        } catch (Exception e) {
-            LOGGER.severe("Failed to give rewards for event " + eventDef.getId() + ": " + e.getMessage());
-            e.printStackTrace();
+    public void giveRewards(Player player, EventDefinition eventDef, long completedAt) {
+        RewardPlan plan = planFor(eventDef);
+
+        if (plan.isEmpty()) {
+            LOGGER.fine("No rewards configured for event: " + eventDef.getId());
+            return;
         }
+
+        SplittableRandom random = new SplittableRandom(RewardPlan.lootSeed(player.getUniqueId(), eventDef.getId(), completedAt));
+        delivery.enqueue(player.getUniqueId(), plan.parcel(eventDef.getId(), player.getName(), random));
+    }
+
+    /**
+     * Avanza la cola de entrega. Llamar cada tick desde el hilo principal.
+     */
+    public void tick() {
+        delivery.tick();
     }
 
     /**
-     * Parsea un string "minecraft:item_id cantidad" a ItemStack.
-     * Formato esperado: "minecraft:diamond_pickaxe 1"
+     * Al entrar: entrega lo que tenga en el buzón si rewards.claim-on-join está activo
+     * (si no, solo le avisa).
      */
-    private ItemStack parseItemString(String itemString) {
-        String[] parts = itemString.trim().split(" ");
+    public void openSession(Player player) {
+        if (plugin.getConfig().getBoolean("rewards.claim-on-join", true)) {
+            claim(player);
+            return;
+        }
+
+        int pending = mailbox.count(player.getUniqueId());
+        if (pending > 0) {
+            player.sendMessage("§6You have " + pending + " reward(s) waiting. Use §e/ev claim §6to collect them.");
+        }
+    }
 
-        if (parts.length < 1) {
-            return null;
+    /**
+     * Pasa el buzón del jugador a la cola de entrega.
+     *
+     * @return Recompensas reclamadas (0 si el buzón estaba vacío)
+     */
+    public int claim(Player player) {
+        int claimed = delivery.claim(player.getUniqueId());
+        if (claimed > 0) {
+            player.sendMessage("§6Delivering " + claimed + " reward(s) from your mailbox...");
         }
+        return claimed;
+    }
+
+    public void loadMailbox(Path file) {
+        mailbox.load(file);
+    }
 
-        String itemId = parts[0];
-        int amount = parts.length > 1 ? Integer.parseInt(parts[1]) : 1;
+    /**
+     * Guarda el buzón si cambió. Seguro desde un hilo async.
+     */
+    public boolean saveMailbox(Path file) throws IOException {
+        return mailbox.save(file);
+    }
 
-        // Convertir "minecraft:diamond_pickaxe" a "DIAMOND_PICKAXE"
-        String materialName = itemId.replace("minecraft:", "").toUpperCase();
+    /**
+     * Al apagar: lo que quedaba en la cola pasa al buzón (guardar después con saveMailbox).
+     */
+    public void shutdown() {
+        int queued = delivery.getQueuedCount();
+        delivery.drainToMailbox();
+        if (queued > 0) {
+            LOGGER.info("Moved " + queued + " pending reward delivery(ies) to the mailbox");
+        }
+    }
 
-        try {
-            Material material = Material.valueOf(materialName);
-            return new ItemStack(material, amount);
+    /**
+     * Plan del registry vigente; si la definición no es la registrada (progreso aún con la
+     * definición anterior durante una migración) se compila al vuelo.
+     */
+    private RewardPlan planFor(EventDefinition eventDef) {
+        DefinitionRegistry registry = plugin.getStorage().getRegistry();
+        int eventIndex = plugin.getStorage().getEventIndex().indexOf(eventDef.getId());
 
-        } catch (IllegalArgumentException e) {
-            LOGGER.warning("Unknown material: " + materialName);
-            return null;
+        if (registry.get(eventIndex) == eventDef) {
+            return registry.rewardPlan(eventIndex);
         }
+        return RewardPlan.compile(eventDef, problem -> { });
     }
 }
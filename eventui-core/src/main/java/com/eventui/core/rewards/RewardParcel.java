@@ -0,0 +1,34 @@
+package com.eventui.core.rewards;
+
+import org.bukkit.inventory.ItemStack;
+
+import java.util.List;
+
+/**
+ * Recompensas concretas de UN jugador: lo que viaja por la cola de entrega y se guarda en el buzón.*
+ * - Ítems ya copiados de las plantillas del RewardPlan (se pueden entregar o guardar tal cual)
+ * - Comandos con {player} ya sustituido
+ *
+ * @param eventId  Evento que las otorgó (para mensajes y logs)
+ * @param xp       Experiencia (0 = ninguna)
+ * @param items    Ítems pendientes
+ * @param commands Comandos de consola pendientes
+ */
+public record RewardParcel(String eventId, int xp, List<ItemStack> items, List<String> commands) {
+
+    public RewardParcel {
+        items = List.copyOf(items);
+        commands = List.copyOf(commands);
+    }
+
+    /**
+     * @return Número de recompensas (XP cuenta como una)
+     */
+    public int size() {
+        return (xp > 0 ? 1 : 0) + items.size() + commands.size();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+}
@@ -0,0 +1,267 @@
+package com.eventui.core.rewards;
+
+import com.eventui.api.event.EventDefinition;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.random.RandomGenerator;
+import java.util.regex.Pattern;
+
+/**
+ * Recompensas de un evento, compiladas UNA vez al registrar su definición.*
+ * ARQUITECTURA:
+ * - DefinitionRegistry guarda un plan por índice denso (como ResetSchedule / EventWindow) y reutiliza
+ *   el del snapshot anterior si la definición no cambió
+ * - rewards_data (JSON en metadata) se parsea aquí, nunca al completar
+ * - Ítems: ItemStack plantilla ya construido; al otorgar se entrega un clone() (la plantilla no sale)
+ * - Comandos: troceados por {player}; al otorgar solo se concatenan los trozos con el nombre
+ * - Botín (loot): tablas alias ya construidas (LootTable), una tirada es O(1)
+ * - parcel() concreta el plan para un jugador: eso es lo que entra en la cola de entrega (RewardDelivery)
+ * - Recompensas inválidas (material desconocido, cantidad no numérica, XP negativa...) se informan
+ *   al compilar y se omiten: completar el evento ya no lanza ni registra errores por jugador
+ */
+public final class RewardPlan {
+
+    public static final RewardPlan EMPTY = new RewardPlan(0, new ItemStack[0], new String[0][], new LootTable[0]);
+
+    private static final Pattern PLAYER_PLACEHOLDER = Pattern.compile(Pattern.quote("{player}"));
+
+    private final int xp;
+    private final ItemStack[] items;
+    private final String[][] commands; // Trozos de cada comando, separados por {player}
+    private final LootTable[] loot;
+
+    private RewardPlan(int xp, ItemStack[] items, String[][] commands, LootTable[] loot) {
+        this.xp = xp;
+        this.items = items;
+        this.commands = commands;
+        this.loot = loot;
+    }
+
+    /**
+     * Compila las recompensas de una definición.
+     *
+     * @param problems Recibe una descripción por cada recompensa inválida (omitida del plan)
+     */
+    public static RewardPlan compile(EventDefinition definition, Consumer<String> problems) {
+        String rewardsJson = definition.getMetadata().getOrDefault("rewards_data", "{}");
+        if (rewardsJson.equals("{}")) {
+            return EMPTY;
+        }
+
+        JsonObject rewards;
+        try {
+            rewards = JsonParser.parseString(rewardsJson).getAsJsonObject();
+        } catch (RuntimeException e) {
+            problems.accept("unreadable rewards: " + e.getMessage());
+            return EMPTY;
+        }
+
+        int xp = 0;
+        if (rewards.has("xp")) {
+            try {
+                xp = rewards.get("xp").getAsInt();
+                if (xp < 0) {
+                    problems.accept("negative xp " + xp);
+                    xp = 0;
+                }
+            } catch (RuntimeException e) {
+                problems.accept("invalid xp " + rewards.get("xp"));
+            }
+        }
+
+        List<ItemStack> items = new ArrayList<>();
+        for (String itemString : stringList(rewards, "items", problems)) {
+            ItemStack item = parseItemString(itemString, problems);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+
+        List<String[]> commands = new ArrayList<>();
+        for (String command : stringList(rewards, "commands", problems)) {
+            String[] parts = splitCommand(command);
+            if (parts != null) {
+                commands.add(parts);
+            } else {
+                problems.accept("empty command");
+            }
+        }
+
+        List<LootTable> loot = new ArrayList<>();
+        JsonElement lootData = rewards.get("loot");
+        if (lootData != null) {
+            List<JsonElement> tables = new ArrayList<>();
+            if (lootData.isJsonArray()) {
+                lootData.getAsJsonArray().forEach(tables::add);
+            } else {
+                tables.add(lootData);
+            }
+
+            for (JsonElement table : tables) {
+                try {
+                    LootTable compiled = table.isJsonObject() ? LootTable.compile(table.getAsJsonObject(), problems) : null;
+                    if (compiled != null) {
+                        loot.add(compiled);
+                    } else if (!table.isJsonObject()) {
+                        problems.accept("invalid loot table " + table);
+                    }
+                } catch (RuntimeException e) {
+                    problems.accept("invalid loot table: " + e.getMessage());
+                }
+            }
+        }
+
+        if (xp == 0 && items.isEmpty() && commands.isEmpty() && loot.isEmpty()) {
+            return EMPTY;
+        }
+        return new RewardPlan(xp, items.toArray(new ItemStack[0]), commands.toArray(new String[0][]),
+                loot.toArray(new LootTable[0]));
+    }
+
+    public boolean isEmpty() {
+        return this == EMPTY;
+    }
+
+    /**
+     * Concreta el plan para un jugador: copias nuevas de los ítems (la plantilla nunca se entrega),
+     * {player} sustituido en los comandos y las tiradas de botín hechas con random.
+     *
+     * @param random Generador de las tiradas (misma semilla → mismo botín)
+     */
+    RewardParcel parcel(String eventId, String playerName, RandomGenerator random) {
+        int totalXp = xp;
+        List<ItemStack> copies = new ArrayList<>(items.length);
+        for (ItemStack item : items) {
+            copies.add(item.clone());
+        }
+
+        List<String> resolved = new ArrayList<>(commands.length);
+        for (String[] parts : commands) {
+            resolved.add(command(parts, playerName));
+        }
+
+        if (loot.length > 0) {
+            List<LootTable.Outcome> drops = new ArrayList<>();
+            for (LootTable table : loot) {
+                table.roll(random, drops);
+            }
+            for (LootTable.Outcome drop : drops) {
+                totalXp += drop.xp();
+                if (drop.item() != null) {
+                    copies.add(drop.item().clone());
+                }
+                if (drop.command() != null) {
+                    resolved.add(command(drop.command(), playerName));
+                }
+            }
+        }
+        return new RewardParcel(eventId, totalXp, copies, resolved);
+    }
+
+    /**
+     * Semilla de las tiradas de una completación: depende solo del jugador, el evento y el momento
+     * de completado (reproducible: la misma completación da el mismo botín).
+     */
+    static long lootSeed(UUID playerId, String eventId, long completedAt) {
+        long seed = playerId.getMostSignificantBits() * 0x9E3779B97F4A7C15L;
+        seed = (seed ^ playerId.getLeastSignificantBits()) * 0xBF58476D1CE4E5B9L;
+        seed = (seed ^ eventId.hashCode()) * 0x94D049BB133111EBL;
+        return seed ^ completedAt;
+    }
+
+    /**
+     * @return Los trozos del comando separados por {player} (sin "/" inicial), o null si está vacío
+     */
+    static String[] splitCommand(String command) {
+        String trimmed = command.trim();
+        if (trimmed.startsWith("/")) {
+            trimmed = trimmed.substring(1);
+        }
+        return trimmed.isEmpty() ? null : PLAYER_PLACEHOLDER.split(trimmed, -1);
+    }
+
+    /**
+     * @return Mensaje de un ítem para el jugador ("+ 2x diamond")
+     */
+    static String describe(ItemStack item) {
+        return "§a+ " + item.getAmount() + "x " + item.getType().name().toLowerCase(Locale.ROOT).replace("_", " ");
+    }
+
+    private static String command(String[] parts, String playerName) {
+        if (parts.length == 1) {
+            return parts[0];
+        }
+
+        StringBuilder command = new StringBuilder(64);
+        for (int p = 0; p < parts.length; p++) {
+            if (p > 0) {
+                command.append(playerName);
+            }
+            command.append(parts[p]);
+        }
+        return command.toString();
+    }
+
+    private static List<String> stringList(JsonObject rewards, String key, Consumer<String> problems) {
+        JsonElement element = rewards.get(key);
+        if (element == null) {
+            return List.of();
+        }
+        if (!element.isJsonArray()) {
+            problems.accept("'" + key + "' must be a list");
+            return List.of();
+        }
+
+        List<String> values = new ArrayList<>();
+        for (JsonElement value : element.getAsJsonArray()) {
+            if (value.isJsonPrimitive()) {
+                values.add(value.getAsString());
+            } else {
+                problems.accept("invalid " + key + " entry " + value);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Parsea un string "minecraft:item_id cantidad" a ItemStack.
+     * Formato esperado: "minecraft:diamond_pickaxe 1"
+     */
+    static ItemStack parseItemString(String itemString, Consumer<String> problems) {
+        String[] parts = itemString.trim().split("\\s+");
+        if (parts[0].isEmpty()) {
+            problems.accept("empty item");
+            return null;
+        }
+
+        int amount = 1;
+        if (parts.length > 1) {
+            try {
+                amount = Integer.parseInt(parts[1]);
+            } catch (NumberFormatException e) {
+                problems.accept("invalid amount in item '" + itemString + "'");
+                return null;
+            }
+            if (amount <= 0) {
+                problems.accept("non-positive amount in item '" + itemString + "'");
+                return null;
+            }
+        }
+
+        Material material = Material.matchMaterial(parts[0]);
+        if (material == null || !material.isItem()) {
+            problems.accept("unknown item material '" + parts[0] + "'");
+            return null;
+        }
+        return new ItemStack(material, amount);
+    }
+}
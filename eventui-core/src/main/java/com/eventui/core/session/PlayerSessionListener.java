@@ -0,0 +1,91 @@
+package com.eventui.core.session;
+
+import com.eventui.core.EventUIPlugin;
+import com.eventui.core.sync.ProgressSync;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.UUID;
+
+/**
+ * Mantiene el SessionRegistry sincronizado con los jugadores online.*
+ * FLUJO:
+ * - Join: asigna slot → asocia su progreso al slot → carga su índice de eventos activos
+ *   → programa plazos (falla lo que venció offline)
+ *   → completa eventos que quedaron cumplidos mientras estaba offline (cambio de definición)
+ *   → entrega las recompensas de su buzón
+ * - Si viene de otro servidor (ProgressSync), índice y plazos esperan a su handoff: sin ellos
+ *   nada cambia su progreso local antes de recibir el remoto (ProgressSync.refreshSession los abre)
+ * - Quit: cancela plazos → limpia el índice → suelta el progreso del slot → libera el slot para reutilizarlo
+ */
+public class PlayerSessionListener implements Listener {
+
+    private final EventUIPlugin plugin;
+
+    public PlayerSessionListener(EventUIPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * LOWEST: el slot debe existir antes de que cualquier otro listener procese al jugador.
+     */
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onJoin(PlayerJoinEvent event) {
+        openSession(event.getPlayer().getUniqueId());
+    }
+
+    /**
+     * MONITOR: se libera después de que el resto de listeners haya terminado con el jugador.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        closeSession(event.getPlayer().getUniqueId());
+    }
+
+    /**
+     * Abre la sesión de un jugador (también usado en onEnable para jugadores ya conectados).
+     */
+    public void openSession(UUID playerId) {
+        int slot = plugin.getSessionRegistry().acquire(playerId);
+        ProgressSync sync = plugin.getProgressSync();
+        boolean awaitingHandoff = sync != null && sync.onJoin(playerId);
+        plugin.getStorage().attachSession(slot, playerId);
+        if (!awaitingHandoff) {
+            plugin.getObjectiveTracker().loadActiveEvents(slot);
+            plugin.getEventTimers().openSession(playerId);
+        }
+        plugin.getCommunityGoals().openSession(slot, playerId);
+        if (!awaitingHandoff) {
+            plugin.getObjectiveTracker().recheckCompletions(playerId);
+        }
+
+        Player player = plugin.getServer().getPlayer(playerId);
+        if (player != null) {
+            plugin.getRewardManager().openSession(player);
+        }
+    }
+
+    public void closeSession(UUID playerId) {
+        int slot = plugin.getSessionRegistry().slotOf(playerId);
+        if (slot < 0) {
+            return;
+        }
+
+        plugin.getEventTimers().closeSession(playerId);
+        plugin.getCommunityGoals().closeSession(slot, playerId);
+        plugin.getObjectiveTracker().clearActiveEvents(slot);
+        plugin.getStorage().detachSession(slot);
+        plugin.getSessionRegistry().release(playerId);
+
+        // Cambio de servidor: publicar sus últimos cambios + handoff sin esperar al intervalo
+        ProgressSync sync = plugin.getProgressSync();
+        if (sync != null && plugin.isEnabled()) {
+            sync.onQuit(playerId);
+            plugin.getServer().getScheduler().runTaskAsynchronously(plugin, sync::flush);
+        }
+    }
+}
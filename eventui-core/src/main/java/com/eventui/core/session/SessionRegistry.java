@@ -0,0 +1,98 @@
+package com.eventui.core.session;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro de sesiones: asigna a cada jugador ONLINE un slot entero denso.*
+ * ARQUITECTURA:
+ * - Slots 0..n-1 reutilizables: al salir un jugador su slot vuelve a la lista libre
+ * - Las estructuras calientes (progreso, eventos activos, cachés) se indexan por slot
+ *   en arrays en vez de hashear UUIDs en cada acceso
+ * - Las APIs públicas siguen aceptando UUID: la traducción se hace UNA vez en el borde
+ *   (p. ej. al recibir un evento de Bukkit)
+ */
+public class SessionRegistry {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Map<UUID, Integer> slotByPlayer = new ConcurrentHashMap<>();
+    private volatile UUID[] playerBySlot = new UUID[INITIAL_CAPACITY];
+
+    // Pila de slots libres (reciclados) + siguiente slot nunca usado
+    private int[] freeSlots = new int[INITIAL_CAPACITY];
+    private int freeCount = 0;
+    private int nextSlot = 0;
+
+    /**
+     * Asigna un slot al jugador (o devuelve el que ya tiene).
+     */
+    public synchronized int acquire(UUID playerId) {
+        Integer existing = slotByPlayer.get(playerId);
+        if (existing != null) {
+            return existing;
+        }
+
+        int slot = freeCount > 0 ? freeSlots[--freeCount] : nextSlot++;
+
+        if (slot >= playerBySlot.length) {
+            playerBySlot = Arrays.copyOf(playerBySlot, playerBySlot.length * 2);
+        }
+
+        playerBySlot[slot] = playerId;
+        slotByPlayer.put(playerId, slot);
+        return slot;
+    }
+
+    /**
+     * Libera el slot del jugador para que lo reutilice otro.
+     *
+     * @return Slot liberado, o -1 si el jugador no tenía
+     */
+    public synchronized int release(UUID playerId) {
+        Integer slot = slotByPlayer.remove(playerId);
+        if (slot == null) {
+            return -1;
+        }
+
+        playerBySlot[slot] = null;
+
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+        }
+        freeSlots[freeCount++] = slot;
+        return slot;
+    }
+
+    /**
+     * @return Slot del jugador, o -1 si no está online
+     */
+    public int slotOf(UUID playerId) {
+        Integer slot = slotByPlayer.get(playerId);
+        return slot != null ? slot : -1;
+    }
+
+    /**
+     * @return Jugador que ocupa el slot, o null si está libre
+     */
+    public UUID playerAt(int slot) {
+        UUID[] players = playerBySlot;
+        return slot >= 0 && slot < players.length ? players[slot] : null;
+    }
+
+    /**
+     * @return Límite superior (exclusivo) de los slots asignados hasta ahora
+     */
+    public synchronized int capacity() {
+        return nextSlot;
+    }
+
+    /**
+     * @return Número de jugadores con slot asignado
+     */
+    public int size() {
+        return slotByPlayer.size();
+    }
+}
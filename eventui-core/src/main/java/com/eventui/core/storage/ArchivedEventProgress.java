@@ -0,0 +1,94 @@
+package com.eventui.core.storage;
+
+import com.eventui.api.event.EventDefinition;
+import com.eventui.api.event.EventProgress;
+import com.eventui.api.event.EventState;
+import com.eventui.api.objective.ObjectiveDefinition;
+import com.eventui.api.objective.ObjectiveProgress;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Vista de solo lectura de un evento terminado que vive en el CompletionHistory.*
+ * - Se crea bajo demanda en getProgress(), no se almacena
+ * - COMPLETED: todos los objetivos se reportan al 100%
+ * - FAILED: las cantidades individuales no se conservan y se reportan a 0
+ */
+public record ArchivedEventProgress(
+        UUID playerId,
+        EventDefinition definition,
+        EventState state,
+        long completedAt
+) implements EventProgress {
+
+    @Override
+    public UUID getPlayerId() {
+        return playerId;
+    }
+
+    @Override
+    public String getEventId() {
+        return definition.getId();
+    }
+
+    @Override
+    public EventState getState() {
+        return state;
+    }
+
+    @Override
+    public List<ObjectiveProgress> getObjectivesProgress() {
+        boolean done = state == EventState.COMPLETED;
+        List<ObjectiveProgress> views = new ArrayList<>(definition.getObjectives().size());
+        for (ObjectiveDefinition objective : definition.getObjectives()) {
+            views.add(new ArchivedObjective(objective.getId(), objective.getTargetAmount(), done));
+        }
+        return List.copyOf(views);
+    }
+
+    @Override
+    public float getOverallProgress() {
+        return state == EventState.COMPLETED && !definition.getObjectives().isEmpty() ? 1.0f : 0.0f;
+    }
+
+    @Override
+    public long getStartedAt() {
+        return 0L; // No se conserva tras compactar
+    }
+
+    @Override
+    public long getCompletedAt() {
+        return completedAt;
+    }
+
+    @Override
+    public void fail() {
+        // Ya terminado: nada que hacer
+    }
+
+    private record ArchivedObjective(String objectiveId, int targetAmount, boolean completed)
+            implements ObjectiveProgress {
+
+        @Override
+        public String getObjectiveId() {
+            return objectiveId;
+        }
+
+        @Override
+        public int getCurrentAmount() {
+            return completed ? targetAmount : 0;
+        }
+
+        @Override
+        public int getTargetAmount() {
+            return targetAmount;
+        }
+
+        @Override
+        public boolean isCompleted() {
+            return completed;
+        }
+    }
+}
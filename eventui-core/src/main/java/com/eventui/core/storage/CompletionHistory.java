@@ -0,0 +1,172 @@
+package com.eventui.core.storage;
+
+import java.util.Arrays;
+
+/**
+ * Historial compacto de eventos terminados (COMPLETED / FAILED) de un jugador.*
+ * ARQUITECTURA:
+ * - Dos bitsets sobre el índice denso de eventos (EventIndex): completados y fallados
+ * - Un int[] con el momento de finalización (segundos epoch, sin signo) por cada bit activo,
+ *   ordenado por índice de evento: la posición de un evento es su rango en (completados | fallados)
+ * - Un veterano con cientos de eventos terminados ocupa unos cientos de bytes
+ *   en vez de un EventProgressImpl completo por evento
+ */
+public class CompletionHistory {
+
+    private static final long[] NO_WORDS = new long[0];
+    private static final int[] NO_TIMES = new int[0];
+
+    private long[] completed = NO_WORDS;
+    private long[] failed = NO_WORDS;
+    private int[] finishedAt = NO_TIMES;
+
+    /**
+     * Registra (o sobrescribe) un evento terminado.
+     *
+     * @param eventIndex Índice denso del evento
+     * @param wasCompleted true si terminó COMPLETED, false si FAILED
+     * @param finishedAtMillis Momento de finalización (epoch millis), 0 si desconocido
+     */
+    public synchronized void record(int eventIndex, boolean wasCompleted, long finishedAtMillis) {
+        int word = eventIndex >>> 6;
+        long bit = 1L << eventIndex;
+        ensureWords(word + 1);
+
+        boolean present = ((completed[word] | failed[word]) & bit) != 0;
+        int rank = rank(eventIndex);
+
+        if (!present) {
+            int[] grown = new int[finishedAt.length + 1];
+            System.arraycopy(finishedAt, 0, grown, 0, rank);
+            System.arraycopy(finishedAt, rank, grown, rank + 1, finishedAt.length - rank);
+            finishedAt = grown;
+        }
+
+        finishedAt[rank] = (int) (finishedAtMillis / 1000L);
+
+        if (wasCompleted) {
+            completed[word] |= bit;
+            failed[word] &= ~bit;
+        } else {
+            failed[word] |= bit;
+            completed[word] &= ~bit;
+        }
+    }
+
+    /**
+     * Elimina un evento del historial.
+     *
+     * @return true si existía
+     */
+    public synchronized boolean remove(int eventIndex) {
+        int word = eventIndex >>> 6;
+        long bit = 1L << eventIndex;
+        if (word >= completed.length || ((completed[word] | failed[word]) & bit) == 0) {
+            return false;
+        }
+
+        int rank = rank(eventIndex);
+        int[] shrunk = new int[finishedAt.length - 1];
+        System.arraycopy(finishedAt, 0, shrunk, 0, rank);
+        System.arraycopy(finishedAt, rank + 1, shrunk, rank, finishedAt.length - rank - 1);
+        finishedAt = shrunk;
+
+        completed[word] &= ~bit;
+        failed[word] &= ~bit;
+        return true;
+    }
+
+    public synchronized boolean isCompleted(int eventIndex) {
+        int word = eventIndex >>> 6;
+        return word < completed.length && (completed[word] & (1L << eventIndex)) != 0;
+    }
+
+    public synchronized boolean isFailed(int eventIndex) {
+        int word = eventIndex >>> 6;
+        return word < failed.length && (failed[word] & (1L << eventIndex)) != 0;
+    }
+
+    public synchronized boolean contains(int eventIndex) {
+        int word = eventIndex >>> 6;
+        return word < completed.length && ((completed[word] | failed[word]) & (1L << eventIndex)) != 0;
+    }
+
+    /**
+     * @return Momento de finalización en epoch millis (precisión de segundos), 0 si no está
+     */
+    public synchronized long getFinishedAt(int eventIndex) {
+        if (!contains(eventIndex)) {
+            return 0L;
+        }
+        return Integer.toUnsignedLong(finishedAt[rank(eventIndex)]) * 1000L;
+    }
+
+    /**
+     * @return Copia del bitset de eventos completados (palabra i = eventos 64i..64i+63)
+     */
+    public synchronized long[] completedWords() {
+        return completed.clone();
+    }
+
+    /**
+     * Recorre el historial en orden de índice de evento.
+     */
+    public synchronized void forEach(EntryVisitor visitor) {
+        int rank = 0;
+        for (int w = 0; w < completed.length; w++) {
+            long bits = completed[w] | failed[w];
+            while (bits != 0) {
+                int bit = Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                visitor.visit((w << 6) + bit, (completed[w] & (1L << bit)) != 0,
+                        Integer.toUnsignedLong(finishedAt[rank++]) * 1000L);
+            }
+        }
+    }
+
+    /**
+     * @return Número de eventos en el historial
+     */
+    public synchronized int size() {
+        return finishedAt.length;
+    }
+
+    public synchronized boolean isEmpty() {
+        return finishedAt.length == 0;
+    }
+
+    /**
+     * Estimación del heap usado por los arrays (sin cabeceras de objeto).
+     */
+    public synchronized long estimatedBytes() {
+        return (completed.length + failed.length) * 8L + finishedAt.length * 4L;
+    }
+
+    /**
+     * Número de eventos terminados con índice menor que eventIndex.
+     */
+    private int rank(int eventIndex) {
+        int word = eventIndex >>> 6;
+        int rank = 0;
+        for (int i = 0; i < word && i < completed.length; i++) {
+            rank += Long.bitCount(completed[i] | failed[i]);
+        }
+        if (word < completed.length) {
+            long below = (1L << eventIndex) - 1;
+            rank += Long.bitCount((completed[word] | failed[word]) & below);
+        }
+        return rank;
+    }
+
+    private void ensureWords(int words) {
+        if (completed.length < words) {
+            completed = Arrays.copyOf(completed, words);
+            failed = Arrays.copyOf(failed, words);
+        }
+    }
+
+    @FunctionalInterface
+    public interface EntryVisitor {
+        void visit(int eventIndex, boolean wasCompleted, long finishedAtMillis);
+    }
+}
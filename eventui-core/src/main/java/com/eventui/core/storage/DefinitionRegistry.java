@@ -0,0 +1,208 @@
+package com.eventui.core.storage;
+
+import com.eventui.api.event.EventDefinition;
+import com.eventui.api.objective.ObjectiveDefinition;
+import com.eventui.api.objective.ObjectiveType;
+import com.eventui.core.event.EventWindow;
+import com.eventui.core.event.ResetSchedule;
+import com.eventui.core.rewards.RewardPlan;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Snapshot INMUTABLE de todas las definiciones de eventos y sus índices derivados.*
+ * ARQUITECTURA:
+ * - EventStorage publica UNA referencia volatile a la versión vigente
+ * - Un reload construye un snapshot nuevo completo y lo intercambia de golpe:
+ *   los lectores ven el mundo anterior o el nuevo, nunca uno a medio cargar
+ * - Leer es gratis: sin copias ni locks (getDefinitions() ya es inmutable)
+ * - version crece monótonamente en cada publicación*
+ * ÍNDICES DERIVADOS (usados por ObjectiveTracker):
+ * - Definición por índice denso (EventIndex)
+ * - ObjectiveType → bitset de índices de eventos que contienen ese tipo
+ * - custom_id → bitset de índices de eventos con un objetivo CUSTOM con ese id
+ * - Programación de reinicio (daily / weekly) por índice denso, null si el evento no se reinicia
+ * - Ventana temporal (disponibilidad / límite de tiempo) por índice denso, null si no tiene
+ * - Plan de recompensas compilado por índice denso (RewardPlan.EMPTY si no tiene); se reutiliza
+ *   el del snapshot anterior cuando la definición es el mismo objeto*
+ * Los bitsets devueltos son compartidos: NO modificarlos.
+ */
+public final class DefinitionRegistry {
+
+    private static final Logger LOGGER = Logger.getLogger(DefinitionRegistry.class.getName());
+
+    public static final DefinitionRegistry EMPTY = new DefinitionRegistry(
+            0L, Map.of(), new EventDefinition[0], new ResetSchedule[0], new EventWindow[0], new RewardPlan[0],
+            Map.of(), Map.of());
+
+    private final long version;
+    private final Map<String, EventDefinition> definitions;
+    private final EventDefinition[] definitionsByIndex;
+    private final ResetSchedule[] resetsByIndex;
+    private final EventWindow[] windowsByIndex;
+    private final RewardPlan[] rewardsByIndex;
+    private final Map<ObjectiveType, long[]> eventsByObjectiveType;
+    private final Map<String, long[]> eventsByCustomId;
+
+    private DefinitionRegistry(long version,
+                               Map<String, EventDefinition> definitions,
+                               EventDefinition[] definitionsByIndex,
+                               ResetSchedule[] resetsByIndex,
+                               EventWindow[] windowsByIndex,
+                               RewardPlan[] rewardsByIndex,
+                               Map<ObjectiveType, long[]> eventsByObjectiveType,
+                               Map<String, long[]> eventsByCustomId) {
+        this.version = version;
+        this.definitions = definitions;
+        this.definitionsByIndex = definitionsByIndex;
+        this.resetsByIndex = resetsByIndex;
+        this.windowsByIndex = windowsByIndex;
+        this.rewardsByIndex = rewardsByIndex;
+        this.eventsByObjectiveType = eventsByObjectiveType;
+        this.eventsByCustomId = eventsByCustomId;
+    }
+
+    /**
+     * Construye un snapshot nuevo.
+     * Asigna índice denso a cada definición (append-only, los índices existentes se conservan).
+     *
+     * @param previous Snapshot anterior: sus planes de recompensas se reutilizan si la definición no cambió
+     */
+    static DefinitionRegistry build(long version, Map<String, EventDefinition> definitions, EventIndex eventIndex,
+                                    DefinitionRegistry previous) {
+        definitions.keySet().forEach(eventIndex::register);
+
+        int eventCount = eventIndex.size();
+        int words = (eventCount + 63) >>> 6;
+
+        EventDefinition[] byIndex = new EventDefinition[eventCount];
+        ResetSchedule[] resets = new ResetSchedule[eventCount];
+        EventWindow[] windows = new EventWindow[eventCount];
+        RewardPlan[] rewards = new RewardPlan[eventCount];
+        int compiled = 0;
+        int problems = 0;
+        Map<ObjectiveType, long[]> byType = new EnumMap<>(ObjectiveType.class);
+        Map<String, long[]> byCustomId = new HashMap<>();
+
+        for (EventDefinition definition : definitions.values()) {
+            int index = eventIndex.indexOf(definition.getId());
+            byIndex[index] = definition;
+            resets[index] = ResetSchedule.of(definition);
+            windows[index] = EventWindow.of(definition);
+
+            if (previous.get(index) == definition) {
+                rewards[index] = previous.rewardPlan(index);
+            } else {
+                List<String> invalid = new ArrayList<>(0);
+                rewards[index] = RewardPlan.compile(definition, invalid::add);
+                invalid.forEach(problem -> LOGGER.warning("Event " + definition.getId() + " reward skipped: " + problem));
+                problems += invalid.size();
+                compiled++;
+            }
+
+            for (ObjectiveDefinition objective : definition.getObjectives()) {
+                byType.computeIfAbsent(objective.getType(), k -> new long[words])[index >>> 6] |= 1L << index;
+
+                if (objective.getType() == ObjectiveType.CUSTOM) {
+                    String customId = objective.getParameters().get("custom_id");
+                    if (customId != null) {
+                        byCustomId.computeIfAbsent(customId, k -> new long[words])[index >>> 6] |= 1L << index;
+                    }
+                }
+            }
+        }
+
+        if (compiled > 0) {
+            LOGGER.info("Compiled " + compiled + " reward plan(s)" + (problems > 0 ? ", " + problems + " invalid reward(s) skipped" : ""));
+        }
+
+        return new DefinitionRegistry(
+                version,
+                Map.copyOf(definitions),
+                byIndex,
+                resets,
+                windows,
+                rewards,
+                Collections.unmodifiableMap(byType),
+                Map.copyOf(byCustomId)
+        );
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return Todas las definiciones (mapa inmutable, sin copia)
+     */
+    public Map<String, EventDefinition> getDefinitions() {
+        return definitions;
+    }
+
+    /**
+     * @return Definición, o null si no existe
+     */
+    public EventDefinition get(String eventId) {
+        return definitions.get(eventId);
+    }
+
+    /**
+     * @return Definición por índice denso, o null si el índice no corresponde a un evento cargado
+     */
+    public EventDefinition get(int eventIndex) {
+        return eventIndex >= 0 && eventIndex < definitionsByIndex.length ? definitionsByIndex[eventIndex] : null;
+    }
+
+    /**
+     * @return Programación de reinicio del evento, o null si no se reinicia
+     */
+    public ResetSchedule resetSchedule(int eventIndex) {
+        return eventIndex >= 0 && eventIndex < resetsByIndex.length ? resetsByIndex[eventIndex] : null;
+    }
+
+    /**
+     * @return Ventana temporal del evento, o null si no tiene fechas ni límite de tiempo
+     */
+    public EventWindow window(int eventIndex) {
+        return eventIndex >= 0 && eventIndex < windowsByIndex.length ? windowsByIndex[eventIndex] : null;
+    }
+
+    /**
+     * @return Plan de recompensas del evento (RewardPlan.EMPTY si no tiene o el índice no existe)
+     */
+    public RewardPlan rewardPlan(int eventIndex) {
+        RewardPlan plan = eventIndex >= 0 && eventIndex < rewardsByIndex.length ? rewardsByIndex[eventIndex] : null;
+        return plan != null ? plan : RewardPlan.EMPTY;
+    }
+
+    /**
+     * @return Bitset de eventos que contienen el tipo de objetivo, o null si ninguno
+     */
+    public long[] eventsWithObjectiveType(ObjectiveType type) {
+        return eventsByObjectiveType.get(type);
+    }
+
+    /**
+     * @return Bitset de eventos con un objetivo CUSTOM con ese custom_id, o null si ninguno
+     */
+    public long[] eventsWithCustomId(String customId) {
+        return eventsByCustomId.get(customId);
+    }
+
+    public int size() {
+        return definitions.size();
+    }
+
+    /**
+     * @return Número de tipos de objetivo indexados
+     */
+    public int indexedTypeCount() {
+        return eventsByObjectiveType.size();
+    }
+}
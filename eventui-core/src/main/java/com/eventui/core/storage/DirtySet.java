@@ -0,0 +1,148 @@
+package com.eventui.core.storage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Conjunto concurrente de registros de progreso modificados desde el último drenado.*
+ * ARQUITECTURA:
+ * - Por jugador: bitset de índices densos de eventos sucios + flag "todo el jugador borrado"
+ * - Solo hay entradas para jugadores con cambios: drenar cuesta O(cambios), no O(jugadores)
+ * - Único consumidor: saveSnapshot (recodifica solo los jugadores drenados). drain() retira los
+ *   cambios, así que otro consumidor necesitaría su propio DirtySet: la sync entre servidores
+ *   (ProgressSync) y las actualizaciones al cliente trabajan con los cambios individuales
+ *   (ProgressEvent / PROGRESS_UPDATE), que llevan la cantidad y no solo "algo cambió"*
+ * CONCURRENCIA:
+ * - mark() es seguro desde cualquier hilo
+ * - drain() retira la entrada del mapa y la SELLA: un mark() que llegue tarde a una
+ *   entrada sellada reintenta sobre una entrada nueva (el cambio nunca se pierde)
+ */
+public class DirtySet {
+
+    private final Map<UUID, PlayerDirty> dirtyByPlayer = new ConcurrentHashMap<>();
+
+    /**
+     * Cambios drenados de un jugador.
+     *
+     * @param playerId     Jugador
+     * @param eventIndices Índices densos de eventos modificados (orden ascendente)
+     * @param cleared      true si TODO el progreso del jugador se borró (clearPlayerProgress)
+     */
+    public record DirtyRecord(UUID playerId, int[] eventIndices, boolean cleared) {
+    }
+
+    /**
+     * Marca un evento de un jugador como modificado.
+     */
+    public void mark(UUID playerId, int eventIndex) {
+        if (eventIndex < 0) {
+            return;
+        }
+        while (!dirtyByPlayer.computeIfAbsent(playerId, k -> new PlayerDirty()).mark(eventIndex)) {
+            Thread.onSpinWait(); // Entrada sellada por un drain concurrente: reintentar
+        }
+    }
+
+    /**
+     * Marca que todo el progreso del jugador se eliminó.
+     * Los bits anteriores se descartan: el consumidor debe borrar el registro completo.
+     */
+    public void markCleared(UUID playerId) {
+        while (!dirtyByPlayer.computeIfAbsent(playerId, k -> new PlayerDirty()).markCleared()) {
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Retira y devuelve todos los cambios pendientes.
+     */
+    public List<DirtyRecord> drain() {
+        List<DirtyRecord> drained = new ArrayList<>(dirtyByPlayer.size());
+
+        for (UUID playerId : dirtyByPlayer.keySet()) {
+            PlayerDirty dirty = dirtyByPlayer.remove(playerId);
+            if (dirty != null) {
+                drained.add(dirty.seal(playerId));
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Devuelve cambios pendientes que no se pudieron procesar (p. ej. fallo al guardar).
+     */
+    public void restore(DirtyRecord record) {
+        if (record.cleared()) {
+            markCleared(record.playerId());
+        }
+        for (int eventIndex : record.eventIndices()) {
+            mark(record.playerId(), eventIndex);
+        }
+    }
+
+    public boolean isEmpty() {
+        return dirtyByPlayer.isEmpty();
+    }
+
+    /**
+     * @return Número de jugadores con cambios pendientes
+     */
+    public int size() {
+        return dirtyByPlayer.size();
+    }
+
+    /**
+     * Bits sucios de un jugador. Pequeño y sincronizado: la contención es por jugador.
+     */
+    private static final class PlayerDirty {
+
+        private long[] bits = new long[1];
+        private boolean cleared;
+        private boolean sealed;
+
+        synchronized boolean mark(int eventIndex) {
+            if (sealed) {
+                return false;
+            }
+            int word = eventIndex >>> 6;
+            if (word >= bits.length) {
+                bits = Arrays.copyOf(bits, Math.max(word + 1, bits.length * 2));
+            }
+            bits[word] |= 1L << eventIndex;
+            return true;
+        }
+
+        synchronized boolean markCleared() {
+            if (sealed) {
+                return false;
+            }
+            Arrays.fill(bits, 0L);
+            cleared = true;
+            return true;
+        }
+
+        synchronized DirtyRecord seal(UUID playerId) {
+            sealed = true;
+
+            int count = 0;
+            for (long word : bits) {
+                count += Long.bitCount(word);
+            }
+
+            int[] indices = new int[count];
+            int next = 0;
+            for (int w = 0; w < bits.length; w++) {
+                long word = bits[w];
+                while (word != 0) {
+                    indices[next++] = (w << 6) + Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                }
+            }
+            return new DirtyRecord(playerId, indices, cleared);
+        }
+    }
+}
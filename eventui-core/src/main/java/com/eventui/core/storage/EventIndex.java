@@ -0,0 +1,62 @@
+package com.eventui.core.storage;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice denso de IDs de evento (eventId → int).*
+ * ARQUITECTURA:
+ * - Cada ID recibe un índice 0..n-1 la primera vez que se registra
+ * - Solo se agregan IDs (append-only): un índice NUNCA cambia de evento,
+ *   así los bitsets guardados por jugador siguen siendo válidos tras un reload
+ * - Lecturas sin lock, escrituras sincronizadas (solo al cargar definiciones)
+ */
+public class EventIndex {
+
+    private final Map<String, Integer> indexById = new ConcurrentHashMap<>();
+    private volatile String[] idsByIndex = new String[0];
+
+    /**
+     * Registra un ID de evento y devuelve su índice (el existente si ya estaba).
+     */
+    public synchronized int register(String eventId) {
+        Integer existing = indexById.get(eventId);
+        if (existing != null) {
+            return existing;
+        }
+
+        String[] ids = idsByIndex;
+        int index = ids.length;
+        String[] grown = Arrays.copyOf(ids, index + 1);
+        grown[index] = eventId;
+
+        // Publicar primero el array para que indexOf nunca devuelva un índice sin ID
+        idsByIndex = grown;
+        indexById.put(eventId, index);
+        return index;
+    }
+
+    /**
+     * @return Índice del evento, o -1 si nunca se registró
+     */
+    public int indexOf(String eventId) {
+        Integer index = indexById.get(eventId);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * @return ID del evento para un índice, o null si está fuera de rango
+     */
+    public String idAt(int index) {
+        String[] ids = idsByIndex;
+        return index >= 0 && index < ids.length ? ids[index] : null;
+    }
+
+    /**
+     * @return Número de IDs registrados (los índices válidos son 0..size-1)
+     */
+    public int size() {
+        return idsByIndex.length;
+    }
+}
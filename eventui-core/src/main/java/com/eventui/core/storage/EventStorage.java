@@ -5,35 +5,84 @@ import com.eventui.api.event.EventProgress;
 import com.eventui.api.event.EventState;
 import com.eventui.core.EventUIPlugin;
 import com.eventui.core.event.EventProgressImpl;
+import com.eventui.core.event.EventWindow;
+import com.eventui.core.event.ProgressChangeListener;
+import com.eventui.core.event.ProgressEvent;
+import com.eventui.core.event.ResetSchedule;
+import com.eventui.core.session.SessionRegistry;
+import com.eventui.core.sync.ProgressSync;
+import com.eventui.core.timing.EventTimers;
+import com.eventui.core.tracking.ObjectiveTracker;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
 import java.util.logging.Logger;
 
 /**
- * Almacenamiento en memoria de eventos y progreso.*
- * - TODO en memoria (se pierde al reiniciar)
- * - Sin persistencia a disco/base de datos
+ * Almacenamiento de eventos y progreso.*
+ * - Progreso en memoria; persistido en un snapshot binario mapeado (ProgressSnapshot)
+ * - Los jugadores del snapshot se decodifican bajo demanda (al entrar o al consultarlos)
+ * - Eventos terminados se compactan en un CompletionHistory por jugador
+ * - Cada mutación marca (jugador, evento) en un DirtySet: guardar/sincronizar
+ *   cuesta proporcional a lo que cambió, no al número de jugadores
  * - Thread-safe para servidores*
  */
 public class EventStorage {
 
     private static final Logger LOGGER = Logger.getLogger(EventStorage.class.getName());
 
-    // Definiciones de eventos
-    private final Map<String, EventDefinition> eventDefinitions;
+    // Definiciones de eventos + índices derivados: snapshot inmutable, se reemplaza entero
+    private volatile DefinitionRegistry registry;
 
     private final EventUIPlugin plugin;
 
-    // Progreso de jugadores: playerId → (eventId → progress)
-    private final Map<UUID, Map<String, EventProgressImpl>> playerProgress;
+    // Progreso de jugadores: playerId → todo su progreso (online y offline)
+    private final Map<UUID, PlayerProgressData> playerProgress;
+
+    // Índice denso de eventos (eventId → int) para arrays y bitsets
+    private final EventIndex eventIndex;
+
+    // Progreso de jugadores ONLINE por slot de sesión (acceso sin hashing)
+    private volatile PlayerProgressData[] progressBySlot;
+
+    // Registros (jugador, evento) modificados desde el último drenado
+    private final DirtySet dirtySet;
+
+    // Eventos quitados explícitamente (la retención solo purga estos)
+    private final EventTombstones tombstones = new EventTombstones();
+
+    // Snapshot binario en disco (null = sin persistencia todavía)
+    private volatile ProgressSnapshot snapshot;
+
+    // Jugadores del snapshot cuyo estado ya vive en memoria (o se borró): no volver a decodificar
+    private final Set<UUID> snapshotConsumed = ConcurrentHashMap.newKeySet();
+
+    // Log de cambios opcional (event sourcing); null = desactivado
+    private volatile ProgressLog progressLog;
+    private volatile boolean replaying;
 
     public EventStorage(EventUIPlugin plugin) {  // ✅ Modificar constructor
-        this.eventDefinitions = new ConcurrentHashMap<>();
+        this.registry = DefinitionRegistry.EMPTY;
         this.playerProgress = new ConcurrentHashMap<>();
+        this.eventIndex = new EventIndex();
+        this.progressBySlot = new PlayerProgressData[0];
+        this.dirtySet = new DirtySet();
         this.plugin = plugin;  // ✅ Guardar referencia
     }
 
@@ -41,67 +90,151 @@ public class EventStorage {
 
     /**
      * Registra una definición de evento.
+     *
+     * @return Migración pendiente si el evento ya existía con otros objetivos
      */
-    public void registerEvent(EventDefinition definition) {
-        eventDefinitions.put(definition.getId(), definition);
-        LOGGER.info("Registered event definition: " + definition.getId());
+    public Optional<ProgressMigration> registerEvent(EventDefinition definition) {
+        return registerEvents(Map.of(definition.getId(), definition));
     }
 
     /**
      * Registra múltiples eventos.
+     * Construye un DefinitionRegistry nuevo (anteriores + nuevos) y lo publica en un solo swap.*
+     * Si un evento ya existía y sus objetivos cambiaron (IDs, orden o targets), el progreso
+     * en memoria sigue con la definición vieja hasta que se ejecute la migración devuelta.
+     *
+     * @return Migración a ejecutar en el hilo principal, o vacío si ningún progreso cambia
+     */
+    public synchronized Optional<ProgressMigration> registerEvents(Map<String, EventDefinition> events) {
+        DefinitionRegistry current = registry;
+
+        Map<Integer, EventDefinition> changed = new HashMap<>();
+        for (EventDefinition updated : events.values()) {
+            EventDefinition previous = current.get(updated.getId());
+            if (previous != null && !ObjectiveLayout.compatible(previous, updated)) {
+                changed.put(eventIndex.indexOf(updated.getId()), updated);
+            }
+        }
+
+        Map<String, EventDefinition> merged = new HashMap<>(current.getDefinitions());
+        merged.putAll(events);
+        tombstones.revive(events.keySet());
+
+        registry = DefinitionRegistry.build(current.getVersion() + 1, merged, eventIndex, current);
+        LOGGER.info("Registered " + events.size() + " event definitions (registry v" + registry.getVersion() + ")");
+
+        if (changed.isEmpty() || playerProgress.isEmpty()) {
+            return Optional.empty();
+        }
+
+        // Online primero: son los que pueden avanzar con la definición vieja mientras tanto
+        Deque<UUID> players = new ArrayDeque<>();
+        SessionRegistry sessions = plugin.getSessionRegistry();
+        for (UUID playerId : playerProgress.keySet()) {
+            if (sessions.slotOf(playerId) >= 0) {
+                players.addFirst(playerId);
+            } else {
+                players.addLast(playerId);
+            }
+        }
+
+        LOGGER.info(changed.size() + " event(s) changed objectives; migrating progress of "
+                + players.size() + " loaded players");
+        return Optional.of(new ProgressMigration(this, changed, players));
+    }
+
+    /**
+     * Quita definiciones (su archivo se borró). Publica un DefinitionRegistry nuevo en un solo swap.
+     * Los índices densos se conservan; el progreso guardado queda huérfano hasta que el evento
+     * vuelva a existir o lo purgue el barrido de retención (retention.purge-deleted-events, pasado
+     * el periodo de gracia de la lápida).*
+     * Solo aquí se ponen lápidas: un evento que no cargó al arrancar no cuenta como quitado.
+     *
+     * @return true si alguna definición existía
      */
-    public void registerEvents(Map<String, EventDefinition> events) {
-        eventDefinitions.putAll(events);
-        LOGGER.info("Registered " + events.size() + " event definitions");
+    public synchronized boolean unregisterEvents(Collection<String> eventIds) {
+        DefinitionRegistry current = registry;
+
+        Map<String, EventDefinition> remaining = new HashMap<>(current.getDefinitions());
+        List<String> removed = eventIds.stream().filter(remaining::containsKey).toList();
+        if (removed.isEmpty()) {
+            return false;
+        }
+        remaining.keySet().removeAll(removed);
+        tombstones.bury(removed, System.currentTimeMillis());
+
+        registry = DefinitionRegistry.build(current.getVersion() + 1, remaining, eventIndex, current);
+        LOGGER.info("Unregistered event definitions " + eventIds + " (registry v" + registry.getVersion() + ")");
+        return true;
     }
 
     /**
      * Obtiene una definición de evento.
      */
     public Optional<EventDefinition> getEventDefinition(String eventId) {
-        return Optional.ofNullable(eventDefinitions.get(eventId));
+        return Optional.ofNullable(registry.get(eventId));
+    }
+
+    /**
+     * @return Ventana temporal del evento (disponibilidad / límite de tiempo), o null si no tiene
+     */
+    public EventWindow getWindow(String eventId) {
+        return registry.window(eventIndex.indexOf(eventId));
     }
 
     /**
-     * Obtiene todas las definiciones.
+     * Obtiene una definición por su índice denso (acceso sin hashing).
+     *
+     * @return Definición, o null si el índice no corresponde a un evento cargado
+     */
+    public EventDefinition getDefinition(int eventIndex) {
+        return registry.get(eventIndex);
+    }
+
+    /**
+     * Obtiene todas las definiciones (inmutable, sin copia).
      */
     public Map<String, EventDefinition> getAllEventDefinitions() {
-        return Map.copyOf(eventDefinitions);
+        return registry.getDefinitions();
+    }
+
+    /**
+     * Snapshot vigente de definiciones e índices derivados.
+     * Quien necesite varias lecturas coherentes debe leerlo una vez y trabajar sobre él.
+     */
+    public DefinitionRegistry getRegistry() {
+        return registry;
     }
 
     // ========== Gestión de progreso ==========
 
     /**
-     * Obtiene o crea el progreso de un evento para un jugador.
+     * Obtiene o crea el progreso de un evento para un jugador.*
+     * Si el evento estaba compactado en el historial se rehidrata a un progreso vivo (para modificarlo):
+     * quien lo use debe llamar a compactProgress al terminar (no hace nada si ya no está terminado).
+     * Los caminos de solo lectura deben usar getProgress, que devuelve la vista archivada sin rehidratar.
+     * Lo que se escape se vuelve a compactar al salir el jugador (detachSession).
      */
     public EventProgressImpl getOrCreateProgress(UUID playerId, String eventId) {
-        EventDefinition definition = eventDefinitions.get(eventId);
+        EventDefinition definition = registry.get(eventId);
         if (definition == null) {
             throw new IllegalArgumentException("Event not found: " + eventId);
         }
 
-        Map<String, EventProgressImpl> playerEvents = playerProgress.computeIfAbsent(
-                playerId,
-                k -> new ConcurrentHashMap<>()
-        );
-
-        return playerEvents.computeIfAbsent(eventId, k -> {
-            EventProgressImpl progress = new EventProgressImpl(
-                    playerId,
-                    eventId,
-                    definition.getObjectives().stream()
-                            .map(obj -> obj.getId())
-                            .toList()
-            );
-
-            // Registrar objetivos con sus cantidades objetivo
-            definition.getObjectives().forEach(obj ->
-                    progress.registerObjective(obj.getId(), obj.getTargetAmount())
-            );
+        PlayerProgressData data = playerProgress.computeIfAbsent(playerId, this::loadPlayer);
+        int index = eventIndex.indexOf(eventId);
+        expireIfStale(data, index); // Registro de una época anterior → se crea uno fresco
+
+        return data.getOrCreate(index, () -> {
+            // Progreso compacto: targets e IDs se leen de la definición compartida
+            EventProgressImpl progress = new EventProgressImpl(playerId, definition, index, this::onProgressChanged);
+
+            // Si el evento estaba compactado en el historial, rehidratarlo
+            rehydrateFromHistory(data, index, progress);
 // ✅ NUEVO: Registrar evento como activo cuando está IN_PROGRESS
-            if (progress.getState() == EventState.IN_PROGRESS) {
-                // Obtener ObjectiveTracker desde plugin
-                plugin.getObjectiveTracker().registerActiveEvent(playerId, eventId);
+            ObjectiveTracker tracker = plugin.getObjectiveTracker();
+            if (progress.getState() == EventState.IN_PROGRESS && tracker != null) {
+                tracker.registerActiveEvent(playerId, eventId);
             }
             return progress;
         });
@@ -109,20 +242,107 @@ public class EventStorage {
 
     /**
      * Obtiene el progreso si existe.
+     * Los eventos compactados se devuelven como ArchivedEventProgress (solo lectura).
      */
     public Optional<EventProgress> getProgress(UUID playerId, String eventId) {
-        Map<String, EventProgressImpl> playerEvents = playerProgress.get(playerId);
-        if (playerEvents == null) {
+        PlayerProgressData data = dataOf(playerId);
+        int index = eventIndex.indexOf(eventId);
+        if (data == null || index < 0) {
             return Optional.empty();
         }
-        return Optional.ofNullable(playerEvents.get(eventId));
+        expireIfStale(data, index);
+
+        EventProgressImpl live = data.get(index);
+        if (live != null) {
+            return Optional.of(live);
+        }
+        return getArchivedProgress(data, index);
+    }
+
+    /**
+     * Obtiene el progreso vivo de un jugador ONLINE por slot e índice de evento.
+     * Camino caliente del tracker: solo accesos a arrays (más una comparación si el evento se reinicia).
+     *
+     * @return Progreso vivo, o null si no existe (o está compactado, o es de una época anterior)
+     */
+    public EventProgressImpl getProgress(int slot, int eventIndex) {
+        PlayerProgressData[] bySlot = progressBySlot;
+        if (slot < 0 || slot >= bySlot.length || bySlot[slot] == null) {
+            return null;
+        }
+
+        PlayerProgressData data = bySlot[slot];
+        EventProgressImpl progress = data.get(eventIndex);
+        if (progress != null && expireIfStale(data, eventIndex)) {
+            return null;
+        }
+        return progress;
+    }
+
+    /**
+     * Verifica si un jugador completó un evento (lee directamente el bitset del historial).
+     * Usado por dependencias y catálogo.
+     */
+    public boolean isCompleted(UUID playerId, String eventId) {
+        PlayerProgressData data = dataOf(playerId);
+        int index = eventIndex.indexOf(eventId);
+        if (data == null || index < 0) {
+            return false;
+        }
+        expireIfStale(data, index);
+
+        CompletionHistory history = data.getHistory();
+        if (history != null && history.isCompleted(index)) {
+            return true;
+        }
+
+        EventProgressImpl live = data.get(index);
+        return live != null && live.getState() == EventState.COMPLETED;
+    }
+
+    /**
+     * Compacta un evento terminado (COMPLETED / FAILED): descarta el EventProgressImpl
+     * y conserva solo el estado y el momento de finalización en el historial.
+     * Llamar cuando un evento pasa a COMPLETED o FAILED.
+     */
+    public void compactProgress(UUID playerId, String eventId) {
+        PlayerProgressData data = dataOf(playerId);
+        int index = eventIndex.indexOf(eventId);
+        if (data == null || index < 0) {
+            return;
+        }
+
+        EventProgressImpl live = data.get(index);
+        if (live == null) {
+            return;
+        }
+
+        EventState state = live.getState();
+        if (state != EventState.COMPLETED && state != EventState.FAILED) {
+            return;
+        }
+
+        data.getOrCreateHistory().record(index, state == EventState.COMPLETED, live.getCompletedAt());
+        data.remove(index);
     }
 
     /**
      * Limpia el progreso de un jugador (para testing o reset).
      */
     public void clearPlayerProgress(UUID playerId) {
-        playerProgress.remove(playerId);
+        PlayerProgressData removed = playerProgress.remove(playerId);
+        snapshotConsumed.add(playerId); // Lo guardado en disco tampoco debe volver
+        if (removed != null) {
+            dirtySet.markCleared(playerId);
+            appendToLog(ProgressEvent.Type.CLEAR, playerId, "", null, 0, 0);
+        }
+
+        // Si está online, su slot debe apuntar a un registro vacío nuevo
+        int slot = plugin.getSessionRegistry().slotOf(playerId);
+        if (removed != null && slot >= 0) {
+            attachSession(slot, playerId);
+        }
+
         LOGGER.info("Cleared progress for player: " + playerId);
     }
 
@@ -130,18 +350,614 @@ public class EventStorage {
      * Elimina el progreso de un evento específico para un jugador.
      */
     public void removeProgress(UUID playerId, String eventId) {
-        Map<String, EventProgressImpl> playerEvents = playerProgress.get(playerId);
-        if (playerEvents != null) {
-            playerEvents.remove(eventId);
-            LOGGER.info("Removed progress for player " + playerId + ", event: " + eventId);
+        PlayerProgressData data = dataOf(playerId);
+        int index = eventIndex.indexOf(eventId);
+        if (data == null || index < 0) {
+            return;
+        }
+
+        data.remove(index);
+
+        CompletionHistory history = data.getHistory();
+        if (history != null) {
+            history.remove(index);
+        }
+        dirtySet.mark(playerId, index);
+        appendToLog(ProgressEvent.Type.REMOVE, playerId, eventId, null, 0, 0);
+
+        LOGGER.info("Removed progress for player " + playerId + ", event: " + eventId);
+    }
+
+    // ========== Reinicios por época (daily / weekly) ==========
+
+    /**
+     * Descarta el progreso vivo y la entrada de historial de un evento con reinicio
+     * si pertenecen a una época anterior (ver ResetSchedule).*
+     * FLUJO:
+     * 1. Sin reinicio configurado → sale tras una lectura de array
+     * 2. Época del registro vivo: inicio si está en curso, finalización si terminó
+     * 3. Lo caducado se elimina, se marca sucio y se registra como REMOVE
+     * 4. Si estaba IN_PROGRESS, se apaga su bit activo en el tracker (si ya existe: el replay del log
+     *    corre antes de crearlo y el índice de activos se construye después)*
+     * Así cualquier acceso (tracker, catálogo, comandos) ve el evento como nuevo sin ningún barrido.
+     *
+     * @return true si se descartó algo
+     */
+    private boolean expireIfStale(PlayerProgressData data, int index) {
+        ResetSchedule schedule = registry.resetSchedule(index);
+        if (schedule == null) {
+            return false;
+        }
+
+        boolean expired = false;
+        UUID playerId = data.getPlayerId();
+
+        EventProgressImpl live = data.get(index);
+        if (live != null && schedule.isStale(epochTimestamp(live)) && data.remove(index) != null) {
+            expired = true;
+            ObjectiveTracker tracker = plugin.getObjectiveTracker();
+            if (live.getState() == EventState.IN_PROGRESS && tracker != null) {
+                tracker.unregisterActiveEvent(playerId, live.getEventId());
+            }
+        }
+
+        CompletionHistory history = data.getHistory();
+        if (history != null && history.contains(index) && schedule.isStale(history.getFinishedAt(index))) {
+            expired |= history.remove(index);
+        }
+
+        if (expired) {
+            dirtySet.mark(playerId, index);
+            appendToLog(ProgressEvent.Type.REMOVE, playerId, eventIndex.idAt(index), null, 0, 0);
+            LOGGER.fine("Reset expired progress for player " + playerId + ", event index " + index);
+        }
+        return expired;
+    }
+
+    /**
+     * Marca de tiempo que define la época de un registro vivo.
+     * AVAILABLE no tiene nada que reiniciar: 0 (nunca caduca).
+     */
+    private static long epochTimestamp(EventProgressImpl progress) {
+        return switch (progress.getState()) {
+            case IN_PROGRESS -> progress.getStartedAt();
+            case COMPLETED, FAILED -> progress.getCompletedAt() > 0 ? progress.getCompletedAt() : progress.getStartedAt();
+            default -> 0L;
+        };
+    }
+
+    /**
+     * Obtiene el historial compacto de un jugador, si tiene eventos terminados.
+     */
+    public Optional<CompletionHistory> getHistory(UUID playerId) {
+        PlayerProgressData data = dataOf(playerId);
+        return Optional.ofNullable(data != null ? data.getHistory() : null);
+    }
+
+    public EventIndex getEventIndex() {
+        return eventIndex;
+    }
+
+    public EventTombstones getTombstones() {
+        return tombstones;
+    }
+
+    /**
+     * Registros modificados pendientes de persistir/sincronizar.
+     * Los consumidores llaman a drain() y leen el estado actual de cada (jugador, evento).
+     */
+    public DirtySet getDirtySet() {
+        return dirtySet;
+    }
+
+    // ========== Sesiones (slots densos de jugadores online) ==========
+
+    /**
+     * Asocia el progreso del jugador a su slot de sesión.
+     * Llamar al entrar el jugador (después de SessionRegistry.acquire).
+     */
+    public synchronized PlayerProgressData attachSession(int slot, UUID playerId) {
+        PlayerProgressData data = playerProgress.computeIfAbsent(playerId, this::loadPlayer);
+
+        PlayerProgressData[] bySlot = progressBySlot;
+        if (slot >= bySlot.length) {
+            bySlot = Arrays.copyOf(bySlot, Math.max(slot + 1, bySlot.length * 2));
+        } else {
+            bySlot = bySlot.clone();
+        }
+        bySlot[slot] = data;
+        progressBySlot = bySlot;
+        return data;
+    }
+
+    /**
+     * Libera el slot de sesión (el progreso sigue guardado por UUID).
+     * Llamar al salir el jugador (antes de SessionRegistry.release).
+     */
+    public synchronized void detachSession(int slot) {
+        PlayerProgressData[] bySlot = progressBySlot;
+        if (slot < 0 || slot >= bySlot.length || bySlot[slot] == null) {
+            return;
+        }
+
+        bySlot = bySlot.clone();
+        PlayerProgressData data = bySlot[slot];
+        bySlot[slot] = null;
+        progressBySlot = bySlot;
+
+        // Eventos terminados que se rehidrataron (comandos de admin) y nadie volvió a compactar
+        recompactFinished(data);
+
+        // No guardar registros vacíos de jugadores que nunca jugaron un evento
+        if (data.isEmpty()) {
+            playerProgress.remove(data.getPlayerId(), data);
+        }
+    }
+
+    // ========== Persistencia (snapshot binario) ==========
+
+    /**
+     * Mapea el snapshot de progreso si existe.
+     * Barato con cualquier número de jugadores: los registros se decodifican al entrar cada uno.
+     */
+    public void openSnapshot(Path file) {
+        if (!Files.exists(file)) {
+            LOGGER.info("No progress snapshot found (" + file.getFileName() + "), starting empty");
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            snapshot = ProgressSnapshot.open(file, eventIndex);
+            LOGGER.info("Mapped progress snapshot: " + snapshot.getPlayerCount() + " players in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+        } catch (IOException e) {
+            LOGGER.severe("Failed to open progress snapshot " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Guarda el progreso en un snapshot nuevo (fusiona el anterior con lo que hay en memoria).
+     * Solo los jugadores sucios se recodifican; el resto se copia del snapshot anterior.
+     * Seguro desde un hilo async.
+     *
+     * @return Jugadores escritos, o -1 si no había cambios
+     */
+    public synchronized int saveSnapshot(Path file) throws IOException {
+        ProgressSnapshot previous = snapshot;
+        if (previous != null && dirtySet.isEmpty() && previous.getFile().equals(file)) {
+            return -1;
+        }
+
+        // Rotar el log ANTES de leer el estado: todo lo anterior a la rotación queda en el snapshot
+        ProgressLog log = progressLog;
+        long logBoundary = log != null ? log.roll() : 0L;
+
+        List<DirtySet.DirtyRecord> drained = dirtySet.drain();
+        Set<UUID> dirtyPlayers = new HashSet<>();
+        drained.forEach(record -> dirtyPlayers.add(record.playerId()));
+
+        try {
+            int players = ProgressSnapshotWriter.write(file, previous, playerProgress, dirtyPlayers,
+                    snapshotConsumed, eventIndex);
+            snapshot = ProgressSnapshot.open(file, eventIndex);
+
+            // Compactación: los segmentos anteriores ya están plegados en el snapshot
+            if (log != null) {
+                int compacted = log.compactBefore(logBoundary);
+                if (compacted > 0) {
+                    LOGGER.fine("Compacted " + compacted + " progress log segment(s)");
+                }
+            }
+            return players;
+        } catch (IOException | RuntimeException e) {
+            drained.forEach(dirtySet::restore); // Reintentar en el próximo guardado
+            throw e;
         }
     }
 
+    // ========== Export / import (NDJSON) ==========
+
     /**
-     * Obtiene todos los progresos de todos los jugadores.
-     * Usado para inicializar el índice de eventos activos.
+     * Recorre el progreso de TODOS los jugadores guardados (snapshot + memoria).
+     * Los jugadores que solo están en el snapshot se decodifican en un registro temporal
+     * que no se retiene: la memoria no crece con el número de jugadores. Seguro desde un hilo async.*
+     * Un jugador que entra durante el recorrido puede visitarse dos veces (mismo contenido).
+     *
+     * @return Jugadores visitados
+     */
+    public int forEachStoredPlayer(Consumer<PlayerProgressData> action) {
+        int visited = 0;
+
+        ProgressSnapshot current = snapshot;
+        DefinitionRegistry definitions = registry;
+        if (current != null) {
+            for (int position = 0; position < current.getPlayerCount(); position++) {
+                UUID playerId = current.playerAt(position);
+                if (snapshotConsumed.contains(playerId) || playerProgress.containsKey(playerId)) {
+                    continue; // Su estado actual está en memoria (o se borró)
+                }
+
+                PlayerProgressData detached = new PlayerProgressData(playerId);
+                current.decodeAt(position, playerId, detached, definitions, ProgressChangeListener.NONE);
+                action.accept(detached);
+                visited++;
+            }
+        }
+
+        for (PlayerProgressData data : playerProgress.values()) {
+            if (!data.isEmpty()) {
+                action.accept(data);
+                visited++;
+            }
+        }
+        return visited;
+    }
+
+    /**
+     * Reemplaza todo el progreso de un jugador por el importado.
+     * Eventos y objetivos se resuelven por ID; los que ya no existen se descartan.
+     * Llamar desde el hilo principal (actualiza el índice de activos si está online).
+     *
+     * @return Entradas descartadas (eventos u objetivos desconocidos)
+     */
+    public synchronized int importPlayer(ProgressNdjson.ImportedPlayer imported) {
+        UUID playerId = imported.playerId();
+        PlayerProgressData data = new PlayerProgressData(playerId);
+        DefinitionRegistry definitions = registry;
+        int skipped = 0;
+
+        for (ProgressNdjson.LiveEntry entry : imported.live()) {
+            EventDefinition definition = definitions.get(entry.eventId());
+            if (definition == null) {
+                skipped++;
+                continue;
+            }
+
+            int index = eventIndex.indexOf(entry.eventId());
+            EventProgressImpl progress = new EventProgressImpl(playerId, definition, index, this::onProgressChanged);
+            for (Map.Entry<String, Integer> objective : entry.objectives().entrySet()) {
+                int ordinal = progress.indexOfObjective(objective.getKey());
+                if (ordinal < 0) {
+                    skipped++;
+                    continue;
+                }
+                progress.restoreObjective(ordinal, objective.getValue());
+            }
+            progress.restoreState(entry.state(), entry.startedAt(), entry.completedAt());
+            data.getOrCreate(index, () -> progress);
+        }
+
+        for (ProgressNdjson.HistoryEntry entry : imported.history()) {
+            if (definitions.get(entry.eventId()) == null) {
+                skipped++;
+                continue;
+            }
+            data.getOrCreateHistory().record(eventIndex.indexOf(entry.eventId()), entry.completed(), entry.finishedAt());
+        }
+
+        playerProgress.put(playerId, data);
+        snapshotConsumed.add(playerId); // El bloque anterior del snapshot queda reemplazado
+        dirtySet.markCleared(playerId);
+        data.forEachLive((progress, index) -> dirtySet.mark(playerId, index));
+        CompletionHistory history = data.getHistory();
+        if (history != null) {
+            history.forEach((index, wasCompleted, finishedAt) -> dirtySet.mark(playerId, index));
+        }
+        logAnnotation(ProgressEvent.Type.ADMIN_OVERRIDE, playerId, "", null, 0);
+
+        int slot = plugin.getSessionRegistry().slotOf(playerId);
+        if (slot >= 0) {
+            attachSession(slot, playerId);
+            plugin.getObjectiveTracker().loadActiveEvents(slot);
+        }
+        return skipped;
+    }
+
+    // ========== Migración de definiciones (ver ProgressMigration) ==========
+
+    /**
+     * Reemplaza el progreso vivo de un jugador por uno con la definición nueva.
+     * Cantidades por ID de objetivo; objetivos nuevos empiezan en 0, los quitados se descartan.
+     *
+     * @return Progreso nuevo, o null si no había nada que migrar (o la definición ya fue reemplazada otra vez)
+     */
+    EventProgressImpl remapProgress(UUID playerId, int index, EventDefinition updated) {
+        PlayerProgressData data = playerProgress.get(playerId);
+        EventProgressImpl current = data != null ? data.get(index) : null;
+        if (current == null || current.getDefinition() == updated || registry.get(index) != updated) {
+            return null;
+        }
+
+        EventDefinition previous = current.getDefinition();
+        int previousCount = previous.getObjectives().size();
+        int[] ordinals = ObjectiveLayout.ordinals(ObjectiveLayout.of(previous), updated, previousCount);
+
+        EventProgressImpl remapped = new EventProgressImpl(playerId, updated, index, this::onProgressChanged);
+        for (int objective = 0; objective < previousCount; objective++) {
+            if (ordinals[objective] >= 0) {
+                remapped.restoreObjective(ordinals[objective], current.getCurrentAmount(objective));
+            }
+        }
+        remapped.restoreState(current.getState(), current.getStartedAt(), current.getCompletedAt());
+
+        if (!data.replace(index, current, remapped)) {
+            return null;
+        }
+        current.releaseStreaks(); // Las rachas son efímeras: el progreso nuevo empieza las suyas
+        dirtySet.mark(playerId, index);
+        return remapped;
+    }
+
+    // ========== Retención (ver RetentionSweeper) ==========
+
+    ProgressSnapshot currentSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * @return true si el estado del jugador solo está en el snapshot (no cargado ni borrado)
+     */
+    boolean isSnapshotOnly(UUID playerId) {
+        return !snapshotConsumed.contains(playerId) && !playerProgress.containsKey(playerId);
+    }
+
+    /**
+     * Jugadores cargados en memoria (vista concurrente, sin copia).
+     */
+    Set<UUID> loadedPlayers() {
+        return playerProgress.keySet();
+    }
+
+    PlayerProgressData loadedPlayer(UUID playerId) {
+        return playerProgress.get(playerId);
+    }
+
+    /**
+     * Aplica la retención a un jugador OFFLINE (lo carga del snapshot si hace falta).
+     * Bajo el lock de sesiones: el jugador no puede entrar mientras se purga.
+     * Si queda vacío se elimina por completo.
+     *
+     * @return Entradas purgadas (0 si está online)
+     */
+    synchronized int applyRetention(UUID playerId, ToIntFunction<PlayerProgressData> purge) {
+        if (plugin.getSessionRegistry().slotOf(playerId) >= 0) {
+            return 0;
+        }
+
+        PlayerProgressData data = dataOf(playerId);
+        if (data == null) {
+            return 0;
+        }
+
+        int purged = purge.applyAsInt(data);
+        if (purged > 0 && data.isEmpty()) {
+            playerProgress.remove(playerId, data);
+            snapshotConsumed.add(playerId);
+            dirtySet.markCleared(playerId);
+        }
+        return purged;
+    }
+
+    // ========== Log de cambios (event sourcing) ==========
+
+    /**
+     * Activa el log de cambios. Primero reproduce los segmentos pendientes encima del snapshot
+     * (llamar después de openSnapshot y antes de abrir sesiones).
+     *
+     * @return Registros reproducidos
+     */
+    public long attachLog(ProgressLog log) throws IOException {
+        replaying = true;
+        try {
+            long replayed = log.replay(this::applyLogged);
+            LOGGER.info("Replayed " + replayed + " progress log record(s)");
+            return replayed;
+        } finally {
+            replaying = false;
+            progressLog = log;
+        }
+    }
+
+    public Optional<ProgressLog> getProgressLog() {
+        return Optional.ofNullable(progressLog);
+    }
+
+    /**
+     * Registra una anotación en el log (ABANDON, ADMIN_OVERRIDE).
+     * No cambia estado: la mutación real genera sus propios registros.
+     */
+    public void logAnnotation(ProgressEvent.Type type, UUID playerId, String eventId, String objectiveId, int amount) {
+        appendToLog(type, playerId, eventId, objectiveId, 0, amount);
+    }
+
+    /**
+     * Listener de todos los EventProgressImpl del storage: marca sucio y escribe en el log.
+     */
+    private void onProgressChanged(EventProgressImpl progress, ProgressEvent.Type type,
+                                   int objective, int delta, int amount) {
+        dirtySet.mark(progress.getPlayerId(), progress.getEventIndex());
+        String objectiveId = objective >= 0 ? progress.getDefinition().getObjectives().get(objective).getId() : null;
+        appendToLog(type, progress.getPlayerId(), progress.getEventId(), objectiveId, delta, amount);
+
+        // Eventos con límite de tiempo: la fecha límite se programa al iniciarse
+        EventTimers timers = plugin.getEventTimers();
+        if (type == ProgressEvent.Type.START && timers != null) {
+            timers.onEventStarted(progress);
+        }
+    }
+
+    /**
+     * Escribe el cambio en el log y lo entrega a la sincronización entre servidores (si están activos).
+     */
+    private void appendToLog(ProgressEvent.Type type, UUID playerId, String eventId,
+                             String objectiveId, int delta, int amount) {
+        ProgressLog log = progressLog;
+        ProgressSync sync = plugin.getProgressSync();
+        if (replaying || (log == null && sync == null)) {
+            return;
+        }
+
+        ProgressEvent event = new ProgressEvent(type, System.currentTimeMillis(), playerId, eventId, objectiveId, delta, amount);
+        if (log != null) {
+            log.append(event);
+        }
+        if (sync != null) {
+            sync.onLocalChange(event);
+        }
+    }
+
+    /**
+     * Aplica un cambio recibido de otro servidor (ver ProgressSync), con la misma semántica
+     * idempotente que el replay del log. Llamar en el hilo principal.
+     */
+    public void applyRemote(ProgressEvent event) {
+        applyLogged(event);
+    }
+
+    /**
+     * Aplica un registro del log. Idempotente: usa cantidades y estados absolutos.
+     * El objetivo se resuelve por ID en la definición actual (los que ya no existen se ignoran).
+     */
+    private void applyLogged(ProgressEvent event) {
+        switch (event.type()) {
+            case CLEAR -> {
+                clearPlayerProgress(event.playerId());
+                return;
+            }
+            case REMOVE -> {
+                removeProgress(event.playerId(), event.eventId());
+                return;
+            }
+            case ABANDON, ADMIN_OVERRIDE -> {
+                return;
+            }
+            default -> {
+                // Cambios sobre un progreso: abajo
+            }
+        }
+
+        if (registry.get(event.eventId()) == null) {
+            return; // Evento eliminado
+        }
+
+        EventProgressImpl progress = getOrCreateProgress(event.playerId(), event.eventId());
+
+        switch (event.type()) {
+            case START -> progress.restoreState(EventState.IN_PROGRESS, event.timestamp(), 0L);
+            case DELTA, SET, RESET, STREAK -> {
+                int objective = event.objectiveIn(progress.getDefinition());
+                if (objective >= 0) {
+                    progress.restoreObjective(objective, event.amount());
+                }
+            }
+            case COMPLETE -> progress.restoreState(EventState.COMPLETED, progress.getStartedAt(), event.timestamp());
+            case FAIL -> progress.restoreState(EventState.FAILED, progress.getStartedAt(), event.timestamp());
+            default -> {
+            }
+        }
+
+        dirtySet.mark(event.playerId(), progress.getEventIndex());
+        compactProgress(event.playerId(), event.eventId());
+    }
+
+    /**
+     * Crea el registro en memoria de un jugador, decodificándolo del snapshot si está allí.
+     * Llamado dentro de computeIfAbsent: como mucho una vez por jugador.
+     */
+    private PlayerProgressData loadPlayer(UUID playerId) {
+        PlayerProgressData data = new PlayerProgressData(playerId);
+
+        ProgressSnapshot current = snapshot;
+        if (current != null && !snapshotConsumed.contains(playerId)
+                && current.decodeInto(playerId, data, registry, this::onProgressChanged)) {
+            snapshotConsumed.add(playerId);
+        }
+        return data;
+    }
+
+    /**
+     * Registro en memoria de un jugador; si solo está en el snapshot, lo decodifica.
+     *
+     * @return Registro, o null si el jugador no tiene progreso
+     */
+    private PlayerProgressData dataOf(UUID playerId) {
+        PlayerProgressData data = playerProgress.get(playerId);
+        if (data != null) {
+            return data;
+        }
+
+        ProgressSnapshot current = snapshot;
+        if (current == null || snapshotConsumed.contains(playerId) || !current.contains(playerId)) {
+            return null;
+        }
+        return playerProgress.computeIfAbsent(playerId, this::loadPlayer);
+    }
+
+    private Optional<EventProgress> getArchivedProgress(PlayerProgressData data, int index) {
+        CompletionHistory history = data.getHistory();
+        if (history == null || !history.contains(index)) {
+            return Optional.empty();
+        }
+
+        EventDefinition definition = getDefinition(index);
+        if (definition == null) {
+            return Optional.empty(); // Evento eliminado tras un reload
+        }
+
+        EventState state = history.isCompleted(index) ? EventState.COMPLETED : EventState.FAILED;
+        return Optional.of(new ArchivedEventProgress(
+                data.getPlayerId(), definition, state, history.getFinishedAt(index)));
+    }
+
+    /**
+     * Devuelve al historial los eventos terminados que siguen como progreso vivo.
+     */
+    private void recompactFinished(PlayerProgressData data) {
+        data.forEachLive((progress, index) -> {
+            EventState state = progress.getState();
+            if (state == EventState.COMPLETED || state == EventState.FAILED) {
+                data.getOrCreateHistory().record(index, state == EventState.COMPLETED, progress.getCompletedAt());
+                data.remove(index);
+                dirtySet.mark(data.getPlayerId(), index);
+            }
+        });
+    }
+
+    /**
+     * Saca un evento del historial y lo vuelca en un progreso vivo recién creado.
+     */
+    private void rehydrateFromHistory(PlayerProgressData data, int index, EventProgressImpl progress) {
+        CompletionHistory history = data.getHistory();
+        if (history == null || !history.contains(index)) {
+            return;
+        }
+
+        boolean wasCompleted = history.isCompleted(index);
+        long finishedAt = history.getFinishedAt(index);
+        history.remove(index);
+
+        if (wasCompleted) {
+            for (int i = 0; i < progress.getDefinition().getObjectives().size(); i++) {
+                progress.restoreObjective(i, progress.getTargetAmount(i));
+            }
+        }
+        progress.restoreState(wasCompleted ? EventState.COMPLETED : EventState.FAILED, 0L, finishedAt);
+    }
+
+    /**
+     * Obtiene todos los progresos vivos (no compactados) de los jugadores cargados en memoria.
+     * Los jugadores que solo están en el snapshot no se incluyen.
      */
     public Map<UUID, Map<String, EventProgressImpl>> getAllProgress() {
-        return Collections.unmodifiableMap(playerProgress);
+        Map<UUID, Map<String, EventProgressImpl>> all = new HashMap<>();
+        playerProgress.forEach((playerId, data) -> {
+            Map<String, EventProgressImpl> events = new HashMap<>();
+            data.forEachLive((progress, index) -> events.put(progress.getEventId(), progress));
+            if (!events.isEmpty()) {
+                all.put(playerId, Collections.unmodifiableMap(events));
+            }
+        });
+        return Collections.unmodifiableMap(all);
     }
 }
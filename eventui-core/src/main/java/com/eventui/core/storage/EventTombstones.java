@@ -0,0 +1,109 @@
+package com.eventui.core.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Lápidas de eventos quitados explícitamente (unregisterEvents: su archivo se borró).*
+ * La retención solo purga progreso de eventos con lápida más vieja que el periodo de gracia:
+ * un evento que falta porque su archivo no cargó (error de YAML, carpeta mal montada)
+ * no tiene lápida y su progreso se conserva.*
+ * - Volver a registrar el evento quita la lápida
+ * - Thread-safe (el guardado corre en el autosave async)*
+ * FORMATO (big-endian): int magic ("EUIT"), int version, int count, count × (UTF eventId, long deletedAt)
+ */
+public class EventTombstones {
+
+    private static final Logger LOGGER = Logger.getLogger(EventTombstones.class.getName());
+
+    private static final int MAGIC = 0x45554954; // "EUIT"
+    private static final int VERSION = 1;
+
+    private final Map<String, Long> deletedAt = new HashMap<>();
+    private boolean dirty;
+
+    /**
+     * Pone lápida a eventos quitados ahora (los que ya tenían conservan su fecha).
+     */
+    public synchronized void bury(Collection<String> eventIds, long now) {
+        for (String eventId : eventIds) {
+            if (deletedAt.putIfAbsent(eventId, now) == null) {
+                dirty = true;
+            }
+        }
+    }
+
+    /**
+     * Quita la lápida de eventos que vuelven a existir.
+     */
+    public synchronized void revive(Collection<String> eventIds) {
+        for (String eventId : eventIds) {
+            if (deletedAt.remove(eventId) != null) {
+                dirty = true;
+            }
+        }
+    }
+
+    /**
+     * @return true si el evento se quitó explícitamente hace al menos graceMillis
+     */
+    public synchronized boolean isExpired(String eventId, long now, long graceMillis) {
+        Long since = deletedAt.get(eventId);
+        return since != null && now - since >= graceMillis;
+    }
+
+    /**
+     * Guarda las lápidas si cambiaron (escritura a temporal + move). Seguro desde un hilo async.
+     */
+    public synchronized void save(Path file) throws IOException {
+        if (!dirty) {
+            return;
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(deletedAt.size());
+            for (Map.Entry<String, Long> entry : deletedAt.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeLong(entry.getValue());
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        dirty = false;
+    }
+
+    /**
+     * Carga las lápidas guardadas. Llamar al arrancar, antes de registrar los eventos.
+     */
+    public synchronized void load(Path file) {
+        if (!Files.exists(file)) {
+            return;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                LOGGER.warning("Ignoring event tombstones with unknown format: " + file);
+                return;
+            }
+
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                deletedAt.put(in.readUTF(), in.readLong());
+            }
+        } catch (IOException e) {
+            LOGGER.severe("Failed to load event tombstones: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.eventui.core.storage;
+
+import com.eventui.api.event.EventDefinition;
+import com.eventui.api.objective.ObjectiveDefinition;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Orden de los objetivos de un evento (el progreso se guarda por ordinal).*
+ * Sirve para traducir ordinales cuando la definición cambia: snapshot escrito con
+ * otra versión de la config, o reload con objetivos agregados/quitados/reordenados.
+ */
+final class ObjectiveLayout {
+
+    private static final String[] EMPTY = new String[0];
+
+    private ObjectiveLayout() {
+    }
+
+    /**
+     * @return IDs de objetivo en orden de ordinal
+     */
+    static String[] of(EventDefinition definition) {
+        if (definition == null) {
+            return EMPTY;
+        }
+
+        List<ObjectiveDefinition> objectives = definition.getObjectives();
+        String[] ids = new String[objectives.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = objectives.get(i).getId();
+        }
+        return ids;
+    }
+
+    /**
+     * Traduce ordinales de un orden anterior al de la definición actual.
+     *
+     * @param fromIds IDs del orden anterior
+     * @return ordinal actual por ordinal anterior (-1 = objetivo eliminado)
+     */
+    static int[] ordinals(String[] fromIds, EventDefinition to, int fromCount) {
+        List<ObjectiveDefinition> objectives = to.getObjectives();
+        int[] ordinals = new int[fromCount];
+
+        for (int from = 0; from < fromCount; from++) {
+            ordinals[from] = -1;
+            for (int ordinal = 0; ordinal < objectives.size(); ordinal++) {
+                if (objectives.get(ordinal).getId().equals(fromIds[from])) {
+                    ordinals[from] = ordinal;
+                    break;
+                }
+            }
+        }
+        return ordinals;
+    }
+
+    /**
+     * @return true si el progreso de {@code previous} sigue valiendo tal cual en {@code updated}
+     *         (mismos objetivos, mismo orden, mismas cantidades objetivo)
+     */
+    static boolean compatible(EventDefinition previous, EventDefinition updated) {
+        if (!Arrays.equals(of(previous), of(updated))) {
+            return false;
+        }
+
+        List<ObjectiveDefinition> before = previous.getObjectives();
+        List<ObjectiveDefinition> after = updated.getObjectives();
+        for (int i = 0; i < before.size(); i++) {
+            if (before.get(i).getTargetAmount() != after.get(i).getTargetAmount()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,144 @@
+package com.eventui.core.storage;
+
+import com.eventui.core.event.EventProgressImpl;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Todo el progreso de UN jugador.*
+ * ARQUITECTURA:
+ * - Progreso vivo (no terminado) en un array indexado por el índice denso del evento
+ * - Eventos terminados en un CompletionHistory (creado bajo demanda)
+ * - Lecturas sin lock sobre un array volatile; escrituras sincronizadas
+ */
+public class PlayerProgressData {
+
+    private static final EventProgressImpl[] NO_PROGRESS = new EventProgressImpl[0];
+
+    private final UUID playerId;
+    private volatile EventProgressImpl[] progressByEvent = NO_PROGRESS;
+    private volatile CompletionHistory history;
+
+    public PlayerProgressData(UUID playerId) {
+        this.playerId = playerId;
+    }
+
+    public UUID getPlayerId() {
+        return playerId;
+    }
+
+    /**
+     * @return Progreso vivo del evento, o null si no existe
+     */
+    public EventProgressImpl get(int eventIndex) {
+        EventProgressImpl[] progress = progressByEvent;
+        return eventIndex >= 0 && eventIndex < progress.length ? progress[eventIndex] : null;
+    }
+
+    /**
+     * Obtiene el progreso vivo o lo crea con la factory (una sola vez).
+     */
+    public synchronized EventProgressImpl getOrCreate(int eventIndex, Supplier<EventProgressImpl> factory) {
+        EventProgressImpl existing = get(eventIndex);
+        if (existing != null) {
+            return existing;
+        }
+
+        EventProgressImpl created = factory.get();
+        EventProgressImpl[] progress = progressByEvent;
+        if (eventIndex >= progress.length) {
+            progress = Arrays.copyOf(progress, eventIndex + 1);
+        } else {
+            progress = progress.clone();
+        }
+        progress[eventIndex] = created;
+        progressByEvent = progress;
+        return created;
+    }
+
+    /**
+     * Elimina el progreso vivo de un evento.
+     *
+     * @return El progreso eliminado, o null si no existía
+     */
+    public synchronized EventProgressImpl remove(int eventIndex) {
+        EventProgressImpl existing = get(eventIndex);
+        if (existing == null) {
+            return null;
+        }
+
+        EventProgressImpl[] progress = progressByEvent.clone();
+        progress[eventIndex] = null;
+        progressByEvent = progress;
+        return existing;
+    }
+
+    /**
+     * Reemplaza el progreso vivo de un evento si sigue siendo {@code expected}
+     * (migración tras un cambio de definición).
+     *
+     * @return true si se reemplazó
+     */
+    public synchronized boolean replace(int eventIndex, EventProgressImpl expected, EventProgressImpl replacement) {
+        if (get(eventIndex) != expected) {
+            return false;
+        }
+
+        EventProgressImpl[] progress = progressByEvent.clone();
+        progress[eventIndex] = replacement;
+        progressByEvent = progress;
+        return true;
+    }
+
+    /**
+     * Recorre el progreso vivo (índice de evento + progreso).
+     */
+    public void forEachLive(ObjIntConsumer<EventProgressImpl> action) {
+        EventProgressImpl[] progress = progressByEvent;
+        for (int i = 0; i < progress.length; i++) {
+            if (progress[i] != null) {
+                action.accept(progress[i], i);
+            }
+        }
+    }
+
+    /**
+     * @return Array de progreso vivo indexado por evento (copy-on-write: NO modificar)
+     */
+    EventProgressImpl[] liveSnapshot() {
+        return progressByEvent;
+    }
+
+    /**
+     * @return Historial de eventos terminados, o null si nunca terminó ninguno
+     */
+    public CompletionHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * @return Historial de eventos terminados (lo crea si no existe)
+     */
+    public synchronized CompletionHistory getOrCreateHistory() {
+        if (history == null) {
+            history = new CompletionHistory();
+        }
+        return history;
+    }
+
+    /**
+     * @return true si el jugador no tiene ni progreso vivo ni historial
+     */
+    public boolean isEmpty() {
+        for (EventProgressImpl progress : progressByEvent) {
+            if (progress != null) {
+                return false;
+            }
+        }
+        CompletionHistory finished = history;
+        return finished == null || finished.isEmpty();
+    }
+}
@@ -0,0 +1,272 @@
+package com.eventui.core.storage;
+
+import com.eventui.core.event.ProgressEvent;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Log binario append-only de cambios de progreso (ProgressEvent).*
+ * ARQUITECTURA:
+ * - Segmentos numerados (000000000001.seg, ...) en progress-log/
+ * - Se escribe siempre en el último segmento; al superar segmentBytes se rota
+ * - Compactación: tras guardar un ProgressSnapshot, los segmentos anteriores a la rotación
+ *   ya están incluidos en el snapshot → se archivan (progress-log/archive/) o se borran
+ * - Reproducción (replay): al arrancar se aplican los segmentos vivos encima del snapshot;
+ *   como cada registro lleva la cantidad resultante, reaplicar es idempotente
+ * - Historial por jugador: recorre archivo + segmentos vivos en orden cronológico*
+ * Un registro truncado al final de un segmento (crash) se ignora.*
+ * FORMATO DE SEGMENTO: int magic ("EUIG"), int version, registros ProgressEvent.
+ * Un segmento de otra versión no se reproduce (se avisa y se deja en disco).
+ */
+public class ProgressLog implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(ProgressLog.class.getName());
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final int MAGIC = 0x45554947; // "EUIG"
+    private static final int VERSION = 2;
+
+    private final Path directory;
+    private final Path archiveDirectory;
+    private final long segmentBytes;
+    private final boolean archiveCompacted;
+
+    private DataOutputStream out;
+    private long currentSegment;
+    private boolean failed;
+
+    /**
+     * Abre el log: los segmentos existentes quedan para replay y se empieza uno nuevo.
+     *
+     * @param segmentBytes     Tamaño a partir del cual se rota el segmento
+     * @param archiveCompacted true = mover segmentos compactados a archive/ (auditoría), false = borrarlos
+     */
+    public ProgressLog(Path directory, long segmentBytes, boolean archiveCompacted) throws IOException {
+        this.directory = directory;
+        this.archiveDirectory = directory.resolve("archive");
+        this.segmentBytes = segmentBytes;
+        this.archiveCompacted = archiveCompacted;
+
+        Files.createDirectories(directory);
+
+        List<Long> existing = listSegments(directory);
+        long last = existing.isEmpty() ? 0L : existing.get(existing.size() - 1);
+        openSegment(last + 1);
+    }
+
+    /**
+     * Agrega un registro al segmento actual (en buffer; ver flush()).
+     */
+    public synchronized void append(ProgressEvent event) {
+        if (out == null) {
+            return;
+        }
+
+        try {
+            event.writeTo(out);
+            if (out.size() >= segmentBytes) {
+                roll();
+            }
+        } catch (IOException e) {
+            if (!failed) {
+                failed = true; // Avisar una sola vez; los cambios siguen en memoria y en el snapshot
+                LOGGER.severe("Failed to append to progress log: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Vuelca el buffer al disco. Llamar periódicamente desde un hilo async.
+     */
+    public synchronized void flush() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.flush();
+        } catch (IOException e) {
+            LOGGER.warning("Failed to flush progress log: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Cierra el segmento actual y empieza uno nuevo.
+     *
+     * @return Número del segmento nuevo: todos los anteriores están cerrados
+     */
+    public synchronized long roll() throws IOException {
+        closeSegment();
+        openSegment(currentSegment + 1);
+        return currentSegment;
+    }
+
+    /**
+     * Compacta los segmentos anteriores a {@code segment} (ya incluidos en un snapshot).
+     *
+     * @return Número de segmentos compactados
+     */
+    public int compactBefore(long segment) throws IOException {
+        int compacted = 0;
+
+        for (long number : listSegments(directory)) {
+            if (number >= segment) {
+                break;
+            }
+
+            Path file = segmentFile(directory, number);
+            if (archiveCompacted) {
+                Files.createDirectories(archiveDirectory);
+                Files.move(file, segmentFile(archiveDirectory, number), StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                Files.deleteIfExists(file);
+            }
+            compacted++;
+        }
+        return compacted;
+    }
+
+    /**
+     * Reproduce en orden los segmentos vivos anteriores al actual.
+     *
+     * @return Registros reproducidos
+     */
+    public long replay(Consumer<ProgressEvent> consumer) throws IOException {
+        long replayed = 0;
+        for (long number : listSegments(directory)) {
+            if (number >= currentSegment) {
+                break;
+            }
+            replayed += readSegment(segmentFile(directory, number), consumer);
+        }
+        return replayed;
+    }
+
+    /**
+     * Historial de un jugador en orden cronológico (archivo + segmentos vivos).
+     *
+     * @param eventId Filtrar por evento (null = todos)
+     * @param limit   Máximo de registros (se conservan los más recientes)
+     */
+    public List<ProgressEvent> readPlayerHistory(UUID playerId, String eventId, int limit) throws IOException {
+        flush(); // Incluir lo último escrito
+
+        Deque<ProgressEvent> recent = new ArrayDeque<>(limit);
+        Consumer<ProgressEvent> collector = event -> {
+            if (!event.playerId().equals(playerId)) {
+                return;
+            }
+            if (eventId != null && !event.eventId().equals(eventId) && event.type() != ProgressEvent.Type.CLEAR) {
+                return;
+            }
+            if (recent.size() == limit) {
+                recent.removeFirst();
+            }
+            recent.addLast(event);
+        };
+
+        if (Files.isDirectory(archiveDirectory)) {
+            for (long number : listSegments(archiveDirectory)) {
+                readSegment(segmentFile(archiveDirectory, number), collector);
+            }
+        }
+        for (long number : listSegments(directory)) {
+            readSegment(segmentFile(directory, number), collector);
+        }
+
+        return new ArrayList<>(recent);
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            closeSegment();
+        } catch (IOException e) {
+            LOGGER.warning("Failed to close progress log: " + e.getMessage());
+        }
+    }
+
+    // ========== Segmentos ==========
+
+    private void openSegment(long number) throws IOException {
+        currentSegment = number;
+        Path file = segmentFile(directory, number);
+        boolean fresh = !Files.exists(file) || Files.size(file) == 0;
+        out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(
+                file, StandardOpenOption.CREATE, StandardOpenOption.APPEND), 1 << 16));
+        if (fresh) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+        }
+    }
+
+    private void closeSegment() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+
+    private static long readSegment(Path file, Consumer<ProgressEvent> consumer) throws IOException {
+        long read = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            try {
+                if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                    LOGGER.warning("Skipping progress log segment with unknown format: " + file);
+                    return 0;
+                }
+            } catch (EOFException e) {
+                return 0; // Segmento vacío
+            }
+
+            while (true) {
+                ProgressEvent event;
+                try {
+                    event = ProgressEvent.readFrom(in);
+                } catch (EOFException e) {
+                    break; // Fin del segmento (o registro truncado por un crash)
+                }
+                consumer.accept(event);
+                read++;
+            }
+        }
+        return read;
+    }
+
+    private static List<Long> listSegments(Path directory) throws IOException {
+        List<Long> numbers = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                    .forEach(name -> {
+                        try {
+                            numbers.add(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+                        } catch (NumberFormatException ignored) {
+                            // Archivo ajeno al log
+                        }
+                    });
+        }
+        numbers.sort(null);
+        return numbers;
+    }
+
+    private static Path segmentFile(Path directory, long number) {
+        return directory.resolve(String.format("%012d%s", number, SEGMENT_SUFFIX));
+    }
+}
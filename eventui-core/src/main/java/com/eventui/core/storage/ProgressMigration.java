@@ -0,0 +1,111 @@
+package com.eventui.core.storage;
+
+import com.eventui.api.event.EventDefinition;
+import com.eventui.api.event.EventState;
+import com.eventui.core.event.EventProgressImpl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Migración del progreso en memoria tras un cambio de definiciones (reload).*
+ * ARQUITECTURA:
+ * - EventStorage.registerEvents compara definiciones viejas y nuevas; solo los eventos cuyos
+ *   objetivos cambiaron (agregados, quitados, reordenados o con otro target) entran aquí
+ * - Cada progreso vivo de esos eventos se reemplaza por uno con la definición nueva:
+ *   cantidades copiadas por ID de objetivo (limitadas al target nuevo), estado y fechas conservados
+ * - step() procesa una porción de jugadores → el llamador la reparte en ticks
+ * - Jugadores online primero: son los únicos que pueden avanzar mientras tanto
+ * - Jugadores que solo están en el snapshot no se tocan: el snapshot guarda el orden de
+ *   objetivos de cada entrada y se reasignan por ID al decodificarlos*
+ * Ejecutar en el hilo principal (el mismo que actualiza el progreso).
+ */
+public class ProgressMigration {
+
+    private final EventStorage storage;
+    private final Map<Integer, EventDefinition> changed;
+    private final Deque<UUID> pending;
+    private final int playerCount;
+
+    private final Set<UUID> affectedPlayers = new HashSet<>();
+    private final Set<UUID> completionChecks = new LinkedHashSet<>();
+    private int remapped;
+
+    /**
+     * @param changed Índice denso → definición nueva (solo eventos con objetivos distintos)
+     * @param players Jugadores cargados, online primero
+     */
+    ProgressMigration(EventStorage storage, Map<Integer, EventDefinition> changed, Deque<UUID> players) {
+        this.storage = storage;
+        this.changed = changed;
+        this.pending = new ArrayDeque<>(players);
+        this.playerCount = players.size();
+    }
+
+    /**
+     * Migra como mucho {@code maxPlayers} jugadores.
+     *
+     * @return true si ya no quedan jugadores
+     */
+    public boolean step(int maxPlayers) {
+        for (int i = 0; i < maxPlayers && !pending.isEmpty(); i++) {
+            UUID playerId = pending.poll();
+
+            changed.forEach((eventIndex, updated) -> {
+                EventProgressImpl progress = storage.remapProgress(playerId, eventIndex, updated);
+                if (progress == null) {
+                    return;
+                }
+
+                remapped++;
+                affectedPlayers.add(playerId);
+                if (progress.getState() == EventState.IN_PROGRESS && progress.areAllObjectivesCompleted()) {
+                    completionChecks.add(playerId); // Target reducido u objetivo quitado
+                }
+            });
+        }
+        return pending.isEmpty();
+    }
+
+    /**
+     * Jugadores con algún evento en curso que quedó con todos sus objetivos cumplidos.
+     * Se retiran al leerlos.
+     */
+    public List<UUID> drainCompletionChecks() {
+        List<UUID> drained = new ArrayList<>(completionChecks);
+        completionChecks.clear();
+        return drained;
+    }
+
+    /**
+     * @return Jugadores con al menos un progreso migrado
+     */
+    public Set<UUID> getAffectedPlayers() {
+        return Collections.unmodifiableSet(affectedPlayers);
+    }
+
+    /**
+     * @return IDs de los eventos cuyos objetivos cambiaron
+     */
+    public List<String> getChangedEventIds() {
+        List<String> ids = new ArrayList<>();
+        changed.values().forEach(definition -> ids.add(definition.getId()));
+        return ids;
+    }
+
+    public int getRemappedCount() {
+        return remapped;
+    }
+
+    public int getPlayerCount() {
+        return playerCount;
+    }
+}
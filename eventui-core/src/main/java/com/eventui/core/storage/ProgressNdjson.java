@@ -0,0 +1,232 @@
+package com.eventui.core.storage;
+
+import com.eventui.api.event.EventDefinition;
+import com.eventui.api.event.EventState;
+import com.eventui.api.objective.ObjectiveDefinition;
+import com.eventui.core.event.EventProgressImpl;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Codec NDJSON (un jugador por línea) para export/import de progreso.*
+ * ARQUITECTURA:
+ * - Streaming con JsonWriter/JsonReader de Gson: nunca se arma el documento entero en memoria
+ * - Formato portable: eventos y objetivos por ID (no por índices internos)
+ * - Sin dependencias de Bukkit: el comando decide hilos y ritmo*
+ * FORMATO DE LÍNEA:
+ * <pre>
+ * {"player":"uuid",
+ *  "live":[{"event":"id","state":"IN_PROGRESS","startedAt":0,"completedAt":0,"objectives":{"obj":3}}],
+ *  "history":[{"event":"id","state":"COMPLETED","finishedAt":0}]}
+ * </pre>
+ */
+public final class ProgressNdjson {
+
+    private ProgressNdjson() {
+    }
+
+    /**
+     * Jugador leído de una línea NDJSON, listo para EventStorage.importPlayer.
+     */
+    public record ImportedPlayer(UUID playerId, List<LiveEntry> live, List<HistoryEntry> history) {
+    }
+
+    public record LiveEntry(String eventId, EventState state, long startedAt, long completedAt,
+                            Map<String, Integer> objectives) {
+    }
+
+    public record HistoryEntry(String eventId, boolean completed, long finishedAt) {
+    }
+
+    /**
+     * Escribe un jugador como una línea (termina en '\n').
+     */
+    public static void writePlayer(Writer out, PlayerProgressData data, EventIndex eventIndex) throws IOException {
+        JsonWriter json = new JsonWriter(new NonClosingWriter(out));
+        json.beginObject();
+        json.name("player").value(data.getPlayerId().toString());
+
+        json.name("live").beginArray();
+        EventProgressImpl[] live = data.liveSnapshot();
+        for (EventProgressImpl progress : live) {
+            if (progress == null) {
+                continue;
+            }
+            EventDefinition definition = progress.getDefinition();
+
+            json.beginObject();
+            json.name("event").value(definition.getId());
+            json.name("state").value(progress.getState().name());
+            json.name("startedAt").value(progress.getStartedAt());
+            json.name("completedAt").value(progress.getCompletedAt());
+            json.name("objectives").beginObject();
+            List<ObjectiveDefinition> objectives = definition.getObjectives();
+            for (int i = 0; i < objectives.size(); i++) {
+                json.name(objectives.get(i).getId()).value(progress.getCurrentAmount(i));
+            }
+            json.endObject();
+            json.endObject();
+        }
+        json.endArray();
+
+        json.name("history").beginArray();
+        CompletionHistory history = data.getHistory();
+        if (history != null) {
+            IOException[] failure = {null};
+            history.forEach((index, wasCompleted, finishedAt) -> {
+                String eventId = eventIndex.idAt(index);
+                if (eventId == null || failure[0] != null) {
+                    return;
+                }
+                try {
+                    json.beginObject();
+                    json.name("event").value(eventId);
+                    json.name("state").value(wasCompleted ? EventState.COMPLETED.name() : EventState.FAILED.name());
+                    json.name("finishedAt").value(finishedAt);
+                    json.endObject();
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+        }
+        json.endArray();
+
+        json.endObject();
+        json.flush();
+        out.write('\n');
+    }
+
+    /**
+     * Crea un lector que admite varios valores JSON seguidos (uno por línea).
+     */
+    public static JsonReader newReader(java.io.Reader in) {
+        JsonReader reader = new JsonReader(in);
+        reader.setLenient(true);
+        return reader;
+    }
+
+    /**
+     * Lee el siguiente jugador.
+     *
+     * @return Jugador, o null al final del archivo
+     */
+    public static ImportedPlayer readPlayer(JsonReader json) throws IOException {
+        if (json.peek() == JsonToken.END_DOCUMENT) {
+            return null;
+        }
+
+        UUID playerId = null;
+        List<LiveEntry> live = new ArrayList<>();
+        List<HistoryEntry> history = new ArrayList<>();
+
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "player" -> playerId = UUID.fromString(json.nextString());
+                case "live" -> {
+                    json.beginArray();
+                    while (json.hasNext()) {
+                        live.add(readLive(json));
+                    }
+                    json.endArray();
+                }
+                case "history" -> {
+                    json.beginArray();
+                    while (json.hasNext()) {
+                        history.add(readHistory(json));
+                    }
+                    json.endArray();
+                }
+                default -> json.skipValue();
+            }
+        }
+        json.endObject();
+
+        if (playerId == null) {
+            throw new IOException("Missing \"player\" at " + json.getPath());
+        }
+        return new ImportedPlayer(playerId, live, history);
+    }
+
+    private static LiveEntry readLive(JsonReader json) throws IOException {
+        String eventId = null;
+        EventState state = EventState.AVAILABLE;
+        long startedAt = 0L;
+        long completedAt = 0L;
+        Map<String, Integer> objectives = new LinkedHashMap<>();
+
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "event" -> eventId = json.nextString();
+                case "state" -> state = EventState.valueOf(json.nextString());
+                case "startedAt" -> startedAt = json.nextLong();
+                case "completedAt" -> completedAt = json.nextLong();
+                case "objectives" -> {
+                    json.beginObject();
+                    while (json.hasNext()) {
+                        objectives.put(json.nextName(), json.nextInt());
+                    }
+                    json.endObject();
+                }
+                default -> json.skipValue();
+            }
+        }
+        json.endObject();
+
+        if (eventId == null) {
+            throw new IOException("Missing \"event\" at " + json.getPath());
+        }
+        return new LiveEntry(eventId, state, startedAt, completedAt, objectives);
+    }
+
+    private static HistoryEntry readHistory(JsonReader json) throws IOException {
+        String eventId = null;
+        boolean completed = true;
+        long finishedAt = 0L;
+
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "event" -> eventId = json.nextString();
+                case "state" -> completed = EventState.valueOf(json.nextString()) == EventState.COMPLETED;
+                case "finishedAt" -> finishedAt = json.nextLong();
+                default -> json.skipValue();
+            }
+        }
+        json.endObject();
+
+        if (eventId == null) {
+            throw new IOException("Missing \"event\" at " + json.getPath());
+        }
+        return new HistoryEntry(eventId, completed, finishedAt);
+    }
+
+    /**
+     * JsonWriter cierra su Writer al terminar; aquí el Writer es del archivo completo.
+     */
+    private static final class NonClosingWriter extends FilterWriter {
+
+        NonClosingWriter(Writer out) {
+            super(out);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,387 @@
+package com.eventui.core.storage;
+
+import com.eventui.api.event.EventDefinition;
+import com.eventui.api.event.EventState;
+import com.eventui.core.event.EventProgressImpl;
+import com.eventui.core.event.ProgressChangeListener;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.IntPredicate;
+
+/**
+ * Snapshot binario de progreso, leído mediante un MappedByteBuffer (solo lectura).*
+ * ARQUITECTURA:
+ * - Abrir el snapshot solo mapea el archivo y lee la tabla de IDs de evento:
+ *   el tiempo de arranque y el heap NO crecen con el número de jugadores guardados
+ * - Los datos de un jugador se decodifican cuando se necesitan (al entrar)
+ * - Directorio de jugadores de ancho fijo y ordenado por UUID → búsqueda binaria
+ * - Todas las lecturas son absolutas: una instancia se puede leer desde varios hilos*
+ * FORMATO (big-endian):
+ * <pre>
+ * Cabecera (36 bytes):
+ *   int  magic ("EUIP")
+ *   int  version
+ *   long savedAt (epoch millis)
+ *   int  eventCount         (entradas de la tabla de eventos)
+ *   int  playerCount
+ *   long directoryOffset
+ *   int  tableOffset
+ * Bloques de jugador (en el orden del directorio):
+ *   int liveCount
+ *     liveCount × (int eventRef, byte state, long startedAt, long completedAt,
+ *                  byte objectiveCount, objectiveCount × int amount)
+ *   int historyCount
+ *     historyCount × (int eventRef, byte completed, long finishedAt)
+ * Tabla de eventos: eventCount × (u16 longitud + UTF-8 eventId,
+ *                                 u8 objectiveCount, objectiveCount × (u16 longitud + UTF-8 objectiveId))
+ * Directorio (al final): playerCount × (long msb, long lsb, long offset, int length)
+ * </pre>
+ * eventRef es la posición en la tabla del archivo (independiente del EventIndex en memoria);
+ * al abrir se traduce a índices densos. Cada entrada guarda el orden de objetivos con el que
+ * se escribieron las cantidades: si la definición cambió, se reasignan por ID al decodificar.
+ * Un mismo evento puede tener varias entradas (una por orden de objetivos).
+ */
+public final class ProgressSnapshot {
+
+    public static final int MAGIC = 0x45554950; // "EUIP"
+    public static final int VERSION = 2;
+
+    static final int HEADER_SIZE = 36;
+    static final int DIRECTORY_ENTRY_SIZE = 28;
+
+    // Tamaño codificado de las entradas de un bloque (estimación de bytes, p. ej. RetentionSweeper)
+    static final int LIVE_ENTRY_BASE_SIZE = 22;
+    static final int HISTORY_ENTRY_SIZE = 13;
+
+    private static final EventState[] STATES = EventState.values();
+
+    private final Path file;
+    private final ByteBuffer buffer;
+    private final long savedAt;
+    private final String[] eventIds;
+    private final String[][] objectiveIdsByRef;
+    private final int[] eventIndexByRef;
+    private final int playerCount;
+    private final int directoryOffset;
+
+    private ProgressSnapshot(Path file, ByteBuffer buffer, long savedAt, String[] eventIds,
+                             String[][] objectiveIdsByRef, int[] eventIndexByRef,
+                             int playerCount, int directoryOffset) {
+        this.file = file;
+        this.buffer = buffer;
+        this.savedAt = savedAt;
+        this.eventIds = eventIds;
+        this.objectiveIdsByRef = objectiveIdsByRef;
+        this.eventIndexByRef = eventIndexByRef;
+        this.playerCount = playerCount;
+        this.directoryOffset = directoryOffset;
+    }
+
+    /**
+     * Mapea un snapshot existente.
+     * Registra en el EventIndex los IDs de evento de la tabla (append-only).
+     *
+     * @throws IOException si el archivo no existe, está truncado o tiene otra versión
+     */
+    public static ProgressSnapshot open(Path file, EventIndex eventIndex) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Progress snapshot too large to map: " + size + " bytes");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not an EventUI progress snapshot: " + file);
+        }
+
+        int version = buffer.getInt(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported progress snapshot version " + version + ": " + file);
+        }
+
+        long savedAt = buffer.getLong(8);
+        int eventCount = buffer.getInt(16);
+        int playerCount = buffer.getInt(20);
+        long directoryOffset = buffer.getLong(24);
+
+        if (directoryOffset + (long) playerCount * DIRECTORY_ENTRY_SIZE > buffer.limit()) {
+            throw new IOException("Truncated progress snapshot: " + file);
+        }
+
+        // Tabla de eventos (pocas entradas: se decodifica entera)
+        String[] eventIds = new String[eventCount];
+        String[][] objectiveIdsByRef = new String[eventCount][];
+        int[] eventIndexByRef = new int[eventCount];
+        int[] position = {buffer.getInt(32)};
+
+        for (int ref = 0; ref < eventCount; ref++) {
+            eventIds[ref] = readString(buffer, position);
+            eventIndexByRef[ref] = eventIndex.register(eventIds[ref]);
+
+            String[] objectiveIds = new String[Byte.toUnsignedInt(buffer.get(position[0]++))];
+            for (int i = 0; i < objectiveIds.length; i++) {
+                objectiveIds[i] = readString(buffer, position);
+            }
+            objectiveIdsByRef[ref] = objectiveIds;
+        }
+
+        return new ProgressSnapshot(file, buffer, savedAt, eventIds, objectiveIdsByRef, eventIndexByRef,
+                playerCount, (int) directoryOffset);
+    }
+
+    private static String readString(ByteBuffer buffer, int[] position) {
+        int length = Short.toUnsignedInt(buffer.getShort(position[0]));
+        byte[] utf8 = new byte[length];
+        buffer.get(position[0] + 2, utf8);
+        position[0] += 2 + length;
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public long getSavedAt() {
+        return savedAt;
+    }
+
+    public int getPlayerCount() {
+        return playerCount;
+    }
+
+    /**
+     * @return IDs de evento de la tabla, en orden de eventRef (el writer los conserva)
+     */
+    String[] getEventIds() {
+        return eventIds.clone();
+    }
+
+    /**
+     * @return Orden de objetivos de una entrada de la tabla
+     */
+    String[] getObjectiveIds(int ref) {
+        return objectiveIdsByRef[ref];
+    }
+
+    /**
+     * Busca un jugador en el directorio (búsqueda binaria).
+     *
+     * @return Posición en el directorio, o (-(punto de inserción) - 1) si no está
+     */
+    public int find(UUID playerId) {
+        int low = 0;
+        int high = playerCount - 1;
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = playerAt(mid).compareTo(playerId);
+
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    public boolean contains(UUID playerId) {
+        return find(playerId) >= 0;
+    }
+
+    /**
+     * @return UUID en la posición del directorio (orden ascendente de UUID)
+     */
+    UUID playerAt(int position) {
+        int entry = directoryOffset + position * DIRECTORY_ENTRY_SIZE;
+        return new UUID(buffer.getLong(entry), buffer.getLong(entry + 8));
+    }
+
+    /**
+     * Copia el bloque codificado de un jugador tal cual (los eventRef siguen siendo válidos
+     * porque el writer conserva la tabla y solo agrega al final).
+     *
+     * @return Bytes copiados
+     */
+    int copyBlock(int position, DataOutput out) throws IOException {
+        int entry = directoryOffset + position * DIRECTORY_ENTRY_SIZE;
+        int offset = (int) buffer.getLong(entry + 16);
+        int length = buffer.getInt(entry + 24);
+
+        byte[] block = new byte[length];
+        buffer.get(offset, block);
+        out.write(block);
+        return length;
+    }
+
+    /**
+     * Decodifica el bloque de un jugador dentro de su PlayerProgressData.
+     * Progreso de eventos que ya no existen se descarta; el historial se conserva.
+     *
+     * @return true si el jugador estaba en el snapshot
+     */
+    public boolean decodeInto(UUID playerId, PlayerProgressData data, DefinitionRegistry registry,
+                              ProgressChangeListener changeListener) {
+        int position = find(playerId);
+        if (position < 0) {
+            return false;
+        }
+
+        decodeAt(position, playerId, data, registry, changeListener);
+        return true;
+    }
+
+    /**
+     * Decodifica el bloque en una posición del directorio (sin búsqueda).
+     */
+    void decodeAt(int position, UUID playerId, PlayerProgressData data, DefinitionRegistry registry,
+                  ProgressChangeListener changeListener) {
+        int entry = directoryOffset + position * DIRECTORY_ENTRY_SIZE;
+        int cursor = (int) buffer.getLong(entry + 16);
+
+        int liveCount = buffer.getInt(cursor);
+        cursor += 4;
+
+        for (int i = 0; i < liveCount; i++) {
+            int ref = buffer.getInt(cursor);
+            int eventIndex = eventIndexByRef[ref];
+            EventState state = STATES[buffer.get(cursor + 4)];
+            long startedAt = buffer.getLong(cursor + 5);
+            long completedAt = buffer.getLong(cursor + 13);
+            int objectiveCount = Byte.toUnsignedInt(buffer.get(cursor + 21));
+            int amountsOffset = cursor + 22;
+            cursor = amountsOffset + objectiveCount * 4;
+
+            EventDefinition definition = registry.get(eventIndex);
+            if (definition == null) {
+                continue; // Evento eliminado
+            }
+
+            // Cantidades por ID: la definición pudo cambiar desde que se escribió el bloque
+            EventProgressImpl progress = new EventProgressImpl(playerId, definition, eventIndex, changeListener);
+            int[] ordinals = ObjectiveLayout.ordinals(objectiveIdsByRef[ref], definition, objectiveCount);
+            for (int objective = 0; objective < objectiveCount; objective++) {
+                if (ordinals[objective] >= 0) {
+                    progress.restoreObjective(ordinals[objective], buffer.getInt(amountsOffset + objective * 4));
+                }
+            }
+            progress.restoreState(state, startedAt, completedAt);
+
+            data.getOrCreate(eventIndex, () -> progress);
+        }
+
+        int historyCount = buffer.getInt(cursor);
+        cursor += 4;
+
+        if (historyCount > 0) {
+            CompletionHistory history = data.getOrCreateHistory();
+            for (int i = 0; i < historyCount; i++) {
+                int eventIndex = eventIndexByRef[buffer.getInt(cursor)];
+                boolean wasCompleted = buffer.get(cursor + 4) != 0;
+                long finishedAt = buffer.getLong(cursor + 5);
+                cursor += 13;
+
+                history.record(eventIndex, wasCompleted, finishedAt);
+            }
+        }
+    }
+
+    /**
+     * Entradas vivas del bloque de eventos eliminados (decodeAt descarta las de eventos que no existen).
+     *
+     * @param deleted      Índices densos a recoger
+     * @param eventIndices Recibe el índice denso de cada una
+     * @param bytes        Acumulador de los bytes que ocupan en el bloque
+     */
+    void collectDeletedLive(int position, IntPredicate deleted, List<Integer> eventIndices, long[] bytes) {
+        int entry = directoryOffset + position * DIRECTORY_ENTRY_SIZE;
+        int cursor = (int) buffer.getLong(entry + 16);
+
+        int liveCount = buffer.getInt(cursor);
+        cursor += 4;
+
+        for (int i = 0; i < liveCount; i++) {
+            int eventIndex = eventIndexByRef[buffer.getInt(cursor)];
+            int size = LIVE_ENTRY_BASE_SIZE + Byte.toUnsignedInt(buffer.get(cursor + 21)) * 4;
+            cursor += size;
+
+            if (deleted.test(eventIndex)) {
+                eventIndices.add(eventIndex);
+                bytes[0] += size;
+            }
+        }
+    }
+
+    /**
+     * Codifica el progreso en memoria de un jugador con el formato de bloque.
+     *
+     * @param refs Tabla de eventos del archivo en escritura (agrega entradas si hace falta)
+     */
+    static void encodeBlock(PlayerProgressData data, ProgressSnapshotWriter.EventRefs refs,
+                            DataOutput out) throws IOException {
+        // El array de progreso vivo es copy-on-write: esta referencia es una vista coherente
+        EventProgressImpl[] live = data.liveSnapshot();
+
+        int liveCount = 0;
+        for (EventProgressImpl progress : live) {
+            if (progress != null) {
+                liveCount++;
+            }
+        }
+
+        out.writeInt(liveCount);
+        for (EventProgressImpl progress : live) {
+            if (progress == null) {
+                continue;
+            }
+
+            // La entrada de la tabla lleva el orden de objetivos de ESTA definición
+            EventDefinition definition = progress.getDefinition();
+            int objectiveCount = definition.getObjectives().size();
+            out.writeInt(refs.refOf(definition));
+            out.writeByte(progress.getState().ordinal());
+            out.writeLong(progress.getStartedAt());
+            out.writeLong(progress.getCompletedAt());
+            out.writeByte(objectiveCount);
+            for (int objective = 0; objective < objectiveCount; objective++) {
+                out.writeInt(progress.getCurrentAmount(objective));
+            }
+        }
+
+        CompletionHistory history = data.getHistory();
+        if (history == null) {
+            out.writeInt(0);
+            return;
+        }
+
+        // Copia coherente del historial (forEach es sincronizado)
+        List<long[]> entries = new ArrayList<>();
+        history.forEach((eventIndex, wasCompleted, finishedAtMillis) -> {
+            int ref = refs.refOf(eventIndex);
+            if (ref >= 0) {
+                entries.add(new long[]{ref, wasCompleted ? 1 : 0, finishedAtMillis});
+            }
+        });
+
+        out.writeInt(entries.size());
+        for (long[] entry : entries) {
+            out.writeInt((int) entry[0]);
+            out.writeByte((int) entry[1]);
+            out.writeLong(entry[2]);
+        }
+    }
+}
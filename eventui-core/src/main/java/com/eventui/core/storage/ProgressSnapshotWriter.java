@@ -0,0 +1,223 @@
+package com.eventui.core.storage;
+
+import com.eventui.api.event.EventDefinition;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Escribe un ProgressSnapshot nuevo fusionando el snapshot anterior con el progreso en memoria.*
+ * FLUJO:
+ * 1. Tabla de eventos = tabla anterior + entradas nuevas al final (los eventRef antiguos siguen valiendo)
+ *    Entrada = (eventId, orden de objetivos): un reload que cambia objetivos agrega una entrada nueva
+ * 2. Recorre en orden de UUID la unión (snapshot anterior ∪ memoria):
+ *    - En memoria y sucio (o nuevo) → se codifica desde memoria
+ *    - En memoria y limpio → se copia el bloque anterior byte a byte
+ *    - Solo en el snapshot anterior → copia byte a byte (nunca se decodificó)
+ *    - Decodificado y ya no en memoria → se omite (fue borrado o quedó vacío)
+ * 3. Escribe la tabla (ya completa) tras los bloques, luego el directorio
+ * 4. Escribe a un .tmp y lo mueve atómicamente sobre el archivo final
+ */
+final class ProgressSnapshotWriter {
+
+    private ProgressSnapshotWriter() {
+    }
+
+    /**
+     * @param previous     Snapshot vigente (puede ser null)
+     * @param memory       Progreso en memoria por jugador
+     * @param dirtyPlayers Jugadores con cambios desde el último guardado
+     * @param consumed     Jugadores del snapshot anterior cuyo estado vive ahora en memoria (o se borró)
+     * @return Número de jugadores escritos
+     */
+    static int write(Path target, ProgressSnapshot previous, Map<UUID, PlayerProgressData> memory,
+                     Set<UUID> dirtyPlayers, Set<UUID> consumed, EventIndex eventIndex) throws IOException {
+
+        EventRefs refs = new EventRefs(previous, eventIndex);
+
+        List<UUID> inMemory = new ArrayList<>(memory.keySet());
+        inMemory.sort(null);
+
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        ByteArrayOutputStream directoryBytes = new ByteArrayOutputStream();
+        DataOutputStream directory = new DataOutputStream(directoryBytes);
+        int players = 0;
+        long directoryOffset;
+        int tableOffset;
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+
+            out.write(new byte[ProgressSnapshot.HEADER_SIZE]); // Se reescribe al final
+
+            // ========== Bloques (merge ordenado por UUID) ==========
+            int previousCount = previous != null ? previous.getPlayerCount() : 0;
+            int p = 0;
+            int m = 0;
+
+            while (p < previousCount || m < inMemory.size()) {
+                UUID fromPrevious = p < previousCount ? previous.playerAt(p) : null;
+                UUID fromMemory = m < inMemory.size() ? inMemory.get(m) : null;
+
+                int cmp = fromPrevious == null ? 1 : fromMemory == null ? -1 : fromPrevious.compareTo(fromMemory);
+                UUID playerId = cmp <= 0 ? fromPrevious : fromMemory;
+                int previousPosition = cmp <= 0 ? p : -1;
+                if (cmp <= 0) {
+                    p++;
+                }
+                if (cmp >= 0) {
+                    m++;
+                }
+
+                int offset = out.size();
+                PlayerProgressData data = memory.get(playerId);
+
+                if (data != null) {
+                    if (previousPosition >= 0 && !dirtyPlayers.contains(playerId)) {
+                        previous.copyBlock(previousPosition, out);
+                    } else if (data.isEmpty()) {
+                        continue;
+                    } else {
+                        ProgressSnapshot.encodeBlock(data, refs, out);
+                    }
+                } else if (previousPosition >= 0 && !consumed.contains(playerId)) {
+                    previous.copyBlock(previousPosition, out);
+                } else {
+                    continue;
+                }
+
+                if (out.size() == Integer.MAX_VALUE) {
+                    throw new IOException("Progress snapshot exceeds 2 GiB");
+                }
+
+                directory.writeLong(playerId.getMostSignificantBits());
+                directory.writeLong(playerId.getLeastSignificantBits());
+                directory.writeLong(offset);
+                directory.writeInt(out.size() - offset);
+                players++;
+            }
+
+            // ========== Tabla de eventos (los bloques pudieron agregar entradas) ==========
+            tableOffset = out.size();
+            for (int ref = 0; ref < refs.eventIds.size(); ref++) {
+                writeString(out, refs.eventIds.get(ref));
+                String[] objectiveIds = refs.objectiveIds.get(ref);
+                out.writeByte(objectiveIds.length);
+                for (String objectiveId : objectiveIds) {
+                    writeString(out, objectiveId);
+                }
+            }
+
+            directoryOffset = out.size();
+            directoryBytes.writeTo(out);
+        }
+
+        // ========== Cabecera ==========
+        ByteBuffer header = ByteBuffer.allocate(ProgressSnapshot.HEADER_SIZE);
+        header.putInt(ProgressSnapshot.MAGIC)
+                .putInt(ProgressSnapshot.VERSION)
+                .putLong(System.currentTimeMillis())
+                .putInt(refs.eventIds.size())
+                .putInt(players)
+                .putLong(directoryOffset)
+                .putInt(tableOffset)
+                .flip();
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+        }
+
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        return players;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(utf8.length);
+        out.write(utf8);
+    }
+
+    /**
+     * Tabla de eventos del archivo en escritura: (eventId, orden de objetivos) → eventRef.
+     */
+    static final class EventRefs {
+
+        final List<String> eventIds = new ArrayList<>();
+        final List<String[]> objectiveIds = new ArrayList<>();
+
+        private final Map<String, Integer> refByKey = new HashMap<>();
+        private final Map<String, Integer> anyRefById = new HashMap<>();
+        private final EventIndex eventIndex;
+
+        EventRefs(ProgressSnapshot previous, EventIndex eventIndex) {
+            this.eventIndex = eventIndex;
+            if (previous == null) {
+                return;
+            }
+
+            // Conservar las entradas anteriores en su posición (bloques copiados tal cual)
+            String[] previousIds = previous.getEventIds();
+            for (int ref = 0; ref < previousIds.length; ref++) {
+                append(previousIds[ref], previous.getObjectiveIds(ref));
+            }
+        }
+
+        /**
+         * @return eventRef para progreso vivo escrito con el orden de objetivos de esta definición
+         */
+        int refOf(EventDefinition definition) {
+            String[] layout = ObjectiveLayout.of(definition);
+            Integer ref = refByKey.get(key(definition.getId(), layout));
+            return ref != null ? ref : append(definition.getId(), layout);
+        }
+
+        /**
+         * @return eventRef para historial (el orden de objetivos no importa), o -1 si el índice no existe
+         */
+        int refOf(int eventIndex) {
+            String eventId = this.eventIndex.idAt(eventIndex);
+            if (eventId == null) {
+                return -1;
+            }
+            Integer ref = anyRefById.get(eventId);
+            return ref != null ? ref : append(eventId, ObjectiveLayout.of(null));
+        }
+
+        private int append(String eventId, String[] layout) {
+            int ref = eventIds.size();
+            eventIds.add(eventId);
+            objectiveIds.add(layout);
+            refByKey.putIfAbsent(key(eventId, layout), ref);
+            anyRefById.putIfAbsent(eventId, ref);
+            return ref;
+        }
+
+        private static String key(String eventId, String[] layout) {
+            return eventId + '\0' + String.join("\0", layout);
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package com.eventui.core.storage;
+
+import com.eventui.api.event.EventDefinition;
+import com.eventui.api.event.EventState;
+import com.eventui.core.event.EventProgressImpl;
+import com.eventui.core.event.ProgressChangeListener;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntPredicate;
+import java.util.logging.Logger;
+
+/**
+ * Barrido incremental de progreso obsoleto (retención).*
+ * REGLAS (configurables):
+ * - Historial terminado (COMPLETED / FAILED) más antiguo que N días, solo de eventos repetibles:
+ *   el bit de un evento de una sola vez es lo que impide volver a hacerlo (y cobrarlo) otra vez
+ * - Progreso e historial de eventos quitados explícitamente (lápida en EventTombstones) hace más
+ *   de N días. Un ID que solo falta en el registro (archivo que no cargó) nunca se purga, y la regla
+ *   entera se salta si la última carga tuvo errores o no cargó ningún evento
+ * - Entradas AVAILABLE abandonadas: creadas pero nunca empezadas y sin avance*
+ * ARQUITECTURA:
+ * - Cada pasada procesa como mucho maxPlayers jugadores y deja un cursor para la siguiente
+ *   (primero el snapshot en orden de directorio, luego la memoria)
+ * - Se ejecuta en un hilo async: el tick nunca espera al barrido
+ * - Primero cuenta sin modificar (jugadores del snapshot en un registro temporal);
+ *   solo los jugadores con algo que purgar se cargan y se modifican bajo el lock del storage
+ * - Los jugadores ONLINE se saltan: se barren cuando salgan
+ * - Lo purgado se marca sucio: el próximo snapshot ya no lo incluye
+ */
+public class RetentionSweeper {
+
+    private static final Logger LOGGER = Logger.getLogger(RetentionSweeper.class.getName());
+
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+    /**
+     * Resultado de una pasada.
+     *
+     * @param playersScanned Jugadores revisados
+     * @param recordsPurged  Entradas eliminadas (progreso vivo + historial)
+     * @param bytesReclaimed Bytes que esas entradas ocupaban en el snapshot
+     * @param cycleCompleted true si la pasada terminó de recorrer todos los jugadores
+     */
+    public record Report(int playersScanned, int recordsPurged, long bytesReclaimed, boolean cycleCompleted) {
+    }
+
+    private final EventStorage storage;
+    private final long historyMaxAgeMillis;
+    private final boolean purgeDeletedEvents;
+    private final long deletedGraceMillis;
+    private final BooleanSupplier definitionsTrusted;
+    private final boolean purgeAbandonedAvailable;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    // Cursor entre pasadas (solo lo toca el hilo que tiene running)
+    private ProgressSnapshot cursorSnapshot;
+    private int snapshotPosition;
+    private UUID lastSnapshotPlayer;
+    private Iterator<UUID> memoryCursor;
+
+    // Totales del ciclo en curso
+    private long cycleRecords;
+    private long cycleBytes;
+
+    /**
+     * @param historyMaxAgeDays       Días que se conserva el historial terminado de eventos repetibles (0 = para siempre)
+     * @param purgeDeletedEvents      Purgar progreso/historial de eventos quitados explícitamente
+     * @param deletedGraceDays        Días que se conserva ese progreso tras quitar el evento
+     * @param definitionsTrusted      false = la última carga de eventos tuvo errores (no purgar eliminados)
+     * @param purgeAbandonedAvailable Purgar entradas AVAILABLE sin avance
+     */
+    public RetentionSweeper(EventStorage storage, int historyMaxAgeDays,
+                            boolean purgeDeletedEvents, int deletedGraceDays, BooleanSupplier definitionsTrusted,
+                            boolean purgeAbandonedAvailable) {
+        this.storage = storage;
+        this.historyMaxAgeMillis = Math.max(0, historyMaxAgeDays) * MILLIS_PER_DAY;
+        this.purgeDeletedEvents = purgeDeletedEvents;
+        this.deletedGraceMillis = Math.max(0, deletedGraceDays) * MILLIS_PER_DAY;
+        this.definitionsTrusted = definitionsTrusted;
+        this.purgeAbandonedAvailable = purgeAbandonedAvailable;
+    }
+
+    /**
+     * @return true si alguna regla está activa
+     */
+    public boolean isEnabled() {
+        return historyMaxAgeMillis > 0 || purgeDeletedEvents || purgeAbandonedAvailable;
+    }
+
+    /**
+     * Procesa la siguiente porción de jugadores. Llamar desde un hilo async;
+     * si la pasada anterior sigue en curso, no hace nada.
+     */
+    public Report sweep(int maxPlayers) {
+        if (!running.compareAndSet(false, true)) {
+            return new Report(0, 0, 0L, false);
+        }
+
+        try {
+            return sweepSlice(maxPlayers);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private Report sweepSlice(int maxPlayers) {
+        long now = System.currentTimeMillis();
+        int scanned = 0;
+        int records = 0;
+        long[] bytes = {0L};
+        IntPredicate deleted = deletedRule(now);
+
+        // ========== Fase 1: jugadores que solo están en el snapshot ==========
+        if (memoryCursor == null) {
+            ProgressSnapshot current = storage.currentSnapshot();
+            if (current != cursorSnapshot) {
+                // Snapshot nuevo tras un guardado: seguir desde el último UUID visto (directorio ordenado)
+                cursorSnapshot = current;
+                int found = current != null && lastSnapshotPlayer != null ? current.find(lastSnapshotPlayer) : -1;
+                snapshotPosition = found >= 0 ? found + 1 : -(found + 1);
+            }
+
+            int playerCount = current != null ? current.getPlayerCount() : 0;
+            while (scanned < maxPlayers && snapshotPosition < playerCount) {
+                int position = snapshotPosition++;
+                UUID playerId = current.playerAt(position);
+                lastSnapshotPlayer = playerId;
+                if (!storage.isSnapshotOnly(playerId)) {
+                    continue; // Su estado vive en memoria: fase 2
+                }
+                scanned++;
+
+                // Contar sobre una copia temporal; cargar al jugador solo si hay algo que purgar
+                DefinitionRegistry registry = storage.getRegistry();
+                PlayerProgressData detached = new PlayerProgressData(playerId);
+                current.decodeAt(position, playerId, detached, registry, ProgressChangeListener.NONE);
+
+                // El progreso vivo de eventos eliminados ya no se decodifica: solo hay que reescribir el bloque
+                List<Integer> deletedLive = new ArrayList<>();
+                long[] deletedBytes = {0L};
+                current.collectDeletedLive(position, deleted, deletedLive, deletedBytes);
+
+                if (!deletedLive.isEmpty() || purge(detached, now, deleted, false, null) > 0) {
+                    records += storage.applyRetention(playerId, data -> {
+                        deletedLive.forEach(index -> storage.getDirtySet().mark(playerId, index));
+                        bytes[0] += deletedBytes[0];
+                        return deletedLive.size() + purge(data, now, deleted, true, bytes);
+                    });
+                }
+            }
+
+            if (snapshotPosition < playerCount) {
+                return report(scanned, records, bytes[0], false);
+            }
+            memoryCursor = storage.loadedPlayers().iterator();
+        }
+
+        // ========== Fase 2: jugadores en memoria ==========
+        while (scanned < maxPlayers && memoryCursor.hasNext()) {
+            UUID playerId = memoryCursor.next();
+            scanned++;
+
+            PlayerProgressData data = storage.loadedPlayer(playerId);
+            if (data != null && purge(data, now, deleted, false, null) > 0) {
+                records += storage.applyRetention(playerId, locked -> purge(locked, now, deleted, true, bytes));
+            }
+        }
+
+        boolean completed = !memoryCursor.hasNext();
+        if (completed) {
+            memoryCursor = null;
+            snapshotPosition = 0;
+            lastSnapshotPlayer = null;
+        }
+        return report(scanned, records, bytes[0], completed);
+    }
+
+    /**
+     * @return Índices de evento cuyo progreso se puede purgar por eliminado (ninguno si la regla no aplica)
+     */
+    private IntPredicate deletedRule(long now) {
+        if (!purgeDeletedEvents || !definitionsTrusted.getAsBoolean()) {
+            return index -> false;
+        }
+
+        DefinitionRegistry registry = storage.getRegistry();
+        EventIndex eventIndex = storage.getEventIndex();
+        EventTombstones tombstones = storage.getTombstones();
+        return index -> registry.get(index) == null
+                && tombstones.isExpired(eventIndex.idAt(index), now, deletedGraceMillis);
+    }
+
+    /**
+     * Misma regla para datos fuera del progreso (p. ej. clasificaciones de eventos eliminados).
+     *
+     * @return true si los datos del evento se pueden purgar ahora
+     */
+    public boolean isPurgeableDeleted(String eventId, long now) {
+        return purgeDeletedEvents && definitionsTrusted.getAsBoolean()
+                && storage.getRegistry().get(eventId) == null
+                && storage.getTombstones().isExpired(eventId, now, deletedGraceMillis);
+    }
+
+    private Report report(int scanned, int records, long bytes, boolean completed) {
+        cycleRecords += records;
+        cycleBytes += bytes;
+
+        if (completed) {
+            if (cycleRecords > 0) {
+                LOGGER.info("Retention sweep finished: purged " + cycleRecords + " records (~"
+                        + cycleBytes / 1024 + " KB reclaimed)");
+            }
+            cycleRecords = 0;
+            cycleBytes = 0;
+        }
+        return new Report(scanned, records, bytes, completed);
+    }
+
+    /**
+     * Aplica (o solo cuenta) las reglas de retención sobre el progreso de un jugador.
+     *
+     * @param deleted Eventos eliminados purgables (ver deletedRule)
+     * @param apply   false = solo contar, sin modificar
+     * @param bytes   Acumulador de bytes reclamados (solo con apply)
+     * @return Entradas purgables / purgadas
+     */
+    private int purge(PlayerProgressData data, long now, IntPredicate deleted, boolean apply, long[] bytes) {
+        DefinitionRegistry registry = storage.getRegistry();
+        UUID playerId = data.getPlayerId();
+        int purged = 0;
+
+        // Progreso vivo
+        EventProgressImpl[] live = data.liveSnapshot();
+        for (int index = 0; index < live.length; index++) {
+            EventProgressImpl progress = live[index];
+            if (progress == null) {
+                continue;
+            }
+
+            boolean exists = registry.get(index) != null;
+            if ((!exists && deleted.test(index)) || (exists && purgeAbandonedAvailable && isAbandoned(progress))) {
+                purged++;
+                if (apply && data.remove(index) != null) {
+                    bytes[0] += ProgressSnapshot.LIVE_ENTRY_BASE_SIZE
+                            + progress.getDefinition().getObjectives().size() * 4L;
+                    storage.getDirtySet().mark(playerId, index);
+                }
+            }
+        }
+
+        // Historial (recolectar primero: no se puede modificar mientras se recorre)
+        CompletionHistory history = data.getHistory();
+        if (history != null) {
+            long cutoff = historyMaxAgeMillis > 0 ? now - historyMaxAgeMillis : Long.MIN_VALUE;
+            List<Integer> expired = new ArrayList<>();
+            history.forEach((index, wasCompleted, finishedAt) -> {
+                if (deleted.test(index) || (finishedAt < cutoff && isRepeatable(registry.get(index)))) {
+                    expired.add(index);
+                }
+            });
+
+            purged += expired.size();
+            if (apply) {
+                for (int index : expired) {
+                    if (history.remove(index)) {
+                        bytes[0] += ProgressSnapshot.HISTORY_ENTRY_SIZE;
+                        storage.getDirtySet().mark(playerId, index);
+                    }
+                }
+            }
+        }
+        return purged;
+    }
+
+    /**
+     * @return true si el evento existe y es repetible (los que faltan del registro no se purgan por antigüedad)
+     */
+    private static boolean isRepeatable(EventDefinition definition) {
+        return definition != null && Boolean.parseBoolean(definition.getMetadata().getOrDefault("repeatable", "false"));
+    }
+
+    /**
+     * AVAILABLE sin ningún avance: se creó (consulta, UI) pero nunca se empezó.
+     */
+    private static boolean isAbandoned(EventProgressImpl progress) {
+        if (progress.getState() != EventState.AVAILABLE) {
+            return false;
+        }
+
+        EventDefinition definition = progress.getDefinition();
+        for (int i = 0; i < definition.getObjectives().size(); i++) {
+            if (progress.getCurrentAmount(i) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,120 @@
+package com.eventui.core.sync;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Transporte por directorio compartido (mismo host o disco de red): sin servicios externos.*
+ * ARQUITECTURA:
+ * - Cada lote es un archivo "serverId.sequence.batch", escrito a temporal + move atómico:
+ *   un lector nunca ve un lote a medias
+ * - poll() lista el directorio y entrega, por origen y en orden de secuencia, los lotes
+ *   posteriores al último visto de ese origen (cursor en memoria)
+ * - Cada servidor borra sus propios lotes más viejos que la retención; un servidor caído
+ *   más tiempo que eso se pone al día con su snapshot (los lotes perdidos no vuelven)*
+ * Al arrancar, el primer poll() entrega todo lo retenido: ProgressSync descarta lo que ya estaba
+ * en el snapshot local con sus cursores persistidos (sync-cursors.bin), no con este.
+ */
+public class FileSyncBus implements ProgressSyncBus {
+
+    private static final Logger LOGGER = Logger.getLogger(FileSyncBus.class.getName());
+
+    private static final String SUFFIX = ".batch";
+
+    private record BatchFile(Path path, String serverId, long sequence) {
+    }
+
+    private final Path directory;
+    private final String serverId;
+    private final long retentionMillis;
+    private final List<Consumer<SyncBatch>> listeners = new CopyOnWriteArrayList<>();
+    private final Map<String, Long> cursors = new HashMap<>();
+
+    /**
+     * @param serverId        Servidor local (sus archivos no se leen, solo se limpian)
+     * @param retentionMillis Antigüedad a partir de la que se borran los lotes propios
+     */
+    public FileSyncBus(Path directory, String serverId, long retentionMillis) throws IOException {
+        this.directory = directory;
+        this.serverId = serverId;
+        this.retentionMillis = retentionMillis;
+        Files.createDirectories(directory);
+    }
+
+    @Override
+    public void publish(SyncBatch batch) throws IOException {
+        String name = batch.serverId() + "." + batch.sequence() + SUFFIX;
+        Path temp = directory.resolve(name + ".tmp");
+        Files.write(temp, batch.encode());
+        Files.move(temp, directory.resolve(name), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public void subscribe(Consumer<SyncBatch> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public synchronized void poll() throws IOException {
+        List<BatchFile> pending = new ArrayList<>();
+        long expiredBefore = System.currentTimeMillis() - retentionMillis;
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path path : files) {
+                BatchFile file = parse(path);
+                if (file == null) {
+                    continue;
+                }
+
+                if (file.serverId().equals(serverId)) {
+                    if (Files.getLastModifiedTime(path).toMillis() < expiredBefore) {
+                        Files.deleteIfExists(path);
+                    }
+                } else if (file.sequence() > cursors.getOrDefault(file.serverId(), Long.MIN_VALUE)) {
+                    pending.add(file);
+                }
+            }
+        }
+
+        pending.sort(Comparator.comparing(BatchFile::serverId).thenComparingLong(BatchFile::sequence));
+        for (BatchFile file : pending) {
+            try {
+                SyncBatch batch = SyncBatch.decode(Files.readAllBytes(file.path()));
+                listeners.forEach(listener -> listener.accept(batch));
+            } catch (IOException e) {
+                // Borrado por la retención de su dueño entre el listado y la lectura, o corrupto
+                LOGGER.warning("Skipping sync batch " + file.path().getFileName() + ": " + e.getMessage());
+            }
+            cursors.put(file.serverId(), file.sequence());
+        }
+    }
+
+    /**
+     * @return Lote descrito por el nombre del archivo, o null si no es un lote
+     */
+    private static BatchFile parse(Path path) {
+        String name = path.getFileName().toString();
+        int dot = name.lastIndexOf('.', name.length() - SUFFIX.length() - 1);
+        if (dot <= 0) {
+            return null;
+        }
+
+        try {
+            long sequence = Long.parseLong(name.substring(dot + 1, name.length() - SUFFIX.length()));
+            return new BatchFile(path, name.substring(0, dot), sequence);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.eventui.core.sync;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Transporte en memoria: todos los buses de un mismo Hub se entregan los lotes entre sí,
+ * de forma síncrona y pasando por encode/decode (mismo camino que un transporte real).*
+ * Útil para pruebas (varios ProgressSync en un proceso) y como bus de un solo servidor.
+ */
+public class LoopbackSyncBus implements ProgressSyncBus {
+
+    /**
+     * "Red" compartida por los buses conectados.
+     */
+    public static final class Hub {
+        private final List<Consumer<SyncBatch>> listeners = new CopyOnWriteArrayList<>();
+    }
+
+    private final Hub hub;
+    private final List<Consumer<SyncBatch>> subscribed = new CopyOnWriteArrayList<>();
+
+    public LoopbackSyncBus() {
+        this(new Hub());
+    }
+
+    public LoopbackSyncBus(Hub hub) {
+        this.hub = hub;
+    }
+
+    @Override
+    public void publish(SyncBatch batch) throws IOException {
+        byte[] encoded = batch.encode();
+        for (Consumer<SyncBatch> listener : hub.listeners) {
+            listener.accept(SyncBatch.decode(encoded));
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<SyncBatch> listener) {
+        hub.listeners.add(listener);
+        subscribed.add(listener);
+    }
+
+    @Override
+    public void close() {
+        hub.listeners.removeAll(subscribed);
+        subscribed.clear();
+    }
+}
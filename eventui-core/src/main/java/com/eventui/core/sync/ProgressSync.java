@@ -0,0 +1,501 @@
+package com.eventui.core.sync;
+
+import com.eventui.api.bridge.MessageType;
+import com.eventui.api.event.EventProgress;
+import com.eventui.api.event.EventState;
+import com.eventui.core.EventUIPlugin;
+import com.eventui.core.bridge.PluginBridgeMessage;
+import com.eventui.core.event.EventProgressImpl;
+import com.eventui.core.event.ProgressEvent;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Logger;
+
+/**
+ * Sincronización de progreso entre varios backends detrás de un proxy.*
+ * FLUJO:
+ * 1. EventStorage entrega cada cambio local (el mismo ProgressEvent del ProgressLog) a onLocalChange()
+ * 2. Los cambios se acumulan en un lote; las DELTA (o STREAK) seguidas de un mismo objetivo se fusionan
+ *    (cantidad absoluta = la última, delta = la suma)
+ * 3. flush() (async, cada pocos ticks) publica el lote en el ProgressSyncBus y recoge los entrantes
+ * 4. applyInbound() (hilo principal) fusiona los lotes remotos con el storage local:
+ *    - DELTA (contadores): fusión por máximo; nunca baja una cantidad ni reabre un evento terminado
+ *    - STREAK (rachas): último escritor gana por objetivo (una racha cortada baja en todos), sin barrera
+ *      para las DELTA del resto del evento; tampoco toca un evento terminado
+ *    - SET / RESET / START / COMPLETE / FAIL / REMOVE / CLEAR: último escritor gana por timestamp
+ *      (versión por jugador + evento + objetivo; un RESET más nuevo descarta DELTA más viejas)
+ *    - Además, un cambio más viejo que el ciclo local del evento (startedAt / completedAt) se descarta:
+ *      esa comparación sobrevive a reinicios, las versiones en memoria no
+ * 5. Los jugadores online afectados recargan su índice de eventos activos y plazos, y el cliente
+ *    recibe EVENT_RELOAD_NOTIFICATION*
+ * CAMBIO DE SERVIDOR (handoff):
+ * - Al salir, el lote siguiente lleva los últimos cambios del jugador y DESPUÉS su handoff,
+ *   y se publica en el acto (sin esperar al intervalo)
+ * - Al entrar se publica un claim. Si el último claim visto era de otro servidor, se espera
+ *   su handoff: mientras tanto la sesión no carga eventos activos ni plazos (el tracker no suma)
+ *   y la UI no puede iniciar ni abandonar eventos. Al llegar (con todos los cambios previos ya
+ *   aplicados) se refresca la sesión; si no llega en handoffTimeoutMillis, se refresca igual*
+ * CURSORES:
+ * - Por origen, la última secuencia aplicada. Se guardan (saveCursors) junto al snapshot con el valor
+ *   capturado ANTES de guardarlo: todo lo aplicado hasta el cursor ya está en disco
+ * - Al arrancar, los lotes retenidos hasta el cursor se descartan: no se reaplican sobre estado más nuevo*
+ * Las versiones se guardan solo en memoria y caducan tras la retención del bus: los conflictos
+ * más viejos que eso ya no se pueden dar (los lotes tampoco existen).
+ */
+public class ProgressSync implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(ProgressSync.class.getName());
+
+    private static final int CURSOR_MAGIC = 0x45554943; // "EUIC"
+    private static final int CURSOR_VERSION = 1;
+
+    /**
+     * Unidad de versión: objetivo (por ID: los ordinales pueden diferir entre servidores),
+     * evento completo (objectiveId null) o jugador completo (CLEAR, eventId "").
+     */
+    private record Key(UUID playerId, String eventId, String objectiveId) {
+    }
+
+    private final EventUIPlugin plugin;
+    private final String serverId;
+    private final ProgressSyncBus bus;
+    private final long versionTtlMillis;
+    private final long handoffTimeoutMillis;
+
+    // Salida: se llena desde cualquier hilo, se vacía en flush()
+    private final Object outLock = new Object();
+    private List<ProgressEvent> pending = new ArrayList<>();
+    private List<UUID> pendingClaims = new ArrayList<>();
+    private List<UUID> pendingHandoffs = new ArrayList<>();
+    private final Map<Key, Integer> mergeableDelta = new HashMap<>(); // posición de la última DELTA fusionable
+    private long sequence = System.currentTimeMillis() * 1000; // Crece también entre reinicios
+
+    // Entrada: hilo del bus → hilo principal
+    private final Queue<SyncBatch> inbound = new ConcurrentLinkedQueue<>();
+    private volatile Thread applyingThread;
+
+    private final Map<Key, Long> versions = new ConcurrentHashMap<>();
+    private final Map<UUID, String> owners = new ConcurrentHashMap<>();
+    private final Map<UUID, Long> awaitingHandoff = new ConcurrentHashMap<>(); // jugador → desde cuándo
+    private final Map<String, Long> appliedCursors = new ConcurrentHashMap<>(); // origen → secuencia
+
+    /**
+     * @param versionTtlMillis     Vida de las versiones LWW (igual o mayor que la retención del bus)
+     * @param handoffTimeoutMillis Espera máxima del handoff del servidor anterior
+     * @param cursorFile           Cursores guardados (se cargan ahora, antes de suscribirse al bus)
+     */
+    public ProgressSync(EventUIPlugin plugin, String serverId, ProgressSyncBus bus, long versionTtlMillis,
+                        long handoffTimeoutMillis, Path cursorFile) {
+        this.plugin = plugin;
+        this.serverId = serverId;
+        this.bus = bus;
+        this.versionTtlMillis = versionTtlMillis;
+        this.handoffTimeoutMillis = handoffTimeoutMillis;
+        loadCursors(cursorFile);
+        bus.subscribe(this::receive);
+    }
+
+    public String getServerId() {
+        return serverId;
+    }
+
+    // ========== Salida ==========
+
+    /**
+     * Encola un cambio local. Los cambios aplicados desde otro servidor no se reenvían.
+     */
+    public void onLocalChange(ProgressEvent event) {
+        if (event.type().isAnnotation() || Thread.currentThread() == applyingThread) {
+            return;
+        }
+
+        Key key = keyOf(event);
+        if (event.type() != ProgressEvent.Type.DELTA) {
+            versions.merge(key, event.timestamp(), Math::max);
+        }
+
+        synchronized (outLock) {
+            if (event.type() == ProgressEvent.Type.DELTA || event.type() == ProgressEvent.Type.STREAK) {
+                Integer position = mergeableDelta.get(key);
+                if (position != null && pending.get(position).type() == event.type()) {
+                    ProgressEvent previous = pending.get(position);
+                    pending.set(position, new ProgressEvent(event.type(), event.timestamp(),
+                            event.playerId(), event.eventId(), event.objectiveId(),
+                            previous.delta() + event.delta(), event.amount()));
+                    return;
+                }
+                mergeableDelta.put(key, pending.size());
+            } else {
+                // Barrera: una DELTA posterior no puede fusionarse por delante de este cambio
+                boolean wholePlayer = event.type() == ProgressEvent.Type.CLEAR;
+                mergeableDelta.keySet().removeIf(k -> k.playerId().equals(event.playerId())
+                        && (wholePlayer || k.eventId().equals(event.eventId())));
+            }
+            pending.add(event);
+        }
+    }
+
+    /**
+     * Jugador que entra: publica un claim y, si estaba en otro servidor, espera su handoff.
+     *
+     * @return true si hay que esperar el handoff: no abrir todavía eventos activos ni plazos
+     */
+    public boolean onJoin(UUID playerId) {
+        String previousOwner = owners.put(playerId, serverId);
+        boolean waiting = previousOwner != null && !previousOwner.equals(serverId);
+        if (waiting) {
+            awaitingHandoff.put(playerId, System.currentTimeMillis());
+        }
+
+        synchronized (outLock) {
+            pendingClaims.add(playerId);
+        }
+        return waiting;
+    }
+
+    /**
+     * @return true si el progreso del jugador todavía puede cambiar por el handoff de otro servidor
+     */
+    public boolean isAwaitingHandoff(UUID playerId) {
+        return awaitingHandoff.containsKey(playerId);
+    }
+
+    /**
+     * Jugador que sale: su handoff va detrás de sus últimos cambios. Publicar con flush() cuanto antes.
+     */
+    public void onQuit(UUID playerId) {
+        owners.remove(playerId, serverId);
+        awaitingHandoff.remove(playerId);
+
+        synchronized (outLock) {
+            pendingHandoffs.add(playerId);
+        }
+    }
+
+    /**
+     * Publica el lote pendiente y recoge los entrantes. Llamar desde un hilo async.
+     */
+    public synchronized void flush() {
+        SyncBatch batch;
+        synchronized (outLock) {
+            batch = new SyncBatch(serverId, sequence + 1, System.currentTimeMillis(),
+                    pending, pendingClaims, pendingHandoffs);
+            if (!batch.isEmpty()) {
+                sequence++;
+                pending = new ArrayList<>();
+                pendingClaims = new ArrayList<>();
+                pendingHandoffs = new ArrayList<>();
+                mergeableDelta.clear();
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            try {
+                bus.publish(batch);
+            } catch (IOException e) {
+                LOGGER.warning("Failed to publish sync batch (" + batch.records().size()
+                        + " records), will retry: " + e.getMessage());
+                requeue(batch);
+            }
+        }
+
+        try {
+            bus.poll();
+        } catch (IOException e) {
+            LOGGER.warning("Failed to poll sync bus: " + e.getMessage());
+        }
+
+        long expiredBefore = System.currentTimeMillis() - versionTtlMillis;
+        versions.values().removeIf(timestamp -> timestamp < expiredBefore);
+    }
+
+    private void requeue(SyncBatch batch) {
+        synchronized (outLock) {
+            pending.addAll(0, batch.records());
+            pendingClaims.addAll(0, batch.claims());
+            pendingHandoffs.addAll(0, batch.handoffs());
+            mergeableDelta.clear(); // Las posiciones cambiaron
+        }
+    }
+
+    // ========== Entrada ==========
+
+    private void receive(SyncBatch batch) {
+        if (!serverId.equals(batch.serverId())
+                && batch.sequence() > appliedCursors.getOrDefault(batch.serverId(), Long.MIN_VALUE)) {
+            inbound.add(batch);
+        }
+    }
+
+    /**
+     * Aplica los lotes recibidos. Llamar en el hilo principal.
+     *
+     * @return Registros aplicados
+     */
+    public int applyInbound() {
+        Set<UUID> affected = new HashSet<>();
+        expireHandoffs(affected);
+        if (inbound.isEmpty()) {
+            affected.forEach(this::refreshSession);
+            return 0;
+        }
+
+        int applied = 0;
+
+        applyingThread = Thread.currentThread();
+        try {
+            SyncBatch batch;
+            while ((batch = inbound.poll()) != null) {
+                applied += apply(batch, affected);
+            }
+        } finally {
+            applyingThread = null;
+        }
+
+        affected.forEach(this::refreshSession);
+        return applied;
+    }
+
+    /**
+     * Deja de esperar handoffs que no llegaron a tiempo (servidor anterior caído).
+     */
+    private void expireHandoffs(Set<UUID> affected) {
+        long expiredBefore = System.currentTimeMillis() - handoffTimeoutMillis;
+        awaitingHandoff.entrySet().removeIf(entry -> {
+            if (entry.getValue() >= expiredBefore) {
+                return false;
+            }
+            LOGGER.warning("No handoff received for " + entry.getKey() + " from " + owners.get(entry.getKey())
+                    + " in " + handoffTimeoutMillis + " ms, opening the session with local progress");
+            affected.add(entry.getKey());
+            return true;
+        });
+    }
+
+    private int apply(SyncBatch batch, Set<UUID> affected) {
+        if (batch.sequence() <= appliedCursors.getOrDefault(batch.serverId(), Long.MIN_VALUE)) {
+            return 0; // Ya aplicado (reintento del transporte)
+        }
+
+        int applied = 0;
+        for (ProgressEvent record : batch.records()) {
+            if (merge(record)) {
+                affected.add(record.playerId());
+                applied++;
+            }
+        }
+
+        for (UUID playerId : batch.claims()) {
+            owners.put(playerId, batch.serverId());
+            if (plugin.getSessionRegistry().slotOf(playerId) >= 0) {
+                LOGGER.warning("Player " + playerId + " joined " + batch.serverId() + " while still online here");
+            }
+        }
+
+        for (UUID playerId : batch.handoffs()) {
+            owners.remove(playerId, batch.serverId());
+            if (awaitingHandoff.remove(playerId) != null) {
+                affected.add(playerId);
+                LOGGER.fine("Received handoff of " + playerId + " from " + batch.serverId());
+            }
+        }
+
+        // Después de aplicar: un cursor capturado en el autosave async nunca adelanta a sus cambios
+        appliedCursors.put(batch.serverId(), batch.sequence());
+        return applied;
+    }
+
+    /**
+     * Fusiona un cambio remoto con el estado local.
+     *
+     * @return true si se aplicó
+     */
+    private boolean merge(ProgressEvent record) {
+        long timestamp = record.timestamp();
+        Key key = keyOf(record);
+        Key eventKey = new Key(record.playerId(), record.eventId(), null);
+        Key playerKey = new Key(record.playerId(), "", null);
+
+        if (isOverwrittenAfter(key, timestamp) || isOverwrittenAfter(playerKey, timestamp)
+                || (record.objectiveId() != null && isOverwrittenAfter(eventKey, timestamp))) {
+            return false; // Un cambio local más nuevo lo pisa
+        }
+        if (record.type() != ProgressEvent.Type.CLEAR && isBeforeLocalLifecycle(record)) {
+            return false; // De un ciclo del evento anterior al local (o su misma transición repetida)
+        }
+
+        switch (record.type()) {
+            case DELTA -> {
+                if (!isAhead(record)) {
+                    return false;
+                }
+            }
+            case STREAK -> {
+                if (!isOpenHere(record)) {
+                    return false;
+                }
+                versions.merge(key, timestamp, Math::max);
+            }
+            case SET, RESET, START, COMPLETE, FAIL, REMOVE, CLEAR -> versions.merge(key, timestamp, Math::max);
+            default -> {
+                return false;
+            }
+        }
+
+        plugin.getStorage().applyRemote(record);
+        return true;
+    }
+
+    /**
+     * Fusión por máximo: una DELTA remota solo se aplica si deja el contador más alto
+     * que el local, y nunca sobre un evento ya terminado aquí.
+     */
+    private boolean isAhead(ProgressEvent record) {
+        EventProgress local = plugin.getStorage().getProgress(record.playerId(), record.eventId()).orElse(null);
+        if (local == null) {
+            return true;
+        }
+        if (!isOpen(local)) {
+            return false; // Archivado en el historial o terminado
+        }
+
+        int objective = record.objectiveIn(((EventProgressImpl) local).getDefinition());
+        return objective >= 0 && record.amount() > ((EventProgressImpl) local).getCurrentAmount(objective);
+    }
+
+    /**
+     * @return true si el evento no existe aquí o sigue abierto (un STREAK puede bajar la cantidad, no reabrir)
+     */
+    private boolean isOpenHere(ProgressEvent record) {
+        EventProgress local = plugin.getStorage().getProgress(record.playerId(), record.eventId()).orElse(null);
+        return local == null || isOpen(local);
+    }
+
+    private static boolean isOpen(EventProgress local) {
+        return local instanceof EventProgressImpl
+                && local.getState() != EventState.COMPLETED && local.getState() != EventState.FAILED;
+    }
+
+    /**
+     * Compara con el startedAt / completedAt persistidos del evento local. Una transición
+     * (START / COMPLETE / FAIL) con el mismo timestamp es la que ya produjo ese estado.
+     */
+    private boolean isBeforeLocalLifecycle(ProgressEvent record) {
+        EventProgress local = plugin.getStorage().getProgress(record.playerId(), record.eventId()).orElse(null);
+        if (local == null) {
+            return false;
+        }
+
+        long since = Math.max(local.getStartedAt(), local.getCompletedAt());
+        return switch (record.type()) {
+            case START, COMPLETE, FAIL -> record.timestamp() <= since;
+            default -> record.timestamp() < since;
+        };
+    }
+
+    private boolean isOverwrittenAfter(Key key, long timestamp) {
+        Long version = versions.get(key);
+        return version != null && version > timestamp;
+    }
+
+    /**
+     * Rehace el índice de eventos activos y los plazos de un jugador online tras cambios remotos.
+     */
+    private void refreshSession(UUID playerId) {
+        int slot = plugin.getSessionRegistry().slotOf(playerId);
+        if (slot < 0) {
+            return;
+        }
+
+        plugin.getObjectiveTracker().clearActiveEvents(slot);
+        plugin.getObjectiveTracker().loadActiveEvents(slot);
+        plugin.getEventTimers().closeSession(playerId);
+        plugin.getEventTimers().openSession(playerId);
+        plugin.getObjectiveTracker().recheckCompletions(playerId);
+
+        plugin.getEventBridge().sendMessage(new PluginBridgeMessage(
+                MessageType.EVENT_RELOAD_NOTIFICATION,
+                Map.of("reason", "sync", "timestamp", String.valueOf(System.currentTimeMillis())),
+                playerId
+        ));
+    }
+
+    private static Key keyOf(ProgressEvent event) {
+        if (event.type() == ProgressEvent.Type.CLEAR) {
+            return new Key(event.playerId(), "", null);
+        }
+        return new Key(event.playerId(), event.eventId(), event.objectiveId());
+    }
+
+    // ========== Cursores ==========
+
+    /**
+     * @return Copia de los cursores aplicados. Capturar ANTES de guardar el snapshot
+     */
+    public Map<String, Long> captureCursors() {
+        return Map.copyOf(appliedCursors);
+    }
+
+    /**
+     * Guarda cursores capturados antes de un snapshot ya escrito (temporal + move). Seguro desde un hilo async.
+     */
+    public void saveCursors(Path file, Map<String, Long> cursors) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(CURSOR_MAGIC);
+            out.writeInt(CURSOR_VERSION);
+            out.writeInt(cursors.size());
+            for (Map.Entry<String, Long> cursor : cursors.entrySet()) {
+                out.writeUTF(cursor.getKey());
+                out.writeLong(cursor.getValue());
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void loadCursors(Path file) {
+        if (!Files.exists(file)) {
+            return;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != CURSOR_MAGIC || in.readInt() != CURSOR_VERSION) {
+                LOGGER.warning("Ignoring sync cursors with unknown format: " + file);
+                return;
+            }
+
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                appliedCursors.put(in.readUTF(), in.readLong());
+            }
+        } catch (IOException e) {
+            LOGGER.severe("Failed to load sync cursors: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Publica lo pendiente (handoffs de los que salieron incluidos) y cierra el bus.
+     */
+    @Override
+    public void close() {
+        flush();
+        bus.close();
+    }
+}
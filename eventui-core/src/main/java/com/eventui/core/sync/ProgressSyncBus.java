@@ -0,0 +1,35 @@
+package com.eventui.core.sync;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Transporte de lotes de progreso entre servidores (ver ProgressSync).*
+ * ARQUITECTURA:
+ * - Solo mueve SyncBatch opacos: el orden de aplicación y la resolución de conflictos
+ *   son cosa de ProgressSync, así cualquier transporte sirve (memoria, archivos, socket, broker...)
+ * - publish() y poll() se llaman desde un hilo async; los listeners pueden recibir en cualquier hilo
+ * - Un servidor puede recibir sus propios lotes (eco): ProgressSync los descarta por serverId
+ */
+public interface ProgressSyncBus extends AutoCloseable {
+
+    /**
+     * Envía un lote a los demás servidores.
+     */
+    void publish(SyncBatch batch) throws IOException;
+
+    /**
+     * Registra el receptor de los lotes entrantes.
+     */
+    void subscribe(Consumer<SyncBatch> listener);
+
+    /**
+     * Recoge lotes pendientes (transportes por sondeo). Los transportes push no hacen nada.
+     */
+    default void poll() throws IOException {
+    }
+
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,104 @@
+package com.eventui.core.sync;
+
+import com.eventui.core.event.ProgressEvent;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Lote de cambios de progreso publicado por un servidor.*
+ * ARQUITECTURA:
+ * - Reutiliza ProgressEvent (el registro del ProgressLog): cantidades absolutas, así reaplicar
+ *   un lote es idempotente y los contadores se fusionan por máximo
+ * - sequence crece siempre (base = arranque en ms): los receptores descartan duplicados por origen
+ * - claims: jugadores que acaban de entrar en el servidor de origen
+ * - handoffs: jugadores que salieron; sus últimos cambios van en este mismo lote, ANTES del handoff*
+ * FORMATO (big-endian):
+ * <pre>
+ *   int magic ("EUIS"), short version, UTF serverId, long sequence, long sentAt
+ *   int recordCount, recordCount × ProgressEvent
+ *   int claimCount, claimCount × (long msb, long lsb)
+ *   int handoffCount, handoffCount × (long msb, long lsb)
+ * </pre>
+ */
+public record SyncBatch(
+        String serverId,
+        long sequence,
+        long sentAt,
+        List<ProgressEvent> records,
+        List<UUID> claims,
+        List<UUID> handoffs
+) {
+
+    private static final int MAGIC = 0x45554953; // "EUIS"
+    private static final int VERSION = 2;
+
+    public boolean isEmpty() {
+        return records.isEmpty() && claims.isEmpty() && handoffs.isEmpty();
+    }
+
+    public byte[] encode() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + records.size() * 48);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeUTF(serverId);
+            out.writeLong(sequence);
+            out.writeLong(sentAt);
+
+            out.writeInt(records.size());
+            for (ProgressEvent record : records) {
+                record.writeTo(out);
+            }
+            writePlayers(out, claims);
+            writePlayers(out, handoffs);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static SyncBatch decode(byte[] data) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a sync batch");
+            }
+            int version = in.readUnsignedShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported sync batch version: " + version);
+            }
+
+            String serverId = in.readUTF();
+            long sequence = in.readLong();
+            long sentAt = in.readLong();
+
+            int recordCount = in.readInt();
+            List<ProgressEvent> records = new ArrayList<>(recordCount);
+            for (int i = 0; i < recordCount; i++) {
+                records.add(ProgressEvent.readFrom(in));
+            }
+            return new SyncBatch(serverId, sequence, sentAt, records, readPlayers(in), readPlayers(in));
+        }
+    }
+
+    private static void writePlayers(DataOutputStream out, List<UUID> players) throws IOException {
+        out.writeInt(players.size());
+        for (UUID playerId : players) {
+            out.writeLong(playerId.getMostSignificantBits());
+            out.writeLong(playerId.getLeastSignificantBits());
+        }
+    }
+
+    private static List<UUID> readPlayers(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<UUID> players = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            players.add(new UUID(in.readLong(), in.readLong()));
+        }
+        return players;
+    }
+}
@@ -0,0 +1,261 @@
+package com.eventui.core.timing;
+
+import com.eventui.api.event.EventDefinition;
+import com.eventui.api.event.EventProgress;
+import com.eventui.api.event.EventState;
+import com.eventui.core.EventUIPlugin;
+import com.eventui.core.event.EventProgressImpl;
+import com.eventui.core.event.EventWindow;
+import com.eventui.core.storage.DefinitionRegistry;
+import com.eventui.core.storage.EventStorage;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Temporizadores de eventos con ventana temporal (ver EventWindow), sobre una TimingWheel.*
+ * ARQUITECTURA:
+ * - Una sola rueda para todo el servidor, avanzada desde una tarea de 1 tick (hilo principal)
+ * - Fecha límite por (jugador online, evento en curso): min(startedAt + time_limit, available_until).
+ *   Al vencer: IN_PROGRESS → FAILED, se compacta y se avisa al cliente con EVENT_STATE_CHANGED
+ * - Aperturas / cierres globales: un temporizador por borde de ventana; avisan a los jugadores
+ *   online que aún no lo empezaron (AVAILABLE / LOCKED)
+ * - Persistencia: la fecha límite se deriva de startedAt (ya está en el snapshot). Al entrar un jugador
+ *   se recalculan sus plazos y lo vencido mientras estaba offline falla en el acto
+ * - Los temporizadores no se invalidan al cambiar el progreso: al disparar se revalida estado,
+ *   startedAt (mismo intento) y la definición vigente*
+ * Ejecutar siempre en el hilo principal.
+ */
+public class EventTimers {
+
+    private static final Logger LOGGER = Logger.getLogger(EventTimers.class.getName());
+
+    private static final long TICK_MILLIS = 50L; // Un tick de servidor
+
+    /**
+     * Fecha límite de un intento concreto (startedAt) de un evento en curso.
+     */
+    private record Deadline(UUID playerId, int eventIndex, long startedAt) {
+    }
+
+    /**
+     * Apertura o cierre global de la ventana de un evento.
+     */
+    private record WindowEdge(int eventIndex, boolean opening, long at) {
+    }
+
+    private final EventUIPlugin plugin;
+    private final TimingWheel<Object> wheel = new TimingWheel<>(TICK_MILLIS, System.currentTimeMillis());
+
+    private final Map<UUID, List<TimingWheel.Timer<Object>>> playerTimers = new HashMap<>();
+    private final List<TimingWheel.Timer<Object>> windowTimers = new ArrayList<>();
+
+    public EventTimers(EventUIPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Dispara lo vencido. Llamar cada tick.
+     */
+    public void tick() {
+        wheel.advance(System.currentTimeMillis(), this::fire);
+    }
+
+    /**
+     * (Re)programa aperturas y cierres de todos los eventos con ventana.
+     */
+    public void scheduleWindows() {
+        windowTimers.forEach(wheel::cancel);
+        windowTimers.clear();
+
+        long now = System.currentTimeMillis();
+        DefinitionRegistry registry = plugin.getStorage().getRegistry();
+        int eventCount = plugin.getStorage().getEventIndex().size();
+
+        for (int index = 0; index < eventCount; index++) {
+            EventWindow window = registry.window(index);
+            if (window == null) {
+                continue;
+            }
+
+            if (window.getAvailableFrom() > now) {
+                windowTimers.add(wheel.schedule(window.getAvailableFrom(),
+                        new WindowEdge(index, true, window.getAvailableFrom())));
+            }
+            if (window.getAvailableUntil() != Long.MAX_VALUE && window.getAvailableUntil() > now) {
+                windowTimers.add(wheel.schedule(window.getAvailableUntil(),
+                        new WindowEdge(index, false, window.getAvailableUntil())));
+            }
+        }
+    }
+
+    /**
+     * Reprograma todo tras un reload (ventanas y plazos de los jugadores online).
+     */
+    public void reschedule() {
+        scheduleWindows();
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            closeSession(player.getUniqueId());
+            openSession(player.getUniqueId());
+        }
+        LOGGER.fine("Rescheduled event timers (" + wheel.size() + " pending)");
+    }
+
+    /**
+     * Programa la fecha límite de un evento recién iniciado (si tiene).
+     * Jugadores offline se ignoran: sus plazos se calculan al entrar.
+     */
+    public void onEventStarted(EventProgressImpl progress) {
+        EventWindow window = plugin.getStorage().getRegistry().window(progress.getEventIndex());
+        if (window != null && plugin.getSessionRegistry().slotOf(progress.getPlayerId()) >= 0) {
+            scheduleDeadline(progress, window);
+        }
+    }
+
+    /**
+     * Programa los plazos de los eventos en curso de un jugador que acaba de entrar;
+     * falla en el acto los que vencieron mientras estaba offline.
+     * Llamar después de cargar su índice de eventos activos.
+     */
+    public void openSession(UUID playerId) {
+        int slot = plugin.getSessionRegistry().slotOf(playerId);
+        if (slot < 0) {
+            return;
+        }
+
+        EventStorage storage = plugin.getStorage();
+        DefinitionRegistry registry = storage.getRegistry();
+        int eventCount = storage.getEventIndex().size();
+        long now = System.currentTimeMillis();
+
+        for (int index = 0; index < eventCount; index++) {
+            EventWindow window = registry.window(index);
+            if (window == null) {
+                continue;
+            }
+
+            EventProgressImpl progress = storage.getProgress(slot, index);
+            if (progress == null || progress.getState() != EventState.IN_PROGRESS) {
+                continue;
+            }
+
+            if (window.deadlineFor(progress.getStartedAt()) <= now) {
+                expire(progress);
+            } else {
+                scheduleDeadline(progress, window);
+            }
+        }
+    }
+
+    /**
+     * Cancela los plazos de un jugador que sale.
+     */
+    public void closeSession(UUID playerId) {
+        List<TimingWheel.Timer<Object>> timers = playerTimers.remove(playerId);
+        if (timers != null) {
+            timers.forEach(wheel::cancel);
+        }
+    }
+
+    /**
+     * @return Temporizadores pendientes (plazos + bordes de ventana)
+     */
+    public int pendingCount() {
+        return wheel.size();
+    }
+
+    private void scheduleDeadline(EventProgressImpl progress, EventWindow window) {
+        long deadline = window.deadlineFor(progress.getStartedAt());
+        if (deadline == Long.MAX_VALUE) {
+            return;
+        }
+
+        List<TimingWheel.Timer<Object>> timers =
+                playerTimers.computeIfAbsent(progress.getPlayerId(), id -> new ArrayList<>());
+        timers.removeIf(timer -> !timer.isScheduled()); // Ya disparados
+        timers.add(wheel.schedule(deadline,
+                new Deadline(progress.getPlayerId(), progress.getEventIndex(), progress.getStartedAt())));
+    }
+
+    private void fire(Object payload) {
+        if (payload instanceof Deadline deadline) {
+            fireDeadline(deadline);
+        } else if (payload instanceof WindowEdge edge) {
+            fireWindowEdge(edge);
+        }
+    }
+
+    private void fireDeadline(Deadline deadline) {
+        int slot = plugin.getSessionRegistry().slotOf(deadline.playerId());
+        EventProgressImpl progress = plugin.getStorage().getProgress(slot, deadline.eventIndex());
+        if (progress == null || progress.getState() != EventState.IN_PROGRESS
+                || progress.getStartedAt() != deadline.startedAt()) {
+            return; // Terminado, reiniciado o jugador offline
+        }
+
+        // Revalidar contra la definición vigente (un reload pudo cambiar o quitar el límite)
+        EventWindow window = plugin.getStorage().getRegistry().window(deadline.eventIndex());
+        if (window == null) {
+            return;
+        }
+        if (window.deadlineFor(progress.getStartedAt()) > System.currentTimeMillis()) {
+            scheduleDeadline(progress, window);
+            return;
+        }
+
+        expire(progress);
+    }
+
+    /**
+     * IN_PROGRESS → FAILED por tiempo agotado.
+     */
+    private void expire(EventProgressImpl progress) {
+        if (progress.getState() != EventState.IN_PROGRESS) {
+            return;
+        }
+        progress.fail();
+
+        UUID playerId = progress.getPlayerId();
+        String eventId = progress.getEventId();
+
+        plugin.getObjectiveTracker().unregisterActiveEvent(playerId, eventId);
+        plugin.getStorage().compactProgress(playerId, eventId);
+        plugin.getEventBridge().notifyStateChange(playerId, eventId, EventState.FAILED);
+
+        Player player = plugin.getServer().getPlayer(playerId);
+        if (player != null) {
+            player.sendMessage("§c⌛ Time's up: " + progress.getDefinition().getDisplayName());
+        }
+        LOGGER.info("Event timed out for player " + playerId + ": " + eventId);
+    }
+
+    private void fireWindowEdge(WindowEdge edge) {
+        EventStorage storage = plugin.getStorage();
+        EventWindow window = storage.getRegistry().window(edge.eventIndex());
+        EventDefinition definition = storage.getDefinition(edge.eventIndex());
+        long expected = window == null ? 0L : edge.opening() ? window.getAvailableFrom() : window.getAvailableUntil();
+        if (definition == null || expected != edge.at()) {
+            return; // Ventana cambiada por un reload
+        }
+
+        EventState announced = edge.opening() ? EventState.AVAILABLE : EventState.LOCKED;
+        int notified = 0;
+
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            Optional<EventProgress> progress = storage.getProgress(player.getUniqueId(), definition.getId());
+            if (progress.isEmpty() || progress.get().getState() == EventState.AVAILABLE) {
+                plugin.getEventBridge().notifyStateChange(player.getUniqueId(), definition.getId(), announced);
+                notified++;
+            }
+        }
+
+        LOGGER.info("Event window " + (edge.opening() ? "opened" : "closed") + ": " + definition.getId()
+                + " (" + notified + " players notified)");
+    }
+}
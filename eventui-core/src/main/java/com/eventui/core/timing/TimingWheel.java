@@ -0,0 +1,228 @@
+package com.eventui.core.timing;
+
+import java.util.function.Consumer;
+
+/**
+ * Rueda de temporizadores jerárquica (hashed hierarchical timing wheel).*
+ * ARQUITECTURA:
+ * - LEVELS niveles de 64 ranuras; una ranura del nivel N cubre 64^N ticks
+ * - Cada temporizador se cuelga de una lista doblemente enlazada en la ranura de su nivel:
+ *   programar y cancelar son O(1), sin búsquedas ni reordenar
+ * - Al dar la vuelta un nivel, la ranura siguiente del nivel superior se "derrama" (cascade)
+ *   hacia los niveles inferiores: cada temporizador baja como mucho LEVELS-1 veces → O(1) amortizado
+ * - Los plazos más allá del alcance de la rueda se cuelgan del último nivel y se reubican al derramarse*
+ * El tiempo es de reloj (epoch millis) discretizado en ticks de tickMillis: tras un lag,
+ * advance() recorre los ticks atrasados y dispara todo lo vencido.*
+ * NO es thread-safe: usar siempre desde el mismo hilo (el principal).
+ */
+public final class TimingWheel<T> {
+
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 5;
+
+    /**
+     * Temporizador programado. Se devuelve al programarlo para poder cancelarlo.
+     */
+    public static final class Timer<T> {
+        private final T payload;
+        private final long deadlineTick;
+        private Timer<T> prev;
+        private Timer<T> next;
+        private int level = -1;
+        private int slot;
+
+        private Timer(T payload, long deadlineTick) {
+            this.payload = payload;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public T getPayload() {
+            return payload;
+        }
+
+        /**
+         * @return true si sigue programado (ni disparado ni cancelado)
+         */
+        public boolean isScheduled() {
+            return level >= 0;
+        }
+    }
+
+    private final long tickMillis;
+    private final long originMillis;
+    private final Timer<T>[][] slots;
+
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, long nowMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.originMillis = nowMillis;
+        this.slots = new Timer[LEVELS][WHEEL_SIZE];
+    }
+
+    /**
+     * Programa un temporizador. Un plazo ya vencido se dispara en el siguiente advance().
+     *
+     * @param deadlineMillis Momento de disparo (epoch millis)
+     */
+    public Timer<T> schedule(long deadlineMillis, T payload) {
+        long offset = deadlineMillis - originMillis;
+        long deadlineTick = offset <= 0 ? 0 : (offset + tickMillis - 1) / tickMillis;
+
+        Timer<T> timer = new Timer<>(payload, deadlineTick);
+        insert(timer, false);
+        size++;
+        return timer;
+    }
+
+    /**
+     * @return true si estaba programado
+     */
+    public boolean cancel(Timer<T> timer) {
+        if (timer == null || !timer.isScheduled()) {
+            return false;
+        }
+        unlink(timer);
+        size--;
+        return true;
+    }
+
+    /**
+     * Avanza la rueda hasta nowMillis disparando los temporizadores vencidos (en orden de tick).
+     * Los callbacks pueden programar o cancelar otros temporizadores.
+     *
+     * @return Temporizadores disparados
+     */
+    public int advance(long nowMillis, Consumer<T> onExpired) {
+        long targetTick = (nowMillis - originMillis) / tickMillis;
+        int fired = 0;
+
+        while (currentTick < targetTick) {
+            currentTick++;
+
+            // Derramar niveles superiores cuando el inferior completa una vuelta
+            for (int level = 1; level < LEVELS; level++) {
+                if ((currentTick & ((1L << (WHEEL_BITS * level)) - 1)) != 0) {
+                    break;
+                }
+                cascade(level, (int) (currentTick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+            }
+
+            // De uno en uno desde la cabeza: un callback puede cancelar a los que siguen en la ranura
+            int slot = (int) currentTick & WHEEL_MASK;
+            Timer<T> timer;
+            while ((timer = slots[0][slot]) != null) {
+                unlink(timer);
+
+                if (timer.deadlineTick <= currentTick) {
+                    size--;
+                    fired++;
+                    onExpired.accept(timer.payload);
+                } else {
+                    insert(timer, false); // Aún no vence (defensivo): reubicar
+                }
+            }
+        }
+        return fired;
+    }
+
+    /**
+     * @return Temporizadores programados
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Descarta todos los temporizadores.
+     */
+    public void clear() {
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < WHEEL_SIZE; slot++) {
+                Timer<T> timer = detach(level, slot);
+                while (timer != null) {
+                    Timer<T> next = timer.next;
+                    timer.prev = null;
+                    timer.next = null;
+                    timer = next;
+                }
+            }
+        }
+        size = 0;
+    }
+
+    private void cascade(int level, int slot) {
+        Timer<T> timer = detach(level, slot);
+        while (timer != null) {
+            Timer<T> next = timer.next;
+            timer.prev = null;
+            timer.next = null;
+            insert(timer, true);
+            timer = next;
+        }
+    }
+
+    /**
+     * @param cascading true durante un derrame: la ranura del tick actual aún no se procesó,
+     *                  así que lo que vence en este tick puede ir ahí
+     */
+    private void insert(Timer<T> timer, boolean cascading) {
+        long delta = timer.deadlineTick - currentTick;
+        if (delta <= 0) {
+            delta = cascading ? 0 : 1;
+        }
+
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (WHEEL_BITS * (level + 1))) {
+            level++;
+        }
+
+        // Más allá del alcance: ranura más lejana del último nivel, se reubica al derramarse
+        long maxDelta = (1L << (WHEEL_BITS * LEVELS)) - 1;
+        long tick = currentTick + Math.min(delta, maxDelta);
+        int slot = (int) (tick >>> (WHEEL_BITS * level)) & WHEEL_MASK;
+
+        Timer<T> head = slots[level][slot];
+        timer.next = head;
+        timer.prev = null;
+        if (head != null) {
+            head.prev = timer;
+        }
+        slots[level][slot] = timer;
+        timer.level = level;
+        timer.slot = slot;
+    }
+
+    private void unlink(Timer<T> timer) {
+        if (timer.prev != null) {
+            timer.prev.next = timer.next;
+        } else {
+            slots[timer.level][timer.slot] = timer.next;
+        }
+        if (timer.next != null) {
+            timer.next.prev = timer.prev;
+        }
+        timer.prev = null;
+        timer.next = null;
+        timer.level = -1;
+    }
+
+    /**
+     * Saca la lista entera de una ranura (los nodos quedan marcados como no programados).
+     */
+    private Timer<T> detach(int level, int slot) {
+        Timer<T> head = slots[level][slot];
+        slots[level][slot] = null;
+        for (Timer<T> timer = head; timer != null; timer = timer.next) {
+            timer.level = -1;
+        }
+        return head;
+    }
+}
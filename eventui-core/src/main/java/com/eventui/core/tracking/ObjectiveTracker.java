@@ -2,24 +2,30 @@ package com.eventui.core.tracking;
 
 import com.eventui.api.bridge.BridgeMessage;
 import com.eventui.api.bridge.MessageType;
+import com.eventui.api.event.EventDefinition;
 import com.eventui.api.event.EventState;
 import com.eventui.api.objective.ObjectiveType;
 import com.eventui.core.EventUIPlugin;
 import com.eventui.core.bridge.PluginBridgeMessage;
+import com.eventui.core.community.CommunityGoalManager;
 import com.eventui.core.event.EventDefinitionImpl;
 import com.eventui.core.event.EventProgressImpl;
 import com.eventui.core.objective.ObjectiveProgressImpl;
+import com.eventui.core.session.SessionRegistry;
+import com.eventui.core.storage.DefinitionRegistry;
+import com.eventui.core.storage.EventStorage;
 import org.bukkit.Sound;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.BlockBreakEvent;
 
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 import java.util.logging.Logger;
 
 /**
@@ -61,13 +67,12 @@ public class ObjectiveTracker implements Listener {
 
     private final EventUIPlugin plugin;
 
-    // ✅ NUEVO: Índice de eventos activos por jugador
-    // UUID del jugador → Set de IDs de eventos IN_PROGRESS
-    private final Map<UUID, Set<String>> activeEventsByPlayer = new ConcurrentHashMap<>();
+    // ✅ NUEVO: Índice de eventos activos por jugador ONLINE
+    // slot de sesión → bitset de índices densos de eventos IN_PROGRESS (copy-on-write)
+    private volatile long[][] activeBySlot = new long[0][];
 
-    // ✅ NUEVO: Índice de eventos por tipo de objetivo
-    // ObjectiveType → Set de IDs de eventos que contienen ese tipo
-    private final Map<ObjectiveType, Set<String>> eventsByObjectiveType = new ConcurrentHashMap<>();
+    // El índice de eventos por tipo de objetivo vive en el DefinitionRegistry de EventStorage
+    // (se reemplaza junto con las definiciones en cada reload)
 
     public ObjectiveTracker(EventUIPlugin plugin) {
         this.plugin = plugin;
@@ -91,19 +96,24 @@ public class ObjectiveTracker implements Listener {
     public void onBlockBreak(BlockBreakEvent event) {
         Player player = event.getPlayer();
         String blockTypeString = event.getBlock().getType().getKey().toString();
+        CommunityGoalManager communityGoals = plugin.getCommunityGoals();
+        if (communityGoals.tracks(ObjectiveType.MINE_BLOCK)) {
+            communityGoals.contribute(player.getUniqueId(), ObjectiveType.MINE_BLOCK, blockTypeString, 1);
+        }
 
-        // ✅ OPTIMIZACIÓN 1: Obtener solo eventos activos del jugador con objetivos MINE_BLOCK o BREAK_WITH_TOOL
-        Set<String> relevantMineEvents = getRelevantActiveEvents(player.getUniqueId(), ObjectiveType.MINE_BLOCK);
-        Set<String> relevantToolEvents = getRelevantActiveEvents(player.getUniqueId(), ObjectiveType.BREAK_WITH_TOOL);
+        // ✅ OPTIMIZACIÓN 1: Traducir UUID → slot una sola vez y consultar los bitsets
+        int slot = plugin.getSessionRegistry().slotOf(player.getUniqueId());
+        boolean hasMineEvents = hasRelevantActiveEvents(slot, ObjectiveType.MINE_BLOCK);
+        boolean hasToolEvents = hasRelevantActiveEvents(slot, ObjectiveType.BREAK_WITH_TOOL);
 
         // Si no hay eventos relevantes, salir inmediatamente
-        if (relevantMineEvents.isEmpty() && relevantToolEvents.isEmpty()) {
+        if (!hasMineEvents && !hasToolEvents) {
             return;
         }
 
         // Obtener herramienta una sola vez (para BREAK_WITH_TOOL)
         String toolType = null;
-        if (!relevantToolEvents.isEmpty()) {
+        if (hasToolEvents) {
             org.bukkit.inventory.ItemStack itemInHand = player.getInventory().getItemInMainHand();
             if (itemInHand.getType() != org.bukkit.Material.AIR) {
                 toolType = itemInHand.getType().getKey().toString();
@@ -114,15 +124,7 @@ public class ObjectiveTracker implements Listener {
         String finalToolType = toolType;
 
         // Procesar MINE_BLOCK
-        relevantMineEvents.forEach(eventId -> {
-            var eventDefOpt = plugin.getStorage().getEventDefinition(eventId);
-            if (eventDefOpt.isEmpty()) return;
-
-            var eventDef = eventDefOpt.get();
-            var progressOpt = plugin.getStorage().getProgress(player.getUniqueId(), eventId);
-            if (progressOpt.isEmpty()) return;
-
-            EventProgressImpl progress = (EventProgressImpl) progressOpt.get();
+        forEachRelevantEvent(slot, ObjectiveType.MINE_BLOCK, (eventDef, progress) -> {
 
             eventDef.getObjectives().forEach(objective -> {
                 if (objective.getType() == ObjectiveType.MINE_BLOCK) {
@@ -155,15 +157,7 @@ public class ObjectiveTracker implements Listener {
 
         // Procesar BREAK_WITH_TOOL
         if (finalToolType != null) {
-            relevantToolEvents.forEach(eventId -> {
-                var eventDefOpt = plugin.getStorage().getEventDefinition(eventId);
-                if (eventDefOpt.isEmpty()) return;
-
-                var eventDef = eventDefOpt.get();
-                var progressOpt = plugin.getStorage().getProgress(player.getUniqueId(), eventId);
-                if (progressOpt.isEmpty()) return;
-
-                EventProgressImpl progress = (EventProgressImpl) progressOpt.get();
+            forEachRelevantEvent(slot, ObjectiveType.BREAK_WITH_TOOL, (eventDef, progress) -> {
 
                 eventDef.getObjectives().forEach(objective -> {
                     if (objective.getType() == ObjectiveType.BREAK_WITH_TOOL) {
@@ -214,23 +208,13 @@ public class ObjectiveTracker implements Listener {
     public void onBlockPlace(org.bukkit.event.block.BlockPlaceEvent event) {
         Player player = event.getPlayer();
         String blockType = event.getBlock().getType().getKey().toString();
-
-        // ✅ OPTIMIZADO: Solo eventos con objetivo PLACE_BLOCK
-        Set<String> relevantEvents = getRelevantActiveEvents(player.getUniqueId(), ObjectiveType.PLACE_BLOCK);
-
-        if (relevantEvents.isEmpty()) {
-            return;
+        CommunityGoalManager communityGoals = plugin.getCommunityGoals();
+        if (communityGoals.tracks(ObjectiveType.PLACE_BLOCK)) {
+            communityGoals.contribute(player.getUniqueId(), ObjectiveType.PLACE_BLOCK, blockType, 1);
         }
 
-        relevantEvents.forEach(eventId -> {
-            var eventDefOpt = plugin.getStorage().getEventDefinition(eventId);
-            if (eventDefOpt.isEmpty()) return;
-
-            var eventDef = eventDefOpt.get();
-            var progressOpt = plugin.getStorage().getProgress(player.getUniqueId(), eventId);
-            if (progressOpt.isEmpty()) return;
-
-            EventProgressImpl progress = (EventProgressImpl) progressOpt.get();
+        // ✅ OPTIMIZADO: Solo eventos con objetivo PLACE_BLOCK
+        forEachRelevantEvent(player, ObjectiveType.PLACE_BLOCK, (eventDef, progress) -> {
 
             eventDef.getObjectives().forEach(objective -> {
                 if (objective.getType() == ObjectiveType.PLACE_BLOCK) {
@@ -280,23 +264,13 @@ public class ObjectiveTracker implements Listener {
         }
 
         String entityType = event.getEntity().getType().getKey().toString();
-
-        // ✅ OPTIMIZADO: Solo eventos con objetivo KILL_ENTITY
-        Set<String> relevantEvents = getRelevantActiveEvents(player.getUniqueId(), ObjectiveType.KILL_ENTITY);
-
-        if (relevantEvents.isEmpty()) {
-            return;
+        CommunityGoalManager communityGoals = plugin.getCommunityGoals();
+        if (communityGoals.tracks(ObjectiveType.KILL_ENTITY)) {
+            communityGoals.contribute(player.getUniqueId(), ObjectiveType.KILL_ENTITY, entityType, 1);
         }
 
-        relevantEvents.forEach(eventId -> {
-            var eventDefOpt = plugin.getStorage().getEventDefinition(eventId);
-            if (eventDefOpt.isEmpty()) return;
-
-            var eventDef = eventDefOpt.get();
-            var progressOpt = plugin.getStorage().getProgress(player.getUniqueId(), eventId);
-            if (progressOpt.isEmpty()) return;
-
-            EventProgressImpl progress = (EventProgressImpl) progressOpt.get();
+        // ✅ OPTIMIZADO: Solo eventos con objetivo KILL_ENTITY
+        forEachRelevantEvent(player, ObjectiveType.KILL_ENTITY, (eventDef, progress) -> {
 
             eventDef.getObjectives().forEach(objective -> {
                 if (objective.getType() == ObjectiveType.KILL_ENTITY) {
@@ -342,23 +316,13 @@ public class ObjectiveTracker implements Listener {
         int amount = event.isShiftClick() ?
                 calculateMaxCraftAmount(event.getInventory(), event.getRecipe()) :
                 craftedItem.getAmount();
-
-        // ✅ OPTIMIZADO: Solo eventos con objetivo CRAFT_ITEM
-        Set<String> relevantEvents = getRelevantActiveEvents(player.getUniqueId(), ObjectiveType.CRAFT_ITEM);
-
-        if (relevantEvents.isEmpty()) {
-            return;
+        CommunityGoalManager communityGoals = plugin.getCommunityGoals();
+        if (communityGoals.tracks(ObjectiveType.CRAFT_ITEM)) {
+            communityGoals.contribute(player.getUniqueId(), ObjectiveType.CRAFT_ITEM, itemType, amount);
         }
 
-        relevantEvents.forEach(eventId -> {
-            var eventDefOpt = plugin.getStorage().getEventDefinition(eventId);
-            if (eventDefOpt.isEmpty()) return;
-
-            var eventDef = eventDefOpt.get();
-            var progressOpt = plugin.getStorage().getProgress(player.getUniqueId(), eventId);
-            if (progressOpt.isEmpty()) return;
-
-            EventProgressImpl progress = (EventProgressImpl) progressOpt.get();
+        // ✅ OPTIMIZADO: Solo eventos con objetivo CRAFT_ITEM
+        forEachRelevantEvent(player, ObjectiveType.CRAFT_ITEM, (eventDef, progress) -> {
 
             eventDef.getObjectives().forEach(objective -> {
                 if (objective.getType() == ObjectiveType.CRAFT_ITEM) {
@@ -408,20 +372,7 @@ public class ObjectiveTracker implements Listener {
      * 3. Si está dentro del radio, completa el objetivo
      */
     public void checkReachLocationObjectives(Player player) {
-        plugin.getStorage().getAllEventDefinitions().values().forEach(eventDef -> {
-
-            var progressOpt = plugin.getStorage().getProgress(player.getUniqueId(), eventDef.getId());
-
-            if (progressOpt.isEmpty()) {
-                return;
-            }
-
-            EventProgressImpl progress = (EventProgressImpl) progressOpt.get();
-
-            if (progress.getState() != EventState.IN_PROGRESS) {
-                return;
-            }
-
+        forEachRelevantEvent(player, ObjectiveType.REACH_LOCATION, (eventDef, progress) -> {
             eventDef.getObjectives().forEach(objective -> {
                 if (objective.getType() == ObjectiveType.REACH_LOCATION) {
 
@@ -509,21 +460,7 @@ public class ObjectiveTracker implements Listener {
         String newDimension = getDimensionName(player.getWorld().getEnvironment());
 
         // ✅ OPTIMIZADO: Solo eventos con objetivo VISIT_DIMENSION
-        Set<String> relevantEvents = getRelevantActiveEvents(player.getUniqueId(), ObjectiveType.VISIT_DIMENSION);
-
-        if (relevantEvents.isEmpty()) {
-            return;
-        }
-
-        relevantEvents.forEach(eventId -> {
-            var eventDefOpt = plugin.getStorage().getEventDefinition(eventId);
-            if (eventDefOpt.isEmpty()) return;
-
-            var eventDef = eventDefOpt.get();
-            var progressOpt = plugin.getStorage().getProgress(player.getUniqueId(), eventId);
-            if (progressOpt.isEmpty()) return;
-
-            EventProgressImpl progress = (EventProgressImpl) progressOpt.get();
+        forEachRelevantEvent(player, ObjectiveType.VISIT_DIMENSION, (eventDef, progress) -> {
 
             eventDef.getObjectives().forEach(objective -> {
                 if (objective.getType() == ObjectiveType.VISIT_DIMENSION) {
@@ -568,21 +505,7 @@ public class ObjectiveTracker implements Listener {
         int newLevel = event.getNewLevel();
 
         // ✅ OPTIMIZADO: Solo eventos con objetivo REACH_LEVEL
-        Set<String> relevantEvents = getRelevantActiveEvents(player.getUniqueId(), ObjectiveType.REACH_LEVEL);
-
-        if (relevantEvents.isEmpty()) {
-            return;
-        }
-
-        relevantEvents.forEach(eventId -> {
-            var eventDefOpt = plugin.getStorage().getEventDefinition(eventId);
-            if (eventDefOpt.isEmpty()) return;
-
-            var eventDef = eventDefOpt.get();
-            var progressOpt = plugin.getStorage().getProgress(player.getUniqueId(), eventId);
-            if (progressOpt.isEmpty()) return;
-
-            EventProgressImpl progress = (EventProgressImpl) progressOpt.get();
+        forEachRelevantEvent(player, ObjectiveType.REACH_LEVEL, (eventDef, progress) -> {
 
             eventDef.getObjectives().forEach(objective -> {
                 if (objective.getType() == ObjectiveType.REACH_LEVEL) {
@@ -626,20 +549,7 @@ public class ObjectiveTracker implements Listener {
      * 3. Si coincide, completa el objetivo
      */
     public void checkVisitBiomeObjectives(Player player) {
-        plugin.getStorage().getAllEventDefinitions().values().forEach(eventDef -> {
-
-            var progressOpt = plugin.getStorage().getProgress(player.getUniqueId(), eventDef.getId());
-
-            if (progressOpt.isEmpty()) {
-                return;
-            }
-
-            EventProgressImpl progress = (EventProgressImpl) progressOpt.get();
-
-            if (progress.getState() != EventState.IN_PROGRESS) {
-                return;
-            }
-
+        forEachRelevantEvent(player, ObjectiveType.VISIT_BIOME, (eventDef, progress) -> {
             eventDef.getObjectives().forEach(objective -> {
                 if (objective.getType() == ObjectiveType.VISIT_BIOME) {
 
@@ -772,21 +682,7 @@ public class ObjectiveTracker implements Listener {
      */
     public void checkCollectObjectives(Player player) {
         // ✅ OPTIMIZADO: Solo eventos activos con objetivo COLLECT_ITEM
-        Set<String> relevantEvents = getRelevantActiveEvents(player.getUniqueId(), ObjectiveType.COLLECT_ITEM);
-
-        if (relevantEvents.isEmpty()) {
-            return; // No hay eventos con COLLECT_ITEM activos
-        }
-
-        relevantEvents.forEach(eventId -> {
-            var eventDefOpt = plugin.getStorage().getEventDefinition(eventId);
-            if (eventDefOpt.isEmpty()) return;
-
-            var eventDef = eventDefOpt.get();
-            var progressOpt = plugin.getStorage().getProgress(player.getUniqueId(), eventId);
-            if (progressOpt.isEmpty()) return;
-
-            EventProgressImpl progress = (EventProgressImpl) progressOpt.get();
+        forEachRelevantEvent(player, ObjectiveType.COLLECT_ITEM, (eventDef, progress) -> {
 
             eventDef.getObjectives().forEach(objective -> {
                 if (objective.getType() == ObjectiveType.COLLECT_ITEM) {
@@ -842,21 +738,7 @@ public class ObjectiveTracker implements Listener {
         String blockType = event.getClickedBlock().getType().getKey().toString();
 
         // ✅ OPTIMIZADO: Solo eventos con objetivo INTERACT
-        Set<String> relevantEvents = getRelevantActiveEvents(player.getUniqueId(), ObjectiveType.INTERACT);
-
-        if (relevantEvents.isEmpty()) {
-            return;
-        }
-
-        relevantEvents.forEach(eventId -> {
-            var eventDefOpt = plugin.getStorage().getEventDefinition(eventId);
-            if (eventDefOpt.isEmpty()) return;
-
-            var eventDef = eventDefOpt.get();
-            var progressOpt = plugin.getStorage().getProgress(player.getUniqueId(), eventId);
-            if (progressOpt.isEmpty()) return;
-
-            EventProgressImpl progress = (EventProgressImpl) progressOpt.get();
+        forEachRelevantEvent(player, ObjectiveType.INTERACT, (eventDef, progress) -> {
 
             eventDef.getObjectives().forEach(objective -> {
                 if (objective.getType() == ObjectiveType.INTERACT) {
@@ -902,21 +784,7 @@ public class ObjectiveTracker implements Listener {
         String entityType = event.getRightClicked().getType().getKey().toString();
 
         // ✅ OPTIMIZADO: Solo eventos con objetivo INTERACT
-        Set<String> relevantEvents = getRelevantActiveEvents(player.getUniqueId(), ObjectiveType.INTERACT);
-
-        if (relevantEvents.isEmpty()) {
-            return;
-        }
-
-        relevantEvents.forEach(eventId -> {
-            var eventDefOpt = plugin.getStorage().getEventDefinition(eventId);
-            if (eventDefOpt.isEmpty()) return;
-
-            var eventDef = eventDefOpt.get();
-            var progressOpt = plugin.getStorage().getProgress(player.getUniqueId(), eventId);
-            if (progressOpt.isEmpty()) return;
-
-            EventProgressImpl progress = (EventProgressImpl) progressOpt.get();
+        forEachRelevantEvent(player, ObjectiveType.INTERACT, (eventDef, progress) -> {
 
             eventDef.getObjectives().forEach(objective -> {
                 if (objective.getType() == ObjectiveType.INTERACT) {
@@ -965,21 +833,7 @@ public class ObjectiveTracker implements Listener {
         String entityType = event.getEntity().getType().getKey().toString();
 
         // ✅ OPTIMIZADO: Solo eventos con objetivo TAME_ENTITY
-        Set<String> relevantEvents = getRelevantActiveEvents(player.getUniqueId(), ObjectiveType.TAME_ENTITY);
-
-        if (relevantEvents.isEmpty()) {
-            return;
-        }
-
-        relevantEvents.forEach(eventId -> {
-            var eventDefOpt = plugin.getStorage().getEventDefinition(eventId);
-            if (eventDefOpt.isEmpty()) return;
-
-            var eventDef = eventDefOpt.get();
-            var progressOpt = plugin.getStorage().getProgress(player.getUniqueId(), eventId);
-            if (progressOpt.isEmpty()) return;
-
-            EventProgressImpl progress = (EventProgressImpl) progressOpt.get();
+        forEachRelevantEvent(player, ObjectiveType.TAME_ENTITY, (eventDef, progress) -> {
 
             eventDef.getObjectives().forEach(objective -> {
                 if (objective.getType() == ObjectiveType.TAME_ENTITY) {
@@ -1028,21 +882,7 @@ public class ObjectiveTracker implements Listener {
         String entityType = event.getEntity().getType().getKey().toString();
 
         // ✅ OPTIMIZADO: Solo eventos con objetivo BREED_ENTITY
-        Set<String> relevantEvents = getRelevantActiveEvents(player.getUniqueId(), ObjectiveType.BREED_ENTITY);
-
-        if (relevantEvents.isEmpty()) {
-            return;
-        }
-
-        relevantEvents.forEach(eventId -> {
-            var eventDefOpt = plugin.getStorage().getEventDefinition(eventId);
-            if (eventDefOpt.isEmpty()) return;
-
-            var eventDef = eventDefOpt.get();
-            var progressOpt = plugin.getStorage().getProgress(player.getUniqueId(), eventId);
-            if (progressOpt.isEmpty()) return;
-
-            EventProgressImpl progress = (EventProgressImpl) progressOpt.get();
+        forEachRelevantEvent(player, ObjectiveType.BREED_ENTITY, (eventDef, progress) -> {
 
             eventDef.getObjectives().forEach(objective -> {
                 if (objective.getType() == ObjectiveType.BREED_ENTITY) {
@@ -1088,21 +928,7 @@ public class ObjectiveTracker implements Listener {
         int amount = event.getItemAmount();
 
         // ✅ OPTIMIZADO: Solo eventos con objetivo SMELT_ITEM
-        Set<String> relevantEvents = getRelevantActiveEvents(player.getUniqueId(), ObjectiveType.SMELT_ITEM);
-
-        if (relevantEvents.isEmpty()) {
-            return;
-        }
-
-        relevantEvents.forEach(eventId -> {
-            var eventDefOpt = plugin.getStorage().getEventDefinition(eventId);
-            if (eventDefOpt.isEmpty()) return;
-
-            var eventDef = eventDefOpt.get();
-            var progressOpt = plugin.getStorage().getProgress(player.getUniqueId(), eventId);
-            if (progressOpt.isEmpty()) return;
-
-            EventProgressImpl progress = (EventProgressImpl) progressOpt.get();
+        forEachRelevantEvent(player, ObjectiveType.SMELT_ITEM, (eventDef, progress) -> {
 
             eventDef.getObjectives().forEach(objective -> {
                 if (objective.getType() == ObjectiveType.SMELT_ITEM) {
@@ -1147,21 +973,7 @@ public class ObjectiveTracker implements Listener {
         String itemType = event.getItem().getType().getKey().toString();
 
         // ✅ OPTIMIZADO: Solo eventos con objetivo CONSUME_ITEM
-        Set<String> relevantEvents = getRelevantActiveEvents(player.getUniqueId(), ObjectiveType.CONSUME_ITEM);
-
-        if (relevantEvents.isEmpty()) {
-            return;
-        }
-
-        relevantEvents.forEach(eventId -> {
-            var eventDefOpt = plugin.getStorage().getEventDefinition(eventId);
-            if (eventDefOpt.isEmpty()) return;
-
-            var eventDef = eventDefOpt.get();
-            var progressOpt = plugin.getStorage().getProgress(player.getUniqueId(), eventId);
-            if (progressOpt.isEmpty()) return;
-
-            EventProgressImpl progress = (EventProgressImpl) progressOpt.get();
+        forEachRelevantEvent(player, ObjectiveType.CONSUME_ITEM, (eventDef, progress) -> {
 
             eventDef.getObjectives().forEach(objective -> {
                 if (objective.getType() == ObjectiveType.CONSUME_ITEM) {
@@ -1222,9 +1034,8 @@ public class ObjectiveTracker implements Listener {
         }
 
         // ✅ OPTIMIZADO: Solo eventos con objetivo BREW_POTION
-        Set<String> relevantEvents = getRelevantActiveEvents(player.getUniqueId(), ObjectiveType.BREW_POTION);
-
-        if (relevantEvents.isEmpty()) {
+        if (!hasRelevantActiveEvents(plugin.getSessionRegistry().slotOf(player.getUniqueId()),
+                ObjectiveType.BREW_POTION)) {
             return;
         }
 
@@ -1247,15 +1058,7 @@ public class ObjectiveTracker implements Listener {
                     if (meta != null && meta.getBasePotionType() != null) {
                         String potionType = meta.getBasePotionType().name().toLowerCase();
 
-                        relevantEvents.forEach(eventId -> {
-                            var eventDefOpt = plugin.getStorage().getEventDefinition(eventId);
-                            if (eventDefOpt.isEmpty()) return;
-
-                            var eventDef = eventDefOpt.get();
-                            var progressOpt = plugin.getStorage().getProgress(finalPlayer.getUniqueId(), eventId);
-                            if (progressOpt.isEmpty()) return;
-
-                            EventProgressImpl progress = (EventProgressImpl) progressOpt.get();
+                        forEachRelevantEvent(finalPlayer, ObjectiveType.BREW_POTION, (eventDef, progress) -> {
 
                             eventDef.getObjectives().forEach(objective -> {
                                 if (objective.getType() == ObjectiveType.BREW_POTION) {
@@ -1308,21 +1111,7 @@ public class ObjectiveTracker implements Listener {
         double damage = event.getFinalDamage();
 
         // ✅ OPTIMIZADO: Solo eventos con objetivo DAMAGE_ENTITY
-        Set<String> relevantEvents = getRelevantActiveEvents(player.getUniqueId(), ObjectiveType.DAMAGE_ENTITY);
-
-        if (relevantEvents.isEmpty()) {
-            return;
-        }
-
-        relevantEvents.forEach(eventId -> {
-            var eventDefOpt = plugin.getStorage().getEventDefinition(eventId);
-            if (eventDefOpt.isEmpty()) return;
-
-            var eventDef = eventDefOpt.get();
-            var progressOpt = plugin.getStorage().getProgress(player.getUniqueId(), eventId);
-            if (progressOpt.isEmpty()) return;
-
-            EventProgressImpl progress = (EventProgressImpl) progressOpt.get();
+        forEachRelevantEvent(player, ObjectiveType.DAMAGE_ENTITY, (eventDef, progress) -> {
 
             eventDef.getObjectives().forEach(objective -> {
                 if (objective.getType() == ObjectiveType.DAMAGE_ENTITY) {
@@ -1369,21 +1158,7 @@ public class ObjectiveTracker implements Listener {
         String itemType = enchantedItem.getType().getKey().toString();
 
         // ✅ OPTIMIZADO: Solo eventos con objetivo ENCHANT_ITEM
-        Set<String> relevantEvents = getRelevantActiveEvents(player.getUniqueId(), ObjectiveType.ENCHANT_ITEM);
-
-        if (relevantEvents.isEmpty()) {
-            return;
-        }
-
-        relevantEvents.forEach(eventId -> {
-            var eventDefOpt = plugin.getStorage().getEventDefinition(eventId);
-            if (eventDefOpt.isEmpty()) return;
-
-            var eventDef = eventDefOpt.get();
-            var progressOpt = plugin.getStorage().getProgress(player.getUniqueId(), eventId);
-            if (progressOpt.isEmpty()) return;
-
-            EventProgressImpl progress = (EventProgressImpl) progressOpt.get();
+        forEachRelevantEvent(player, ObjectiveType.ENCHANT_ITEM, (eventDef, progress) -> {
 
             eventDef.getObjectives().forEach(objective -> {
                 if (objective.getType() == ObjectiveType.ENCHANT_ITEM) {
@@ -1427,21 +1202,7 @@ public class ObjectiveTracker implements Listener {
         String advancementKey = event.getAdvancement().getKey().toString();
 
         // ✅ OPTIMIZADO: Solo eventos con objetivo UNLOCK_ADVANCEMENT
-        Set<String> relevantEvents = getRelevantActiveEvents(player.getUniqueId(), ObjectiveType.UNLOCK_ADVANCEMENT);
-
-        if (relevantEvents.isEmpty()) {
-            return;
-        }
-
-        relevantEvents.forEach(eventId -> {
-            var eventDefOpt = plugin.getStorage().getEventDefinition(eventId);
-            if (eventDefOpt.isEmpty()) return;
-
-            var eventDef = eventDefOpt.get();
-            var progressOpt = plugin.getStorage().getProgress(player.getUniqueId(), eventId);
-            if (progressOpt.isEmpty()) return;
-
-            EventProgressImpl progress = (EventProgressImpl) progressOpt.get();
+        forEachRelevantEvent(player, ObjectiveType.UNLOCK_ADVANCEMENT, (eventDef, progress) -> {
 
             eventDef.getObjectives().forEach(objective -> {
                 if (objective.getType() == ObjectiveType.UNLOCK_ADVANCEMENT) {
@@ -1490,25 +1251,15 @@ public class ObjectiveTracker implements Listener {
 
         Player player = event.getPlayer();
         org.bukkit.Chunk chunk = event.getTo().getChunk();
+        int slot = plugin.getSessionRegistry().slotOf(player.getUniqueId());
 
         // ========== VISIT_STRUCTURE ==========
         java.util.Collection<org.bukkit.generator.structure.GeneratedStructure> structures =
                 chunk.getStructures();
 
         if (!structures.isEmpty()) {
-            Set<String> relevantStructureEvents = getRelevantActiveEvents(
-                    player.getUniqueId(), ObjectiveType.VISIT_STRUCTURE);
-
-            if (!relevantStructureEvents.isEmpty()) {
-                relevantStructureEvents.forEach(eventId -> {
-                    var eventDefOpt = plugin.getStorage().getEventDefinition(eventId);
-                    if (eventDefOpt.isEmpty()) return;
-
-                    var eventDef = eventDefOpt.get();
-                    var progressOpt = plugin.getStorage().getProgress(player.getUniqueId(), eventId);
-                    if (progressOpt.isEmpty()) return;
-
-                    EventProgressImpl progress = (EventProgressImpl) progressOpt.get();
+            if (hasRelevantActiveEvents(slot, ObjectiveType.VISIT_STRUCTURE)) {
+                forEachRelevantEvent(slot, ObjectiveType.VISIT_STRUCTURE, (eventDef, progress) -> {
 
                     eventDef.getObjectives().forEach(objective -> {
                         if (objective.getType() == ObjectiveType.VISIT_STRUCTURE) {
@@ -1552,19 +1303,8 @@ public class ObjectiveTracker implements Listener {
         // ========== VISIT_BIOME ==========
         String currentBiome = player.getLocation().getBlock().getBiome().getKey().toString();
 
-        Set<String> relevantBiomeEvents = getRelevantActiveEvents(
-                player.getUniqueId(), ObjectiveType.VISIT_BIOME);
-
-        if (!relevantBiomeEvents.isEmpty()) {
-            relevantBiomeEvents.forEach(eventId -> {
-                var eventDefOpt = plugin.getStorage().getEventDefinition(eventId);
-                if (eventDefOpt.isEmpty()) return;
-
-                var eventDef = eventDefOpt.get();
-                var progressOpt = plugin.getStorage().getProgress(player.getUniqueId(), eventId);
-                if (progressOpt.isEmpty()) return;
-
-                EventProgressImpl progress = (EventProgressImpl) progressOpt.get();
+        if (hasRelevantActiveEvents(slot, ObjectiveType.VISIT_BIOME)) {
+            forEachRelevantEvent(slot, ObjectiveType.VISIT_BIOME, (eventDef, progress) -> {
 
                 eventDef.getObjectives().forEach(objective -> {
                     if (objective.getType() == ObjectiveType.VISIT_BIOME) {
@@ -1609,20 +1349,16 @@ public class ObjectiveTracker implements Listener {
      * @param amount Cantidad a incrementar
      */
     public void triggerCustomObjective(Player player, String customObjectiveId, int amount) {
-        plugin.getStorage().getAllEventDefinitions().values().forEach(eventDef -> {
-
-            var progressOpt = plugin.getStorage().getProgress(player.getUniqueId(), eventDef.getId());
-
-            if (progressOpt.isEmpty()) {
-                return;
-            }
-
-            EventProgressImpl progress = (EventProgressImpl) progressOpt.get();
+        CommunityGoalManager communityGoals = plugin.getCommunityGoals();
+        if (communityGoals.tracks(ObjectiveType.CUSTOM)) {
+            communityGoals.contribute(player.getUniqueId(), ObjectiveType.CUSTOM, customObjectiveId, amount);
+        }
 
-            if (progress.getState() != EventState.IN_PROGRESS) {
-                return;
-            }
+        // Solo eventos con un objetivo CUSTOM con este custom_id (índice del registro)
+        DefinitionRegistry registry = plugin.getStorage().getRegistry();
+        int slot = plugin.getSessionRegistry().slotOf(player.getUniqueId());
 
+        forEachActiveEvent(slot, registry, registry.eventsWithCustomId(customObjectiveId), (eventDef, progress) -> {
             eventDef.getObjectives().forEach(objective -> {
                 if (objective.getType() == ObjectiveType.CUSTOM) {
 
@@ -1682,8 +1418,8 @@ public class ObjectiveTracker implements Listener {
     // UBICACIÓN: ObjectiveTracker.java (línea ~100, aprox)
     private void checkEventCompletion(Player player, EventDefinitionImpl eventDef, EventProgressImpl progress) {
 
-        if (progress.areAllObjectivesCompleted()) {
-            progress.complete();
+        // complete() es un CAS: si dos hilos llegan aquí a la vez, solo uno entrega recompensas
+        if (progress.areAllObjectivesCompleted() && progress.complete()) {
 
             // ✅ NUEVO: Desregistrar evento activo
             unregisterActiveEvent(player.getUniqueId(), eventDef.getId());
@@ -1691,8 +1427,8 @@ public class ObjectiveTracker implements Listener {
             player.sendMessage("§6§l✔ EVENT COMPLETED: " + eventDef.getDisplayName());
             player.playSound(player.getLocation(), Sound.UI_TOAST_CHALLENGE_COMPLETE, 1.0f, 1.0f);
 
-            // Otorgar rewards
-            plugin.getRewardManager().giveRewards(player, eventDef);
+            // Recompensas: se encolan y se entregan en los próximos ticks (RewardDelivery)
+            plugin.getRewardManager().giveRewards(player, eventDef, progress.getCompletedAt());
 
             // Notificar al cliente
             plugin.getEventBridge().notifyStateChange(
@@ -1700,57 +1436,95 @@ public class ObjectiveTracker implements Listener {
                     eventDef.getId(),
                     EventState.COMPLETED
             );
+
+            // Clasificaciones: O(log K), antes de compactar (se leen las cantidades de los objetivos)
+            plugin.getLeaderboards().onCompleted(progress);
+
+            // Compactar: solo se conservan estado y momento de completado
+            plugin.getStorage().compactProgress(player.getUniqueId(), eventDef.getId());
         }
     }
     /**
-     * Construye un índice de qué eventos contienen qué tipos de objetivos.
-     * Esto permite filtrar rápidamente qué eventos revisar según el evento de Bukkit.
+     * Completa los eventos en curso del jugador que ya tienen todos sus objetivos cumplidos
+     * (p. ej. un reload bajó un target o quitó un objetivo). Sin efecto si está offline:
+     * se vuelve a revisar al entrar.
      */
-    public void buildObjectiveTypeIndex() {
-        eventsByObjectiveType.clear();
+    public void recheckCompletions(UUID playerId) {
+        Player player = plugin.getServer().getPlayer(playerId);
+        int slot = plugin.getSessionRegistry().slotOf(playerId);
+        long[] active = activeWords(slot);
+        if (player == null || active == null) {
+            return;
+        }
 
-        plugin.getStorage().getAllEventDefinitions().values().forEach(eventDef -> {
-            eventDef.getObjectives().forEach(objective -> {
-                eventsByObjectiveType
-                        .computeIfAbsent(objective.getType(), k -> ConcurrentHashMap.newKeySet())
-                        .add(eventDef.getId());
-            });
+        forEachActiveEvent(slot, plugin.getStorage().getRegistry(), active, (eventDef, progress) -> {
+            if (progress.areAllObjectivesCompleted()) {
+                checkEventCompletion(player, (EventDefinitionImpl) eventDef, progress);
+            }
         });
-
-        LOGGER.info("Built objective type index: " + eventsByObjectiveType.size() + " types indexed");
     }
 
     /**
      * Registra que un jugador tiene un evento activo.
      * Llamar cuando un evento pasa a IN_PROGRESS.
+     * Jugadores offline se ignoran: su índice se carga al entrar (loadActiveEvents).
      */
     public void registerActiveEvent(UUID playerId, String eventId) {
-        activeEventsByPlayer
-                .computeIfAbsent(playerId, k -> ConcurrentHashMap.newKeySet())
-                .add(eventId);
+        int slot = plugin.getSessionRegistry().slotOf(playerId);
+        int eventIndex = plugin.getStorage().getEventIndex().indexOf(eventId);
+        if (slot >= 0 && eventIndex >= 0) {
+            setActive(slot, eventIndex, true);
+        }
     }
+
     /**
-     * Inicializa el índice de eventos activos cargando todos los progresos IN_PROGRESS.
+     * Inicializa el índice de eventos activos cargando todos los progresos IN_PROGRESS
+     * de los jugadores online.
      * Llamar al cargar el plugin.
      */
     public void initializeActiveEventsIndex() {
-        activeEventsByPlayer.clear();
-
-        // Obtener todos los progresos guardados
-        Map<UUID, Map<String, EventProgressImpl>> allProgress = plugin.getStorage().getAllProgress();
-
-        // Iterar sobre todos los jugadores
-        allProgress.forEach((playerId, progressMap) -> {
-            // Iterar sobre todos los eventos del jugador
-            progressMap.forEach((eventId, progress) -> {
-                // Solo registrar si está IN_PROGRESS
-                if (progress.getState() == EventState.IN_PROGRESS) {
-                    registerActiveEvent(playerId, eventId);
-                }
-            });
-        });
+        SessionRegistry sessions = plugin.getSessionRegistry();
 
-        LOGGER.info("Initialized active events index: " + activeEventsByPlayer.size() + " players with active events");
+        synchronized (this) {
+            activeBySlot = new long[0][];
+        }
+
+        int players = 0;
+        for (int slot = 0; slot < sessions.capacity(); slot++) {
+            if (sessions.playerAt(slot) != null) {
+                loadActiveEvents(slot);
+                players++;
+            }
+        }
+
+        LOGGER.info("Initialized active events index: " + players + " online players indexed");
+    }
+
+    /**
+     * Carga el bitset de eventos activos de un slot desde su progreso vivo.
+     * Llamar al entrar el jugador (después de EventStorage.attachSession).
+     */
+    public void loadActiveEvents(int slot) {
+        EventStorage storage = plugin.getStorage();
+        int eventCount = storage.getEventIndex().size();
+        long[] bits = new long[wordsFor(eventCount)];
+
+        for (int eventIndex = 0; eventIndex < eventCount; eventIndex++) {
+            EventProgressImpl progress = storage.getProgress(slot, eventIndex);
+            if (progress != null && progress.getState() == EventState.IN_PROGRESS) {
+                bits[eventIndex >>> 6] |= 1L << eventIndex;
+            }
+        }
+
+        publishSlot(slot, bits);
+    }
+
+    /**
+     * Descarta el bitset de eventos activos de un slot.
+     * Llamar al salir el jugador (antes de liberar el slot).
+     */
+    public void clearActiveEvents(int slot) {
+        publishSlot(slot, null);
     }
 
     /**
@@ -1758,40 +1532,140 @@ public class ObjectiveTracker implements Listener {
      * Llamar cuando un evento pasa a COMPLETED o LOCKED.
      */
     public void unregisterActiveEvent(UUID playerId, String eventId) {
-        Set<String> activeEvents = activeEventsByPlayer.get(playerId);
-        if (activeEvents != null) {
-            activeEvents.remove(eventId);
-            if (activeEvents.isEmpty()) {
-                activeEventsByPlayer.remove(playerId);
-            }
+        int slot = plugin.getSessionRegistry().slotOf(playerId);
+        int eventIndex = plugin.getStorage().getEventIndex().indexOf(eventId);
+        if (slot >= 0 && eventIndex >= 0) {
+            setActive(slot, eventIndex, false);
         }
     }
 
     /**
      * Obtiene los IDs de eventos activos para un jugador que contienen un tipo de objetivo específico.
+     * API de borde (comandos/otros sistemas); los listeners usan forEachRelevantEvent.
      */
     public Set<String> getRelevantActiveEvents(UUID playerId, ObjectiveType objectiveType) {
-        Set<String> playerActiveEvents = activeEventsByPlayer.get(playerId);
-        if (playerActiveEvents == null || playerActiveEvents.isEmpty()) {
-            return Set.of(); // No hay eventos activos
+        int slot = plugin.getSessionRegistry().slotOf(playerId);
+        Set<String> relevant = new HashSet<>();
+        forEachRelevantEvent(slot, objectiveType, (eventDef, progress) -> relevant.add(eventDef.getId()));
+        return relevant;
+    }
+
+    /**
+     * Verifica si el slot tiene algún evento activo con el tipo de objetivo (intersección de bitsets).
+     */
+    public boolean hasRelevantActiveEvents(int slot, ObjectiveType objectiveType) {
+        long[] active = activeWords(slot);
+        long[] typed = plugin.getStorage().getRegistry().eventsWithObjectiveType(objectiveType);
+        if (active == null || typed == null) {
+            return false;
         }
 
-        Set<String> eventsWithObjectiveType = eventsByObjectiveType.get(objectiveType);
-        if (eventsWithObjectiveType == null || eventsWithObjectiveType.isEmpty()) {
-            return Set.of(); // No hay eventos con este tipo de objetivo
+        int words = Math.min(active.length, typed.length);
+        for (int w = 0; w < words; w++) {
+            if ((active[w] & typed[w]) != 0) {
+                return true;
+            }
         }
+        return false;
+    }
 
-        // Intersección: eventos activos del jugador que contienen este tipo de objetivo
-        Set<String> relevant = new HashSet<>(playerActiveEvents);
-        relevant.retainAll(eventsWithObjectiveType);
-        return relevant;
+    /**
+     * Recorre los eventos IN_PROGRESS del jugador que contienen el tipo de objetivo.
+     */
+    private void forEachRelevantEvent(Player player, ObjectiveType objectiveType,
+                                      BiConsumer<EventDefinition, EventProgressImpl> action) {
+        forEachRelevantEvent(plugin.getSessionRegistry().slotOf(player.getUniqueId()), objectiveType, action);
     }
 
     /**
-     * Reconstruye el índice (llamar cuando se recarguen eventos).
+     * Recorre los eventos IN_PROGRESS de un slot que contienen el tipo de objetivo.*
+     * FLUJO:
+     * 1. Intersecta (AND) el bitset activo del slot con el bitset del tipo
+     * 2. Cada bit encendido es un índice denso → definición y progreso por acceso a array
+     * 3. Se revalida IN_PROGRESS (el snapshot puede quedar atrás si la acción completa el evento)
      */
-    public void rebuildIndex() {
-        buildObjectiveTypeIndex();
+    private void forEachRelevantEvent(int slot, ObjectiveType objectiveType,
+                                      BiConsumer<EventDefinition, EventProgressImpl> action) {
+        DefinitionRegistry registry = plugin.getStorage().getRegistry();
+        forEachActiveEvent(slot, registry, registry.eventsWithObjectiveType(objectiveType), action);
+    }
+
+    /**
+     * Recorre los eventos IN_PROGRESS de un slot que además están en el bitset de candidatos.
+     * Todas las definiciones se leen del MISMO snapshot del registro.
+     */
+    private void forEachActiveEvent(int slot, DefinitionRegistry registry, long[] candidates,
+                                    BiConsumer<EventDefinition, EventProgressImpl> action) {
+        long[] active = activeWords(slot);
+        if (active == null || candidates == null) {
+            return;
+        }
+
+        EventStorage storage = plugin.getStorage();
+        int words = Math.min(active.length, candidates.length);
+
+        for (int w = 0; w < words; w++) {
+            long bits = active[w] & candidates[w];
+
+            while (bits != 0) {
+                int eventIndex = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+
+                EventDefinition eventDef = registry.get(eventIndex);
+                EventProgressImpl progress = storage.getProgress(slot, eventIndex);
+
+                if (eventDef != null && progress != null && progress.getState() == EventState.IN_PROGRESS) {
+                    action.accept(eventDef, progress);
+                }
+            }
+        }
+    }
+
+    private long[] activeWords(int slot) {
+        long[][] bySlot = activeBySlot;
+        return slot >= 0 && slot < bySlot.length ? bySlot[slot] : null;
+    }
+
+    /**
+     * Enciende/apaga un bit del slot. Copy-on-write: los lectores nunca ven un array a medio escribir.
+     */
+    private synchronized void setActive(int slot, int eventIndex, boolean active) {
+        long[] current = activeWords(slot);
+        int word = eventIndex >>> 6;
+
+        if (!active && (current == null || word >= current.length)) {
+            return; // Nada que apagar
+        }
+
+        long[] bits = current == null
+                ? new long[word + 1]
+                : Arrays.copyOf(current, Math.max(current.length, word + 1));
+
+        if (active) {
+            bits[word] |= 1L << eventIndex;
+        } else {
+            bits[word] &= ~(1L << eventIndex);
+        }
+
+        publishSlot(slot, bits);
+    }
+
+    private synchronized void publishSlot(int slot, long[] bits) {
+        long[][] bySlot = activeBySlot;
+        if (slot >= bySlot.length) {
+            if (bits == null) {
+                return;
+            }
+            bySlot = Arrays.copyOf(bySlot, Math.max(slot + 1, bySlot.length * 2));
+        } else {
+            bySlot = bySlot.clone();
+        }
+        bySlot[slot] = bits;
+        activeBySlot = bySlot;
+    }
+
+    private static int wordsFor(int bitCount) {
+        return (bitCount + 63) >>> 6;
     }
 
 }
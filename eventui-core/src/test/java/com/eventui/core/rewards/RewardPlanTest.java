@@ -0,0 +1,77 @@
+package com.eventui.core.rewards;
+
+import com.eventui.core.event.EventDefinitionImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Botín reproducible: la misma completación (jugador, evento, completedAt) da el mismo paquete.
+ * Solo XP y comandos: los ítems necesitan un servidor (registro de materiales).
+ */
+class RewardPlanTest {
+
+    private static final String REWARDS = """
+            {"xp": 10, "commands": ["say {player} done"],
+             "loot": {"rolls": 3, "entries": [
+               {"weight": 30, "xp": 5},
+               {"weight": 20, "command": "eco give {player} 100"},
+               {"weight": 10, "xp": 50, "command": "title {player} jackpot"},
+               {"weight": 40}
+             ]}}""";
+
+    private static RewardPlan plan() {
+        EventDefinitionImpl definition = new EventDefinitionImpl("loot_test", "Loot", "", List.of(),
+                Map.of(), Map.of("rewards_data", REWARDS), List.of());
+        return RewardPlan.compile(definition, problem -> {
+            throw new AssertionError("Unexpected reward problem: " + problem);
+        });
+    }
+
+    @Test
+    void sameSeedGivesSameParcel() {
+        RewardPlan plan = plan();
+        UUID playerId = UUID.fromString("5b2c9c5e-8f1a-4c8e-9d3f-0a1b2c3d4e5f");
+
+        for (long completedAt = 1_700_000_000_000L; completedAt < 1_700_000_000_050L; completedAt++) {
+            long seed = RewardPlan.lootSeed(playerId, "loot_test", completedAt);
+            assertEquals(seed, RewardPlan.lootSeed(playerId, "loot_test", completedAt));
+
+            RewardParcel first = plan.parcel("loot_test", "Steve", new SplittableRandom(seed));
+            RewardParcel second = plan.parcel("loot_test", "Steve", new SplittableRandom(seed));
+            assertEquals(first, second);
+        }
+    }
+
+    @Test
+    void differentCompletionsRollDifferently() {
+        RewardPlan plan = plan();
+        UUID playerId = UUID.randomUUID();
+
+        RewardParcel reference = plan.parcel("loot_test", "Steve",
+                new SplittableRandom(RewardPlan.lootSeed(playerId, "loot_test", 0L)));
+        boolean anyDifferent = false;
+        for (long completedAt = 1; completedAt <= 50 && !anyDifferent; completedAt++) {
+            RewardParcel other = plan.parcel("loot_test", "Steve",
+                    new SplittableRandom(RewardPlan.lootSeed(playerId, "loot_test", completedAt)));
+            anyDifferent = !other.equals(reference);
+        }
+        assertTrue(anyDifferent, "50 completions all rolled the same loot");
+        assertNotEquals(RewardPlan.lootSeed(playerId, "loot_test", 1L), RewardPlan.lootSeed(playerId, "loot_test", 2L));
+    }
+
+    @Test
+    void guaranteedRewardsAlwaysPresent() {
+        RewardParcel parcel = plan().parcel("loot_test", "Steve", new SplittableRandom(7));
+
+        assertTrue(parcel.xp() >= 10);
+        assertEquals("say Steve done", parcel.commands().get(0));
+    }
+}
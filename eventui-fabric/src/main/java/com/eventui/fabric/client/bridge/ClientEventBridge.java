@@ -223,6 +223,17 @@ public class ClientEventBridge implements EventBridge {
 
             QuestTrackerHUD.forceUpdate();
         });
+
+        // Handler para totales de metas comunitarias (aún sin pantalla propia)
+        registerMessageHandler(MessageType.COMMUNITY_GOAL_UPDATE, message -> {
+            LOGGER.debug("Community goals update: {}", message.getPayload().get("goals"));
+        });
+
+        // Handler para clasificaciones (aún sin pantalla propia)
+        registerMessageHandler(MessageType.LEADERBOARD_RESPONSE, message -> {
+            LOGGER.debug("Leaderboard {} of {}: {}", message.getPayload().get("board"),
+                    message.getPayload().get("event_id"), message.getPayload().get("entries"));
+        });
     }
 
 
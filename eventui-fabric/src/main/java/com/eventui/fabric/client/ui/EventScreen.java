@@ -1513,6 +1513,10 @@ public class EventScreen extends Screen {
                 }
             }
 
+            if (rewards.containsKey("loot")) {
+                parts.add("Random loot");
+            }
+
             return String.join(" • ", parts);
 
         } catch (Exception e) {